@@ -0,0 +1,132 @@
+package com.samsung.sensorapp.manager;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.ui.FrameJankMonitor;
+import com.samsung.sensorapp.ui.SensorUiCoalescer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * On-device comparison of main-looper and dispatch-thread sensor delivery
+ * Each mode runs the same workload: the motion sensors at the fastest rate with a
+ * listener doing a fixed amount of work per event, and coalesced UI updates.
+ * Results are written to logcat under the DispatchModeLatency tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DispatchModeLatencyTest {
+    private static final String TAG = "DispatchModeLatency";
+    private static final long RUN_DURATION_MS = 5_000;
+    private static final long WORK_PER_EVENT_NS = 200_000;
+    private static final int[] SENSOR_TYPES = {
+            Sensor.TYPE_ACCELEROMETER,
+            Sensor.TYPE_GYROSCOPE,
+            Sensor.TYPE_MAGNETIC_FIELD
+    };
+
+    @Test
+    public void compareDispatchModes() {
+        Result mainLooper = run(SensorDataManager.DispatchMode.MAIN_LOOPER);
+        Result dispatchThreads = run(SensorDataManager.DispatchMode.DISPATCH_THREADS);
+
+        Log.i(TAG, "MAIN_LOOPER      " + mainLooper);
+        Log.i(TAG, "DISPATCH_THREADS " + dispatchThreads);
+        assertTrue(mainLooper.events > 0);
+        assertTrue(dispatchThreads.events > 0);
+    }
+
+    private Result run(SensorDataManager.DispatchMode mode) {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        SensorDataManager manager = new SensorDataManager(context, mode,
+                SensorDataManager.DEFAULT_DISPATCH_THREAD_COUNT);
+        LatencyHistogram uiLatency = new LatencyHistogram();
+        SensorUiCoalescer[] coalescerHolder = new SensorUiCoalescer[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() ->
+                coalescerHolder[0] = new SensorUiCoalescer((latest, count) -> {
+                    long now = SystemClock.elapsedRealtimeNanos();
+                    for (int i = 0; i < count; i++) {
+                        uiLatency.record(now - latest[i].getTimestamp());
+                    }
+                }));
+        SensorUiCoalescer coalescer = coalescerHolder[0];
+        FrameJankMonitor jankMonitor = new FrameJankMonitor();
+        Result result = new Result();
+
+        SensorEventListener listener = new SensorEventListener() {
+            @Override
+            public void onSensorDataChanged(SensorData sensorData) {
+                long end = SystemClock.elapsedRealtimeNanos() + WORK_PER_EVENT_NS;
+                while (SystemClock.elapsedRealtimeNanos() < end) {
+                    // Simulated per-event processing
+                }
+                coalescer.submit(sensorData);
+            }
+
+            @Override
+            public void onSensorAccuracyChanged(int accuracy) {
+            }
+
+            @Override
+            public void onSensorError(String errorMessage) {
+            }
+        };
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(jankMonitor::start);
+        manager.setDispatchLatencyTracking(true);
+        for (int sensorType : SENSOR_TYPES) {
+            if (manager.isSensorAvailable(sensorType)) {
+                manager.registerListener(sensorType, listener, SensorManager.SENSOR_DELAY_FASTEST);
+            }
+        }
+        SystemClock.sleep(RUN_DURATION_MS);
+        manager.shutdown();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(jankMonitor::stop);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        LatencyHistogram dispatchLatency = manager.getDispatchLatency();
+        result.events = dispatchLatency.getCount();
+        result.dispatchP50Us = dispatchLatency.getPercentile(50) / 1000;
+        result.dispatchP99Us = dispatchLatency.getPercentile(99) / 1000;
+        result.uiP50Us = uiLatency.getPercentile(50) / 1000;
+        result.uiP99Us = uiLatency.getPercentile(99) / 1000;
+        result.uiUpdates = coalescer.getFrameCount();
+        result.frames = jankMonitor.getFrameCount();
+        result.jankyFrames = jankMonitor.getJankyFrameCount();
+        result.maxFrameMs = jankMonitor.getMaxFrameIntervalNs() / 1_000_000;
+        return result;
+    }
+
+    private static class Result {
+        long events;
+        long dispatchP50Us;
+        long dispatchP99Us;
+        long uiP50Us;
+        long uiP99Us;
+        long uiUpdates;
+        long frames;
+        long jankyFrames;
+        long maxFrameMs;
+
+        @Override
+        public String toString() {
+            return "events=" + events
+                    + " dispatch p50/p99=" + dispatchP50Us + "/" + dispatchP99Us + "us"
+                    + " ui p50/p99=" + uiP50Us + "/" + uiP99Us + "us"
+                    + " uiUpdates=" + uiUpdates
+                    + " frames=" + frames
+                    + " janky=" + jankyFrames
+                    + " maxFrame=" + maxFrameMs + "ms";
+        }
+    }
+}
@@ -15,12 +15,17 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
 
+import com.samsung.sensorapp.manager.SensorCatalog;
 import com.samsung.sensorapp.manager.SensorDataManager;
 import com.samsung.sensorapp.manager.SensorEventListener;
+import com.samsung.sensorapp.manager.SensorRateGovernor;
 import com.samsung.sensorapp.model.SensorData;
 import com.samsung.sensorapp.model.SensorInfo;
+import com.samsung.sensorapp.ui.MetricsOverlay;
+import com.samsung.sensorapp.ui.SensorUiCoalescer;
 import com.samsung.sensorapp.ui.adapter.SensorDataAdapter;
 import com.samsung.sensorapp.ui.adapter.SensorInfoAdapter;
+import com.samsung.sensorapp.util.SensorConstants;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,16 +42,21 @@ public class MainActivity extends AppCompatActivity {
     };
 
     private SensorDataManager sensorDataManager;
+    private SensorRateGovernor sensorRateGovernor;
     private ListView sensorListView;
     private ListView sensorDataListView;
     private Button toggleMonitoringButton;
     private Button viewAllSensorsButton;
     private TextView statusTextView;
     private TextView sensorCountTextView;
+    private TextView metricsOverlayTextView;
 
     private SensorInfoAdapter sensorInfoAdapter;
     private SensorDataAdapter sensorDataAdapter;
+    private SensorUiCoalescer sensorUiCoalescer;
+    private MetricsOverlay metricsOverlay;
     private List<SensorInfo> availableSensors;
+    private SensorCatalog loadedSensorCatalog;
     private List<SensorData> sensorDataList;
 
     private boolean isMonitoring = false;
@@ -58,6 +68,13 @@ public class MainActivity extends AppCompatActivity {
 
         initializeUI();
         sensorDataManager = new SensorDataManager(this);
+        sensorRateGovernor = new SensorRateGovernor(sensorDataManager);
+        sensorUiCoalescer.setMetrics(sensorDataManager.getMetrics());
+        sensorDataManager.setSlowListenerIsolation(SensorDataManager.DEFAULT_SLOW_LISTENER_BUDGET_NS,
+                SensorDataManager.DEFAULT_SLOW_LISTENER_STRIKES, SensorDataManager.DEFAULT_SLOW_LISTENER_LANE_CAPACITY,
+                (sensorType, listener, callbackDurationNs) -> showError("Slow listener for sensor type "
+                        + sensorType + " moved off the dispatch thread (" + callbackDurationNs / 1000 + " µs)"));
+        metricsOverlay = new MetricsOverlay(metricsOverlayTextView, sensorDataManager.getMetrics());
 
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
             checkAndRequestPermissions();
@@ -73,6 +90,7 @@ public class MainActivity extends AppCompatActivity {
         viewAllSensorsButton = findViewById(R.id.view_all_sensors_button);
         statusTextView = findViewById(R.id.status_text_view);
         sensorCountTextView = findViewById(R.id.sensor_count_text_view);
+        metricsOverlayTextView = findViewById(R.id.metrics_overlay_text_view);
 
         availableSensors = new ArrayList<>();
         sensorDataList = new ArrayList<>();
@@ -82,9 +100,15 @@ public class MainActivity extends AppCompatActivity {
 
         sensorListView.setAdapter(sensorInfoAdapter);
         sensorDataListView.setAdapter(sensorDataAdapter);
+        sensorUiCoalescer = new SensorUiCoalescer(sensorDataAdapter::updateSensorData);
 
         toggleMonitoringButton.setOnClickListener(v -> toggleMonitoring());
         viewAllSensorsButton.setOnClickListener(v -> viewAllSensors());
+        // Long-press the status box to show or hide the pipeline metrics
+        statusTextView.setOnLongClickListener(v -> {
+            metricsOverlay.toggle();
+            return true;
+        });
 
         updateStatusUI();
     }
@@ -118,14 +142,16 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void loadSensors() {
-        availableSensors.clear();
-        List<Sensor> sensors = sensorDataManager.getAvailableSensors();
-
-        for (Sensor sensor : sensors) {
-            availableSensors.add(new SensorInfo(sensor, true, sensor.getName()));
+        SensorCatalog catalog = sensorDataManager.getSensorCatalog();
+        if (catalog != loadedSensorCatalog) {
+            // Only rebuild the rows after a dynamic sensor connected or disconnected
+            availableSensors.clear();
+            for (int i = 0; i < catalog.size(); i++) {
+                availableSensors.add(new SensorInfo(catalog, i));
+            }
+            loadedSensorCatalog = catalog;
+            sensorInfoAdapter.notifyDataSetChanged();
         }
-
-        sensorInfoAdapter.notifyDataSetChanged();
         updateSensorCountUI();
         Toast.makeText(this, "Loaded " + availableSensors.size() + " sensors",
                 Toast.LENGTH_SHORT).show();
@@ -151,6 +177,14 @@ public class MainActivity extends AppCompatActivity {
                 Sensor.TYPE_PROXIMITY
         };
 
+        // Motion sensors follow the signal; the rest stay at the display rate
+        governIfAvailable(Sensor.TYPE_ACCELEROMETER,
+                SensorConstants.ACCELEROMETER_RAISE_VARIANCE, SensorConstants.ACCELEROMETER_LOWER_VARIANCE);
+        governIfAvailable(Sensor.TYPE_GYROSCOPE,
+                SensorConstants.GYROSCOPE_RAISE_VARIANCE, SensorConstants.GYROSCOPE_LOWER_VARIANCE);
+        governIfAvailable(Sensor.TYPE_MAGNETIC_FIELD,
+                SensorConstants.MAGNETIC_FIELD_RAISE_VARIANCE, SensorConstants.MAGNETIC_FIELD_LOWER_VARIANCE);
+
         int registeredCount = 0;
         for (int sensorType : commonSensors) {
             if (sensorDataManager.isSensorAvailable(sensorType)) {
@@ -179,11 +213,18 @@ public class MainActivity extends AppCompatActivity {
                 Toast.LENGTH_SHORT).show();
     }
 
+    private void governIfAvailable(int sensorType, double raiseVariance, double lowerVariance) {
+        if (sensorDataManager.isSensorAvailable(sensorType)) {
+            sensorRateGovernor.govern(sensorType, raiseVariance, lowerVariance);
+        }
+    }
+
     private void stopMonitoring() {
+        sensorRateGovernor.releaseAll();
         sensorDataManager.unregisterAllListeners();
         isMonitoring = false;
-        sensorDataList.clear();
-        sensorDataAdapter.notifyDataSetChanged();
+        sensorUiCoalescer.clear();
+        sensorDataAdapter.clearSensorData();
         updateStatusUI();
         Toast.makeText(this, "Monitoring stopped", Toast.LENGTH_SHORT).show();
     }
@@ -193,7 +234,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void updateUI(SensorData sensorData) {
-        runOnUiThread(() -> sensorDataAdapter.updateSensorData(sensorData));
+        sensorUiCoalescer.submit(sensorData);
     }
 
     private void updateStatusUI() {
@@ -222,8 +263,11 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        if (metricsOverlay != null) {
+            metricsOverlay.hide();
+        }
         if (sensorDataManager != null) {
-            sensorDataManager.unregisterAllListeners();
+            sensorDataManager.shutdown();
         }
     }
 
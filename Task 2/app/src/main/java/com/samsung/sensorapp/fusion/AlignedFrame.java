@@ -0,0 +1,91 @@
+package com.samsung.sensorapp.fusion;
+
+/**
+ * Rows of several sensor streams resampled onto one uniform time grid
+ * Data is stored column-wise: one timestamp array plus one float array per
+ * sensor axis, so a feature extractor can run over a column without
+ * gathering. Columns are numbered stream by stream in the order the sensor
+ * types were given to {@link StreamAligner}; use
+ * {@link #getColumnIndex(int, int)} to look one up. A value is NaN where its
+ * stream had no sample at or before the row. Frames are reused, so the
+ * arrays are only valid until the listener callback returns.
+ */
+public final class AlignedFrame {
+    private final int[] sensorTypes;
+    private final int[] firstColumns;
+    private final long periodNs;
+    private final long[] timestamps;
+    private final float[][] columns;
+    private int rowCount;
+
+    AlignedFrame(int[] sensorTypes, int[] axisCounts, long periodNs, int capacity) {
+        this.sensorTypes = sensorTypes;
+        this.firstColumns = new int[sensorTypes.length + 1];
+        for (int i = 0; i < sensorTypes.length; i++) {
+            firstColumns[i + 1] = firstColumns[i] + axisCounts[i];
+        }
+        this.periodNs = periodNs;
+        this.timestamps = new long[capacity];
+        this.columns = new float[firstColumns[sensorTypes.length]][capacity];
+    }
+
+    /**
+     * Get the number of valid rows, from index 0
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getCapacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * Get the spacing of the time grid in nanoseconds
+     */
+    public long getPeriodNs() {
+        return periodNs;
+    }
+
+    /**
+     * Get the grid timestamps; only the first {@link #getRowCount()} entries are valid
+     */
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Get one axis of one stream; only the first {@link #getRowCount()} entries are valid
+     */
+    public float[] getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Get the column of an axis of a sensor type, or -1 if the frame does not contain it
+     */
+    public int getColumnIndex(int sensorType, int axis) {
+        for (int i = 0; i < sensorTypes.length; i++) {
+            if (sensorTypes[i] == sensorType) {
+                return axis >= 0 && axis < firstColumns[i + 1] - firstColumns[i] ? firstColumns[i] + axis : -1;
+            }
+        }
+        return -1;
+    }
+
+    int getFirstColumn(int stream) {
+        return firstColumns[stream];
+    }
+
+    float[][] getColumns() {
+        return columns;
+    }
+
+    void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+}
@@ -0,0 +1,308 @@
+package com.samsung.sensorapp.fusion;
+
+/**
+ * Madgwick gradient-descent orientation filter on primitive quaternion state
+ * The quaternion (q0, q1, q2, q3) rotates device coordinates into an Earth frame
+ * with x towards magnetic north, y west and z up. {@link #getRotationVector(float[])}
+ * converts it to the east-north-up frame used by TYPE_ROTATION_VECTOR.
+ * Each update is straight-line float arithmetic on fields, with no arrays,
+ * allocation or calls besides square roots, so the JIT can keep it in registers.
+ * Not thread-safe.
+ */
+public final class MadgwickFilter {
+    public static final float DEFAULT_BETA = 0.1f;
+    private static final float HALF_SQRT2 = (float) Math.sqrt(0.5);
+
+    private final float beta;
+    private float q0 = 1f;
+    private float q1;
+    private float q2;
+    private float q3;
+
+    public MadgwickFilter() {
+        this(DEFAULT_BETA);
+    }
+
+    /**
+     * @param beta gradient step gain; larger values trust the accelerometer and magnetometer more
+     */
+    public MadgwickFilter(float beta) {
+        if (!(beta >= 0f)) {
+            throw new IllegalArgumentException("Beta must not be negative: " + beta);
+        }
+        this.beta = beta;
+    }
+
+    /**
+     * Reset to the identity orientation
+     */
+    public void reset() {
+        q0 = 1f;
+        q1 = 0f;
+        q2 = 0f;
+        q3 = 0f;
+    }
+
+    /**
+     * Set the orientation directly from gravity and, if non-zero, the magnetic field
+     * so the filter does not have to converge from the identity
+     */
+    public void initialize(float ax, float ay, float az, float mx, float my, float mz) {
+        float normA = (float) Math.sqrt(ax * ax + ay * ay + az * az);
+        if (normA == 0f) {
+            reset();
+            return;
+        }
+        float ux = ax / normA;
+        float uy = ay / normA;
+        float uz = az / normA;
+        // East is the field crossed with up; without a field pick any horizontal direction
+        float ex = my * uz - mz * uy;
+        float ey = mz * ux - mx * uz;
+        float ez = mx * uy - my * ux;
+        float normE = (float) Math.sqrt(ex * ex + ey * ey + ez * ez);
+        if (normE < 1e-6f) {
+            ex = uz;
+            ey = 0f;
+            ez = -ux;
+            normE = (float) Math.sqrt(ex * ex + ez * ez);
+            if (normE < 1e-6f) {
+                ex = 1f;
+                ez = 0f;
+                normE = 1f;
+            }
+        }
+        ex /= normE;
+        ey /= normE;
+        ez /= normE;
+        float nx = uy * ez - uz * ey;
+        float ny = uz * ex - ux * ez;
+        float nz = ux * ey - uy * ex;
+        // Rows of the device-to-world matrix in north-west-up order: north, west = -east, up
+        setFromMatrix(nx, ny, nz, -ex, -ey, -ez, ux, uy, uz);
+    }
+
+    private void setFromMatrix(float m00, float m01, float m02, float m10, float m11, float m12,
+                               float m20, float m21, float m22) {
+        float trace = m00 + m11 + m22;
+        if (trace > 0f) {
+            float s = (float) Math.sqrt(trace + 1f) * 2f;
+            q0 = 0.25f * s;
+            q1 = (m21 - m12) / s;
+            q2 = (m02 - m20) / s;
+            q3 = (m10 - m01) / s;
+        } else if (m00 > m11 && m00 > m22) {
+            float s = (float) Math.sqrt(1f + m00 - m11 - m22) * 2f;
+            q0 = (m21 - m12) / s;
+            q1 = 0.25f * s;
+            q2 = (m01 + m10) / s;
+            q3 = (m02 + m20) / s;
+        } else if (m11 > m22) {
+            float s = (float) Math.sqrt(1f + m11 - m00 - m22) * 2f;
+            q0 = (m02 - m20) / s;
+            q1 = (m01 + m10) / s;
+            q2 = 0.25f * s;
+            q3 = (m12 + m21) / s;
+        } else {
+            float s = (float) Math.sqrt(1f + m22 - m00 - m11) * 2f;
+            q0 = (m10 - m01) / s;
+            q1 = (m02 + m20) / s;
+            q2 = (m12 + m21) / s;
+            q3 = 0.25f * s;
+        }
+        normalize();
+    }
+
+    /**
+     * Advance by one gyroscope sample using gravity and the magnetic field for correction
+     * Falls back to {@link #updateImu} when the field is zero.
+     *
+     * @param gx angular rate in rad/s, device frame
+     * @param ax acceleration in any unit; only its direction is used
+     * @param mx magnetic field in any unit; only its direction is used
+     * @param dt time step in seconds
+     */
+    public void update(float gx, float gy, float gz, float ax, float ay, float az,
+                       float mx, float my, float mz, float dt) {
+        if (mx == 0f && my == 0f && mz == 0f) {
+            updateImu(gx, gy, gz, ax, ay, az, dt);
+            return;
+        }
+
+        // Rate of change of quaternion from gyroscope
+        float qDot1 = 0.5f * (-q1 * gx - q2 * gy - q3 * gz);
+        float qDot2 = 0.5f * (q0 * gx + q2 * gz - q3 * gy);
+        float qDot3 = 0.5f * (q0 * gy - q1 * gz + q3 * gx);
+        float qDot4 = 0.5f * (q0 * gz + q1 * gy - q2 * gx);
+
+        if (!(ax == 0f && ay == 0f && az == 0f)) {
+            float recipNorm = invSqrt(ax * ax + ay * ay + az * az);
+            ax *= recipNorm;
+            ay *= recipNorm;
+            az *= recipNorm;
+            recipNorm = invSqrt(mx * mx + my * my + mz * mz);
+            mx *= recipNorm;
+            my *= recipNorm;
+            mz *= recipNorm;
+
+            float twoQ0mx = 2f * q0 * mx;
+            float twoQ0my = 2f * q0 * my;
+            float twoQ0mz = 2f * q0 * mz;
+            float twoQ1mx = 2f * q1 * mx;
+            float twoQ0 = 2f * q0;
+            float twoQ1 = 2f * q1;
+            float twoQ2 = 2f * q2;
+            float twoQ3 = 2f * q3;
+            float twoQ0q2 = 2f * q0 * q2;
+            float twoQ2q3 = 2f * q2 * q3;
+            float q0q0 = q0 * q0;
+            float q0q1 = q0 * q1;
+            float q0q2 = q0 * q2;
+            float q0q3 = q0 * q3;
+            float q1q1 = q1 * q1;
+            float q1q2 = q1 * q2;
+            float q1q3 = q1 * q3;
+            float q2q2 = q2 * q2;
+            float q2q3 = q2 * q3;
+            float q3q3 = q3 * q3;
+
+            // Reference direction of Earth's magnetic field
+            float hx = mx * q0q0 - twoQ0my * q3 + twoQ0mz * q2 + mx * q1q1 + twoQ1 * my * q2 + twoQ1 * mz * q3
+                    - mx * q2q2 - mx * q3q3;
+            float hy = twoQ0mx * q3 + my * q0q0 - twoQ0mz * q1 + twoQ1mx * q2 - my * q1q1 + my * q2q2
+                    + twoQ2 * mz * q3 - my * q3q3;
+            float twoBx = (float) Math.sqrt(hx * hx + hy * hy);
+            float twoBz = -twoQ0mx * q2 + twoQ0my * q1 + mz * q0q0 + twoQ1mx * q3 - mz * q1q1 + twoQ2 * my * q3
+                    - mz * q2q2 + mz * q3q3;
+            float fourBx = 2f * twoBx;
+            float fourBz = 2f * twoBz;
+
+            // Objective function residuals shared by the gradient terms
+            float fAx = 2f * q1q3 - twoQ0q2 - ax;
+            float fAy = 2f * q0q1 + twoQ2q3 - ay;
+            float fAz = 1f - 2f * q1q1 - 2f * q2q2 - az;
+            float fMx = twoBx * (0.5f - q2q2 - q3q3) + twoBz * (q1q3 - q0q2) - mx;
+            float fMy = twoBx * (q1q2 - q0q3) + twoBz * (q0q1 + q2q3) - my;
+            float fMz = twoBx * (q0q2 + q1q3) + twoBz * (0.5f - q1q1 - q2q2) - mz;
+
+            // Gradient descent corrective step
+            float s0 = -twoQ2 * fAx + twoQ1 * fAy - twoBz * q2 * fMx + (-twoBx * q3 + twoBz * q1) * fMy
+                    + twoBx * q2 * fMz;
+            float s1 = twoQ3 * fAx + twoQ0 * fAy - 4f * q1 * fAz + twoBz * q3 * fMx
+                    + (twoBx * q2 + twoBz * q0) * fMy + (twoBx * q3 - fourBz * q1) * fMz;
+            float s2 = -twoQ0 * fAx + twoQ3 * fAy - 4f * q2 * fAz + (-fourBx * q2 - twoBz * q0) * fMx
+                    + (twoBx * q1 + twoBz * q3) * fMy + (twoBx * q0 - fourBz * q2) * fMz;
+            float s3 = twoQ1 * fAx + twoQ2 * fAy + (-fourBx * q3 + twoBz * q1) * fMx
+                    + (-twoBx * q0 + twoBz * q2) * fMy + twoBx * q1 * fMz;
+            float stepNorm = s0 * s0 + s1 * s1 + s2 * s2 + s3 * s3;
+            if (stepNorm > 0f) {
+                recipNorm = beta * invSqrt(stepNorm);
+                qDot1 -= recipNorm * s0;
+                qDot2 -= recipNorm * s1;
+                qDot3 -= recipNorm * s2;
+                qDot4 -= recipNorm * s3;
+            }
+        }
+        integrate(qDot1, qDot2, qDot3, qDot4, dt);
+    }
+
+    /**
+     * Advance by one gyroscope sample using only gravity for correction; heading drifts
+     */
+    public void updateImu(float gx, float gy, float gz, float ax, float ay, float az, float dt) {
+        float qDot1 = 0.5f * (-q1 * gx - q2 * gy - q3 * gz);
+        float qDot2 = 0.5f * (q0 * gx + q2 * gz - q3 * gy);
+        float qDot3 = 0.5f * (q0 * gy - q1 * gz + q3 * gx);
+        float qDot4 = 0.5f * (q0 * gz + q1 * gy - q2 * gx);
+
+        if (!(ax == 0f && ay == 0f && az == 0f)) {
+            float recipNorm = invSqrt(ax * ax + ay * ay + az * az);
+            ax *= recipNorm;
+            ay *= recipNorm;
+            az *= recipNorm;
+
+            float twoQ0 = 2f * q0;
+            float twoQ1 = 2f * q1;
+            float twoQ2 = 2f * q2;
+            float twoQ3 = 2f * q3;
+            float fourQ0 = 4f * q0;
+            float fourQ1 = 4f * q1;
+            float fourQ2 = 4f * q2;
+            float eightQ1 = 8f * q1;
+            float eightQ2 = 8f * q2;
+            float q0q0 = q0 * q0;
+            float q1q1 = q1 * q1;
+            float q2q2 = q2 * q2;
+            float q3q3 = q3 * q3;
+
+            float s0 = fourQ0 * q2q2 + twoQ2 * ax + fourQ0 * q1q1 - twoQ1 * ay;
+            float s1 = fourQ1 * q3q3 - twoQ3 * ax + 4f * q0q0 * q1 - twoQ0 * ay - fourQ1 + eightQ1 * q1q1
+                    + eightQ1 * q2q2 + fourQ1 * az;
+            float s2 = 4f * q0q0 * q2 + twoQ0 * ax + fourQ2 * q3q3 - twoQ3 * ay - fourQ2 + eightQ2 * q1q1
+                    + eightQ2 * q2q2 + fourQ2 * az;
+            float s3 = 4f * q1q1 * q3 - twoQ1 * ax + 4f * q2q2 * q3 - twoQ2 * ay;
+            float stepNorm = s0 * s0 + s1 * s1 + s2 * s2 + s3 * s3;
+            if (stepNorm > 0f) {
+                recipNorm = beta * invSqrt(stepNorm);
+                qDot1 -= recipNorm * s0;
+                qDot2 -= recipNorm * s1;
+                qDot3 -= recipNorm * s2;
+                qDot4 -= recipNorm * s3;
+            }
+        }
+        integrate(qDot1, qDot2, qDot3, qDot4, dt);
+    }
+
+    private void integrate(float qDot1, float qDot2, float qDot3, float qDot4, float dt) {
+        q0 += qDot1 * dt;
+        q1 += qDot2 * dt;
+        q2 += qDot3 * dt;
+        q3 += qDot4 * dt;
+        normalize();
+    }
+
+    private void normalize() {
+        float recipNorm = invSqrt(q0 * q0 + q1 * q1 + q2 * q2 + q3 * q3);
+        q0 *= recipNorm;
+        q1 *= recipNorm;
+        q2 *= recipNorm;
+        q3 *= recipNorm;
+    }
+
+    private static float invSqrt(float x) {
+        return (float) (1.0 / Math.sqrt(x));
+    }
+
+    public float getQ0() {
+        return q0;
+    }
+
+    public float getQ1() {
+        return q1;
+    }
+
+    public float getQ2() {
+        return q2;
+    }
+
+    public float getQ3() {
+        return q3;
+    }
+
+    /**
+     * Write the orientation in the TYPE_ROTATION_VECTOR layout [x, y, z, w] of the
+     * east-north-up frame, with w kept non-negative
+     */
+    public void getRotationVector(float[] out) {
+        // Rotate the north-west-up frame by +90 degrees about z into east-north-up
+        float w = HALF_SQRT2 * (q0 - q3);
+        float x = HALF_SQRT2 * (q1 - q2);
+        float y = HALF_SQRT2 * (q1 + q2);
+        float z = HALF_SQRT2 * (q0 + q3);
+        float sign = w < 0f ? -1f : 1f;
+        out[0] = sign * x;
+        out[1] = sign * y;
+        out[2] = sign * z;
+        out[3] = sign * w;
+    }
+}
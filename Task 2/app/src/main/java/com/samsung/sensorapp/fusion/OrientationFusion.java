@@ -0,0 +1,304 @@
+package com.samsung.sensorapp.fusion;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.util.Log;
+
+import com.samsung.sensorapp.manager.SensorDataManager;
+import com.samsung.sensorapp.manager.SensorEventListener;
+import com.samsung.sensorapp.manager.VirtualSensor;
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.util.SensorConstants;
+
+/**
+ * Fuses accelerometer, gyroscope and magnetometer into orientation, published
+ * as the virtual sensor {@link SensorConstants#TYPE_FUSED_ORIENTATION}
+ * Add it with {@link SensorDataManager#addVirtualSensor(VirtualSensor)}; it
+ * subscribes to its input sensors only while something subscribes to it.
+ * The three streams may arrive on different dispatch threads, so samples are
+ * queued per stream and merged in timestamp order: a sample is processed once
+ * every other active stream has caught up to it, or once it is older than the
+ * alignment latency. Each gyroscope sample advances a {@link MadgwickFilter}
+ * using the latest earlier accelerometer and magnetometer readings and
+ * publishes values in the TYPE_ROTATION_VECTOR layout [x, y, z, w]. Without a
+ * magnetometer heading drifts and samples are reported with medium accuracy.
+ * Fused samples are queued under the lock and published in order by one input
+ * thread at a time after it releases the lock, so subscribers never run with
+ * it held and a slow one does not stall the other input streams.
+ */
+public class OrientationFusion extends VirtualSensor implements SensorEventListener {
+    private static final String TAG = "OrientationFusion";
+
+    public static final long DEFAULT_ALIGNMENT_LATENCY_NS = 100_000_000L;
+    private static final int QUEUE_CAPACITY = 64;
+    /** Longer gyroscope gaps restart integration instead of applying one huge step */
+    private static final long MAX_STEP_NS = 500_000_000L;
+    private static final int ACCELEROMETER = 0;
+    private static final int GYROSCOPE = 1;
+    private static final int MAGNETOMETER = 2;
+    private static final int[] INPUT_TYPES = {
+            Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_GYROSCOPE, Sensor.TYPE_MAGNETIC_FIELD
+    };
+
+    /**
+     * Pending samples of one input stream in primitive ring arrays
+     */
+    private static final class Stream {
+        final long[] timestamps = new long[QUEUE_CAPACITY];
+        final float[] values = new float[QUEUE_CAPACITY * 3];
+        int head;
+        int size;
+        boolean active;
+        long lastTimestamp = Long.MIN_VALUE;
+    }
+
+    private final SensorDataManager manager;
+    private final MadgwickFilter filter;
+    private final long alignmentLatencyNs;
+    private final Object lock = new Object();
+    private final Stream[] streams = {new Stream(), new Stream(), new Stream()};
+    private final float[] output = new float[4];
+    private final float[] pendingValues = new float[QUEUE_CAPACITY * 4];
+    private final int[] pendingAccuracies = new int[QUEUE_CAPACITY];
+    private final long[] pendingTimestamps = new long[QUEUE_CAPACITY];
+    private int pendingHead;
+    private int pendingSize;
+    private boolean publishing;
+    /** Only touched by the thread that set publishing */
+    private final float[] published = new float[4];
+    private long newestTimestamp = Long.MIN_VALUE;
+    private long lastGyroscopeTimestamp = Long.MIN_VALUE;
+    private boolean initialized;
+    private boolean hasAccelerometer;
+    private boolean hasMagnetometer;
+    private float ax;
+    private float ay;
+    private float az;
+    private float mx;
+    private float my;
+    private float mz;
+
+    public OrientationFusion(SensorDataManager manager) {
+        this(manager, new MadgwickFilter(), DEFAULT_ALIGNMENT_LATENCY_NS);
+    }
+
+    public OrientationFusion(SensorDataManager manager, MadgwickFilter filter, long alignmentLatencyNs) {
+        super(SensorConstants.TYPE_FUSED_ORIENTATION, "Fused Orientation");
+        this.manager = manager;
+        this.filter = filter;
+        this.alignmentLatencyNs = alignmentLatencyNs;
+    }
+
+    @Override
+    protected void onActive(int samplingPeriodUs) {
+        if (!manager.isSensorAvailable(Sensor.TYPE_ACCELEROMETER)
+                || !manager.isSensorAvailable(Sensor.TYPE_GYROSCOPE)) {
+            Log.e(TAG, "Orientation fusion needs an accelerometer and a gyroscope");
+            return;
+        }
+        synchronized (lock) {
+            resetState();
+            for (int i = 0; i < INPUT_TYPES.length; i++) {
+                streams[i].active = manager.isSensorAvailable(INPUT_TYPES[i]);
+            }
+        }
+        for (int i = 0; i < INPUT_TYPES.length; i++) {
+            if (streams[i].active) {
+                manager.registerListener(INPUT_TYPES[i], this, samplingPeriodUs);
+            }
+        }
+    }
+
+    @Override
+    protected void onInactive() {
+        for (int sensorType : INPUT_TYPES) {
+            manager.unregisterListener(sensorType, this);
+        }
+        synchronized (lock) {
+            for (Stream stream : streams) {
+                stream.active = false;
+            }
+            resetState();
+        }
+    }
+
+    @Override
+    public void onSensorDataChanged(SensorData sensorData) {
+        int index = streamIndex(sensorData.getSensorType());
+        float[] values = sensorData.getValues();
+        if (index < 0 || values.length < 3) {
+            return;
+        }
+        synchronized (lock) {
+            Stream stream = streams[index];
+            if (!stream.active) {
+                return;
+            }
+            if (stream.size == QUEUE_CAPACITY) {
+                // A stalled stream must not hold the others back indefinitely
+                drain(true);
+            }
+            int slot = (stream.head + stream.size) % QUEUE_CAPACITY;
+            long timestamp = sensorData.getTimestamp();
+            stream.timestamps[slot] = timestamp;
+            stream.values[slot * 3] = values[0];
+            stream.values[slot * 3 + 1] = values[1];
+            stream.values[slot * 3 + 2] = values[2];
+            stream.size++;
+            stream.lastTimestamp = timestamp;
+            if (timestamp > newestTimestamp) {
+                newestTimestamp = timestamp;
+            }
+            drain(false);
+            if (publishing || pendingSize == 0) {
+                return;
+            }
+            publishing = true;
+        }
+        publishPending();
+    }
+
+    /**
+     * Publish queued samples one at a time without holding the lock
+     * Samples other threads queue meanwhile are published here too, in order.
+     */
+    private void publishPending() {
+        while (true) {
+            int accuracy;
+            long timestamp;
+            synchronized (lock) {
+                if (pendingSize == 0) {
+                    publishing = false;
+                    return;
+                }
+                System.arraycopy(pendingValues, pendingHead * 4, published, 0, 4);
+                accuracy = pendingAccuracies[pendingHead];
+                timestamp = pendingTimestamps[pendingHead];
+                pendingHead = (pendingHead + 1) % QUEUE_CAPACITY;
+                pendingSize--;
+            }
+            publish(published, accuracy, timestamp);
+        }
+    }
+
+    @Override
+    public void onSensorAccuracyChanged(int accuracy) {
+        // Published accuracy reflects whether the magnetometer is used
+    }
+
+    @Override
+    public void onSensorError(String errorMessage) {
+        Log.e(TAG, "Input sensor error: " + errorMessage);
+    }
+
+    /**
+     * Process queued samples in timestamp order while it is safe to
+     *
+     * @param force process at least the oldest sample even if a stream is behind
+     */
+    private void drain(boolean force) {
+        while (true) {
+            int next = -1;
+            long nextTimestamp = Long.MAX_VALUE;
+            for (int i = 0; i < streams.length; i++) {
+                Stream stream = streams[i];
+                if (stream.size > 0 && stream.timestamps[stream.head] < nextTimestamp) {
+                    next = i;
+                    nextTimestamp = stream.timestamps[stream.head];
+                }
+            }
+            if (next < 0) {
+                return;
+            }
+            if (!force && newestTimestamp - nextTimestamp < alignmentLatencyNs) {
+                for (int i = 0; i < streams.length; i++) {
+                    Stream stream = streams[i];
+                    if (i != next && stream.active && stream.size == 0 && stream.lastTimestamp < nextTimestamp) {
+                        // A sample older than this one may still arrive on that stream
+                        return;
+                    }
+                }
+            }
+            force = false;
+            Stream stream = streams[next];
+            int offset = stream.head * 3;
+            process(next, nextTimestamp, stream.values[offset], stream.values[offset + 1],
+                    stream.values[offset + 2]);
+            stream.head = (stream.head + 1) % QUEUE_CAPACITY;
+            stream.size--;
+        }
+    }
+
+    private void process(int stream, long timestamp, float x, float y, float z) {
+        if (stream == ACCELEROMETER) {
+            ax = x;
+            ay = y;
+            az = z;
+            hasAccelerometer = true;
+            return;
+        }
+        if (stream == MAGNETOMETER) {
+            mx = x;
+            my = y;
+            mz = z;
+            hasMagnetometer = true;
+            return;
+        }
+
+        long stepNs = timestamp - lastGyroscopeTimestamp;
+        lastGyroscopeTimestamp = timestamp;
+        if (!hasAccelerometer) {
+            return;
+        }
+        if (!initialized || stepNs <= 0 || stepNs > MAX_STEP_NS) {
+            filter.initialize(ax, ay, az, hasMagnetometer ? mx : 0f, hasMagnetometer ? my : 0f,
+                    hasMagnetometer ? mz : 0f);
+            initialized = true;
+        } else if (hasMagnetometer) {
+            filter.update(x, y, z, ax, ay, az, mx, my, mz, stepNs * 1e-9f);
+        } else {
+            filter.updateImu(x, y, z, ax, ay, az, stepNs * 1e-9f);
+        }
+        filter.getRotationVector(output);
+        if (pendingSize == QUEUE_CAPACITY) {
+            // Subscribers have fallen a whole queue behind; drop the oldest sample
+            pendingHead = (pendingHead + 1) % QUEUE_CAPACITY;
+            pendingSize--;
+        }
+        int slot = (pendingHead + pendingSize) % QUEUE_CAPACITY;
+        System.arraycopy(output, 0, pendingValues, slot * 4, 4);
+        pendingAccuracies[slot] = hasMagnetometer ? SensorManager.SENSOR_STATUS_ACCURACY_HIGH
+                : SensorManager.SENSOR_STATUS_ACCURACY_MEDIUM;
+        pendingTimestamps[slot] = timestamp;
+        pendingSize++;
+    }
+
+    private void resetState() {
+        for (Stream stream : streams) {
+            stream.head = 0;
+            stream.size = 0;
+            stream.lastTimestamp = Long.MIN_VALUE;
+        }
+        pendingHead = 0;
+        pendingSize = 0;
+        newestTimestamp = Long.MIN_VALUE;
+        lastGyroscopeTimestamp = Long.MIN_VALUE;
+        initialized = false;
+        hasAccelerometer = false;
+        hasMagnetometer = false;
+        filter.reset();
+    }
+
+    private static int streamIndex(int sensorType) {
+        switch (sensorType) {
+            case Sensor.TYPE_ACCELEROMETER:
+                return ACCELEROMETER;
+            case Sensor.TYPE_GYROSCOPE:
+                return GYROSCOPE;
+            case Sensor.TYPE_MAGNETIC_FIELD:
+                return MAGNETOMETER;
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.samsung.sensorapp.fusion;
+
+import android.util.Log;
+
+import com.samsung.sensorapp.manager.SensorEventListener;
+import com.samsung.sensorapp.model.SensorData;
+
+import java.util.Arrays;
+
+/**
+ * Merges several sensor streams onto one uniform time grid
+ * Register it on SensorDataManager for each of its sensor types, per event
+ * or as a batch listener. Samples are buffered per stream in bounded
+ * primitive rings, and a grid row at time t is produced once every stream has
+ * a sample at or after t, so each axis can be linearly interpolated between
+ * the samples around t. A stream that falls further behind than the
+ * lateness watermark no longer holds the others back: its latest value is
+ * held instead, and samples that arrive after their rows were produced are
+ * counted as late. Grid times are multiples of the period on the sensor
+ * clock, so aligners with the same period produce matching rows.
+ * Rows are collected into an {@link AlignedFrame} that is handed to the
+ * {@link FrameListener} whenever it fills up, on the thread of the sample
+ * that completed it. Frames are contiguous: when every stream goes quiet for
+ * longer than a second the grid skips the gap and starts a new frame.
+ */
+public class StreamAligner implements SensorEventListener {
+    private static final String TAG = "StreamAligner";
+
+    public static final long DEFAULT_LATENESS_NS = 50_000_000L;
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+    public static final int DEFAULT_FRAME_ROWS = 100;
+    /** Silences longer than this in every stream are skipped instead of filled with held values */
+    private static final long MAX_GAP_NS = 1_000_000_000L;
+
+    /**
+     * Receives frames as they fill up
+     */
+    public interface FrameListener {
+        /**
+         * @param frame rows produced since the previous frame; reused after this returns
+         */
+        void onFrame(AlignedFrame frame);
+    }
+
+    /**
+     * Pending samples of one stream in primitive ring arrays
+     */
+    private static final class Stream {
+        final int sensorType;
+        final int axisCount;
+        final long[] timestamps;
+        final float[] values;
+        int head;
+        int size;
+
+        Stream(int sensorType, int axisCount, int capacity) {
+            this.sensorType = sensorType;
+            this.axisCount = axisCount;
+            this.timestamps = new long[capacity];
+            this.values = new float[capacity * axisCount];
+        }
+
+        int slot(int index) {
+            int slot = head + index;
+            return slot < timestamps.length ? slot : slot - timestamps.length;
+        }
+
+        long timestampAt(int index) {
+            return timestamps[slot(index)];
+        }
+
+        void removeFirst() {
+            head = slot(1);
+            size--;
+        }
+    }
+
+    private final Stream[] streams;
+    private final long periodNs;
+    private final long latenessNs;
+    private final AlignedFrame frame;
+    private final FrameListener listener;
+    private final Object lock = new Object();
+    /** Timestamp of the next grid row, or Long.MIN_VALUE before the grid is anchored */
+    private long nextRowNs = Long.MIN_VALUE;
+    private long newestTimestamp = Long.MIN_VALUE;
+    private long oldestTimestamp = Long.MAX_VALUE;
+    private long rowCount;
+    private long lateCount;
+    private long droppedCount;
+    private long overflowCount;
+
+    /**
+     * Align with a 50 ms lateness watermark into frames of 100 rows
+     *
+     * @param sensorTypes sensor types to merge, in column order
+     * @param axisCounts number of values used from each sensor type
+     * @param periodNs grid spacing in nanoseconds, e.g. 10 ms for 100 Hz
+     */
+    public StreamAligner(int[] sensorTypes, int[] axisCounts, long periodNs, FrameListener listener) {
+        this(sensorTypes, axisCounts, periodNs, DEFAULT_LATENESS_NS, DEFAULT_BUFFER_CAPACITY,
+                DEFAULT_FRAME_ROWS, listener);
+    }
+
+    /**
+     * @param sensorTypes sensor types to merge, in column order
+     * @param axisCounts number of values used from each sensor type
+     * @param periodNs grid spacing in nanoseconds, e.g. 10 ms for 100 Hz
+     * @param latenessNs how far a stream may lag the newest sample before rows are produced without it
+     * @param bufferCapacity samples buffered per stream; size it to cover the lateness at the fastest rate
+     * @param frameRows rows per frame
+     */
+    public StreamAligner(int[] sensorTypes, int[] axisCounts, long periodNs, long latenessNs,
+                         int bufferCapacity, int frameRows, FrameListener listener) {
+        if (sensorTypes.length == 0 || sensorTypes.length != axisCounts.length) {
+            throw new IllegalArgumentException("Need one axis count per sensor type");
+        }
+        if (periodNs <= 0 || latenessNs < 0) {
+            throw new IllegalArgumentException("Invalid period " + periodNs + " or lateness " + latenessNs);
+        }
+        if (bufferCapacity < 2 || frameRows <= 0) {
+            throw new IllegalArgumentException("Invalid buffer capacity " + bufferCapacity
+                    + " or frame size " + frameRows);
+        }
+        this.streams = new Stream[sensorTypes.length];
+        for (int i = 0; i < sensorTypes.length; i++) {
+            if (axisCounts[i] <= 0) {
+                throw new IllegalArgumentException("Axis count must be positive: " + axisCounts[i]);
+            }
+            for (int j = 0; j < i; j++) {
+                if (sensorTypes[j] == sensorTypes[i]) {
+                    throw new IllegalArgumentException("Duplicate sensor type: " + sensorTypes[i]);
+                }
+            }
+            streams[i] = new Stream(sensorTypes[i], axisCounts[i], bufferCapacity);
+        }
+        this.periodNs = periodNs;
+        this.latenessNs = latenessNs;
+        this.frame = new AlignedFrame(sensorTypes.clone(), axisCounts.clone(), periodNs, frameRows);
+        this.listener = listener;
+    }
+
+    @Override
+    public void onSensorDataChanged(SensorData sensorData) {
+        int stream = streamIndex(sensorData.getSensorType());
+        if (stream < 0) {
+            return;
+        }
+        float[] values = sensorData.getValues();
+        synchronized (lock) {
+            add(streams[stream], sensorData.getTimestamp(), values, 0, values.length);
+            produceRows();
+        }
+    }
+
+    @Override
+    public void onSensorDataBatch(int sensorType, long[] timestamps, float[] values,
+                                  int sampleCount, int valuesPerSample) {
+        int stream = streamIndex(sensorType);
+        if (stream < 0) {
+            return;
+        }
+        synchronized (lock) {
+            for (int i = 0; i < sampleCount; i++) {
+                add(streams[stream], timestamps[i], values, i * valuesPerSample, valuesPerSample);
+                produceRows();
+            }
+        }
+    }
+
+    @Override
+    public void onSensorAccuracyChanged(int accuracy) {
+        // Alignment works on values only
+    }
+
+    @Override
+    public void onSensorError(String errorMessage) {
+        Log.e(TAG, "Sensor error while aligning streams: " + errorMessage);
+    }
+
+    /**
+     * Hand the rows produced so far to the listener without waiting for the frame to fill
+     * Rows still waiting on a stream are not forced out.
+     */
+    public void flush() {
+        synchronized (lock) {
+            deliverFrame();
+        }
+    }
+
+    /**
+     * Get the number of grid rows produced so far
+     */
+    public long getRowCount() {
+        synchronized (lock) {
+            return rowCount;
+        }
+    }
+
+    /**
+     * Get the number of samples that arrived after the rows they fall between were produced
+     */
+    public long getLateCount() {
+        synchronized (lock) {
+            return lateCount;
+        }
+    }
+
+    /**
+     * Get the number of samples discarded for not being newer than the previous sample of their stream
+     */
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return droppedCount;
+        }
+    }
+
+    /**
+     * Get the number of samples evicted from a full stream buffer before they were used
+     */
+    public long getOverflowCount() {
+        synchronized (lock) {
+            return overflowCount;
+        }
+    }
+
+    private void add(Stream stream, long timestamp, float[] values, int offset, int count) {
+        if (stream.size > 0 && timestamp <= stream.timestampAt(stream.size - 1)) {
+            droppedCount++;
+            return;
+        }
+        if (nextRowNs != Long.MIN_VALUE && timestamp < nextRowNs - periodNs) {
+            // Still kept, as it improves interpolation of the rows after it
+            lateCount++;
+        }
+        if (stream.size == stream.timestamps.length) {
+            stream.removeFirst();
+            overflowCount++;
+        }
+        int slot = stream.slot(stream.size);
+        stream.timestamps[slot] = timestamp;
+        int base = slot * stream.axisCount;
+        int copied = Math.min(count, stream.axisCount);
+        System.arraycopy(values, offset, stream.values, base, copied);
+        Arrays.fill(stream.values, base + copied, base + stream.axisCount, Float.NaN);
+        stream.size++;
+        newestTimestamp = Math.max(newestTimestamp, timestamp);
+        oldestTimestamp = Math.min(oldestTimestamp, timestamp);
+    }
+
+    private void produceRows() {
+        if (nextRowNs == Long.MIN_VALUE && !anchorGrid()) {
+            return;
+        }
+        while (true) {
+            long row = nextRowNs;
+            for (Stream stream : streams) {
+                while (stream.size >= 2 && stream.timestampAt(1) <= row) {
+                    stream.removeFirst();
+                }
+            }
+            if (row > newestTimestamp - latenessNs) {
+                for (Stream stream : streams) {
+                    if (stream.size == 0 || stream.timestampAt(stream.size - 1) < row) {
+                        return;
+                    }
+                }
+            } else if (skipGap(row)) {
+                continue;
+            }
+            writeRow(row);
+            nextRowNs = row + periodNs;
+        }
+    }
+
+    /**
+     * Start the grid at the first grid time every stream has reached, or once the watermark passes
+     */
+    private boolean anchorGrid() {
+        long start = Long.MIN_VALUE;
+        boolean complete = true;
+        for (Stream stream : streams) {
+            if (stream.size == 0) {
+                complete = false;
+            } else {
+                start = Math.max(start, stream.timestampAt(0));
+            }
+        }
+        if (!complete && newestTimestamp - oldestTimestamp < latenessNs) {
+            return false;
+        }
+        nextRowNs = Math.floorDiv(start + periodNs - 1, periodNs) * periodNs;
+        return true;
+    }
+
+    /**
+     * Move the grid past a stretch where every stream is silent
+     *
+     * @return true if the grid moved
+     */
+    private boolean skipGap(long row) {
+        long resume = Long.MAX_VALUE;
+        for (Stream stream : streams) {
+            if (stream.size == 0) {
+                continue;
+            }
+            long before = stream.timestampAt(0);
+            if (before > row) {
+                resume = Math.min(resume, before);
+                continue;
+            }
+            long after = stream.size >= 2 ? stream.timestampAt(1) : Long.MAX_VALUE;
+            if ((after == Long.MAX_VALUE ? newestTimestamp : after) - before <= MAX_GAP_NS) {
+                return false;
+            }
+            resume = Math.min(resume, after);
+        }
+        if (resume == Long.MAX_VALUE) {
+            return false;
+        }
+        deliverFrame();
+        nextRowNs = Math.floorDiv(resume + periodNs - 1, periodNs) * periodNs;
+        return true;
+    }
+
+    private void writeRow(long row) {
+        int index = frame.getRowCount();
+        frame.getTimestamps()[index] = row;
+        float[][] columns = frame.getColumns();
+        for (int s = 0; s < streams.length; s++) {
+            Stream stream = streams[s];
+            int column = frame.getFirstColumn(s);
+            int axes = stream.axisCount;
+            if (stream.size == 0 || stream.timestampAt(0) > row) {
+                for (int axis = 0; axis < axes; axis++) {
+                    columns[column + axis][index] = Float.NaN;
+                }
+                continue;
+            }
+            int before = stream.slot(0) * axes;
+            if (stream.size == 1) {
+                for (int axis = 0; axis < axes; axis++) {
+                    columns[column + axis][index] = stream.values[before + axis];
+                }
+                continue;
+            }
+            long t0 = stream.timestampAt(0);
+            float fraction = (float) ((double) (row - t0) / (stream.timestampAt(1) - t0));
+            int after = stream.slot(1) * axes;
+            for (int axis = 0; axis < axes; axis++) {
+                float v0 = stream.values[before + axis];
+                columns[column + axis][index] = v0 + (stream.values[after + axis] - v0) * fraction;
+            }
+        }
+        rowCount++;
+        frame.setRowCount(index + 1);
+        if (index + 1 == frame.getCapacity()) {
+            deliverFrame();
+        }
+    }
+
+    private void deliverFrame() {
+        if (frame.getRowCount() == 0) {
+            return;
+        }
+        listener.onFrame(frame);
+        frame.setRowCount(0);
+    }
+
+    private int streamIndex(int sensorType) {
+        for (int i = 0; i < streams.length; i++) {
+            if (streams[i].sensorType == sensorType) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,24 @@
+package com.samsung.sensorapp.history;
+
+/**
+ * Fixed-size segment of one sensor's history stored as primitive columns
+ */
+final class HistoryChunk {
+    final long[] timestamps;
+    final float[] values;
+    final byte[] accuracies;
+    int size;
+
+    HistoryChunk(int capacity, int axisCount) {
+        this.timestamps = new long[capacity];
+        this.values = new float[capacity * axisCount];
+        this.accuracies = new byte[capacity];
+    }
+
+    /**
+     * Approximate heap footprint including array headers
+     */
+    static long footprintBytes(int capacity, int axisCount) {
+        return 16 + 3 * 16 + capacity * (8L + 4L * axisCount + 1L);
+    }
+}
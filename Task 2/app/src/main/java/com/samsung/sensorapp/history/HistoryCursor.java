@@ -0,0 +1,125 @@
+package com.samsung.sensorapp.history;
+
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.util.FixedPointFormatter;
+import com.samsung.sensorapp.util.SensorTypeInfo;
+import com.samsung.sensorapp.util.SensorTypeRegistry;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight view of one sample of a {@link SensorHistoryStream} or {@link OffHeapHistoryStream}
+ * Offers the same getters as {@link SensorData}, but a single instance walks
+ * the whole history: each {@link #next()} copies the following sample into
+ * the cursor, so iterating allocates nothing. The values array belongs to the
+ * cursor and is overwritten by the next call. If eviction overtakes the
+ * cursor it continues at the oldest retained sample. Not thread-safe; give
+ * each reader its own cursor.
+ */
+public final class HistoryCursor {
+    private static final ThreadLocal<FixedPointFormatter> FORMATTER =
+            ThreadLocal.withInitial(FixedPointFormatter::new);
+
+    private final HistorySource stream;
+    private final float[] values;
+    /** Sequence number of the sample the next call to {@link #next()} reads */
+    long position;
+    private long timestamp;
+    private int accuracy;
+
+    HistoryCursor(HistorySource stream) {
+        this.stream = stream;
+        this.values = new float[stream.getAxisCount()];
+    }
+
+    /**
+     * Move to the next sample
+     *
+     * @return false once the newest sample has been read; later appends can be read by calling again
+     */
+    public boolean next() {
+        return stream.read(this);
+    }
+
+    /**
+     * Go back to before the oldest retained sample
+     */
+    public void reset() {
+        position = 0;
+    }
+
+    void load(long timestamp, byte accuracy, float[] source, int offset) {
+        this.timestamp = timestamp;
+        this.accuracy = accuracy;
+        System.arraycopy(source, offset, values, 0, values.length);
+    }
+
+    void load(long timestamp, byte accuracy, ByteBuffer source, int offset) {
+        this.timestamp = timestamp;
+        this.accuracy = accuracy;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = source.getFloat(offset + i * 4);
+        }
+    }
+
+    public String getSensorName() {
+        return stream.getSensorName();
+    }
+
+    public int getSensorType() {
+        return stream.getSensorType();
+    }
+
+    /**
+     * Get the values of the current sample; overwritten by the next call to {@link #next()}
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    public float getValue(int axis) {
+        return values[axis];
+    }
+
+    /**
+     * Get the accuracy of the current sample, or -1 if it was stored from a batch
+     */
+    public int getAccuracy() {
+        return accuracy;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getUnit() {
+        return getTypeInfo().getUnit();
+    }
+
+    public SensorTypeInfo getTypeInfo() {
+        return SensorTypeRegistry.get(stream.getSensorType());
+    }
+
+    public String getFormattedValues() {
+        return appendFormattedValues(new StringBuilder(), FORMATTER.get()).toString();
+    }
+
+    /**
+     * Append the same text as {@link #getFormattedValues()} without allocating
+     * once the builder has grown to size
+     */
+    public StringBuilder appendFormattedValues(StringBuilder sb, FixedPointFormatter formatter) {
+        return getTypeInfo().appendValues(sb, values, formatter);
+    }
+
+    public String getAccuracyString() {
+        return SensorData.getAccuracyString(accuracy);
+    }
+
+    /**
+     * Copy the current sample into a standalone SensorData
+     */
+    public SensorData toSensorData() {
+        return new SensorData(getSensorName(), getSensorType(), values.clone(), accuracy, timestamp);
+    }
+}
@@ -0,0 +1,19 @@
+package com.samsung.sensorapp.history;
+
+/**
+ * A sensor history a {@link HistoryCursor} can walk
+ */
+abstract class HistorySource {
+    abstract int getSensorType();
+
+    abstract String getSensorName();
+
+    abstract int getAxisCount();
+
+    /**
+     * Copy the sample at the cursor's position into the cursor and advance it
+     *
+     * @return false if the cursor is past the newest sample
+     */
+    abstract boolean read(HistoryCursor cursor);
+}
@@ -0,0 +1,27 @@
+package com.samsung.sensorapp.history;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size segment of one sensor's history outside the Java heap
+ * The buffer holds the same columns as {@link HistoryChunk} back to back:
+ * timestamps, then values interleaved by axis, then one accuracy byte per
+ * sample. It is a direct buffer while resident and a read-only mapping of
+ * {@link #file} once spilled.
+ */
+final class OffHeapChunk {
+    ByteBuffer buffer;
+    /** Spill file, or null while the chunk is resident */
+    File file;
+    int size;
+    long lastTimestamp;
+
+    OffHeapChunk(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    boolean isSpilled() {
+        return file != null;
+    }
+}
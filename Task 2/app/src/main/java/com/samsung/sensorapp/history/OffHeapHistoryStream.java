@@ -0,0 +1,289 @@
+package com.samsung.sensorapp.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Retained off-heap history of one sensor type
+ * Chunks are ordered oldest first; a prefix of them has been spilled to
+ * memory-mapped files and the rest are resident in direct buffers owned by
+ * the {@link OffHeapSensorHistory}. Cursors read both the same way. All state
+ * is guarded by the owning history's lock.
+ */
+public final class OffHeapHistoryStream extends HistorySource {
+    private final OffHeapSensorHistory owner;
+    private final int sensorType;
+    private final String sensorName;
+    private final int axisCount;
+    private final int chunkSamples;
+    private final int valuesOffset;
+    private final int accuraciesOffset;
+    private final long retentionNs;
+
+    private OffHeapChunk[] chunks = new OffHeapChunk[4];
+    /** Ring index of the oldest chunk */
+    private int firstChunk;
+    private int chunkCount;
+    /** Number of oldest chunks that live in spill files */
+    private int spilledCount;
+    private long firstSequence;
+    private long nextSequence;
+    private long newestTimestamp = Long.MIN_VALUE;
+    private long droppedCount;
+
+    OffHeapHistoryStream(OffHeapSensorHistory owner, int sensorType, String sensorName, int axisCount,
+                         int chunkBytes, long retentionNs) {
+        this.owner = owner;
+        this.sensorType = sensorType;
+        this.sensorName = sensorName;
+        this.axisCount = axisCount;
+        this.chunkSamples = chunkBytes / (8 + 4 * axisCount + 1);
+        this.valuesOffset = 8 * chunkSamples;
+        this.accuraciesOffset = valuesOffset + 4 * axisCount * chunkSamples;
+        this.retentionNs = retentionNs;
+    }
+
+    @Override
+    public int getSensorType() {
+        return sensorType;
+    }
+
+    /**
+     * Get the name of the sensor that delivered the first sample
+     */
+    @Override
+    public String getSensorName() {
+        return sensorName;
+    }
+
+    @Override
+    public int getAxisCount() {
+        return axisCount;
+    }
+
+    /**
+     * Get a cursor positioned before the oldest retained sample
+     */
+    public HistoryCursor cursor() {
+        return new HistoryCursor(this);
+    }
+
+    public long getSampleCount() {
+        synchronized (owner.lock) {
+            return nextSequence - firstSequence;
+        }
+    }
+
+    /**
+     * Get the timestamp of the oldest retained sample, or Long.MIN_VALUE if empty
+     */
+    public long getOldestTimestamp() {
+        synchronized (owner.lock) {
+            return chunkCount > 0 ? chunkAt(0).buffer.getLong(0) : Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Get the timestamp of the newest sample, or Long.MIN_VALUE if empty
+     */
+    public long getNewestTimestamp() {
+        synchronized (owner.lock) {
+            return newestTimestamp;
+        }
+    }
+
+    /**
+     * Get the number of samples dropped for going back in time or for lack of memory
+     */
+    public long getDroppedCount() {
+        synchronized (owner.lock) {
+            return droppedCount;
+        }
+    }
+
+    public int getResidentChunkCount() {
+        synchronized (owner.lock) {
+            return chunkCount - spilledCount;
+        }
+    }
+
+    public int getSpilledChunkCount() {
+        synchronized (owner.lock) {
+            return spilledCount;
+        }
+    }
+
+    /**
+     * Append one sample with the owner's lock held; missing axes are stored as NaN
+     * and extra values ignored
+     */
+    void append(long timestamp, float[] values, int offset, int valueCount, int accuracy) {
+        if (timestamp < newestTimestamp) {
+            droppedCount++;
+            return;
+        }
+        OffHeapChunk tail = chunkCount > 0 ? chunkAt(chunkCount - 1) : null;
+        if (tail == null || tail.size == chunkSamples) {
+            ByteBuffer buffer = owner.obtainBuffer();
+            if (buffer == null) {
+                droppedCount++;
+                return;
+            }
+            tail = addChunk(buffer);
+        }
+        ByteBuffer buffer = tail.buffer;
+        int index = tail.size;
+        buffer.putLong(index * 8, timestamp);
+        buffer.put(accuraciesOffset + index, (byte) accuracy);
+        int base = valuesOffset + index * axisCount * 4;
+        int copied = Math.min(valueCount, axisCount);
+        for (int axis = 0; axis < axisCount; axis++) {
+            buffer.putFloat(base + axis * 4, axis < copied ? values[offset + axis] : Float.NaN);
+        }
+        tail.size = index + 1;
+        tail.lastTimestamp = timestamp;
+        nextSequence++;
+        newestTimestamp = timestamp;
+        evictExpired();
+    }
+
+    @Override
+    boolean read(HistoryCursor cursor) {
+        synchronized (owner.lock) {
+            long sequence = Math.max(cursor.position, firstSequence);
+            if (sequence >= nextSequence) {
+                cursor.position = sequence;
+                return false;
+            }
+            long offset = sequence - firstSequence;
+            ByteBuffer buffer = chunkAt((int) (offset / chunkSamples)).buffer;
+            int index = (int) (offset % chunkSamples);
+            cursor.load(buffer.getLong(index * 8), buffer.get(accuraciesOffset + index),
+                    buffer, valuesOffset + index * axisCount * 4);
+            cursor.position = sequence + 1;
+            return true;
+        }
+    }
+
+    /**
+     * Get the timestamp of the oldest resident chunk if it is full and can be
+     * spilled, or Long.MAX_VALUE otherwise
+     */
+    long getSpillCandidateTimestamp() {
+        if (spilledCount == chunkCount) {
+            return Long.MAX_VALUE;
+        }
+        OffHeapChunk chunk = chunkAt(spilledCount);
+        return chunk.size == chunkSamples ? chunk.buffer.getLong(0) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Write the oldest resident chunk to a file in the directory, replace its
+     * buffer with a read-only mapping of that file and return the freed direct buffer
+     */
+    ByteBuffer spillOldestResident(File directory) throws IOException {
+        OffHeapChunk chunk = chunkAt(spilledCount);
+        File file = new File(directory, sensorType + "-" + (firstSequence + (long) spilledCount * chunkSamples)
+                + OffHeapSensorHistory.SPILL_FILE_SUFFIX);
+        ByteBuffer direct = chunk.buffer;
+        ByteBuffer mapped;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            ByteBuffer source = direct.duplicate();
+            source.clear();
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, direct.capacity());
+        } catch (IOException e) {
+            if (!file.delete() && file.exists()) {
+                file.deleteOnExit();
+            }
+            throw e;
+        }
+        chunk.buffer = mapped.order(ByteOrder.nativeOrder());
+        chunk.file = file;
+        spilledCount++;
+        return direct;
+    }
+
+    /**
+     * Drop every chunk up to and including the oldest resident one after a
+     * failed spill, so that the stream stays contiguous, and return its buffer
+     */
+    ByteBuffer dropThroughOldestResident() {
+        ByteBuffer direct = chunkAt(spilledCount).buffer;
+        int count = spilledCount + 1;
+        for (int i = 0; i < count; i++) {
+            removeOldest();
+        }
+        return direct;
+    }
+
+    /**
+     * Release every chunk, returning direct buffers to the owner and deleting spill files
+     */
+    void clear() {
+        while (chunkCount > 0) {
+            OffHeapChunk chunk = removeOldest();
+            if (!chunk.isSpilled()) {
+                owner.recycleBuffer(chunk.buffer);
+            }
+        }
+    }
+
+    private OffHeapChunk chunkAt(int index) {
+        int slot = firstChunk + index;
+        return chunks[slot < chunks.length ? slot : slot - chunks.length];
+    }
+
+    private OffHeapChunk addChunk(ByteBuffer buffer) {
+        OffHeapChunk chunk = new OffHeapChunk(buffer);
+        if (chunkCount == chunks.length) {
+            OffHeapChunk[] grown = new OffHeapChunk[chunks.length * 2];
+            for (int i = 0; i < chunkCount; i++) {
+                grown[i] = chunkAt(i);
+            }
+            chunks = grown;
+            firstChunk = 0;
+        }
+        int slot = firstChunk + chunkCount;
+        chunks[slot < chunks.length ? slot : slot - chunks.length] = chunk;
+        chunkCount++;
+        return chunk;
+    }
+
+    /**
+     * Unlink the oldest chunk, deleting its spill file; the caller owns a resident buffer
+     */
+    private OffHeapChunk removeOldest() {
+        OffHeapChunk chunk = chunks[firstChunk];
+        chunks[firstChunk] = null;
+        firstChunk = firstChunk + 1 < chunks.length ? firstChunk + 1 : 0;
+        chunkCount--;
+        firstSequence += chunk.size;
+        if (chunk.isSpilled()) {
+            spilledCount--;
+            owner.releaseSpillFile(chunk.file);
+            chunk.buffer = null;
+        }
+        if (chunkCount == 0) {
+            firstSequence = nextSequence;
+        }
+        return chunk;
+    }
+
+    private void evictExpired() {
+        long cutoff = newestTimestamp - retentionNs;
+        while (chunkCount > 1 && chunkAt(0).lastTimestamp < cutoff) {
+            OffHeapChunk chunk = removeOldest();
+            if (!chunk.isSpilled()) {
+                owner.recycleBuffer(chunk.buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.samsung.sensorapp.history;
+
+import android.util.Log;
+
+import com.samsung.sensorapp.manager.SensorEventListener;
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.util.SensorTypeRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Sensor history kept outside the Java heap with a hard memory cap
+ * Register it on SensorDataManager like {@link SensorHistory}. Samples are
+ * stored in fixed-size direct buffers shared by all sensor types, and at most
+ * {@code maxDirectBytes} of them are ever allocated. Once the cap is reached
+ * the oldest full chunk of any stream is written to a file in the spill
+ * directory and kept as a read-only memory mapping, so the kernel pages it in
+ * when a cursor reads it and out again under memory pressure, and its direct
+ * buffer is reused. The heap only holds a small object per chunk, so garbage
+ * collection work does not grow with the amount of history retained.
+ * Retention still drops whole chunks, deleting their spill files.
+ */
+public class OffHeapSensorHistory implements SensorEventListener {
+    private static final String TAG = "OffHeapSensorHistory";
+
+    public static final long DEFAULT_RETENTION_NS = 60 * 60 * 1_000_000_000L;
+    public static final int DEFAULT_CHUNK_BYTES = 64 * 1024;
+    /** Room for several samples of even the widest sensor */
+    public static final int MIN_CHUNK_BYTES = 1024;
+    static final String SPILL_FILE_SUFFIX = ".chunk";
+    private static final OffHeapHistoryStream[] NO_STREAMS = new OffHeapHistoryStream[0];
+
+    /** Guards every stream, the buffer pool and the spill accounting */
+    final Object lock = new Object();
+    private final File spillDirectory;
+    private final int chunkBytes;
+    private final int maxBuffers;
+    private final long retentionNs;
+
+    private volatile OffHeapHistoryStream[] streams = NO_STREAMS;
+    private ByteBuffer[] freeBuffers = new ByteBuffer[4];
+    private int freeCount;
+    private int allocatedBuffers;
+    private long spilledBytes;
+    private long spillCount;
+    private boolean closed;
+
+    /**
+     * Keep an hour of every sensor in 64 KiB chunks
+     *
+     * @param spillDirectory directory for spill files; any left by an earlier instance are deleted
+     * @param maxDirectBytes cap on direct buffer memory, at least one chunk
+     */
+    public OffHeapSensorHistory(File spillDirectory, long maxDirectBytes) throws IOException {
+        this(spillDirectory, maxDirectBytes, DEFAULT_CHUNK_BYTES, DEFAULT_RETENTION_NS);
+    }
+
+    /**
+     * @param chunkBytes size of every chunk, at least {@link #MIN_CHUNK_BYTES}; memory is allocated and spilled in these steps
+     * @param retentionNs how far back from the newest sample history is kept, at chunk granularity
+     */
+    public OffHeapSensorHistory(File spillDirectory, long maxDirectBytes, int chunkBytes, long retentionNs)
+            throws IOException {
+        if (chunkBytes < MIN_CHUNK_BYTES || maxDirectBytes < chunkBytes || retentionNs <= 0) {
+            throw new IllegalArgumentException("Invalid memory cap " + maxDirectBytes + ", chunk size "
+                    + chunkBytes + " or retention " + retentionNs);
+        }
+        if (!spillDirectory.isDirectory() && !spillDirectory.mkdirs()) {
+            throw new IOException("Cannot create spill directory " + spillDirectory);
+        }
+        this.spillDirectory = spillDirectory;
+        this.chunkBytes = chunkBytes;
+        this.maxBuffers = (int) Math.min(Integer.MAX_VALUE, maxDirectBytes / chunkBytes);
+        this.retentionNs = retentionNs;
+        deleteSpillFiles();
+    }
+
+    @Override
+    public void onSensorDataChanged(SensorData sensorData) {
+        float[] values = sensorData.getValues();
+        if (values.length == 0) {
+            return;
+        }
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            streamFor(sensorData.getSensorType(), sensorData.getSensorName(), values.length)
+                    .append(sensorData.getTimestamp(), values, 0, values.length, sensorData.getAccuracy());
+        }
+    }
+
+    @Override
+    public void onSensorDataBatch(int sensorType, long[] timestamps, float[] values,
+                                  int sampleCount, int valuesPerSample) {
+        if (sampleCount == 0 || valuesPerSample == 0) {
+            return;
+        }
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            OffHeapHistoryStream stream = streamFor(sensorType, SensorTypeRegistry.get(sensorType).getName(),
+                    valuesPerSample);
+            for (int i = 0; i < sampleCount; i++) {
+                stream.append(timestamps[i], values, i * valuesPerSample, valuesPerSample, -1);
+            }
+        }
+    }
+
+    @Override
+    public void onSensorAccuracyChanged(int accuracy) {
+        // Accuracy is stored per sample
+    }
+
+    @Override
+    public void onSensorError(String errorMessage) {
+        Log.e(TAG, "Sensor error while keeping history: " + errorMessage);
+    }
+
+    /**
+     * Get the history of a sensor type, or null if it has not delivered a sample yet
+     */
+    public OffHeapHistoryStream getStream(int sensorType) {
+        OffHeapHistoryStream[] current = streams;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].getSensorType() == sensorType) {
+                return current[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the direct buffer memory allocated so far, never more than the cap
+     */
+    public long getDirectBytes() {
+        synchronized (lock) {
+            return (long) allocatedBuffers * chunkBytes;
+        }
+    }
+
+    /**
+     * Get the size of the spill files currently on disk
+     */
+    public long getSpilledBytes() {
+        synchronized (lock) {
+            return spilledBytes;
+        }
+    }
+
+    /**
+     * Get the number of chunks spilled since creation
+     */
+    public long getSpillCount() {
+        synchronized (lock) {
+            return spillCount;
+        }
+    }
+
+    /**
+     * Drop all history and delete the spill files; later events are ignored
+     * Mappings of spilled chunks are released once their buffers are collected.
+     */
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (OffHeapHistoryStream stream : streams) {
+                stream.clear();
+            }
+            streams = NO_STREAMS;
+            freeBuffers = new ByteBuffer[0];
+            freeCount = 0;
+            allocatedBuffers = 0;
+        }
+    }
+
+    /**
+     * Get a direct buffer for a new chunk, spilling the oldest resident chunk
+     * once the cap is reached; null if nothing can be spilled
+     */
+    ByteBuffer obtainBuffer() {
+        if (freeCount > 0) {
+            ByteBuffer buffer = freeBuffers[--freeCount];
+            freeBuffers[freeCount] = null;
+            return buffer;
+        }
+        if (allocatedBuffers < maxBuffers) {
+            allocatedBuffers++;
+            return ByteBuffer.allocateDirect(chunkBytes).order(ByteOrder.nativeOrder());
+        }
+        OffHeapHistoryStream oldest = null;
+        long oldestTimestamp = Long.MAX_VALUE;
+        for (OffHeapHistoryStream stream : streams) {
+            long timestamp = stream.getSpillCandidateTimestamp();
+            if (timestamp < oldestTimestamp) {
+                oldestTimestamp = timestamp;
+                oldest = stream;
+            }
+        }
+        if (oldest == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = oldest.spillOldestResident(spillDirectory);
+            spilledBytes += chunkBytes;
+            spillCount++;
+            return buffer;
+        } catch (IOException e) {
+            Log.e(TAG, "Error spilling history chunk, dropping it", e);
+            return oldest.dropThroughOldestResident();
+        }
+    }
+
+    void recycleBuffer(ByteBuffer buffer) {
+        if (closed) {
+            return;
+        }
+        if (freeCount == freeBuffers.length) {
+            ByteBuffer[] grown = new ByteBuffer[freeBuffers.length * 2];
+            System.arraycopy(freeBuffers, 0, grown, 0, freeCount);
+            freeBuffers = grown;
+        }
+        freeBuffers[freeCount++] = buffer;
+    }
+
+    void releaseSpillFile(File file) {
+        spilledBytes -= chunkBytes;
+        if (!file.delete()) {
+            Log.e(TAG, "Cannot delete spill file " + file);
+        }
+    }
+
+    private void deleteSpillFiles() {
+        File[] files = spillDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.getName().endsWith(SPILL_FILE_SUFFIX) && !file.delete()) {
+                Log.e(TAG, "Cannot delete stale spill file " + file);
+            }
+        }
+    }
+
+    private OffHeapHistoryStream streamFor(int sensorType, String sensorName, int valueCount) {
+        OffHeapHistoryStream stream = getStream(sensorType);
+        if (stream == null) {
+            // Platforms may send more values than the registry labels, such as the
+            // heading accuracy of a rotation vector; keep them all
+            int axisCount = SensorTypeRegistry.isRegistered(sensorType)
+                    ? Math.max(SensorTypeRegistry.get(sensorType).getAxisCount(), valueCount) : valueCount;
+            stream = new OffHeapHistoryStream(this, sensorType, sensorName, axisCount, chunkBytes, retentionNs);
+            OffHeapHistoryStream[] current = streams;
+            OffHeapHistoryStream[] updated = new OffHeapHistoryStream[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = stream;
+            streams = updated;
+        }
+        return stream;
+    }
+}
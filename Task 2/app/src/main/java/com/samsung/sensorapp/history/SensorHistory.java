@@ -0,0 +1,129 @@
+package com.samsung.sensorapp.history;
+
+import android.util.Log;
+
+import com.samsung.sensorapp.manager.SensorEventListener;
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.util.SensorTypeRegistry;
+
+/**
+ * Compact in-memory history of sensor streams
+ * Register it on SensorDataManager like any other listener, either per event
+ * or as a batch listener, for as many sensor types as needed. Each sensor
+ * type gets its own {@link SensorHistoryStream} of primitive column chunks,
+ * created on its first sample with the registered axis count of the type
+ * (or the first sample's value count for unregistered types). Samples older
+ * than the retention period are dropped a chunk at a time.
+ */
+public class SensorHistory implements SensorEventListener {
+    private static final String TAG = "SensorHistory";
+
+    public static final long DEFAULT_RETENTION_NS = 10 * 60 * 1_000_000_000L;
+    public static final int DEFAULT_CHUNK_SAMPLES = 4096;
+    private static final SensorHistoryStream[] NO_STREAMS = new SensorHistoryStream[0];
+
+    private final long retentionNs;
+    private final int chunkSamples;
+    private final Object streamsLock = new Object();
+    private volatile SensorHistoryStream[] streams = NO_STREAMS;
+
+    /**
+     * Keep ten minutes of every sensor in chunks of 4096 samples
+     */
+    public SensorHistory() {
+        this(DEFAULT_RETENTION_NS, DEFAULT_CHUNK_SAMPLES);
+    }
+
+    /**
+     * @param retentionNs how far back from the newest sample history is kept, at chunk granularity
+     * @param chunkSamples samples per chunk; memory grows and shrinks in these steps
+     */
+    public SensorHistory(long retentionNs, int chunkSamples) {
+        if (retentionNs <= 0 || chunkSamples <= 0) {
+            throw new IllegalArgumentException("Invalid retention " + retentionNs
+                    + " or chunk size " + chunkSamples);
+        }
+        this.retentionNs = retentionNs;
+        this.chunkSamples = chunkSamples;
+    }
+
+    @Override
+    public void onSensorDataChanged(SensorData sensorData) {
+        float[] values = sensorData.getValues();
+        if (values.length == 0) {
+            return;
+        }
+        streamFor(sensorData.getSensorType(), sensorData.getSensorName(), values.length)
+                .append(sensorData.getTimestamp(), values, 0, values.length, sensorData.getAccuracy());
+    }
+
+    @Override
+    public void onSensorDataBatch(int sensorType, long[] timestamps, float[] values,
+                                  int sampleCount, int valuesPerSample) {
+        if (sampleCount == 0 || valuesPerSample == 0) {
+            return;
+        }
+        SensorHistoryStream stream = streamFor(sensorType, SensorTypeRegistry.get(sensorType).getName(),
+                valuesPerSample);
+        for (int i = 0; i < sampleCount; i++) {
+            stream.append(timestamps[i], values, i * valuesPerSample, valuesPerSample, -1);
+        }
+    }
+
+    @Override
+    public void onSensorAccuracyChanged(int accuracy) {
+        // Accuracy is stored per sample
+    }
+
+    @Override
+    public void onSensorError(String errorMessage) {
+        Log.e(TAG, "Sensor error while keeping history: " + errorMessage);
+    }
+
+    /**
+     * Get the history of a sensor type, or null if it has not delivered a sample yet
+     */
+    public SensorHistoryStream getStream(int sensorType) {
+        SensorHistoryStream[] current = streams;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].getSensorType() == sensorType) {
+                return current[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the approximate heap held by every stream
+     */
+    public long getRetainedBytes() {
+        long total = 0;
+        for (SensorHistoryStream stream : streams) {
+            total += stream.getRetainedBytes();
+        }
+        return total;
+    }
+
+    private SensorHistoryStream streamFor(int sensorType, String sensorName, int valueCount) {
+        SensorHistoryStream stream = getStream(sensorType);
+        if (stream != null) {
+            return stream;
+        }
+        synchronized (streamsLock) {
+            stream = getStream(sensorType);
+            if (stream == null) {
+                // Platforms may send more values than the registry labels, such as the
+                // heading accuracy of a rotation vector; keep them all
+                int axisCount = SensorTypeRegistry.isRegistered(sensorType)
+                        ? Math.max(SensorTypeRegistry.get(sensorType).getAxisCount(), valueCount) : valueCount;
+                stream = new SensorHistoryStream(sensorType, sensorName, axisCount, chunkSamples, retentionNs);
+                SensorHistoryStream[] current = streams;
+                SensorHistoryStream[] updated = new SensorHistoryStream[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, current.length);
+                updated[current.length] = stream;
+                streams = updated;
+            }
+            return stream;
+        }
+    }
+}
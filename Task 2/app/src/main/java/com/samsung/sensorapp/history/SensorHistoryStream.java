@@ -0,0 +1,182 @@
+package com.samsung.sensorapp.history;
+
+import java.util.Arrays;
+
+/**
+ * Retained history of one sensor type
+ * Samples live in primitive column chunks of a fixed number of samples:
+ * timestamps, values interleaved by axis and one accuracy byte each, about
+ * 21 bytes per three-axis sample instead of roughly 100 for a SensorData.
+ * Chunks are added as the history grows and the oldest whole chunk is
+ * dropped, and reused, once all of it is older than the retention period.
+ * Timestamps never go backwards; older samples are dropped. Appends and
+ * cursor reads synchronize on the stream, so it can be read from any thread
+ * while the dispatch thread appends.
+ */
+public final class SensorHistoryStream extends HistorySource {
+    private final int sensorType;
+    private final String sensorName;
+    private final int axisCount;
+    private final int chunkSamples;
+    private final long retentionNs;
+
+    private HistoryChunk[] chunks = new HistoryChunk[4];
+    /** Ring index of the oldest chunk */
+    private int firstChunk;
+    private int chunkCount;
+    private HistoryChunk spare;
+    /** Sequence number of the oldest retained sample, always at a chunk boundary */
+    private long firstSequence;
+    /** Sequence number the next sample will get */
+    private long nextSequence;
+    private long newestTimestamp = Long.MIN_VALUE;
+    private long droppedCount;
+
+    SensorHistoryStream(int sensorType, String sensorName, int axisCount, int chunkSamples, long retentionNs) {
+        this.sensorType = sensorType;
+        this.sensorName = sensorName;
+        this.axisCount = axisCount;
+        this.chunkSamples = chunkSamples;
+        this.retentionNs = retentionNs;
+    }
+
+    @Override
+    public int getSensorType() {
+        return sensorType;
+    }
+
+    /**
+     * Get the name of the sensor that delivered the first sample
+     */
+    @Override
+    public String getSensorName() {
+        return sensorName;
+    }
+
+    @Override
+    public int getAxisCount() {
+        return axisCount;
+    }
+
+    /**
+     * Get a cursor positioned before the oldest retained sample
+     */
+    public HistoryCursor cursor() {
+        return new HistoryCursor(this);
+    }
+
+    public synchronized long getSampleCount() {
+        return nextSequence - firstSequence;
+    }
+
+    /**
+     * Get the timestamp of the oldest retained sample, or Long.MIN_VALUE if empty
+     */
+    public synchronized long getOldestTimestamp() {
+        return chunkCount > 0 ? chunkAt(0).timestamps[0] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Get the timestamp of the newest sample, or Long.MIN_VALUE if empty
+     */
+    public synchronized long getNewestTimestamp() {
+        return newestTimestamp;
+    }
+
+    /**
+     * Get the number of samples dropped for going back in time
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Get the approximate heap held by this stream's chunks, including the spare one
+     */
+    public synchronized long getRetainedBytes() {
+        int allocated = chunkCount + (spare != null ? 1 : 0);
+        return allocated * HistoryChunk.footprintBytes(chunkSamples, axisCount);
+    }
+
+    /**
+     * Append one sample; missing axes are stored as NaN and extra values ignored
+     *
+     * @param accuracy sensor accuracy, or -1 if unknown
+     */
+    synchronized void append(long timestamp, float[] values, int offset, int valueCount, int accuracy) {
+        if (timestamp < newestTimestamp) {
+            droppedCount++;
+            return;
+        }
+        HistoryChunk tail = chunkCount > 0 ? chunkAt(chunkCount - 1) : null;
+        if (tail == null || tail.size == chunkSamples) {
+            tail = addChunk();
+        }
+        int index = tail.size;
+        tail.timestamps[index] = timestamp;
+        tail.accuracies[index] = (byte) accuracy;
+        int base = index * axisCount;
+        int copied = Math.min(valueCount, axisCount);
+        System.arraycopy(values, offset, tail.values, base, copied);
+        if (copied < axisCount) {
+            Arrays.fill(tail.values, base + copied, base + axisCount, Float.NaN);
+        }
+        tail.size = index + 1;
+        nextSequence++;
+        newestTimestamp = timestamp;
+        evictExpired();
+    }
+
+    @Override
+    synchronized boolean read(HistoryCursor cursor) {
+        long sequence = Math.max(cursor.position, firstSequence);
+        if (sequence >= nextSequence) {
+            cursor.position = sequence;
+            return false;
+        }
+        long offset = sequence - firstSequence;
+        HistoryChunk chunk = chunkAt((int) (offset / chunkSamples));
+        int index = (int) (offset % chunkSamples);
+        cursor.load(chunk.timestamps[index], chunk.accuracies[index], chunk.values, index * axisCount);
+        cursor.position = sequence + 1;
+        return true;
+    }
+
+    private HistoryChunk chunkAt(int index) {
+        int slot = firstChunk + index;
+        return chunks[slot < chunks.length ? slot : slot - chunks.length];
+    }
+
+    private HistoryChunk addChunk() {
+        HistoryChunk chunk = spare;
+        if (chunk != null) {
+            spare = null;
+            chunk.size = 0;
+        } else {
+            chunk = new HistoryChunk(chunkSamples, axisCount);
+        }
+        if (chunkCount == chunks.length) {
+            HistoryChunk[] grown = new HistoryChunk[chunks.length * 2];
+            for (int i = 0; i < chunkCount; i++) {
+                grown[i] = chunkAt(i);
+            }
+            chunks = grown;
+            firstChunk = 0;
+        }
+        int slot = firstChunk + chunkCount;
+        chunks[slot < chunks.length ? slot : slot - chunks.length] = chunk;
+        chunkCount++;
+        return chunk;
+    }
+
+    private void evictExpired() {
+        long cutoff = newestTimestamp - retentionNs;
+        while (chunkCount > 1 && chunkAt(0).timestamps[chunkSamples - 1] < cutoff) {
+            spare = chunks[firstChunk];
+            chunks[firstChunk] = null;
+            firstChunk = firstChunk + 1 < chunks.length ? firstChunk + 1 : 0;
+            chunkCount--;
+            firstSequence += chunkSamples;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Predicate compiled from a {@link SensorTrigger} for one registration
+ * Everything the condition needs is copied into primitive fields of one
+ * final class, so evaluating a sample is a field load, a switch on the kind
+ * and a comparison rather than a megamorphic call. The registry keeps kinds
+ * contiguous so the switch stays predictable, and above and below share one
+ * comparison by folding the direction into a sign. The debounce run length
+ * is shared by every kind: the trigger fires when the run reaches the
+ * required count and re-arms once the condition fails. State is only
+ * touched on the dispatch thread.
+ */
+final class CompiledTrigger {
+    private static final int THRESHOLD = 0;
+    private static final int HYSTERESIS = 1;
+    private static final int RATE_OF_CHANGE = 2;
+
+    final SensorTrigger trigger;
+    final TriggerListener listener;
+    final int kind;
+    private final int signal;
+    private final float sign;
+    private final float threshold;
+    private final float releaseLevel;
+    private final float ratePerNs;
+    private final int requiredRun;
+
+    private int run;
+    private boolean high;
+    private float previousValue = Float.NaN;
+    private long previousTimestamp;
+
+    CompiledTrigger(SensorTrigger trigger, TriggerListener listener) {
+        this.trigger = trigger;
+        this.listener = listener;
+        this.signal = trigger.getSignal();
+        this.requiredRun = trigger.getDebounceSamples();
+        this.releaseLevel = trigger.getReleaseLevel();
+        switch (trigger.getKind()) {
+            case ABOVE:
+            case BELOW:
+                this.kind = THRESHOLD;
+                break;
+            case HYSTERESIS:
+                this.kind = HYSTERESIS;
+                break;
+            default:
+                this.kind = RATE_OF_CHANGE;
+                break;
+        }
+        this.sign = trigger.getKind() == SensorTrigger.Kind.BELOW ? -1f : 1f;
+        this.threshold = sign * trigger.getThreshold();
+        this.ratePerNs = trigger.getThreshold() * 1e-9f;
+    }
+
+    /**
+     * Evaluate the condition on a sample
+     *
+     * @return whether the trigger fires on this sample
+     */
+    boolean evaluate(long timestamp, float[] values, float magnitude) {
+        // NaN for a missing axis fails every comparison below
+        float value = signal == SensorTrigger.MAGNITUDE ? magnitude
+                : signal < values.length ? values[signal] : Float.NaN;
+        boolean matched;
+        switch (kind) {
+            case THRESHOLD:
+                matched = sign * value >= threshold;
+                break;
+            case HYSTERESIS:
+                high = high ? value > releaseLevel : value >= threshold;
+                matched = high;
+                break;
+            default:
+                // |dv| / dt >= rate, kept free of division; NaN on the first sample fails it
+                long elapsedNs = timestamp - previousTimestamp;
+                matched = elapsedNs > 0 & Math.abs(value - previousValue) >= ratePerNs * elapsedNs;
+                previousValue = value;
+                previousTimestamp = timestamp;
+                break;
+        }
+        if (!matched) {
+            run = 0;
+            return false;
+        }
+        if (run > requiredRun) {
+            return false;
+        }
+        return ++run == requiredRun;
+    }
+}
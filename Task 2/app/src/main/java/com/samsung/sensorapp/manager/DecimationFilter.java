@@ -0,0 +1,13 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Anti-aliasing applied when a listener receives a sensor at a slower rate than it is sampled
+ */
+public enum DecimationFilter {
+    /** Deliver the latest raw sample at each tick */
+    NONE,
+    /** Deliver the mean of all samples since the previous tick */
+    BOX,
+    /** Deliver the output of a second-order Butterworth low-pass at a quarter of the listener's rate */
+    BIQUAD
+}
@@ -0,0 +1,149 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Delivers a sensor stream to one listener at the listener's own target rate
+ * Every event is offered on the sensor thread, but the listener is only called
+ * once per target period; in between it is never woken. Ticks advance by
+ * exactly one period so the long-run rate matches the target, and an event
+ * within half an input period of the tick counts as on time. A listener whose
+ * target is within an eighth of the incoming period receives every event, as
+ * hardware commonly runs slightly faster than the rate it was asked for.
+ * Filter state is kept in primitive arrays and only touched on the sensor thread.
+ */
+final class ListenerDecimator {
+    private static final double BIQUAD_CUTOFF_RATIO = 0.25;
+    private static final double BUTTERWORTH_Q = Math.sqrt(0.5);
+    private static final double REDESIGN_TOLERANCE = 0.1;
+    private static final double MAX_CUTOFF_FRACTION = 0.45;
+
+    final SensorEventListener listener;
+    final long periodNs;
+    final DecimationFilter filter;
+    final ListenerMetrics metrics;
+    private long nextDueNs = Long.MIN_VALUE;
+
+    private int valueCount = -1;
+    private float[] output = new float[0];
+    private double[] sums;
+    private int summed;
+    private double[] z1;
+    private double[] z2;
+    private boolean filterPrimed;
+    private long designPeriodNs;
+    private double b0;
+    private double b1;
+    private double b2;
+    private double a1;
+    private double a2;
+
+    ListenerDecimator(SensorEventListener listener, long periodNs, DecimationFilter filter) {
+        if (periodNs <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + periodNs);
+        }
+        this.listener = listener;
+        this.periodNs = periodNs;
+        this.filter = filter;
+        this.metrics = new ListenerMetrics(listener);
+    }
+
+    /**
+     * Offer the next event of the stream
+     *
+     * @param inputPeriodNs estimated period of the incoming stream, or 0 if not known yet
+     * @return whether the listener is due; filtered values are then in {@link #getOutput()}
+     */
+    boolean offer(long timestamp, float[] values, long inputPeriodNs) {
+        if (filter != DecimationFilter.NONE) {
+            accumulate(values, inputPeriodNs);
+        }
+        if (timestamp + inputPeriodNs / 2 < nextDueNs && periodNs > inputPeriodNs + inputPeriodNs / 8) {
+            return false;
+        }
+        long next = nextDueNs + periodNs;
+        nextDueNs = nextDueNs == Long.MIN_VALUE || next <= timestamp ? timestamp + periodNs : next;
+        if (filter == DecimationFilter.BOX) {
+            for (int i = 0; i < valueCount; i++) {
+                output[i] = (float) (sums[i] / summed);
+                sums[i] = 0.0;
+            }
+            summed = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Get the filtered values of the latest tick; only valid for BOX and BIQUAD
+     */
+    float[] getOutput() {
+        return output;
+    }
+
+    private void accumulate(float[] values, long inputPeriodNs) {
+        if (values.length != valueCount) {
+            valueCount = values.length;
+            output = new float[valueCount];
+            sums = new double[valueCount];
+            z1 = new double[valueCount];
+            z2 = new double[valueCount];
+            summed = 0;
+            filterPrimed = false;
+        }
+        if (filter == DecimationFilter.BOX) {
+            for (int i = 0; i < valueCount; i++) {
+                sums[i] += values[i];
+            }
+            summed++;
+        } else if (!design(inputPeriodNs)) {
+            // No useful low-pass for this input rate yet: pass samples through
+            System.arraycopy(values, 0, output, 0, valueCount);
+            filterPrimed = false;
+        } else {
+            for (int i = 0; i < valueCount; i++) {
+                double x = values[i];
+                if (!filterPrimed) {
+                    // Start from the steady state of a constant input to avoid a step response
+                    z1[i] = x * (1.0 - b0);
+                    z2[i] = x * (b2 - a2);
+                }
+                // Transposed direct form II
+                double y = b0 * x + z1[i];
+                z1[i] = b1 * x - a1 * y + z2[i];
+                z2[i] = b2 * x - a2 * y;
+                output[i] = (float) y;
+            }
+            filterPrimed = true;
+        }
+    }
+
+    /**
+     * Compute low-pass coefficients for the input rate, keeping the current ones
+     * while the rate stays within {@link #REDESIGN_TOLERANCE}
+     *
+     * @return false if the input rate is unknown or too slow to need filtering
+     */
+    private boolean design(long inputPeriodNs) {
+        if (inputPeriodNs <= 0) {
+            return false;
+        }
+        if (designPeriodNs > 0 && Math.abs(inputPeriodNs - designPeriodNs) <= designPeriodNs * REDESIGN_TOLERANCE) {
+            return true;
+        }
+        double cutoffFraction = BIQUAD_CUTOFF_RATIO * inputPeriodNs / periodNs;
+        if (cutoffFraction >= MAX_CUTOFF_FRACTION) {
+            designPeriodNs = 0;
+            return false;
+        }
+        // Audio EQ cookbook low-pass
+        double w0 = 2.0 * Math.PI * cutoffFraction;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2.0 * BUTTERWORTH_Q);
+        double a0 = 1.0 + alpha;
+        b0 = (1.0 - cos) / 2.0 / a0;
+        b1 = (1.0 - cos) / a0;
+        b2 = b0;
+        a1 = -2.0 * cos / a0;
+        a2 = (1.0 - alpha) / a0;
+        designPeriodNs = inputPeriodNs;
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Callback cost of one listener registration
+ * Durations are only recorded for the events picked for timing, while
+ * exceptions are counted on every callback. A registration that keeps
+ * overrunning the slow listener budget is given its own delivery lane.
+ */
+final class ListenerMetrics {
+    final SensorEventListener listener;
+    final LatencyHistogram callbackDuration = new LatencyHistogram();
+    final StripedCounter exceptions = new StripedCounter();
+    /** Timed callbacks over budget, less those within it; only touched on the dispatch thread */
+    int strikes;
+    /** Lane the listener is called on instead of the dispatch thread, or null while it keeps up */
+    volatile SlowListenerLane lane;
+
+    ListenerMetrics(SensorEventListener listener) {
+        this.listener = listener;
+    }
+
+    void reset() {
+        callbackDuration.reset();
+        exceptions.reset();
+    }
+}
@@ -0,0 +1,122 @@
+package com.samsung.sensorapp.manager;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Low-overhead metrics of the sensor pipeline owned by a {@link SensorDataManager}
+ * Every event bumps a striped counter of its sensor type and every listener
+ * exception is counted. Clock reads are the expensive part, so event age and
+ * callback durations are only measured on one in {@link #getTimingInterval()}
+ * events per sensor type, which keeps the histograms representative while
+ * the amortised cost stays in the tens of nanoseconds per event.
+ * The UI layer reports how many coalesced readings it applied or dropped
+ * through {@link #recordUiApplied(int)} and {@link #recordUiCoalesced(int)}.
+ */
+public final class PipelineMetrics {
+    public static final int DEFAULT_TIMING_INTERVAL = 64;
+
+    private final SensorListenerRegistry registry;
+    private final StripedCounter uiApplied = new StripedCounter();
+    private final StripedCounter uiCoalesced = new StripedCounter();
+    private volatile boolean enabled = true;
+    private volatile int timingInterval = DEFAULT_TIMING_INTERVAL;
+
+    PipelineMetrics(SensorListenerRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Enable or disable collection; enabled by default
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Set how many events of a sensor type pass per timed event
+     *
+     * @param interval 1 to time every event
+     */
+    public void setTimingInterval(int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Timing interval must be positive: " + interval);
+        }
+        this.timingInterval = interval;
+    }
+
+    public int getTimingInterval() {
+        return timingInterval;
+    }
+
+    /**
+     * Count readings that reached the screen
+     */
+    public void recordUiApplied(int count) {
+        if (enabled) {
+            uiApplied.add(count);
+        }
+    }
+
+    /**
+     * Count readings that were replaced by a newer one before reaching the screen
+     */
+    public void recordUiCoalesced(int count) {
+        if (enabled) {
+            uiCoalesced.add(count);
+        }
+    }
+
+    /**
+     * Capture the current values; safe to call from any thread
+     * Listeners appear while they are registered, sensor types for good.
+     */
+    public PipelineMetricsSnapshot snapshot() {
+        int[] sensorTypes = registry.getSensorTypes();
+        PipelineMetricsSnapshot.SensorStats[] sensors = new PipelineMetricsSnapshot.SensorStats[sensorTypes.length];
+        List<PipelineMetricsSnapshot.ListenerStats> listeners = new ArrayList<>();
+        for (int i = 0; i < sensorTypes.length; i++) {
+            SensorListenerRegistry.Entry entry = registry.get(sensorTypes[i]);
+            sensors[i] = new PipelineMetricsSnapshot.SensorStats(entry.sensorType, entry.metrics);
+            for (ListenerMetrics metrics : entry.getListenerMetrics()) {
+                listeners.add(new PipelineMetricsSnapshot.ListenerStats(entry.sensorType, metrics, false));
+            }
+            for (ListenerDecimator decimator : entry.getDecimators()) {
+                listeners.add(new PipelineMetricsSnapshot.ListenerStats(entry.sensorType, decimator.metrics, false));
+            }
+            for (ListenerMetrics metrics : entry.getBatchListenerMetrics()) {
+                listeners.add(new PipelineMetricsSnapshot.ListenerStats(entry.sensorType, metrics, true));
+            }
+        }
+        return new PipelineMetricsSnapshot(SystemClock.elapsedRealtimeNanos(), sensors,
+                listeners.toArray(new PipelineMetricsSnapshot.ListenerStats[0]),
+                uiApplied.sum(), uiCoalesced.sum());
+    }
+
+    /**
+     * Zero every counter and histogram
+     */
+    public void reset() {
+        for (int sensorType : registry.getSensorTypes()) {
+            SensorListenerRegistry.Entry entry = registry.get(sensorType);
+            entry.metrics.reset();
+            for (ListenerMetrics metrics : entry.getListenerMetrics()) {
+                metrics.reset();
+            }
+            for (ListenerDecimator decimator : entry.getDecimators()) {
+                decimator.metrics.reset();
+            }
+            for (ListenerMetrics metrics : entry.getBatchListenerMetrics()) {
+                metrics.reset();
+            }
+        }
+        uiApplied.reset();
+        uiCoalesced.reset();
+    }
+}
@@ -0,0 +1,296 @@
+package com.samsung.sensorapp.manager;
+
+import com.samsung.sensorapp.util.SensorTypeRegistry;
+
+import java.util.Locale;
+
+/**
+ * Immutable view of the pipeline metrics at the time it was taken
+ * Counters are cumulative since the manager was created or the metrics were
+ * reset; rates come from comparing two snapshots. Latencies are in
+ * nanoseconds and carry the histogram's bucket resolution of about 6%.
+ */
+public final class PipelineMetricsSnapshot {
+
+    /**
+     * Delivery metrics of one sensor type
+     */
+    public static final class SensorStats {
+        private final int sensorType;
+        private final long eventsIn;
+        private final long listenerExceptions;
+        private final long agedEvents;
+        private final long eventAgeP50Ns;
+        private final long eventAgeP99Ns;
+        private final long eventAgeMaxNs;
+
+        SensorStats(int sensorType, SensorMetrics metrics) {
+            this.sensorType = sensorType;
+            this.eventsIn = metrics.eventsIn.sum();
+            this.listenerExceptions = metrics.listenerExceptions.sum();
+            this.agedEvents = metrics.eventAge.getCount();
+            this.eventAgeP50Ns = metrics.eventAge.getPercentile(50);
+            this.eventAgeP99Ns = metrics.eventAge.getPercentile(99);
+            this.eventAgeMaxNs = metrics.eventAge.getMax();
+        }
+
+        public int getSensorType() {
+            return sensorType;
+        }
+
+        /**
+         * Get the number of events that reached the manager
+         */
+        public long getEventsIn() {
+            return eventsIn;
+        }
+
+        /**
+         * Get the number of exceptions thrown by any listener of the sensor type
+         */
+        public long getListenerExceptions() {
+            return listenerExceptions;
+        }
+
+        /**
+         * Get the number of events whose age was sampled
+         */
+        public long getAgedEvents() {
+            return agedEvents;
+        }
+
+        public long getEventAgeP50Ns() {
+            return eventAgeP50Ns;
+        }
+
+        public long getEventAgeP99Ns() {
+            return eventAgeP99Ns;
+        }
+
+        public long getEventAgeMaxNs() {
+            return eventAgeMaxNs;
+        }
+    }
+
+    /**
+     * Callback metrics of one listener registration
+     */
+    public static final class ListenerStats {
+        private final int sensorType;
+        private final String listenerName;
+        private final boolean batch;
+        private final long timedCallbacks;
+        private final long callbackP50Ns;
+        private final long callbackP99Ns;
+        private final long callbackMaxNs;
+        private final long exceptions;
+        private final boolean isolated;
+        private final long droppedEvents;
+
+        ListenerStats(int sensorType, ListenerMetrics metrics, boolean batch) {
+            this.sensorType = sensorType;
+            this.listenerName = nameOf(metrics.listener);
+            this.batch = batch;
+            this.timedCallbacks = metrics.callbackDuration.getCount();
+            this.callbackP50Ns = metrics.callbackDuration.getPercentile(50);
+            this.callbackP99Ns = metrics.callbackDuration.getPercentile(99);
+            this.callbackMaxNs = metrics.callbackDuration.getMax();
+            this.exceptions = metrics.exceptions.sum();
+            SlowListenerLane lane = metrics.lane;
+            this.isolated = lane != null;
+            this.droppedEvents = lane != null ? lane.getDroppedCount() : 0;
+        }
+
+        public int getSensorType() {
+            return sensorType;
+        }
+
+        /**
+         * Get the listener's class name without its package
+         */
+        public String getListenerName() {
+            return listenerName;
+        }
+
+        /**
+         * Check whether this is a batch listener registration
+         */
+        public boolean isBatch() {
+            return batch;
+        }
+
+        /**
+         * Get the number of callbacks whose duration was sampled
+         */
+        public long getTimedCallbacks() {
+            return timedCallbacks;
+        }
+
+        public long getCallbackP50Ns() {
+            return callbackP50Ns;
+        }
+
+        public long getCallbackP99Ns() {
+            return callbackP99Ns;
+        }
+
+        public long getCallbackMaxNs() {
+            return callbackMaxNs;
+        }
+
+        public long getExceptions() {
+            return exceptions;
+        }
+
+        /**
+         * Check whether the listener was moved to its own lane for being too slow
+         */
+        public boolean isIsolated() {
+            return isolated;
+        }
+
+        /**
+         * Get the number of events its lane dropped because the listener fell behind
+         */
+        public long getDroppedEvents() {
+            return droppedEvents;
+        }
+    }
+
+    private final long capturedAtNs;
+    private final SensorStats[] sensors;
+    private final ListenerStats[] listeners;
+    private final long uiApplied;
+    private final long uiCoalesced;
+
+    PipelineMetricsSnapshot(long capturedAtNs, SensorStats[] sensors, ListenerStats[] listeners,
+                            long uiApplied, long uiCoalesced) {
+        this.capturedAtNs = capturedAtNs;
+        this.sensors = sensors;
+        this.listeners = listeners;
+        this.uiApplied = uiApplied;
+        this.uiCoalesced = uiCoalesced;
+    }
+
+    /**
+     * Get the elapsed realtime the snapshot was taken at, in nanoseconds
+     */
+    public long getCapturedAtNs() {
+        return capturedAtNs;
+    }
+
+    public int getSensorCount() {
+        return sensors.length;
+    }
+
+    public SensorStats getSensor(int index) {
+        return sensors[index];
+    }
+
+    /**
+     * Get the stats of a sensor type, or null if it never had subscribers
+     */
+    public SensorStats findSensor(int sensorType) {
+        for (SensorStats stats : sensors) {
+            if (stats.sensorType == sensorType) {
+                return stats;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the number of listener registrations, grouped by sensor type
+     */
+    public int getListenerCount() {
+        return listeners.length;
+    }
+
+    public ListenerStats getListener(int index) {
+        return listeners[index];
+    }
+
+    /**
+     * Get the number of coalesced readings that reached the UI
+     */
+    public long getUiApplied() {
+        return uiApplied;
+    }
+
+    /**
+     * Get the number of readings replaced by a newer one before the UI applied them
+     */
+    public long getUiCoalesced() {
+        return uiCoalesced;
+    }
+
+    /**
+     * Get the rate events of a sensor type arrived at since an earlier snapshot, in Hz
+     */
+    public double getEventRateHz(int sensorType, PipelineMetricsSnapshot previous) {
+        SensorStats current = findSensor(sensorType);
+        long elapsedNs = capturedAtNs - previous.capturedAtNs;
+        if (current == null || elapsedNs <= 0) {
+            return 0;
+        }
+        SensorStats before = previous.findSensor(sensorType);
+        long events = current.eventsIn - (before != null ? before.eventsIn : 0);
+        return events * 1e9 / elapsedNs;
+    }
+
+    /**
+     * Render the snapshot as one line per sensor type and listener
+     *
+     * @param previous earlier snapshot to compute event rates from, or null
+     */
+    public String format(PipelineMetricsSnapshot previous) {
+        StringBuilder text = new StringBuilder();
+        for (SensorStats stats : sensors) {
+            text.append(sensorLabel(stats.sensorType)).append(": ").append(stats.eventsIn).append(" in");
+            if (previous != null) {
+                text.append(String.format(Locale.US, " (%.1f Hz)", getEventRateHz(stats.sensorType, previous)));
+            }
+            text.append(", age p50 ").append(formatNanos(stats.eventAgeP50Ns))
+                    .append(" p99 ").append(formatNanos(stats.eventAgeP99Ns))
+                    .append(", exceptions ").append(stats.listenerExceptions).append('\n');
+            for (ListenerStats listener : listeners) {
+                if (listener.sensorType == stats.sensorType) {
+                    text.append("  ").append(listener.listenerName).append(listener.batch ? " [batch]" : "")
+                            .append(": p50 ").append(formatNanos(listener.callbackP50Ns))
+                            .append(" p99 ").append(formatNanos(listener.callbackP99Ns))
+                            .append(" max ").append(formatNanos(listener.callbackMaxNs))
+                            .append(", exceptions ").append(listener.exceptions);
+                    if (listener.isolated) {
+                        text.append(", isolated, ").append(listener.droppedEvents).append(" dropped");
+                    }
+                    text.append('\n');
+                }
+            }
+        }
+        text.append("UI: ").append(uiApplied).append(" applied, ").append(uiCoalesced).append(" coalesced");
+        return text.toString();
+    }
+
+    private static String sensorLabel(int sensorType) {
+        return SensorTypeRegistry.isRegistered(sensorType)
+                ? SensorTypeRegistry.get(sensorType).getName() : "Type " + sensorType;
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + " ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format(Locale.US, "%.1f µs", nanos / 1e3);
+        }
+        return String.format(Locale.US, "%.1f ms", nanos / 1e6);
+    }
+
+    private static String nameOf(SensorEventListener listener) {
+        if (listener == null) {
+            return "null";
+        }
+        String name = listener.getClass().getName();
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,152 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+import android.hardware.SensorEventListener2;
+import android.hardware.SensorManager;
+import android.os.Build;
+import android.os.Handler;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event source backed by Android's SensorManager
+ */
+public class PlatformSensorEventSource implements SensorEventSource {
+    private final SensorManager sensorManager;
+    private final Map<Sink, PlatformListener> listeners = new IdentityHashMap<>();
+    private SensorManager.DynamicSensorCallback dynamicSensorCallback;
+
+    public PlatformSensorEventSource(SensorManager sensorManager) {
+        this.sensorManager = sensorManager;
+    }
+
+    @Override
+    public boolean isSensorAvailable(int sensorType) {
+        return sensorManager.getDefaultSensor(sensorType) != null;
+    }
+
+    @Override
+    public String getSensorName(int sensorType) {
+        Sensor sensor = sensorManager.getDefaultSensor(sensorType);
+        return sensor != null ? sensor.getName() : null;
+    }
+
+    @Override
+    public int getFifoMaxEventCount(int sensorType) {
+        Sensor sensor = sensorManager.getDefaultSensor(sensorType);
+        return sensor != null ? sensor.getFifoMaxEventCount() : 0;
+    }
+
+    @Override
+    public boolean register(int sensorType, Sink sink, int samplingPeriodUs, int maxReportLatencyUs, Handler handler) {
+        Sensor sensor = sensorManager.getDefaultSensor(sensorType);
+        if (sensor == null) {
+            return false;
+        }
+        PlatformListener listener = new PlatformListener(sink);
+        synchronized (listeners) {
+            listeners.put(sink, listener);
+        }
+        boolean registered;
+        if (handler != null) {
+            registered = sensorManager.registerListener(listener, sensor, samplingPeriodUs, maxReportLatencyUs, handler);
+        } else if (maxReportLatencyUs > 0) {
+            registered = sensorManager.registerListener(listener, sensor, samplingPeriodUs, maxReportLatencyUs);
+        } else {
+            registered = sensorManager.registerListener(listener, sensor, samplingPeriodUs);
+        }
+        if (!registered) {
+            synchronized (listeners) {
+                listeners.remove(sink);
+            }
+        }
+        return registered;
+    }
+
+    @Override
+    public void unregister(Sink sink) {
+        PlatformListener listener;
+        synchronized (listeners) {
+            listener = listeners.remove(sink);
+        }
+        if (listener != null) {
+            sensorManager.unregisterListener(listener);
+        }
+    }
+
+    @Override
+    public boolean flush(Sink sink) {
+        PlatformListener listener;
+        synchronized (listeners) {
+            listener = listeners.get(sink);
+        }
+        return listener != null && sensorManager.flush(listener);
+    }
+
+    @Override
+    public List<Sensor> getSensorList() {
+        return sensorManager.getSensorList(Sensor.TYPE_ALL);
+    }
+
+    @Override
+    public Sensor getDefaultSensor(int sensorType) {
+        return sensorManager.getDefaultSensor(sensorType);
+    }
+
+    /**
+     * Dynamic sensor callbacks exist from API 24; earlier devices never change their sensor list
+     */
+    @Override
+    public synchronized void setSensorListListener(Runnable listener) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+            return;
+        }
+        if (dynamicSensorCallback != null) {
+            sensorManager.unregisterDynamicSensorCallback(dynamicSensorCallback);
+            dynamicSensorCallback = null;
+        }
+        if (listener != null) {
+            dynamicSensorCallback = new SensorManager.DynamicSensorCallback() {
+                @Override
+                public void onDynamicSensorConnected(Sensor sensor) {
+                    listener.run();
+                }
+
+                @Override
+                public void onDynamicSensorDisconnected(Sensor sensor) {
+                    listener.run();
+                }
+            };
+            sensorManager.registerDynamicSensorCallback(dynamicSensorCallback);
+        }
+    }
+
+    /**
+     * Adapts platform callbacks to a sink
+     */
+    private static final class PlatformListener implements SensorEventListener2 {
+        private final Sink sink;
+
+        PlatformListener(Sink sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void onSensorChanged(SensorEvent event) {
+            sink.onSensorChanged(event.sensor.getName(), event.values, event.accuracy, event.timestamp);
+        }
+
+        @Override
+        public void onAccuracyChanged(Sensor sensor, int accuracy) {
+            sink.onAccuracyChanged(accuracy);
+        }
+
+        @Override
+        public void onFlushCompleted(Sensor sensor) {
+            sink.onFlushCompleted();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.os.Handler;
+
+import com.samsung.sensorapp.util.SensorConstants;
+import com.samsung.sensorapp.util.SensorDataMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Deterministic event source that runs on a plain JVM
+ * Events are produced on a virtual clock by a {@link Generator} and delivered
+ * on the thread that calls {@link #advance(long)} or {@link #emit(long)}, so a
+ * given generator and call sequence always yields the same event stream.
+ * Registered sensors are interleaved in timestamp order at their requested
+ * periods. Delivery handlers are ignored; use it with
+ * {@link SensorDataManager.DispatchMode#MAIN_LOOPER}.
+ */
+public class ReplaySensorEventSource implements SensorEventSource {
+    public static final int DEFAULT_FASTEST_PERIOD_US = 1000;
+
+    /**
+     * Produces the values of each replayed sample
+     */
+    public interface Generator {
+        int getValueCount(int sensorType);
+
+        /**
+         * Fill values for the index-th sample of a registration
+         */
+        void generate(int sensorType, long index, long timestamp, float[] values);
+    }
+
+    private static final Registration[] NO_REGISTRATIONS = new Registration[0];
+
+    private static final class Registration {
+        final int sensorType;
+        final Sink sink;
+        final String sensorName;
+        final long periodNs;
+        final float[] values;
+        long nextTimestamp;
+        long index;
+        volatile boolean flushRequested;
+
+        Registration(int sensorType, Sink sink, String sensorName, long periodNs, int valueCount, long startTimestamp) {
+            this.sensorType = sensorType;
+            this.sink = sink;
+            this.sensorName = sensorName;
+            this.periodNs = periodNs;
+            this.values = new float[valueCount];
+            this.nextTimestamp = startTimestamp + periodNs;
+        }
+    }
+
+    private volatile int[] sensorTypes;
+    private volatile Runnable sensorListListener;
+    private final Generator generator;
+    private volatile Registration[] registrations = NO_REGISTRATIONS;
+    private volatile boolean flushRequested;
+    private volatile long timestamp;
+    private volatile long emittedCount;
+    private volatile int registerCallCount;
+    private int fastestPeriodUs = DEFAULT_FASTEST_PERIOD_US;
+
+    /**
+     * Create a source offering every common sensor type with synthetic values
+     */
+    public ReplaySensorEventSource() {
+        this(SensorConstants.COMMON_SENSOR_TYPES, new SyntheticSensorGenerator(0));
+    }
+
+    public ReplaySensorEventSource(int[] sensorTypes, Generator generator) {
+        this.sensorTypes = sensorTypes.clone();
+        this.generator = generator;
+    }
+
+    /**
+     * Set the period used for SENSOR_DELAY_FASTEST registrations
+     */
+    public synchronized void setFastestPeriodUs(int fastestPeriodUs) {
+        if (fastestPeriodUs <= 0) {
+            throw new IllegalArgumentException("Fastest period must be positive: " + fastestPeriodUs);
+        }
+        this.fastestPeriodUs = fastestPeriodUs;
+    }
+
+    @Override
+    public boolean isSensorAvailable(int sensorType) {
+        for (int type : sensorTypes) {
+            if (type == sensorType) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String getSensorName(int sensorType) {
+        return isSensorAvailable(sensorType) ? SensorDataMapper.getSensorTypeName(sensorType) : null;
+    }
+
+    @Override
+    public int getFifoMaxEventCount(int sensorType) {
+        return 0;
+    }
+
+    @Override
+    public synchronized boolean register(int sensorType, Sink sink, int samplingPeriodUs,
+                                         int maxReportLatencyUs, Handler handler) {
+        if (!isSensorAvailable(sensorType)) {
+            return false;
+        }
+        long periodNs = SamplingPeriods.toMicros(samplingPeriodUs, fastestPeriodUs) * 1000L;
+        Registration registration = new Registration(sensorType, sink, getSensorName(sensorType), periodNs,
+                generator.getValueCount(sensorType), timestamp);
+        Registration[] current = registrations;
+        Registration[] updated = new Registration[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = registration;
+        registrations = updated;
+        registerCallCount++;
+        return true;
+    }
+
+    @Override
+    public synchronized void unregister(Sink sink) {
+        Registration[] current = registrations;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].sink == sink) {
+                Registration[] updated = new Registration[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                registrations = updated.length == 0 ? NO_REGISTRATIONS : updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Request a flush; {@link Sink#onFlushCompleted()} is delivered on the next
+     * {@link #advance(long)} or {@link #emit(long)} call
+     */
+    @Override
+    public boolean flush(Sink sink) {
+        for (Registration registration : registrations) {
+            if (registration.sink == sink) {
+                registration.flushRequested = true;
+                flushRequested = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Make a sensor type available, as if a dynamic sensor had been connected
+     */
+    public void connectSensor(int sensorType) {
+        synchronized (this) {
+            if (isSensorAvailable(sensorType)) {
+                return;
+            }
+            int[] updated = Arrays.copyOf(sensorTypes, sensorTypes.length + 1);
+            updated[sensorTypes.length] = sensorType;
+            sensorTypes = updated;
+        }
+        notifySensorListChanged();
+    }
+
+    /**
+     * Make a sensor type unavailable, as if a dynamic sensor had been disconnected
+     * Existing registrations of the type keep running until they are unregistered.
+     */
+    public void disconnectSensor(int sensorType) {
+        synchronized (this) {
+            int[] current = sensorTypes;
+            int[] updated = new int[current.length];
+            int count = 0;
+            for (int type : current) {
+                if (type != sensorType) {
+                    updated[count++] = type;
+                }
+            }
+            if (count == current.length) {
+                return;
+            }
+            sensorTypes = Arrays.copyOf(updated, count);
+        }
+        notifySensorListChanged();
+    }
+
+    @Override
+    public void setSensorListListener(Runnable listener) {
+        sensorListListener = listener;
+    }
+
+    private void notifySensorListChanged() {
+        Runnable listener = sensorListListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    @Override
+    public List<Sensor> getSensorList() {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public Sensor getDefaultSensor(int sensorType) {
+        return null;
+    }
+
+    /**
+     * Advance the virtual clock, delivering every event due in that interval
+     *
+     * @return the number of events delivered
+     */
+    public long advance(long durationNs) {
+        long until = timestamp + durationNs;
+        long emitted = run(until, Long.MAX_VALUE);
+        timestamp = Math.max(timestamp, until);
+        return emitted;
+    }
+
+    /**
+     * Deliver the next eventCount events, advancing the virtual clock as far as needed
+     *
+     * @return the number of events delivered; less than requested only if nothing is registered
+     */
+    public long emit(long eventCount) {
+        return run(Long.MAX_VALUE, eventCount);
+    }
+
+    private long run(long until, long maxEvents) {
+        long emitted = 0;
+        while (emitted < maxEvents) {
+            if (flushRequested) {
+                deliverFlushes();
+            }
+            Registration[] current = registrations;
+            Registration next = null;
+            for (int i = 0; i < current.length; i++) {
+                if (next == null || current[i].nextTimestamp < next.nextTimestamp) {
+                    next = current[i];
+                }
+            }
+            if (next == null || next.nextTimestamp > until) {
+                break;
+            }
+
+            long eventTimestamp = next.nextTimestamp;
+            timestamp = eventTimestamp;
+            generator.generate(next.sensorType, next.index, eventTimestamp, next.values);
+            next.index++;
+            next.nextTimestamp = eventTimestamp + next.periodNs;
+            next.sink.onSensorChanged(next.sensorName, next.values, SensorManager.SENSOR_STATUS_ACCURACY_HIGH,
+                    eventTimestamp);
+            emitted++;
+        }
+        emittedCount += emitted;
+        if (flushRequested) {
+            deliverFlushes();
+        }
+        return emitted;
+    }
+
+    private void deliverFlushes() {
+        flushRequested = false;
+        for (Registration registration : registrations) {
+            if (registration.flushRequested) {
+                registration.flushRequested = false;
+                registration.sink.onFlushCompleted();
+            }
+        }
+    }
+
+    /**
+     * Get the virtual clock in nanoseconds; it starts at 0
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get the total number of events delivered
+     */
+    public long getEmittedCount() {
+        return emittedCount;
+    }
+
+    /**
+     * Get the number of successful register calls so far, including re-registrations
+     */
+    public int getRegisterCallCount() {
+        return registerCallCount;
+    }
+
+    /**
+     * Get the number of sinks currently registered
+     */
+    public int getRegistrationCount() {
+        return registrations.length;
+    }
+}
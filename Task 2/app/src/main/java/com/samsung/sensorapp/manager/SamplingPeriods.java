@@ -0,0 +1,40 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.SensorManager;
+
+/**
+ * Conversion of registration sampling periods to microseconds
+ * Registrations take either a SENSOR_DELAY_* constant or a period in microseconds.
+ */
+final class SamplingPeriods {
+    // Periods the platform uses for the SENSOR_DELAY_* constants
+    static final int GAME_PERIOD_US = 20000;
+    static final int UI_PERIOD_US = 66667;
+    static final int NORMAL_PERIOD_US = 200000;
+
+    private SamplingPeriods() {
+    }
+
+    /**
+     * Get the period in microseconds for a registration sampling period
+     *
+     * @param fastestPeriodUs period to use for SENSOR_DELAY_FASTEST
+     */
+    static int toMicros(int samplingPeriodUs, int fastestPeriodUs) {
+        switch (samplingPeriodUs) {
+            case SensorManager.SENSOR_DELAY_FASTEST:
+                return fastestPeriodUs;
+            case SensorManager.SENSOR_DELAY_GAME:
+                return GAME_PERIOD_US;
+            case SensorManager.SENSOR_DELAY_UI:
+                return UI_PERIOD_US;
+            case SensorManager.SENSOR_DELAY_NORMAL:
+                return NORMAL_PERIOD_US;
+            default:
+                if (samplingPeriodUs < 0) {
+                    throw new IllegalArgumentException("Invalid sampling period: " + samplingPeriodUs);
+                }
+                return samplingPeriodUs;
+        }
+    }
+}
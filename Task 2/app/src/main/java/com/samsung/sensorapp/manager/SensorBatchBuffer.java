@@ -0,0 +1,74 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Accumulates consecutive samples of one sensor into contiguous primitive blocks
+ * for batch listeners. Only touched from the sensor callback thread.
+ */
+final class SensorBatchBuffer {
+    static final int MIN_CAPACITY = 64;
+    static final int MAX_CAPACITY = 4096;
+
+    private final int capacity;
+    private final long maxReportLatencyNs;
+    private final long[] timestamps;
+    private float[] values;
+    private int valuesPerSample;
+    private int count;
+
+    SensorBatchBuffer(int capacity, long maxReportLatencyNs) {
+        this.capacity = Math.max(MIN_CAPACITY, Math.min(MAX_CAPACITY, capacity));
+        this.maxReportLatencyNs = maxReportLatencyNs;
+        this.timestamps = new long[this.capacity];
+    }
+
+    /**
+     * Whether a sample with the given number of values can join the pending batch
+     * A batch has one width, so deliver it before appending a sample of another.
+     */
+    boolean accepts(int valueCount) {
+        return count == 0 || valueCount == valuesPerSample;
+    }
+
+    /**
+     * Append a sample the batch {@link #accepts(int) accepts}
+     *
+     * @return true if the batch is now due for delivery
+     */
+    boolean append(long timestamp, float[] sampleValues) {
+        if (values == null || (count == 0 && sampleValues.length != valuesPerSample)) {
+            valuesPerSample = sampleValues.length;
+            values = new float[capacity * valuesPerSample];
+        }
+        timestamps[count] = timestamp;
+        System.arraycopy(sampleValues, 0, values, count * valuesPerSample, valuesPerSample);
+        count++;
+        return count == capacity || timestamp - timestamps[0] >= maxReportLatencyNs;
+    }
+
+    long getMaxReportLatencyNs() {
+        return maxReportLatencyNs;
+    }
+
+    long[] getTimestamps() {
+        return timestamps;
+    }
+
+    float[] getValues() {
+        return values;
+    }
+
+    int getValuesPerSample() {
+        return valuesPerSample;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    /**
+     * Start a new batch once the pending block has been delivered
+     */
+    void clear() {
+        count = 0;
+    }
+}
@@ -0,0 +1,131 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Snapshot of the sensors an event source exposes
+ * The sensor list is enumerated once when the catalog is built, and sensors
+ * are addressed by their index in it. Display strings are formatted the
+ * first time they are asked for and then kept, and availability of the
+ * common sensor types is remembered after the first lookup. Obtain it from
+ * {@link SensorDataManager#getSensorCatalog()}, which replaces the catalog
+ * when a dynamic sensor connects or disconnects.
+ */
+public final class SensorCatalog {
+    /** Sensor types below this are memoized in flat arrays; the rest go to the source */
+    private static final int DENSE_TYPE_LIMIT = 64;
+    private static final byte UNKNOWN = 0;
+    private static final byte AVAILABLE = 1;
+    private static final byte UNAVAILABLE = 2;
+
+    private final SensorEventSource source;
+    private final Sensor[] sensors;
+    private final List<Sensor> sensorList;
+    private final Sensor[] defaultSensors = new Sensor[DENSE_TYPE_LIMIT];
+    private final byte[] availability = new byte[DENSE_TYPE_LIMIT];
+    private final String[] typeLabels;
+    private final String[] details;
+
+    SensorCatalog(SensorEventSource source) {
+        this.source = source;
+        List<Sensor> list = source != null ? source.getSensorList() : null;
+        this.sensors = list != null ? list.toArray(new Sensor[0]) : new Sensor[0];
+        this.sensorList = Collections.unmodifiableList(Arrays.asList(sensors));
+        this.typeLabels = new String[sensors.length];
+        this.details = new String[sensors.length];
+        for (Sensor sensor : sensors) {
+            int type = sensor.getType();
+            if (isDense(type) && availability[type] == UNKNOWN) {
+                defaultSensors[type] = source.getDefaultSensor(type);
+                availability[type] = defaultSensors[type] != null ? AVAILABLE : UNAVAILABLE;
+            }
+        }
+    }
+
+    public int size() {
+        return sensors.length;
+    }
+
+    public Sensor getSensor(int index) {
+        return sensors[index];
+    }
+
+    /**
+     * Get every sensor in catalog order as an unmodifiable list
+     */
+    public List<Sensor> getSensorList() {
+        return sensorList;
+    }
+
+    /**
+     * Get the default sensor of a type, or null if the source has no hardware sensor for it
+     */
+    public Sensor getDefaultSensor(int sensorType) {
+        if (source == null) {
+            return null;
+        }
+        // Sources without hardware list no sensors, so only a listed source can be answered from the table
+        if (!isDense(sensorType) || sensors.length == 0) {
+            return source.getDefaultSensor(sensorType);
+        }
+        return defaultSensors[sensorType];
+    }
+
+    /**
+     * Check whether the source can deliver a sensor type
+     */
+    public boolean isAvailable(int sensorType) {
+        if (source == null) {
+            return false;
+        }
+        if (!isDense(sensorType)) {
+            return source.isSensorAvailable(sensorType);
+        }
+        byte known = availability[sensorType];
+        if (known == UNKNOWN) {
+            // Racing threads store the same answer
+            known = source.isSensorAvailable(sensorType) ? AVAILABLE : UNAVAILABLE;
+            availability[sensorType] = known;
+        }
+        return known == AVAILABLE;
+    }
+
+    public String getName(int index) {
+        return sensors[index].getName();
+    }
+
+    /**
+     * Get the "Type: ..." line shown for a sensor
+     */
+    public String getTypeLabel(int index) {
+        String label = typeLabels[index];
+        if (label == null) {
+            label = "Type: " + sensors[index].getStringType();
+            typeLabels[index] = label;
+        }
+        return label;
+    }
+
+    /**
+     * Get the power, range and vendor line shown for a sensor
+     */
+    public String getDetails(int index) {
+        String line = details[index];
+        if (line == null) {
+            Sensor sensor = sensors[index];
+            line = String.format(Locale.getDefault(), "Power: %.2f mA | Range: %.2f | Vendor: %s",
+                    sensor.getPower(), sensor.getMaximumRange(), sensor.getVendor());
+            details[index] = line;
+        }
+        return line;
+    }
+
+    private static boolean isDense(int sensorType) {
+        return sensorType >= 0 && sensorType < DENSE_TYPE_LIMIT;
+    }
+}
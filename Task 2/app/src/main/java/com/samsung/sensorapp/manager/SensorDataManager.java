@@ -2,50 +2,231 @@ package com.samsung.sensorapp.manager;
 
 import android.content.Context;
 import android.hardware.Sensor;
-import android.hardware.SensorEvent;
-import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.os.Handler;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.model.SensorDataPool;
 import com.samsung.sensorapp.util.SensorDataMapper;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * SensorManager wrapper to handle sensor data reading and management
  * This class abstracts Android's native SensorManager and provides
- * a cleaner interface for sensor data acquisition
+ * a cleaner interface for sensor data acquisition. Raw events come from a
+ * {@link SensorEventSource}, so the pipeline can also run off-device.
  */
 public class SensorDataManager {
     private static final String TAG = "SensorDataManager";
+    public static final int DEFAULT_DISPATCH_THREAD_COUNT = 2;
+    public static final long DEFAULT_SLOW_LISTENER_BUDGET_NS = 1_000_000L;
+    public static final int DEFAULT_SLOW_LISTENER_STRIKES = 3;
+    public static final int DEFAULT_SLOW_LISTENER_LANE_CAPACITY = 64;
 
-    private final Context context;
-    private final SensorManager sensorManager;
-    private final Map<Integer, List<com.samsung.sensorapp.manager.SensorEventListener>> listenerMap;
-    private final Map<Integer, SensorEventListenerImpl> sensorListenerMap;
+    /**
+     * Thread on which sensor callbacks are received and processed
+     */
+    public enum DispatchMode {
+        /** Platform default: callbacks arrive on the main looper */
+        MAIN_LOOPER,
+        /** Callbacks arrive on manager-owned background threads sharded by sensor type */
+        DISPATCH_THREADS
+    }
+
+    /**
+     * Told about listeners that were moved off the dispatch thread for being too slow
+     */
+    public interface SlowListenerCallback {
+        /**
+         * Called on the dispatch thread once the listener runs on its own lane
+         *
+         * @param callbackDurationNs duration of the callback that triggered the move
+         */
+        void onSlowListenerIsolated(int sensorType, com.samsung.sensorapp.manager.SensorEventListener listener,
+                                    long callbackDurationNs);
+    }
+
+    /**
+     * Budget and lane size applied to listeners while slow listener isolation is enabled
+     */
+    private static final class SlowListenerPolicy {
+        final long budgetNs;
+        final int strikes;
+        final int laneCapacity;
+        final SlowListenerCallback callback;
+
+        SlowListenerPolicy(long budgetNs, int strikes, int laneCapacity, SlowListenerCallback callback) {
+            this.budgetNs = budgetNs;
+            this.strikes = strikes;
+            this.laneCapacity = laneCapacity;
+            this.callback = callback;
+        }
+    }
+
+    private final SensorEventSource eventSource;
+    final SensorListenerRegistry registry;
+    private final DispatchMode dispatchMode;
+    private final int dispatchThreadCount;
+    private SensorDispatchThreads dispatchThreads;
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+    private final PipelineMetrics pipelineMetrics;
+    private volatile SlowListenerPolicy slowListenerPolicy;
+    private volatile VirtualSensor[] virtualSensors = new VirtualSensor[0];
+    private volatile SensorCatalog sensorCatalog;
+    /** Bumped on every sensor list change so a catalog built across one is not kept */
+    private volatile int sensorCatalogGeneration;
+    private boolean sensorListListening;
+    private volatile boolean dispatchLatencyTracking;
+    private volatile boolean sensorDataRecyclingEnabled;
+    private int ringBufferCapacity = SensorRingBuffer.DEFAULT_CAPACITY;
+    private SensorRingBuffer.OverflowPolicy ringBufferOverflowPolicy = SensorRingBuffer.OverflowPolicy.OVERWRITE_OLDEST;
 
     public SensorDataManager(Context context) {
-        this.context = context;
-        this.sensorManager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
-        this.listenerMap = new HashMap<>();
-        this.sensorListenerMap = new HashMap<>();
+        this(context, DispatchMode.DISPATCH_THREADS, DEFAULT_DISPATCH_THREAD_COUNT);
+    }
+
+    /**
+     * Create a manager that receives sensor callbacks on the given kind of thread
+     *
+     * @param dispatchThreadCount number of background threads for {@link DispatchMode#DISPATCH_THREADS}
+     */
+    public SensorDataManager(Context context, DispatchMode dispatchMode, int dispatchThreadCount) {
+        this(platformSource((SensorManager) context.getSystemService(Context.SENSOR_SERVICE)),
+                dispatchMode, dispatchThreadCount);
+    }
+
+    /**
+     * Create a manager that receives raw events from the given source
+     *
+     * @param eventSource source of raw events, or null if none is available
+     */
+    public SensorDataManager(SensorEventSource eventSource, DispatchMode dispatchMode, int dispatchThreadCount) {
+        if (dispatchMode == DispatchMode.DISPATCH_THREADS && dispatchThreadCount <= 0) {
+            throw new IllegalArgumentException("Dispatch thread count must be positive: " + dispatchThreadCount);
+        }
+        this.eventSource = eventSource;
+        this.registry = new SensorListenerRegistry();
+        this.pipelineMetrics = new PipelineMetrics(registry);
+        this.dispatchMode = dispatchMode;
+        this.dispatchThreadCount = dispatchThreadCount;
+    }
+
+    private static SensorEventSource platformSource(SensorManager sensorManager) {
+        return sensorManager != null ? new PlatformSensorEventSource(sensorManager) : null;
+    }
+
+    public SensorEventSource getEventSource() {
+        return eventSource;
+    }
+
+    public DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    /**
+     * Record the age of every event (now minus the event timestamp) when it is dispatched
+     */
+    public void setDispatchLatencyTracking(boolean enabled) {
+        this.dispatchLatencyTracking = enabled;
+    }
+
+    /**
+     * Get the event age histogram filled while dispatch latency tracking is enabled
+     */
+    public LatencyHistogram getDispatchLatency() {
+        return dispatchLatency;
+    }
+
+    /**
+     * Get the pipeline metrics: event counts, event age, listener callback cost and UI coalescing
+     */
+    public PipelineMetrics getMetrics() {
+        return pipelineMetrics;
+    }
+
+    /**
+     * Move listeners that keep overrunning a callback budget onto their own delivery lanes
+     * Callbacks are timed on the events sampled by {@link PipelineMetrics#getTimingInterval()}.
+     * A timed callback over budget adds a strike and one within budget takes
+     * one away; at the given number of strikes the listener is moved to a
+     * private thread fed through a bounded lane that drops its oldest samples
+     * when the listener falls behind, so it no longer delays the dispatch loop
+     * or the other listeners. Listeners that keep up stay on the synchronous
+     * path. Isolation lasts until the listener unregisters; batch listeners and
+     * accuracy callbacks are not affected.
+     *
+     * @param laneCapacity samples each lane holds, must be a power of two
+     * @param callback told about every isolated listener, or null
+     */
+    public void setSlowListenerIsolation(long budgetNs, int strikes, int laneCapacity,
+                                         SlowListenerCallback callback) {
+        if (budgetNs <= 0) {
+            throw new IllegalArgumentException("Budget must be positive: " + budgetNs);
+        }
+        if (strikes <= 0) {
+            throw new IllegalArgumentException("Strikes must be positive: " + strikes);
+        }
+        if (laneCapacity < 2 || Integer.bitCount(laneCapacity) != 1) {
+            throw new IllegalArgumentException("Lane capacity must be a power of two: " + laneCapacity);
+        }
+        this.slowListenerPolicy = new SlowListenerPolicy(budgetNs, strikes, laneCapacity, callback);
+    }
+
+    /**
+     * Stop isolating further listeners; those already on a lane stay there
+     */
+    public void disableSlowListenerIsolation() {
+        this.slowListenerPolicy = null;
+    }
+
+    /**
+     * Enable or disable SensorData recycling
+     * When enabled, listeners receive pooled SensorData instances that are only
+     * valid during the callback unless explicitly retained, and the steady-state
+     * event path allocates nothing
+     */
+    public void setSensorDataRecyclingEnabled(boolean enabled) {
+        this.sensorDataRecyclingEnabled = enabled;
+    }
+
+    public boolean isSensorDataRecyclingEnabled() {
+        return sensorDataRecyclingEnabled;
     }
 
     /**
      * Register a listener for a specific sensor
+     * Safe to call from any thread, including while events are being delivered
+     * The listener receives events at its own sampling period; see
+     * {@link #registerListener(int, com.samsung.sensorapp.manager.SensorEventListener, int, DecimationFilter)}.
      */
     public void registerListener(int sensorType, com.samsung.sensorapp.manager.SensorEventListener listener, int samplingPeriodUs) {
-        if (sensorManager == null) {
+        registerListener(sensorType, listener, samplingPeriodUs, DecimationFilter.NONE);
+    }
+
+    /**
+     * Register a listener that receives a sensor at its own target rate
+     * The sensor is shared by every subscriber of its type and runs at the
+     * fastest rate any of them asked for, slowing down again when the fast ones
+     * unregister. Listeners asking for a slower rate than the sensor runs at are
+     * decimated inside the manager and are not called at all between their
+     * ticks; the filter decides whether a tick carries the latest sample or an
+     * anti-aliased one. SENSOR_DELAY_FASTEST receives every event.
+     *
+     * @param samplingPeriodUs target period in microseconds or a SENSOR_DELAY_* constant
+     */
+    public void registerListener(int sensorType, com.samsung.sensorapp.manager.SensorEventListener listener,
+                                 int samplingPeriodUs, DecimationFilter filter) {
+        int periodUs = SamplingPeriods.toMicros(samplingPeriodUs, 0);
+        long targetPeriodNs = periodUs * 1000L;
+        if (eventSource == null && virtualSensorFor(sensorType) == null) {
             Log.e(TAG, "SensorManager is not available");
             return;
         }
 
-        Sensor sensor = sensorManager.getDefaultSensor(sensorType);
-        if (sensor == null) {
+        if (!isSensorAvailable(sensorType)) {
             Log.e(TAG, "Sensor type " + sensorType + " is not available");
             if (listener != null) {
                 listener.onSensorError("Sensor type " + sensorType + " is not available on this device");
@@ -53,128 +234,967 @@ public class SensorDataManager {
             return;
         }
 
-        // Add listener to the map
-        if (!listenerMap.containsKey(sensorType)) {
-            listenerMap.put(sensorType, new ArrayList<>());
+        synchronized (registry.lockFor(sensorType)) {
+            // Add listener to the registry
+            SensorListenerRegistry.Entry entry = registry.getOrCreate(sensorType);
+            if (targetPeriodNs == 0) {
+                entry.addListener(listener);
+            } else {
+                entry.addDecimator(new ListenerDecimator(listener, targetPeriodNs, filter));
+            }
+            entry.addRateRequest(listener, periodUs);
+
+            // Register the internal listener, or re-register it if this listener needs a faster rate
+            updateRegistration(entry);
         }
-        listenerMap.get(sensorType).add(listener);
+    }
 
-        // Create and register the internal listener
-        if (!sensorListenerMap.containsKey(sensorType)) {
-            SensorEventListenerImpl internalListener = new SensorEventListenerImpl(sensorType);
-            sensorListenerMap.put(sensorType, internalListener);
-            sensorManager.registerListener(internalListener, sensor, samplingPeriodUs);
-            Log.d(TAG, "Listener registered for sensor: " + sensor.getName());
+    /**
+     * Register a listener that receives every event without asking for a rate of its own
+     * The sensor keeps running at the rate its other subscribers and the
+     * sampling period set through {@link #setSamplingPeriod(int, int)} asked for,
+     * so a listener that watches the stream, such as a rate governor, does not
+     * pin it to the fastest rate. Unregister it with {@link #unregisterListener}.
+     */
+    public void registerPassiveListener(int sensorType, com.samsung.sensorapp.manager.SensorEventListener listener) {
+        if (eventSource == null && virtualSensorFor(sensorType) == null) {
+            Log.e(TAG, "SensorManager is not available");
+            return;
+        }
+
+        if (!isSensorAvailable(sensorType)) {
+            Log.e(TAG, "Sensor type " + sensorType + " is not available");
+            if (listener != null) {
+                listener.onSensorError("Sensor type " + sensorType + " is not available on this device");
+            }
+            return;
+        }
+
+        synchronized (registry.lockFor(sensorType)) {
+            SensorListenerRegistry.Entry entry = registry.getOrCreate(sensorType);
+            entry.addListener(listener);
+            updateRegistration(entry);
         }
     }
 
     /**
-     * Unregister a listener for a specific sensor
+     * Register a batch listener for a specific sensor
+     * The platform may hold samples in the sensor hub FIFO for up to maxReportLatencyUs
+     * before waking the application processor. Samples are handed to
+     * {@link com.samsung.sensorapp.manager.SensorEventListener#onSensorDataBatch} as contiguous
+     * blocks spanning at most maxReportLatencyUs of sensor time, at the rate the
+     * sensor runs at, which is the fastest any subscriber asked for. The sensor
+     * hub holds samples for the shortest latency any batch listener asked for,
+     * and not at all while a subscriber that needs every event right away is
+     * registered; the sensor is re-registered whenever that changes.
      */
-    public void unregisterListener(int sensorType, com.samsung.sensorapp.manager.SensorEventListener listener) {
-        if (listenerMap.containsKey(sensorType)) {
-            List<com.samsung.sensorapp.manager.SensorEventListener> listeners = listenerMap.get(sensorType);
-            listeners.remove(listener);
+    public void registerBatchListener(int sensorType, com.samsung.sensorapp.manager.SensorEventListener listener,
+                                      int samplingPeriodUs, int maxReportLatencyUs) {
+        if (maxReportLatencyUs <= 0) {
+            throw new IllegalArgumentException("Max report latency must be positive: " + maxReportLatencyUs);
+        }
+        int periodUs = SamplingPeriods.toMicros(samplingPeriodUs, 0);
+        if (eventSource == null && virtualSensorFor(sensorType) == null) {
+            Log.e(TAG, "SensorManager is not available");
+            return;
+        }
+
+        if (!isSensorAvailable(sensorType)) {
+            Log.e(TAG, "Sensor type " + sensorType + " is not available");
+            if (listener != null) {
+                listener.onSensorError("Sensor type " + sensorType + " is not available on this device");
+            }
+            return;
+        }
+
+        synchronized (registry.lockFor(sensorType)) {
+            SensorListenerRegistry.Entry entry = registry.getOrCreate(sensorType);
+            entry.batchCapacity = virtualSensorFor(sensorType) != null
+                    ? 0 : eventSource.getFifoMaxEventCount(sensorType);
+            entry.addBatchListener(listener);
+            entry.addRateRequest(listener, periodUs, maxReportLatencyUs);
+            entry.maxReportLatencyUs = entry.getShortestBatchLatencyUs();
+            updateRegistration(entry);
+        }
+    }
+
+    /**
+     * Register a trigger that reports the samples at which its condition becomes true
+     * The trigger is compiled for this registration and evaluated on the dispatch
+     * thread for every event of the sensor type, at the rate the sensor runs at;
+     * the listener is only called on matches. The cost of an event grows with
+     * the triggers of its own sensor type only.
+     *
+     * @param samplingPeriodUs period the trigger needs in microseconds or a SENSOR_DELAY_* constant
+     * @return whether the trigger was registered
+     */
+    public boolean addTrigger(int sensorType, SensorTrigger trigger, TriggerListener listener,
+                              int samplingPeriodUs) {
+        int periodUs = SamplingPeriods.toMicros(samplingPeriodUs, 0);
+        if (eventSource == null && virtualSensorFor(sensorType) == null) {
+            Log.e(TAG, "SensorManager is not available");
+            return false;
+        }
+
+        if (!isSensorAvailable(sensorType)) {
+            Log.e(TAG, "Sensor type " + sensorType + " is not available");
+            return false;
+        }
+
+        synchronized (registry.lockFor(sensorType)) {
+            SensorListenerRegistry.Entry entry = registry.getOrCreate(sensorType);
+            CompiledTrigger compiled = trigger.compile(listener);
+            entry.addTrigger(compiled);
+            entry.addRateRequest(compiled, periodUs);
+            updateRegistration(entry);
+            return true;
+        }
+    }
+
+    /**
+     * Remove one registration of a trigger with a listener
+     * The sensor slows down to the fastest rate its remaining subscribers asked for.
+     */
+    public void removeTrigger(int sensorType, SensorTrigger trigger, TriggerListener listener) {
+        SensorListenerRegistry.Entry entry = registry.get(sensorType);
+        if (entry == null) {
+            return;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            CompiledTrigger removed = entry.removeTrigger(trigger, listener);
+            if (removed != null) {
+                entry.removeRateRequest(removed);
+                updateRegistration(entry);
+            }
+        }
+    }
+
+    /**
+     * Set a period the sensor must be sampled at least as fast as
+     * It is combined with the periods the subscribers asked for like one more
+     * request, so the sensor runs at the fastest of them: a subscriber asking for
+     * a faster rate still gets it. An active sensor is re-registered with the
+     * platform right away, otherwise the period applies when it is next
+     * registered. Listeners keep their own target rates and are decimated
+     * whenever the sensor runs faster than they asked for.
+     *
+     * @param samplingPeriodUs period in microseconds or a SENSOR_DELAY_* constant
+     * @return whether the platform registration was changed
+     */
+    public boolean setSamplingPeriod(int sensorType, int samplingPeriodUs) {
+        int periodUs = SamplingPeriods.toMicros(samplingPeriodUs, 0);
+        if (eventSource == null || !getSensorCatalog().isAvailable(sensorType)
+                || virtualSensorFor(sensorType) != null) {
+            return false;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            SensorListenerRegistry.Entry entry = registry.getOrCreate(sensorType);
+            int previousUs = entry.samplingPeriodUs;
+            entry.samplingPeriodUs = periodUs;
+            if (entry.internalListener == null) {
+                return false;
+            }
+            if (updateRegistration(entry)) {
+                return true;
+            }
+            if (entry.internalListener == null || entry.registeredPeriodUs != targetPeriodUs(entry)) {
+                // The platform refused the period, so it was never taken
+                entry.samplingPeriodUs = previousUs;
+            }
+            return false;
+        }
+    }
 
-            // If no more listeners, unregister from SensorManager
-            if (listeners.isEmpty()) {
-                listenerMap.remove(sensorType);
-                SensorEventListenerImpl internalListener = sensorListenerMap.remove(sensorType);
-                if (internalListener != null && sensorManager != null) {
-                    sensorManager.unregisterListener(internalListener);
-                    Log.d(TAG, "Listener unregistered for sensor type: " + sensorType);
+    /**
+     * Drop the period set by {@link #setSamplingPeriod(int, int)}, leaving the
+     * sensor at the fastest period its subscribers asked for
+     *
+     * @return whether the platform registration was changed
+     */
+    public boolean clearSamplingPeriod(int sensorType) {
+        SensorListenerRegistry.Entry entry = registry.get(sensorType);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            entry.samplingPeriodUs = -1;
+            return entry.internalListener != null && updateRegistration(entry);
+        }
+    }
+
+    /**
+     * Get the period in microseconds set by {@link #setSamplingPeriod(int, int)},
+     * or -1 if none is set
+     */
+    public int getExplicitSamplingPeriod(int sensorType) {
+        SensorListenerRegistry.Entry entry = registry.get(sensorType);
+        if (entry == null) {
+            return -1;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            return entry.samplingPeriodUs;
+        }
+    }
+
+    /**
+     * Get the period in microseconds a sensor is currently registered with, 0 for
+     * the fastest, or -1 if it is not registered
+     */
+    public int getSamplingPeriod(int sensorType) {
+        SensorListenerRegistry.Entry entry = registry.get(sensorType);
+        if (entry == null) {
+            return -1;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            return entry.internalListener != null ? entry.registeredPeriodUs : -1;
+        }
+    }
+
+    /**
+     * Ask the platform to flush the hardware FIFO for a sensor
+     * Pending samples are delivered, followed by any partial batch held by the manager
+     */
+    public void flushBatches(int sensorType) {
+        SensorListenerRegistry.Entry entry = registry.get(sensorType);
+        if (entry == null || eventSource == null || virtualSensorFor(sensorType) != null) {
+            return;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            if (entry.internalListener != null) {
+                eventSource.flush(entry.internalListener);
+            }
+        }
+    }
+
+    /**
+     * Configure the ring buffers created for subsequently attached consumers
+     *
+     * @param capacity number of samples per sensor type, must be a power of two
+     * @param overflowPolicy behaviour when a consumer falls a full buffer behind
+     */
+    public void setRingBufferConfig(int capacity, SensorRingBuffer.OverflowPolicy overflowPolicy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.ringBufferCapacity = capacity;
+        this.ringBufferOverflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Attach a ring buffer consumer for a specific sensor
+     * Samples are published into the sensor's ring buffer on the sensor thread and
+     * the consumer drains them at its own pace, so it can never stall the sensor.
+     * The ring buffer carries every sample at the rate the sensor runs at, which
+     * is the fastest any subscriber asked for.
+     *
+     * @return the consumer, or null if the sensor is not available
+     */
+    public SensorRingBuffer.Consumer attachRingBufferConsumer(int sensorType, int samplingPeriodUs) {
+        int periodUs = SamplingPeriods.toMicros(samplingPeriodUs, 0);
+        if (eventSource == null && virtualSensorFor(sensorType) == null) {
+            Log.e(TAG, "SensorManager is not available");
+            return null;
+        }
+
+        if (!isSensorAvailable(sensorType)) {
+            Log.e(TAG, "Sensor type " + sensorType + " is not available");
+            return null;
+        }
+
+        synchronized (registry.lockFor(sensorType)) {
+            SensorListenerRegistry.Entry entry = registry.getOrCreate(sensorType);
+            if (entry.ringBuffer == null) {
+                entry.ringBuffer = new SensorRingBuffer(ringBufferCapacity,
+                        SensorRingBuffer.DEFAULT_VALUES_PER_SAMPLE, ringBufferOverflowPolicy);
+            }
+            SensorRingBuffer.Consumer consumer = entry.ringBuffer.addConsumer();
+            entry.addRateRequest(consumer, periodUs);
+            updateRegistration(entry);
+            return consumer;
+        }
+    }
+
+    /**
+     * Detach a ring buffer consumer for a specific sensor
+     */
+    public void detachRingBufferConsumer(int sensorType, SensorRingBuffer.Consumer consumer) {
+        SensorListenerRegistry.Entry entry = registry.get(sensorType);
+        if (entry == null) {
+            return;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            if (entry.ringBuffer != null && entry.ringBuffer.removeConsumer(consumer)) {
+                entry.removeRateRequest(consumer);
+                updateRegistration(entry);
+            }
+        }
+    }
+
+    /**
+     * Bring the internal listener in line with the entry's subscribers
+     * It is registered at the fastest period any subscription or the explicit
+     * sampling period asked for, or the fastest rate if neither did (only passive
+     * listeners are left), and with the shortest report latency any subscription
+     * accepts. A registered listener whose period or latency no longer matches
+     * is re-registered, and one without subscribers left is unregistered.
+     * If the platform refuses a re-registration the previous one is restored;
+     * if it refuses that too, or the first registration, the listener is dropped
+     * and the subscribers are told through onSensorError, so the next
+     * registration starts over. Callers must hold registry.lockFor(entry.sensorType).
+     *
+     * @return whether the listener was registered, re-registered or unregistered
+     */
+    private boolean updateRegistration(SensorListenerRegistry.Entry entry) {
+        if (!entry.hasSubscribers()) {
+            boolean registered = entry.internalListener != null;
+            unregisterInternalListener(entry);
+            return registered;
+        }
+        int periodUs = targetPeriodUs(entry);
+        int maxReportLatencyUs = entry.getShortestRequestedLatencyUs();
+        SensorEventListenerImpl internalListener = entry.internalListener;
+        VirtualSensor virtualSensor = virtualSensorFor(entry.sensorType);
+        if (internalListener == null) {
+            internalListener = new SensorEventListenerImpl(entry);
+            entry.internalListener = internalListener;
+            entry.registeredPeriodUs = periodUs;
+            entry.registeredLatencyUs = maxReportLatencyUs;
+            if (virtualSensor != null) {
+                virtualSensor.attach(internalListener, periodUs);
+                Log.d(TAG, "Listener registered for virtual sensor: " + virtualSensor.getName());
+                return true;
+            }
+            Handler handler = dispatchHandlerFor(entry.sensorType);
+            if (!eventSource.register(entry.sensorType, internalListener, periodUs, maxReportLatencyUs, handler)) {
+                entry.internalListener = null;
+                reportRegistrationFailure(entry, "Sensor type " + entry.sensorType + " could not be registered");
+                return false;
+            }
+            Log.d(TAG, "Listener registered for sensor: " + eventSource.getSensorName(entry.sensorType));
+            return true;
+        }
+        // Virtual sensors do not batch, so only their period matters
+        boolean latencyChanged = virtualSensor == null && entry.registeredLatencyUs != maxReportLatencyUs;
+        if (entry.registeredPeriodUs == periodUs && !latencyChanged) {
+            return false;
+        }
+        if (entry.registeredPeriodUs != periodUs) {
+            internalListener.onInputRateChanged();
+        }
+        if (virtualSensor != null) {
+            virtualSensor.detach();
+            virtualSensor.attach(internalListener, periodUs);
+        } else {
+            Handler handler = dispatchHandlerFor(entry.sensorType);
+            eventSource.unregister(internalListener);
+            if (!eventSource.register(entry.sensorType, internalListener, periodUs, maxReportLatencyUs, handler)) {
+                if (eventSource.register(entry.sensorType, internalListener, entry.registeredPeriodUs,
+                        entry.registeredLatencyUs, handler)) {
+                    Log.e(TAG, "Sensor type " + entry.sensorType + " refused period " + periodUs
+                            + " with report latency " + maxReportLatencyUs + "; kept period " + entry.registeredPeriodUs);
+                } else {
+                    entry.internalListener = null;
+                    reportRegistrationFailure(entry, "Sensor type " + entry.sensorType + " could not be re-registered");
                 }
+                return false;
             }
         }
+        entry.registeredPeriodUs = periodUs;
+        entry.registeredLatencyUs = maxReportLatencyUs;
+        Log.d(TAG, "Sensor type " + entry.sensorType + " re-registered at period " + periodUs
+                + " with report latency " + maxReportLatencyUs);
+        return true;
     }
 
     /**
-     * Unregister all listeners for a specific sensor
+     * Get the period the sensor should run at: the fastest any subscription or
+     * the explicit sampling period asked for, or the fastest rate if neither did
      */
-    public void unregisterAllListeners(int sensorType) {
-        if (listenerMap.containsKey(sensorType)) {
-            listenerMap.remove(sensorType);
-            SensorEventListenerImpl internalListener = sensorListenerMap.remove(sensorType);
-            if (internalListener != null && sensorManager != null) {
-                sensorManager.unregisterListener(internalListener);
+    private static int targetPeriodUs(SensorListenerRegistry.Entry entry) {
+        int requestedUs = entry.getFastestRequestedPeriodUs();
+        int explicitUs = entry.samplingPeriodUs;
+        return requestedUs < 0 ? Math.max(0, explicitUs)
+                : explicitUs < 0 ? requestedUs : Math.min(requestedUs, explicitUs);
+    }
+
+    // Callers must hold registry.lockFor(entry.sensorType)
+    private static void reportRegistrationFailure(SensorListenerRegistry.Entry entry, String errorMessage) {
+        Log.e(TAG, errorMessage);
+        for (com.samsung.sensorapp.manager.SensorEventListener listener : entry.getListeners()) {
+            listener.onSensorError(errorMessage);
+        }
+        for (com.samsung.sensorapp.manager.SensorEventListener listener : entry.getBatchListeners()) {
+            listener.onSensorError(errorMessage);
+        }
+        for (ListenerDecimator decimator : entry.getDecimators()) {
+            decimator.listener.onSensorError(errorMessage);
+        }
+    }
+
+    private synchronized Handler dispatchHandlerFor(int sensorType) {
+        if (dispatchMode != DispatchMode.DISPATCH_THREADS) {
+            return null;
+        }
+        if (dispatchThreads == null) {
+            dispatchThreads = new SensorDispatchThreads(dispatchThreadCount);
+        }
+        return dispatchThreads.handlerFor(sensorType);
+    }
+
+    // Callers must hold registry.lockFor(entry.sensorType)
+    private void unregisterInternalListener(SensorListenerRegistry.Entry entry) {
+        SensorEventListenerImpl internalListener = entry.internalListener;
+        entry.internalListener = null;
+        VirtualSensor virtualSensor = virtualSensorFor(entry.sensorType);
+        if (internalListener != null && virtualSensor != null) {
+            virtualSensor.detach();
+            Log.d(TAG, "Listener unregistered for virtual sensor: " + virtualSensor.getName());
+        } else if (internalListener != null && eventSource != null) {
+            eventSource.unregister(internalListener);
+            Log.d(TAG, "Listener unregistered for sensor type: " + entry.sensorType);
+        }
+    }
+
+    /**
+     * Unregister a listener for a specific sensor
+     * The sensor slows down to the fastest rate its remaining subscribers asked for.
+     */
+    public void unregisterListener(int sensorType, com.samsung.sensorapp.manager.SensorEventListener listener) {
+        SensorListenerRegistry.Entry entry = registry.get(sensorType);
+        if (entry == null) {
+            return;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            // Forget the rate of each removed registration, then slow down or unregister
+            boolean removed = false;
+            if (entry.removeListener(listener)) {
+                entry.removeRateRequest(listener);
+                removed = true;
+            }
+            if (entry.removeDecimator(listener)) {
+                entry.removeRateRequest(listener);
+                removed = true;
+            }
+            if (entry.removeBatchListener(listener)) {
+                entry.removeRateRequest(listener);
+                entry.maxReportLatencyUs = entry.getShortestBatchLatencyUs();
+                removed = true;
+            }
+            if (removed) {
+                updateRegistration(entry);
             }
         }
     }
 
+    /**
+     * Unregister all listeners and ring buffer consumers for a specific sensor
+     */
+    public void unregisterAllListeners(int sensorType) {
+        SensorListenerRegistry.Entry entry = registry.get(sensorType);
+        if (entry == null) {
+            return;
+        }
+        synchronized (registry.lockFor(sensorType)) {
+            entry.clearListeners();
+            entry.ringBuffer = null;
+            unregisterInternalListener(entry);
+        }
+    }
+
     /**
      * Unregister all listeners
      */
     public void unregisterAllListeners() {
-        for (int sensorType : new ArrayList<>(sensorListenerMap.keySet())) {
+        for (int sensorType : registry.getSensorTypes()) {
             unregisterAllListeners(sensorType);
         }
     }
 
+    /**
+     * Unregister everything and stop the dispatch threads
+     * The manager restarts its threads if it is used again afterwards
+     */
+    public void shutdown() {
+        unregisterAllListeners();
+        synchronized (this) {
+            if (dispatchThreads != null) {
+                dispatchThreads.quit();
+                dispatchThreads = null;
+            }
+            if (sensorListListening) {
+                eventSource.setSensorListListener(null);
+                sensorListListening = false;
+            }
+            sensorCatalog = null;
+        }
+    }
+
+    /**
+     * Get the catalog of sensors the device exposes
+     * It is enumerated on first use and kept until a dynamic sensor is
+     * connected or disconnected, so repeated calls are cheap.
+     */
+    public SensorCatalog getSensorCatalog() {
+        SensorCatalog catalog = sensorCatalog;
+        if (catalog != null) {
+            return catalog;
+        }
+        synchronized (this) {
+            if (sensorCatalog != null) {
+                return sensorCatalog;
+            }
+            if (eventSource != null && !sensorListListening) {
+                eventSource.setSensorListListener(this::invalidateSensorCatalog);
+                sensorListListening = true;
+            }
+            int generation = sensorCatalogGeneration;
+            catalog = new SensorCatalog(eventSource);
+            if (generation == sensorCatalogGeneration) {
+                sensorCatalog = catalog;
+            }
+            return catalog;
+        }
+    }
+
+    private void invalidateSensorCatalog() {
+        sensorCatalogGeneration++;
+        sensorCatalog = null;
+        Log.d(TAG, "Sensor list changed");
+    }
+
     /**
      * Get a list of all available sensors
      */
     public List<Sensor> getAvailableSensors() {
-        if (sensorManager == null) {
-            return new ArrayList<>();
-        }
-        return sensorManager.getSensorList(Sensor.TYPE_ALL);
+        return getSensorCatalog().getSensorList();
     }
 
     /**
      * Get a specific sensor
      */
     public Sensor getSensor(int sensorType) {
-        if (sensorManager == null) {
-            return null;
-        }
-        return sensorManager.getDefaultSensor(sensorType);
+        return getSensorCatalog().getDefaultSensor(sensorType);
     }
 
     /**
      * Check if a sensor type is available on the device
      */
     public boolean isSensorAvailable(int sensorType) {
-        return getSensor(sensorType) != null;
+        return virtualSensorFor(sensorType) != null || getSensorCatalog().isAvailable(sensorType);
+    }
+
+    /**
+     * Add a sensor type computed in software
+     * It becomes available to every registration method and takes precedence
+     * over a hardware sensor of the same type.
+     */
+    public void addVirtualSensor(VirtualSensor virtualSensor) {
+        int sensorType = virtualSensor.getSensorType();
+        synchronized (registry.lockFor(sensorType)) {
+            if (virtualSensorFor(sensorType) != null) {
+                throw new IllegalStateException("Virtual sensor type " + sensorType + " is already added");
+            }
+            SensorListenerRegistry.Entry entry = registry.get(sensorType);
+            if (entry != null && entry.internalListener != null) {
+                throw new IllegalStateException("Sensor type " + sensorType + " already has subscribers");
+            }
+            synchronized (this) {
+                VirtualSensor[] current = virtualSensors;
+                VirtualSensor[] updated = new VirtualSensor[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, current.length);
+                updated[current.length] = virtualSensor;
+                virtualSensors = updated;
+            }
+        }
+    }
+
+    /**
+     * Unregister every subscriber of a virtual sensor type and remove it
+     */
+    public void removeVirtualSensor(int sensorType) {
+        unregisterAllListeners(sensorType);
+        synchronized (registry.lockFor(sensorType)) {
+            synchronized (this) {
+                VirtualSensor[] current = virtualSensors;
+                for (int i = 0; i < current.length; i++) {
+                    if (current[i].getSensorType() == sensorType) {
+                        VirtualSensor[] updated = new VirtualSensor[current.length - 1];
+                        System.arraycopy(current, 0, updated, 0, i);
+                        System.arraycopy(current, i + 1, updated, i, updated.length - i);
+                        virtualSensors = updated;
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private VirtualSensor virtualSensorFor(int sensorType) {
+        VirtualSensor[] current = virtualSensors;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].getSensorType() == sensorType) {
+                return current[i];
+            }
+        }
+        return null;
     }
 
     /**
      * Internal implementation of SensorEventListener
      */
-    private class SensorEventListenerImpl implements SensorEventListener {
+    class SensorEventListenerImpl implements SensorEventSource.Sink {
+        private final SensorListenerRegistry.Entry entry;
         private final int sensorType;
+        private final SensorMetrics metrics;
+        /** Events left until the next one whose age and callbacks are timed */
+        private int untilTimedEvent;
+        /** Whether the timed event's callback durations go into the metrics */
+        private boolean recordTimings;
+        /** Slow listener policy in effect for the timed event, or null */
+        private SlowListenerPolicy timingPolicy;
+        private final SensorDataPool sensorDataPool = new SensorDataPool();
+        private SensorBatchBuffer batchBuffer;
+        private long lastTimestamp = Long.MIN_VALUE;
+        private long inputPeriodNs;
+        private volatile boolean inputRateChanged;
+
+        SensorEventListenerImpl(SensorListenerRegistry.Entry entry) {
+            this.entry = entry;
+            this.sensorType = entry.sensorType;
+            this.metrics = entry.metrics;
+        }
 
-        SensorEventListenerImpl(int sensorType) {
-            this.sensorType = sensorType;
+        /**
+         * Forget the estimated input period once the sensor is re-registered at a new rate
+         */
+        void onInputRateChanged() {
+            inputRateChanged = true;
         }
 
+        /**
+         * Deliver a raw reading to ring buffer consumers, listeners and batch listeners
+         */
         @Override
-        public void onSensorChanged(SensorEvent event) {
-            SensorData sensorData = SensorDataMapper.mapToSensorData(event);
-            
-            // Notify all registered listeners
-            if (listenerMap.containsKey(sensorType)) {
-                List<com.samsung.sensorapp.manager.SensorEventListener> listeners = listenerMap.get(sensorType);
-                for (com.samsung.sensorapp.manager.SensorEventListener listener : listeners) {
+        public void onSensorChanged(String sensorName, float[] values, int accuracy, long timestamp) {
+            if (dispatchLatencyTracking) {
+                dispatchLatency.record(SystemClock.elapsedRealtimeNanos() - timestamp);
+            }
+            boolean timed = false;
+            boolean metricsEnabled = pipelineMetrics.isEnabled();
+            SlowListenerPolicy policy = slowListenerPolicy;
+            if (metricsEnabled) {
+                metrics.eventsIn.increment();
+            }
+            if ((metricsEnabled || policy != null) && --untilTimedEvent <= 0) {
+                untilTimedEvent = pipelineMetrics.getTimingInterval();
+                timed = true;
+                recordTimings = metricsEnabled;
+                timingPolicy = policy;
+                if (metricsEnabled) {
+                    metrics.eventAge.record(SystemClock.elapsedRealtimeNanos() - timestamp);
+                }
+            }
+
+            SensorRingBuffer ring = entry.ringBuffer;
+            if (ring != null) {
+                ring.publish(timestamp, values, accuracy);
+            }
+
+            com.samsung.sensorapp.manager.SensorEventListener[] listeners = entry.getListeners();
+            ListenerDecimator[] decimators = entry.getDecimators();
+            if (listeners.length > 0 || decimators.length > 0) {
+                SensorData sensorData = null;
+                try {
+                    if (listeners.length > 0) {
+                        sensorData = obtainSensorData(sensorName, values, accuracy, timestamp);
+                        notifyListeners(listeners, sensorData, timed);
+                    }
+                    if (decimators.length > 0) {
+                        sensorData = notifyDecimators(decimators, sensorName, values, accuracy, timestamp,
+                                sensorData, timed);
+                    }
+                } finally {
+                    if (sensorData != null) {
+                        sensorData.release();
+                    }
+                }
+            }
+
+            CompiledTrigger[] triggers = entry.getTriggers();
+            if (triggers.length > 0) {
+                evaluateTriggers(triggers, sensorName, values, accuracy, timestamp);
+            }
+
+            com.samsung.sensorapp.manager.SensorEventListener[] batchListeners = entry.getBatchListeners();
+            if (batchListeners.length > 0) {
+                long maxReportLatencyNs = entry.maxReportLatencyUs * 1000L;
+                if (batchBuffer == null || batchBuffer.getMaxReportLatencyNs() != maxReportLatencyNs) {
+                    deliverBatch(batchListeners);
+                    batchBuffer = new SensorBatchBuffer(entry.batchCapacity, maxReportLatencyNs);
+                }
+                if (!batchBuffer.accepts(values.length)) {
+                    deliverBatch(batchListeners);
+                }
+                if (batchBuffer.append(timestamp, values)) {
+                    deliverBatch(batchListeners);
+                }
+            }
+        }
+
+        private SensorData obtainSensorData(String sensorName, float[] values, int accuracy, long timestamp) {
+            if (sensorDataRecyclingEnabled) {
+                return SensorDataMapper.mapToSensorData(sensorName, sensorType, values, accuracy, timestamp,
+                        sensorDataPool);
+            }
+            return SensorDataMapper.mapToSensorData(sensorName, sensorType, values, accuracy, timestamp);
+        }
+
+        private void notifyListeners(com.samsung.sensorapp.manager.SensorEventListener[] listeners,
+                                     SensorData sensorData, boolean timed) {
+            // Notify all registered listeners from the current snapshot
+            ListenerMetrics[] listenerMetrics = entry.getListenerMetrics();
+            if (!timed) {
+                for (int i = 0; i < listeners.length; i++) {
+                    ListenerMetrics listenerMetric = metricsAt(listenerMetrics, i, listeners[i]);
+                    if (!publishToLane(listenerMetric, sensorData)) {
+                        notifyListener(listeners[i], listenerMetric, sensorData);
+                    }
+                }
+                return;
+            }
+            // Each callback ends where the next one starts, so n callbacks cost n + 1 clock reads
+            long start = System.nanoTime();
+            for (int i = 0; i < listeners.length; i++) {
+                ListenerMetrics listenerMetric = metricsAt(listenerMetrics, i, listeners[i]);
+                if (publishToLane(listenerMetric, sensorData)) {
+                    continue;
+                }
+                notifyListener(listeners[i], listenerMetric, sensorData);
+                long end = System.nanoTime();
+                onCallbackTimed(listenerMetric, end - start, sensorData.getSensorName());
+                start = end;
+            }
+        }
+
+        private boolean publishToLane(ListenerMetrics listenerMetrics, SensorData sensorData) {
+            SlowListenerLane lane = listenerMetrics != null ? listenerMetrics.lane : null;
+            if (lane == null) {
+                return false;
+            }
+            lane.publish(sensorData.getTimestamp(), sensorData.getValues(), sensorData.getAccuracy());
+            return true;
+        }
+
+        /**
+         * Record a timed callback and move its listener to a lane once it has overrun the budget too often
+         */
+        private void onCallbackTimed(ListenerMetrics listenerMetrics, long durationNs, String sensorName) {
+            if (listenerMetrics == null) {
+                return;
+            }
+            if (recordTimings) {
+                listenerMetrics.callbackDuration.record(durationNs);
+            }
+            SlowListenerPolicy policy = timingPolicy;
+            if (policy == null || listenerMetrics.lane != null) {
+                return;
+            }
+            if (durationNs <= policy.budgetNs) {
+                if (listenerMetrics.strikes > 0) {
+                    listenerMetrics.strikes--;
+                }
+            } else if (++listenerMetrics.strikes >= policy.strikes) {
+                isolate(listenerMetrics, policy, sensorName, durationNs);
+            }
+        }
+
+        private void isolate(ListenerMetrics listenerMetrics, SlowListenerPolicy policy, String sensorName,
+                             long durationNs) {
+            synchronized (registry.lockFor(sensorType)) {
+                // The listener may have unregistered since this event started
+                if (!entry.isRegistered(listenerMetrics)) {
+                    return;
+                }
+                listenerMetrics.lane = new SlowListenerLane(listenerMetrics.listener, listenerMetrics, metrics,
+                        sensorName, sensorType, policy.laneCapacity,
+                        sensorDataRecyclingEnabled ? new SensorDataPool() : null);
+            }
+            Log.w(TAG, "Listener " + listenerMetrics.listener + " of sensor type " + sensorType
+                    + " took " + durationNs + " ns and now runs on its own lane");
+            if (policy.callback != null) {
+                try {
+                    policy.callback.onSlowListenerIsolated(sensorType, listenerMetrics.listener, durationNs);
+                } catch (Exception e) {
+                    Log.e(TAG, "Error notifying slow listener callback", e);
+                }
+            }
+        }
+
+        private void notifyListener(com.samsung.sensorapp.manager.SensorEventListener listener,
+                                    ListenerMetrics listenerMetrics, SensorData sensorData) {
+            try {
+                listener.onSensorDataChanged(sensorData);
+            } catch (Exception e) {
+                Log.e(TAG, "Error notifying listener", e);
+                countException(listenerMetrics);
+            }
+        }
+
+        private void countException(ListenerMetrics listenerMetrics) {
+            if (pipelineMetrics.isEnabled()) {
+                metrics.listenerExceptions.increment();
+                if (listenerMetrics != null) {
+                    listenerMetrics.exceptions.increment();
+                }
+            }
+        }
+
+        /**
+         * Offer the event to rate-limited listeners and notify those that are due
+         * Unfiltered listeners share the event's SensorData, which is created on
+         * first use and returned so the caller can release it.
+         */
+        private SensorData notifyDecimators(ListenerDecimator[] decimators, String sensorName, float[] values,
+                                            int accuracy, long timestamp, SensorData sensorData, boolean timed) {
+            if (inputRateChanged) {
+                inputRateChanged = false;
+                lastTimestamp = Long.MIN_VALUE;
+                inputPeriodNs = 0;
+            }
+            long delta = timestamp - lastTimestamp;
+            if (lastTimestamp != Long.MIN_VALUE && delta > 0) {
+                // Exponential moving average of the incoming period
+                inputPeriodNs = inputPeriodNs == 0 ? delta : inputPeriodNs + (delta - inputPeriodNs) / 8;
+            }
+            lastTimestamp = timestamp;
+
+            for (int i = 0; i < decimators.length; i++) {
+                ListenerDecimator decimator = decimators[i];
+                if (!decimator.offer(timestamp, values, inputPeriodNs)) {
+                    continue;
+                }
+                SlowListenerLane lane = decimator.metrics.lane;
+                if (lane != null) {
+                    lane.publish(timestamp, decimator.filter == DecimationFilter.NONE ? values : decimator.getOutput(),
+                            accuracy);
+                    continue;
+                }
+                long start = timed ? System.nanoTime() : 0;
+                if (decimator.filter == DecimationFilter.NONE) {
+                    if (sensorData == null) {
+                        sensorData = obtainSensorData(sensorName, values, accuracy, timestamp);
+                    }
+                    notifyListener(decimator.listener, decimator.metrics, sensorData);
+                } else {
+                    SensorData filtered = obtainSensorData(sensorName, decimator.getOutput(), accuracy, timestamp);
                     try {
-                        listener.onSensorDataChanged(sensorData);
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error notifying listener", e);
+                        notifyListener(decimator.listener, decimator.metrics, filtered);
+                    } finally {
+                        filtered.release();
                     }
                 }
+                if (timed) {
+                    onCallbackTimed(decimator.metrics, System.nanoTime() - start, sensorName);
+                }
             }
+            return sensorData;
         }
 
-        @Override
-        public void onAccuracyChanged(Sensor sensor, int accuracy) {
-            if (listenerMap.containsKey(sensorType)) {
-                List<com.samsung.sensorapp.manager.SensorEventListener> listeners = listenerMap.get(sensorType);
-                for (com.samsung.sensorapp.manager.SensorEventListener listener : listeners) {
+        /**
+         * Evaluate every trigger of the sensor type and notify the listeners of those that fire
+         * Matching triggers share one SensorData, created on the first match.
+         */
+        private void evaluateTriggers(CompiledTrigger[] triggers, String sensorName, float[] values, int accuracy,
+                                      long timestamp) {
+            float sumOfSquares = 0;
+            for (float value : values) {
+                sumOfSquares += value * value;
+            }
+            float magnitude = (float) Math.sqrt(sumOfSquares);
+            SensorData sensorData = null;
+            try {
+                for (int i = 0; i < triggers.length; i++) {
+                    CompiledTrigger trigger = triggers[i];
+                    if (!trigger.evaluate(timestamp, values, magnitude)) {
+                        continue;
+                    }
+                    if (sensorData == null) {
+                        sensorData = obtainSensorData(sensorName, values, accuracy, timestamp);
+                    }
                     try {
-                        listener.onSensorAccuracyChanged(accuracy);
+                        trigger.listener.onTriggered(trigger.trigger, sensorData);
                     } catch (Exception e) {
-                        Log.e(TAG, "Error notifying accuracy change", e);
+                        Log.e(TAG, "Error notifying trigger listener", e);
+                        countException(null);
                     }
                 }
+            } finally {
+                if (sensorData != null) {
+                    sensorData.release();
+                }
+            }
+        }
+
+        private void deliverBatch(com.samsung.sensorapp.manager.SensorEventListener[] batchListeners) {
+            SensorBatchBuffer batch = batchBuffer;
+            if (batch == null || batch.getCount() == 0) {
+                return;
+            }
+            // Batches are rare enough to time every callback
+            boolean timed = pipelineMetrics.isEnabled();
+            ListenerMetrics[] batchListenerMetrics = entry.getBatchListenerMetrics();
+            for (int i = 0; i < batchListeners.length; i++) {
+                ListenerMetrics listenerMetrics = metricsAt(batchListenerMetrics, i, batchListeners[i]);
+                long start = timed ? System.nanoTime() : 0;
+                try {
+                    batchListeners[i].onSensorDataBatch(sensorType, batch.getTimestamps(), batch.getValues(),
+                            batch.getCount(), batch.getValuesPerSample());
+                } catch (Exception e) {
+                    Log.e(TAG, "Error notifying batch listener", e);
+                    countException(listenerMetrics);
+                }
+                if (timed && listenerMetrics != null) {
+                    listenerMetrics.callbackDuration.record(System.nanoTime() - start);
+                }
+            }
+            batch.clear();
+        }
+
+        @Override
+        public void onFlushCompleted() {
+            deliverBatch(entry.getBatchListeners());
+        }
+
+        @Override
+        public void onAccuracyChanged(int accuracy) {
+            com.samsung.sensorapp.manager.SensorEventListener[] listeners = entry.getListeners();
+            for (int i = 0; i < listeners.length; i++) {
+                notifyAccuracy(listeners[i], accuracy);
+            }
+            ListenerDecimator[] decimators = entry.getDecimators();
+            for (int i = 0; i < decimators.length; i++) {
+                notifyAccuracy(decimators[i].listener, accuracy);
+            }
+        }
+
+        /**
+         * Get the metrics published for a listener, or null if the arrays were
+         * read across a registration change and no longer line up
+         */
+        private ListenerMetrics metricsAt(ListenerMetrics[] listenerMetrics, int index,
+                                          com.samsung.sensorapp.manager.SensorEventListener listener) {
+            if (index < listenerMetrics.length && listenerMetrics[index].listener == listener) {
+                return listenerMetrics[index];
+            }
+            return null;
+        }
+
+        private void notifyAccuracy(com.samsung.sensorapp.manager.SensorEventListener listener, int accuracy) {
+            try {
+                listener.onSensorAccuracyChanged(accuracy);
+            } catch (Exception e) {
+                Log.e(TAG, "Error notifying accuracy change", e);
+                countException(null);
             }
         }
     }
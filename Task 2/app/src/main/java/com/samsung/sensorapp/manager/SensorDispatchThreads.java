@@ -0,0 +1,48 @@
+package com.samsung.sensorapp.manager;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+/**
+ * Small pool of background looper threads that receive sensor callbacks
+ * Sensor types are sharded across the threads so every event of one sensor
+ * is always processed in order on the same thread.
+ */
+class SensorDispatchThreads {
+    private final HandlerThread[] threads;
+    private final Handler[] handlers;
+
+    SensorDispatchThreads(int threadCount) {
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threadCount);
+        }
+        threads = new HandlerThread[threadCount];
+        handlers = new Handler[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new HandlerThread("SensorDispatch-" + i, Process.THREAD_PRIORITY_DISPLAY);
+            threads[i].start();
+            handlers[i] = new Handler(threads[i].getLooper());
+        }
+    }
+
+    /**
+     * Get the handler whose thread owns the given sensor type
+     */
+    Handler handlerFor(int sensorType) {
+        return handlers[Math.floorMod(sensorType, handlers.length)];
+    }
+
+    int getThreadCount() {
+        return threads.length;
+    }
+
+    /**
+     * Stop all threads once their pending callbacks have run
+     */
+    void quit() {
+        for (HandlerThread thread : threads) {
+            thread.quitSafely();
+        }
+    }
+}
@@ -9,9 +9,23 @@ import com.samsung.sensorapp.model.SensorData;
 public interface SensorEventListener {
     /**
      * Called when sensor data is updated
+     * When SensorData recycling is enabled on the manager, the instance is only
+     * valid until this method returns unless it is retained with
+     * {@link SensorData#retain()} and later released with {@link SensorData#release()}
      */
     void onSensorDataChanged(SensorData sensorData);
 
+    /**
+     * Called with a block of consecutive samples for listeners registered through
+     * {@link SensorDataManager#registerBatchListener}
+     * Sample i has timestamp timestamps[i] and values
+     * values[i * valuesPerSample] to values[(i + 1) * valuesPerSample - 1].
+     * The arrays are reused by the manager and only valid until this method returns.
+     */
+    default void onSensorDataBatch(int sensorType, long[] timestamps, float[] values,
+                                   int sampleCount, int valuesPerSample) {
+    }
+
     /**
      * Called when sensor accuracy changes
      */
@@ -0,0 +1,72 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.os.Handler;
+
+import java.util.List;
+
+/**
+ * Backend that produces raw sensor events for SensorDataManager
+ * {@link PlatformSensorEventSource} wraps Android's SensorManager;
+ * {@link ReplaySensorEventSource} generates deterministic events on a plain JVM.
+ */
+public interface SensorEventSource {
+
+    /**
+     * Receiver of raw events for one registered sensor type
+     * Values are only valid during the callback.
+     */
+    interface Sink {
+        void onSensorChanged(String sensorName, float[] values, int accuracy, long timestamp);
+
+        void onAccuracyChanged(int accuracy);
+
+        void onFlushCompleted();
+    }
+
+    boolean isSensorAvailable(int sensorType);
+
+    /**
+     * Get the display name of the default sensor of a type, or null if unavailable
+     */
+    String getSensorName(int sensorType);
+
+    /**
+     * Get the number of events the hardware FIFO can hold for a sensor type, 0 if it cannot batch
+     */
+    int getFifoMaxEventCount(int sensorType);
+
+    /**
+     * Start delivering events of a sensor type to the sink
+     *
+     * @param samplingPeriodUs period in microseconds or one of the SensorManager.SENSOR_DELAY_* constants
+     * @param maxReportLatencyUs hardware batching latency, 0 for none
+     * @param handler thread to deliver on, or null for the source's default thread
+     * @return false if the sensor could not be registered
+     */
+    boolean register(int sensorType, Sink sink, int samplingPeriodUs, int maxReportLatencyUs, Handler handler);
+
+    void unregister(Sink sink);
+
+    /**
+     * Deliver any events buffered for the sink followed by {@link Sink#onFlushCompleted()}
+     */
+    boolean flush(Sink sink);
+
+    /**
+     * Get the platform sensors exposed by this source; empty for sources without hardware
+     */
+    List<Sensor> getSensorList();
+
+    /**
+     * Get the platform sensor of a type, or null if the source has no hardware sensor for it
+     */
+    Sensor getDefaultSensor(int sensorType);
+
+    /**
+     * Get told when sensors are connected or disconnected while the app runs
+     *
+     * @param listener called on an arbitrary thread, or null to stop listening
+     */
+    void setSensorListListener(Runnable listener);
+}
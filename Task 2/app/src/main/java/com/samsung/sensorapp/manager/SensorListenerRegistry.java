@@ -0,0 +1,493 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Concurrent registry of listeners keyed by sensor type
+ * Dispatch reads immutable copy-on-write listener arrays without locking,
+ * while registration is serialised per sensor type through lock stripes.
+ * Sensor types index an open-addressed primitive int table, so lookups
+ * never box the key.
+ */
+class SensorListenerRegistry {
+    private static final int STRIPE_COUNT = 8;
+    private static final int INITIAL_TABLE_SIZE = 32;
+    private static final SensorEventListener[] NO_LISTENERS = new SensorEventListener[0];
+    private static final ListenerDecimator[] NO_DECIMATORS = new ListenerDecimator[0];
+    private static final ListenerMetrics[] NO_METRICS = new ListenerMetrics[0];
+    private static final CompiledTrigger[] NO_TRIGGERS = new CompiledTrigger[0];
+
+    /**
+     * Per-sensor-type registration state
+     * Mutators must hold {@link #lockFor(int)} for the entry's sensor type.
+     * Listener and batch listener metrics are published in parallel arrays,
+     * after their listener arrays, so a reader must check that the metrics at
+     * an index belong to the listener it holds.
+     */
+    static final class Entry {
+        final int sensorType;
+        final SensorMetrics metrics = new SensorMetrics();
+        private volatile SensorEventListener[] listeners = NO_LISTENERS;
+        private volatile ListenerMetrics[] listenerMetrics = NO_METRICS;
+        private volatile SensorEventListener[] batchListeners = NO_LISTENERS;
+        private volatile ListenerMetrics[] batchListenerMetrics = NO_METRICS;
+        private volatile ListenerDecimator[] decimators = NO_DECIMATORS;
+        private volatile CompiledTrigger[] triggers = NO_TRIGGERS;
+        SensorDataManager.SensorEventListenerImpl internalListener;
+        volatile SensorRingBuffer ringBuffer;
+        /** Span of the blocks handed to batch listeners, the shortest report latency they asked for */
+        volatile long maxReportLatencyUs;
+        volatile int batchCapacity;
+        /** Sampling period set through the manager, combined with the requested ones, or -1 if none */
+        int samplingPeriodUs = -1;
+        /**
+         * Every subscription with the period it asked for in microseconds, 0 for the fastest,
+         * and the report latency it accepts, 0 for none
+         */
+        private Object[] rateSubscribers = new Object[0];
+        private int[] requestedPeriodsUs = new int[0];
+        private int[] requestedLatenciesUs = new int[0];
+        /** Sampling period and report latency the internal listener is registered with */
+        int registeredPeriodUs;
+        int registeredLatencyUs;
+
+        Entry(int sensorType) {
+            this.sensorType = sensorType;
+        }
+
+        /**
+         * Get the current listener snapshot; safe to iterate from any thread
+         */
+        SensorEventListener[] getListeners() {
+            return listeners;
+        }
+
+        /**
+         * Get the metrics of the listeners, in listener order
+         */
+        ListenerMetrics[] getListenerMetrics() {
+            return listenerMetrics;
+        }
+
+        /**
+         * Get the current batch listener snapshot; safe to iterate from any thread
+         */
+        SensorEventListener[] getBatchListeners() {
+            return batchListeners;
+        }
+
+        /**
+         * Get the metrics of the batch listeners, in batch listener order
+         */
+        ListenerMetrics[] getBatchListenerMetrics() {
+            return batchListenerMetrics;
+        }
+
+        /**
+         * Get the current snapshot of listeners with their own target rate; safe to iterate from any thread
+         */
+        ListenerDecimator[] getDecimators() {
+            return decimators;
+        }
+
+        /**
+         * Get the current trigger snapshot; safe to iterate from any thread
+         */
+        CompiledTrigger[] getTriggers() {
+            return triggers;
+        }
+
+        boolean hasSubscribers() {
+            SensorRingBuffer ring = ringBuffer;
+            return listeners.length > 0 || batchListeners.length > 0 || decimators.length > 0
+                    || triggers.length > 0 || (ring != null && ring.getConsumerCount() > 0);
+        }
+
+        void addListener(SensorEventListener listener) {
+            listeners = appended(listeners, listener);
+            listenerMetrics = appended(listenerMetrics, new ListenerMetrics(listener));
+        }
+
+        boolean removeListener(SensorEventListener listener) {
+            SensorEventListener[] current = listeners;
+            listeners = without(current, listener);
+            ListenerMetrics[] currentMetrics = listenerMetrics;
+            listenerMetrics = without(currentMetrics, listener);
+            quitLane(currentMetrics, listener);
+            return listeners != current;
+        }
+
+        void addBatchListener(SensorEventListener listener) {
+            batchListeners = appended(batchListeners, listener);
+            batchListenerMetrics = appended(batchListenerMetrics, new ListenerMetrics(listener));
+        }
+
+        boolean removeBatchListener(SensorEventListener listener) {
+            SensorEventListener[] current = batchListeners;
+            batchListeners = without(current, listener);
+            batchListenerMetrics = without(batchListenerMetrics, listener);
+            return batchListeners != current;
+        }
+
+        void addDecimator(ListenerDecimator decimator) {
+            ListenerDecimator[] current = decimators;
+            ListenerDecimator[] updated = new ListenerDecimator[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = decimator;
+            decimators = updated;
+        }
+
+        boolean removeDecimator(SensorEventListener listener) {
+            ListenerDecimator[] current = decimators;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].listener == listener) {
+                    quitLane(current[i].metrics);
+                    ListenerDecimator[] updated = current.length == 1
+                            ? NO_DECIMATORS : new ListenerDecimator[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, updated.length - i);
+                    decimators = updated;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Add a compiled trigger next to the others of its kind
+         * Keeping kinds contiguous makes the evaluate call predictable across the array.
+         */
+        void addTrigger(CompiledTrigger trigger) {
+            CompiledTrigger[] current = triggers;
+            int at = current.length;
+            for (int i = current.length - 1; i >= 0; i--) {
+                if (current[i].kind == trigger.kind) {
+                    at = i + 1;
+                    break;
+                }
+            }
+            CompiledTrigger[] updated = new CompiledTrigger[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, at);
+            updated[at] = trigger;
+            System.arraycopy(current, at, updated, at + 1, current.length - at);
+            triggers = updated;
+        }
+
+        /**
+         * Remove the registration of a trigger with a listener
+         *
+         * @return the removed registration, or null if there was none
+         */
+        CompiledTrigger removeTrigger(SensorTrigger trigger, TriggerListener listener) {
+            CompiledTrigger[] current = triggers;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].trigger == trigger && current[i].listener == listener) {
+                    CompiledTrigger[] updated = current.length == 1
+                            ? NO_TRIGGERS : new CompiledTrigger[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, updated.length - i);
+                    triggers = updated;
+                    return current[i];
+                }
+            }
+            return null;
+        }
+
+        void clearListeners() {
+            for (ListenerMetrics metrics : listenerMetrics) {
+                quitLane(metrics);
+            }
+            for (ListenerDecimator decimator : decimators) {
+                quitLane(decimator.metrics);
+            }
+            listeners = NO_LISTENERS;
+            listenerMetrics = NO_METRICS;
+            batchListeners = NO_LISTENERS;
+            batchListenerMetrics = NO_METRICS;
+            decimators = NO_DECIMATORS;
+            triggers = NO_TRIGGERS;
+            rateSubscribers = new Object[0];
+            requestedPeriodsUs = new int[0];
+            requestedLatenciesUs = new int[0];
+        }
+
+        /**
+         * Check whether the metrics belong to a current listener or rate-limited listener registration
+         */
+        boolean isRegistered(ListenerMetrics metrics) {
+            for (ListenerMetrics registered : listenerMetrics) {
+                if (registered == metrics) {
+                    return true;
+                }
+            }
+            for (ListenerDecimator decimator : decimators) {
+                if (decimator.metrics == metrics) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Record the period a new subscription asked for
+         */
+        void addRateRequest(Object subscriber, int periodUs) {
+            addRateRequest(subscriber, periodUs, 0);
+        }
+
+        /**
+         * Record the period and report latency a new subscription asked for
+         */
+        void addRateRequest(Object subscriber, int periodUs, int latencyUs) {
+            int count = rateSubscribers.length;
+            Object[] subscribers = new Object[count + 1];
+            int[] periods = new int[count + 1];
+            int[] latencies = new int[count + 1];
+            System.arraycopy(rateSubscribers, 0, subscribers, 0, count);
+            System.arraycopy(requestedPeriodsUs, 0, periods, 0, count);
+            System.arraycopy(requestedLatenciesUs, 0, latencies, 0, count);
+            subscribers[count] = subscriber;
+            periods[count] = periodUs;
+            latencies[count] = latencyUs;
+            rateSubscribers = subscribers;
+            requestedPeriodsUs = periods;
+            requestedLatenciesUs = latencies;
+        }
+
+        /**
+         * Forget the period of one subscription of the subscriber
+         */
+        void removeRateRequest(Object subscriber) {
+            int count = rateSubscribers.length;
+            for (int i = 0; i < count; i++) {
+                if (rateSubscribers[i] == subscriber) {
+                    Object[] subscribers = new Object[count - 1];
+                    int[] periods = new int[count - 1];
+                    int[] latencies = new int[count - 1];
+                    System.arraycopy(rateSubscribers, 0, subscribers, 0, i);
+                    System.arraycopy(rateSubscribers, i + 1, subscribers, i, count - i - 1);
+                    System.arraycopy(requestedPeriodsUs, 0, periods, 0, i);
+                    System.arraycopy(requestedPeriodsUs, i + 1, periods, i, count - i - 1);
+                    System.arraycopy(requestedLatenciesUs, 0, latencies, 0, i);
+                    System.arraycopy(requestedLatenciesUs, i + 1, latencies, i, count - i - 1);
+                    rateSubscribers = subscribers;
+                    requestedPeriodsUs = periods;
+                    requestedLatenciesUs = latencies;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Get the shortest period any subscription asked for, or -1 if there are none
+         */
+        int getFastestRequestedPeriodUs() {
+            int fastest = -1;
+            for (int periodUs : requestedPeriodsUs) {
+                if (fastest < 0 || periodUs < fastest) {
+                    fastest = periodUs;
+                }
+            }
+            return fastest;
+        }
+
+        /**
+         * Get the shortest report latency any subscription accepts, 0 if one needs every
+         * event right away or there are none
+         */
+        int getShortestRequestedLatencyUs() {
+            int shortest = -1;
+            for (int latencyUs : requestedLatenciesUs) {
+                if (shortest < 0 || latencyUs < shortest) {
+                    shortest = latencyUs;
+                }
+            }
+            return Math.max(0, shortest);
+        }
+
+        /**
+         * Get the shortest report latency a batch subscription asked for, or 0 if there are none
+         */
+        int getShortestBatchLatencyUs() {
+            int shortest = 0;
+            for (int latencyUs : requestedLatenciesUs) {
+                if (latencyUs > 0 && (shortest == 0 || latencyUs < shortest)) {
+                    shortest = latencyUs;
+                }
+            }
+            return shortest;
+        }
+    }
+
+    private static SensorEventListener[] appended(SensorEventListener[] current, SensorEventListener listener) {
+        SensorEventListener[] updated = new SensorEventListener[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = listener;
+        return updated;
+    }
+
+    private static SensorEventListener[] without(SensorEventListener[] current, SensorEventListener listener) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                if (current.length == 1) {
+                    return NO_LISTENERS;
+                }
+                SensorEventListener[] updated = new SensorEventListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                return updated;
+            }
+        }
+        return current;
+    }
+
+    private static void quitLane(ListenerMetrics[] current, SensorEventListener listener) {
+        for (ListenerMetrics metrics : current) {
+            if (metrics.listener == listener) {
+                quitLane(metrics);
+                return;
+            }
+        }
+    }
+
+    private static void quitLane(ListenerMetrics metrics) {
+        SlowListenerLane lane = metrics.lane;
+        if (lane != null) {
+            lane.quit();
+        }
+    }
+
+    private static ListenerMetrics[] appended(ListenerMetrics[] current, ListenerMetrics metrics) {
+        ListenerMetrics[] updated = new ListenerMetrics[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = metrics;
+        return updated;
+    }
+
+    private static ListenerMetrics[] without(ListenerMetrics[] current, SensorEventListener listener) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].listener == listener) {
+                if (current.length == 1) {
+                    return NO_METRICS;
+                }
+                ListenerMetrics[] updated = new ListenerMetrics[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                return updated;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Immutable open-addressed table from sensor type to entry
+     */
+    private static final class Table {
+        final int[] keys;
+        final Entry[] entries;
+        final int size;
+
+        Table(int capacity, int size) {
+            this.keys = new int[capacity];
+            this.entries = new Entry[capacity];
+            this.size = size;
+        }
+
+        Entry get(int sensorType) {
+            int mask = keys.length - 1;
+            for (int i = mix(sensorType) & mask; ; i = (i + 1) & mask) {
+                Entry entry = entries[i];
+                if (entry == null) {
+                    return null;
+                }
+                if (keys[i] == sensorType) {
+                    return entry;
+                }
+            }
+        }
+
+        void insert(Entry entry) {
+            int mask = keys.length - 1;
+            int i = mix(entry.sensorType) & mask;
+            while (entries[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = entry.sensorType;
+            entries[i] = entry;
+        }
+    }
+
+    private final Object[] stripes = new Object[STRIPE_COUNT];
+    private final Object tableLock = new Object();
+    private volatile Table table = new Table(INITIAL_TABLE_SIZE, 0);
+
+    SensorListenerRegistry() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Get the lock guarding registration changes for a sensor type
+     */
+    Object lockFor(int sensorType) {
+        return stripes[mix(sensorType) & (STRIPE_COUNT - 1)];
+    }
+
+    /**
+     * Look up the entry for a sensor type without locking
+     */
+    Entry get(int sensorType) {
+        return table.get(sensorType);
+    }
+
+    /**
+     * Look up the entry for a sensor type, creating it if needed
+     * Entries are never removed; sensor types are a small bounded set.
+     */
+    Entry getOrCreate(int sensorType) {
+        Entry entry = table.get(sensorType);
+        if (entry != null) {
+            return entry;
+        }
+        synchronized (tableLock) {
+            Table current = table;
+            entry = current.get(sensorType);
+            if (entry != null) {
+                return entry;
+            }
+            entry = new Entry(sensorType);
+            int capacity = current.keys.length;
+            if ((current.size + 1) * 2 > capacity) {
+                capacity *= 2;
+            }
+            Table updated = new Table(capacity, current.size + 1);
+            for (Entry existing : current.entries) {
+                if (existing != null) {
+                    updated.insert(existing);
+                }
+            }
+            updated.insert(entry);
+            table = updated;
+            return entry;
+        }
+    }
+
+    /**
+     * Get a snapshot of every sensor type that has an entry
+     */
+    int[] getSensorTypes() {
+        Table current = table;
+        int[] sensorTypes = new int[current.size];
+        int count = 0;
+        for (int i = 0; i < current.entries.length; i++) {
+            if (current.entries[i] != null) {
+                sensorTypes[count++] = current.keys[i];
+            }
+        }
+        return sensorTypes;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,19 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Delivery counters of one sensor type
+ * They outlive the sensor's listeners, so exceptions thrown by a listener
+ * that has since unregistered are still counted.
+ */
+final class SensorMetrics {
+    final StripedCounter eventsIn = new StripedCounter();
+    final StripedCounter listenerExceptions = new StripedCounter();
+    /** Event timestamp to dispatch, in nanoseconds */
+    final LatencyHistogram eventAge = new LatencyHistogram();
+
+    void reset() {
+        eventsIn.reset();
+        listenerExceptions.reset();
+        eventAge.reset();
+    }
+}
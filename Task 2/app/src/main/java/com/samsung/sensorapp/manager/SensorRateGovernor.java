@@ -0,0 +1,277 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.SensorManager;
+import android.util.Log;
+
+import com.samsung.sensorapp.model.SensorData;
+
+/**
+ * Adapts the sampling period of sensors to how much their signal is changing
+ * Each governed sensor moves along a ladder of periods, slowest first. At the
+ * end of every evaluation window the governor looks at the summed per-axis
+ * variance of the window, and optionally its event rate for on-change sensors:
+ * crossing the raise threshold jumps straight to the fastest period, and only
+ * after several consecutive windows below the lower threshold does it step
+ * down one period. Readings between the two thresholds hold the current
+ * period, so the platform is re-registered only on hysteresis boundaries.
+ * Evaluation runs on the sensor's dispatch thread using primitive state.
+ */
+public class SensorRateGovernor implements SensorEventListener {
+    private static final String TAG = "SensorRateGovernor";
+
+    public static final long DEFAULT_EVALUATION_WINDOW_NS = 500_000_000L;
+    public static final int DEFAULT_CALM_WINDOWS = 4;
+    private static final int[] DEFAULT_PERIODS_US = {
+            SamplingPeriods.NORMAL_PERIOD_US,
+            SamplingPeriods.UI_PERIOD_US,
+            SamplingPeriods.GAME_PERIOD_US
+    };
+    private static final GovernedSensor[] NO_SENSORS = new GovernedSensor[0];
+
+    /**
+     * Per-sensor-type governor state, touched only on the sensor's dispatch thread
+     */
+    private static final class GovernedSensor {
+        final int sensorType;
+        final double raiseVariance;
+        final double lowerVariance;
+        final double raiseEventRateHz;
+        final double lowerEventRateHz;
+        volatile int level;
+        volatile int rateChangeCount;
+        int calmWindows;
+        long windowStartNs = Long.MIN_VALUE;
+        int windowCount;
+        double[] mean = new double[0];
+        double[] m2 = new double[0];
+
+        GovernedSensor(int sensorType, double raiseVariance, double lowerVariance,
+                       double raiseEventRateHz, double lowerEventRateHz) {
+            this.sensorType = sensorType;
+            this.raiseVariance = raiseVariance;
+            this.lowerVariance = lowerVariance;
+            this.raiseEventRateHz = raiseEventRateHz;
+            this.lowerEventRateHz = lowerEventRateHz;
+        }
+    }
+
+    private final SensorDataManager manager;
+    private final int[] periodsUs;
+    private final long evaluationWindowNs;
+    private final int calmWindowsToStepDown;
+    private volatile GovernedSensor[] sensors = NO_SENSORS;
+
+    /**
+     * Govern between 5 Hz, 15 Hz and 50 Hz, evaluating every 500 ms and stepping down after 2 s of calm
+     */
+    public SensorRateGovernor(SensorDataManager manager) {
+        this(manager, DEFAULT_PERIODS_US, DEFAULT_EVALUATION_WINDOW_NS, DEFAULT_CALM_WINDOWS);
+    }
+
+    /**
+     * @param periodsUs sampling periods in microseconds, slowest first
+     * @param evaluationWindowNs sensor time covered by each evaluation
+     * @param calmWindowsToStepDown consecutive calm evaluations before stepping down one period
+     */
+    public SensorRateGovernor(SensorDataManager manager, int[] periodsUs, long evaluationWindowNs,
+                              int calmWindowsToStepDown) {
+        if (periodsUs.length == 0) {
+            throw new IllegalArgumentException("At least one sampling period is required");
+        }
+        for (int i = 0; i < periodsUs.length; i++) {
+            if (periodsUs[i] <= SensorManager.SENSOR_DELAY_NORMAL || (i > 0 && periodsUs[i] >= periodsUs[i - 1])) {
+                throw new IllegalArgumentException("Sampling periods must be in microseconds, slowest first");
+            }
+        }
+        if (evaluationWindowNs <= 0 || calmWindowsToStepDown <= 0) {
+            throw new IllegalArgumentException("Evaluation window and calm window count must be positive");
+        }
+        this.manager = manager;
+        this.periodsUs = periodsUs.clone();
+        this.evaluationWindowNs = evaluationWindowNs;
+        this.calmWindowsToStepDown = calmWindowsToStepDown;
+    }
+
+    /**
+     * Govern a sensor by the variance of its signal
+     *
+     * @param raiseVariance summed per-axis variance, in squared sensor units, that selects the fastest period
+     * @param lowerVariance variance at or below which a window counts as calm
+     */
+    public void govern(int sensorType, double raiseVariance, double lowerVariance) {
+        govern(sensorType, raiseVariance, lowerVariance, 0, 0);
+    }
+
+    /**
+     * Govern a sensor by the variance of its signal and by its event rate
+     * Event-rate thresholds are meant for on-change sensors, whose rate reflects
+     * activity; pass 0 for raiseEventRateHz to ignore the rate.
+     */
+    public void govern(int sensorType, double raiseVariance, double lowerVariance,
+                       double raiseEventRateHz, double lowerEventRateHz) {
+        if (lowerVariance > raiseVariance || lowerEventRateHz > raiseEventRateHz) {
+            throw new IllegalArgumentException("Lower thresholds must not exceed raise thresholds");
+        }
+        synchronized (this) {
+            if (find(sensorType) != null) {
+                return;
+            }
+            GovernedSensor sensor = new GovernedSensor(sensorType, raiseVariance, lowerVariance,
+                    raiseEventRateHz, lowerEventRateHz);
+            GovernedSensor[] current = sensors;
+            GovernedSensor[] updated = new GovernedSensor[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = sensor;
+            sensors = updated;
+        }
+        // Start at rest; the governor only watches the stream, so its own
+        // listener must not ask for a rate that would pin the sensor
+        manager.setSamplingPeriod(sensorType, periodsUs[0]);
+        manager.registerPassiveListener(sensorType, this);
+    }
+
+    /**
+     * Stop governing a sensor; it returns to the fastest period its other subscribers asked for
+     */
+    public void release(int sensorType) {
+        synchronized (this) {
+            GovernedSensor[] current = sensors;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].sensorType == sensorType) {
+                    GovernedSensor[] updated = current.length == 1
+                            ? NO_SENSORS : new GovernedSensor[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, updated.length - i);
+                    sensors = updated;
+                    break;
+                }
+            }
+        }
+        manager.unregisterListener(sensorType, this);
+        manager.clearSamplingPeriod(sensorType);
+    }
+
+    /**
+     * Stop governing every sensor
+     */
+    public void releaseAll() {
+        for (GovernedSensor sensor : sensors) {
+            release(sensor.sensorType);
+        }
+    }
+
+    /**
+     * Get the period a governed sensor is currently held at, or -1 if it is not governed
+     */
+    public int getSamplingPeriodUs(int sensorType) {
+        GovernedSensor sensor = find(sensorType);
+        return sensor != null ? periodsUs[sensor.level] : -1;
+    }
+
+    /**
+     * Get how often a governed sensor was re-registered at a new period
+     */
+    public int getRateChangeCount(int sensorType) {
+        GovernedSensor sensor = find(sensorType);
+        return sensor != null ? sensor.rateChangeCount : 0;
+    }
+
+    @Override
+    public void onSensorDataChanged(SensorData sensorData) {
+        GovernedSensor sensor = find(sensorData.getSensorType());
+        if (sensor == null) {
+            return;
+        }
+        long timestamp = sensorData.getTimestamp();
+        if (sensor.windowStartNs == Long.MIN_VALUE) {
+            sensor.windowStartNs = timestamp;
+        } else if (timestamp - sensor.windowStartNs >= evaluationWindowNs) {
+            evaluate(sensor, timestamp - sensor.windowStartNs);
+            sensor.windowStartNs = timestamp;
+            sensor.windowCount = 0;
+        }
+        accumulate(sensor, sensorData.getValues());
+    }
+
+    @Override
+    public void onSensorAccuracyChanged(int accuracy) {
+        // Rate decisions depend on values only
+    }
+
+    @Override
+    public void onSensorError(String errorMessage) {
+        Log.e(TAG, "Sensor error while governing: " + errorMessage);
+    }
+
+    private static void accumulate(GovernedSensor sensor, float[] values) {
+        if (sensor.mean.length != values.length) {
+            sensor.mean = new double[values.length];
+            sensor.m2 = new double[values.length];
+            sensor.windowCount = 0;
+        }
+        if (sensor.windowCount == 0) {
+            for (int axis = 0; axis < values.length; axis++) {
+                sensor.mean[axis] = 0.0;
+                sensor.m2[axis] = 0.0;
+            }
+        }
+        int count = ++sensor.windowCount;
+        for (int axis = 0; axis < values.length; axis++) {
+            double delta = values[axis] - sensor.mean[axis];
+            sensor.mean[axis] += delta / count;
+            sensor.m2[axis] += delta * (values[axis] - sensor.mean[axis]);
+        }
+    }
+
+    private void evaluate(GovernedSensor sensor, long windowNs) {
+        double variance = 0.0;
+        if (sensor.windowCount > 1) {
+            for (int axis = 0; axis < sensor.m2.length; axis++) {
+                variance += sensor.m2[axis] / (sensor.windowCount - 1);
+            }
+        }
+        double eventRateHz = sensor.windowCount * 1e9 / windowNs;
+        boolean rateGoverned = sensor.raiseEventRateHz > 0;
+
+        boolean active = variance >= sensor.raiseVariance
+                || (rateGoverned && eventRateHz >= sensor.raiseEventRateHz);
+        boolean calm = variance <= sensor.lowerVariance
+                && (!rateGoverned || eventRateHz <= sensor.lowerEventRateHz);
+        if (active) {
+            sensor.calmWindows = 0;
+            setLevel(sensor, periodsUs.length - 1);
+        } else if (calm) {
+            if (++sensor.calmWindows >= calmWindowsToStepDown && sensor.level > 0) {
+                sensor.calmWindows = 0;
+                setLevel(sensor, sensor.level - 1);
+            }
+        } else {
+            sensor.calmWindows = 0;
+        }
+    }
+
+    private void setLevel(GovernedSensor sensor, int level) {
+        if (sensor.level == level) {
+            return;
+        }
+        int periodUs = periodsUs[level];
+        if (manager.setSamplingPeriod(sensor.sensorType, periodUs)) {
+            sensor.level = level;
+            sensor.rateChangeCount++;
+        } else if (manager.getSamplingPeriod(sensor.sensorType) >= 0
+                && manager.getExplicitSamplingPeriod(sensor.sensorType) == periodUs) {
+            // Taken without a re-registration, because a faster subscriber holds the sensor
+            sensor.level = level;
+        }
+    }
+
+    private GovernedSensor find(int sensorType) {
+        GovernedSensor[] current = sensors;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].sensorType == sensorType) {
+                return current[i];
+            }
+        }
+        return null;
+    }
+}
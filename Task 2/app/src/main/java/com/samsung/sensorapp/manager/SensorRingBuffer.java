@@ -0,0 +1,267 @@
+package com.samsung.sensorapp.manager;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Single-producer/multi-consumer ring buffer of primitive sensor samples
+ * The sensor thread publishes into fixed slots without locking or allocating,
+ * and every attached consumer reads the full stream through its own cursor
+ * at its own pace.
+ */
+public class SensorRingBuffer {
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_VALUES_PER_SAMPLE = 16;
+
+    /**
+     * What happens when a consumer falls a full buffer behind the producer
+     */
+    public enum OverflowPolicy {
+        /** The producer keeps writing; the lagging consumer skips the samples it lost */
+        OVERWRITE_OLDEST,
+        /** The producer rejects new samples until the slowest consumer catches up */
+        DROP_NEWEST
+    }
+
+    /**
+     * Callback receiving samples drained by a consumer
+     * The values array is owned by the consumer and reused for every sample
+     */
+    public interface SampleHandler {
+        void onSample(long timestamp, float[] values, int valueCount, int accuracy);
+    }
+
+    private static final Consumer[] NO_CONSUMERS = new Consumer[0];
+
+    private final int capacity;
+    private final int mask;
+    private final int valuesPerSample;
+    private final OverflowPolicy overflowPolicy;
+
+    // Slot storage; a slot is valid for sequence s while slotSequences[slot] == s
+    private final AtomicLongArray slotSequences;
+    private final AtomicLongArray timestamps;
+    private final AtomicIntegerArray valueBits;
+    private final AtomicIntegerArray valueCounts;
+    private final AtomicIntegerArray accuracies;
+
+    // Written only by the producer thread
+    private volatile long publishedSequence = -1;
+    private volatile long rejectedCount;
+    private long cachedMinCursor;
+
+    private volatile Consumer[] consumers = NO_CONSUMERS;
+
+    public SensorRingBuffer() {
+        this(DEFAULT_CAPACITY, DEFAULT_VALUES_PER_SAMPLE, OverflowPolicy.OVERWRITE_OLDEST);
+    }
+
+    public SensorRingBuffer(int capacity, int valuesPerSample, OverflowPolicy overflowPolicy) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        if (valuesPerSample <= 0) {
+            throw new IllegalArgumentException("Values per sample must be positive: " + valuesPerSample);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.valuesPerSample = valuesPerSample;
+        this.overflowPolicy = overflowPolicy;
+        this.slotSequences = new AtomicLongArray(capacity);
+        this.timestamps = new AtomicLongArray(capacity);
+        this.valueBits = new AtomicIntegerArray(capacity * valuesPerSample);
+        this.valueCounts = new AtomicIntegerArray(capacity);
+        this.accuracies = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slotSequences.set(i, -1);
+        }
+    }
+
+    /**
+     * Publish a sample; must only be called from the single producer thread
+     * Values beyond the configured values per sample are truncated.
+     *
+     * @return false if the sample was rejected under {@link OverflowPolicy#DROP_NEWEST}
+     */
+    public boolean publish(long timestamp, float[] values, int accuracy) {
+        long sequence = publishedSequence + 1;
+        if (overflowPolicy == OverflowPolicy.DROP_NEWEST && sequence - cachedMinCursor >= capacity) {
+            cachedMinCursor = minConsumerCursor(sequence);
+            if (sequence - cachedMinCursor >= capacity) {
+                rejectedCount++;
+                return false;
+            }
+        }
+
+        int slot = (int) (sequence & mask);
+        slotSequences.set(slot, -1);
+        timestamps.lazySet(slot, timestamp);
+        accuracies.lazySet(slot, accuracy);
+        int count = Math.min(values.length, valuesPerSample);
+        int base = slot * valuesPerSample;
+        for (int i = 0; i < count; i++) {
+            valueBits.lazySet(base + i, Float.floatToRawIntBits(values[i]));
+        }
+        valueCounts.lazySet(slot, count);
+        slotSequences.set(slot, sequence);
+        publishedSequence = sequence;
+        return true;
+    }
+
+    private long minConsumerCursor(long defaultCursor) {
+        long min = defaultCursor;
+        Consumer[] current = consumers;
+        for (int i = 0; i < current.length; i++) {
+            long cursor = current[i].cursor;
+            if (cursor < min) {
+                min = cursor;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Attach a new consumer that starts with the next published sample
+     */
+    public synchronized Consumer addConsumer() {
+        Consumer consumer = new Consumer(publishedSequence + 1, rejectedCount);
+        Consumer[] current = consumers;
+        Consumer[] updated = new Consumer[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, current.length);
+        updated[current.length] = consumer;
+        consumers = updated;
+        return consumer;
+    }
+
+    /**
+     * Detach a consumer so it no longer holds back the producer
+     */
+    public synchronized boolean removeConsumer(Consumer consumer) {
+        Consumer[] current = consumers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == consumer) {
+                Consumer[] updated = new Consumer[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                consumers = updated;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getConsumerCount() {
+        return consumers.length;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getValuesPerSample() {
+        return valuesPerSample;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Get the total number of samples published so far
+     */
+    public long getPublishedCount() {
+        return publishedSequence + 1;
+    }
+
+    /**
+     * Get the number of samples rejected under {@link OverflowPolicy#DROP_NEWEST}
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Read side of the ring buffer; each instance must be drained by one thread at a time
+     */
+    public final class Consumer {
+        private final float[] scratch = new float[valuesPerSample];
+        private final long rejectedAtAttach;
+
+        // Next sequence to read, observed by the producer under DROP_NEWEST
+        private volatile long cursor;
+        private volatile long lappedCount;
+
+        private Consumer(long startSequence, long rejectedAtAttach) {
+            this.cursor = startSequence;
+            this.rejectedAtAttach = rejectedAtAttach;
+        }
+
+        /**
+         * Deliver up to maxSamples pending samples to the handler in publish order
+         *
+         * @return the number of samples delivered
+         */
+        public int drain(SampleHandler handler, int maxSamples) {
+            long next = cursor;
+            int delivered = 0;
+            while (delivered < maxSamples) {
+                long published = publishedSequence;
+                if (next > published) {
+                    break;
+                }
+                if (published - next >= capacity) {
+                    long resume = published - capacity + 1;
+                    lappedCount += resume - next;
+                    next = resume;
+                }
+
+                int slot = (int) (next & mask);
+                if (slotSequences.get(slot) != next) {
+                    // The producer is already overwriting this slot
+                    lappedCount++;
+                    next++;
+                    continue;
+                }
+                long timestamp = timestamps.get(slot);
+                int accuracy = accuracies.get(slot);
+                int count = valueCounts.get(slot);
+                int base = slot * valuesPerSample;
+                for (int i = 0; i < count; i++) {
+                    scratch[i] = Float.intBitsToFloat(valueBits.get(base + i));
+                }
+                if (slotSequences.get(slot) != next) {
+                    lappedCount++;
+                    next++;
+                    continue;
+                }
+
+                next++;
+                cursor = next;
+                delivered++;
+                handler.onSample(timestamp, scratch, count, accuracy);
+            }
+            cursor = next;
+            return delivered;
+        }
+
+        /**
+         * Get the number of samples waiting to be drained
+         */
+        public long getAvailable() {
+            long available = publishedSequence + 1 - cursor;
+            return Math.max(0, Math.min(available, capacity));
+        }
+
+        /**
+         * Get the number of samples this consumer never saw, either because it
+         * was overrun or because the producer rejected them while it was attached
+         */
+        public long getDroppedCount() {
+            return lappedCount + (rejectedCount - rejectedAtAttach);
+        }
+
+        public SensorRingBuffer getRingBuffer() {
+            return SensorRingBuffer.this;
+        }
+    }
+}
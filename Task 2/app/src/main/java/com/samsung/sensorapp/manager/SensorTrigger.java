@@ -0,0 +1,129 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Immutable description of a condition on one sensor signal
+ * The signal is one axis of the sensor's values or their magnitude. A
+ * trigger fires once each time its condition becomes true, after holding
+ * for the debounce count of consecutive samples, and re-arms as soon as the
+ * condition is false again. Registering it with
+ * {@link SensorDataManager#addTrigger} compiles it into a predicate that is
+ * evaluated on the dispatch thread, so subscribers only hear about matches.
+ */
+public final class SensorTrigger {
+    /** Signal index selecting the Euclidean norm of all values */
+    public static final int MAGNITUDE = -1;
+
+    /**
+     * Kind of condition
+     */
+    public enum Kind {
+        /** Signal at or above the threshold */
+        ABOVE,
+        /** Signal at or below the threshold */
+        BELOW,
+        /** Signal reached the threshold and has not yet fallen to the release level */
+        HYSTERESIS,
+        /** Signal changed by at least the threshold per second since the previous sample */
+        RATE_OF_CHANGE
+    }
+
+    private final Kind kind;
+    private final int signal;
+    private final float threshold;
+    private final float releaseLevel;
+    private final int debounceSamples;
+
+    private SensorTrigger(Kind kind, int signal, float threshold, float releaseLevel, int debounceSamples) {
+        if (signal < MAGNITUDE) {
+            throw new IllegalArgumentException("Signal must be an axis index or MAGNITUDE: " + signal);
+        }
+        if (debounceSamples <= 0) {
+            throw new IllegalArgumentException("Debounce samples must be positive: " + debounceSamples);
+        }
+        this.kind = kind;
+        this.signal = signal;
+        this.threshold = threshold;
+        this.releaseLevel = releaseLevel;
+        this.debounceSamples = debounceSamples;
+    }
+
+    public static SensorTrigger above(int signal, float threshold) {
+        return new SensorTrigger(Kind.ABOVE, signal, threshold, Float.NaN, 1);
+    }
+
+    public static SensorTrigger below(int signal, float threshold) {
+        return new SensorTrigger(Kind.BELOW, signal, threshold, Float.NaN, 1);
+    }
+
+    /**
+     * Create a trigger that rises at one level and only re-arms below a lower one
+     */
+    public static SensorTrigger hysteresis(int signal, float riseAt, float releaseBelow) {
+        if (!(releaseBelow < riseAt)) {
+            throw new IllegalArgumentException("Release level must be below the rise level: "
+                    + releaseBelow + " >= " + riseAt);
+        }
+        return new SensorTrigger(Kind.HYSTERESIS, signal, riseAt, releaseBelow, 1);
+    }
+
+    /**
+     * Create a trigger on the absolute change of the signal between consecutive samples
+     *
+     * @param unitsPerSecond smallest rate of change, in signal units per second
+     */
+    public static SensorTrigger rateOfChange(int signal, float unitsPerSecond) {
+        if (!(unitsPerSecond > 0)) {
+            throw new IllegalArgumentException("Rate must be positive: " + unitsPerSecond);
+        }
+        return new SensorTrigger(Kind.RATE_OF_CHANGE, signal, unitsPerSecond, Float.NaN, 1);
+    }
+
+    /**
+     * Get a copy that only fires once the condition held for the given number of consecutive samples
+     */
+    public SensorTrigger debounced(int samples) {
+        return new SensorTrigger(kind, signal, threshold, releaseLevel, samples);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Get the axis index the trigger watches, or {@link #MAGNITUDE}
+     */
+    public int getSignal() {
+        return signal;
+    }
+
+    /**
+     * Get the threshold, rise level or rate per second, depending on the kind
+     */
+    public float getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Get the hysteresis release level, or NaN for other kinds
+     */
+    public float getReleaseLevel() {
+        return releaseLevel;
+    }
+
+    public int getDebounceSamples() {
+        return debounceSamples;
+    }
+
+    /**
+     * Compile a fresh predicate with its own evaluation state
+     */
+    CompiledTrigger compile(TriggerListener listener) {
+        return new CompiledTrigger(this, listener);
+    }
+
+    @Override
+    public String toString() {
+        return kind + "(" + (signal == MAGNITUDE ? "magnitude" : "axis " + signal) + ", " + threshold
+                + (kind == Kind.HYSTERESIS ? "/" + releaseLevel : "") + ", debounce " + debounceSamples + ")";
+    }
+}
@@ -0,0 +1,124 @@
+package com.samsung.sensorapp.manager;
+
+import android.util.Log;
+
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.model.SensorDataPool;
+import com.samsung.sensorapp.util.SensorDataMapper;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Private delivery thread for a listener that was too slow for the dispatch loop
+ * The dispatch thread publishes into a small ring buffer that overwrites its
+ * oldest samples, so it never waits for the listener; the lane thread drains
+ * it and calls the listener, which sees the newest samples and skips the ones
+ * it fell behind on. The lane thread is only unparked while it is idle.
+ */
+final class SlowListenerLane implements Runnable, SensorRingBuffer.SampleHandler {
+    private static final String TAG = "SlowListenerLane";
+    private static final int DRAIN_BATCH = 16;
+
+    private final SensorEventListener listener;
+    private final ListenerMetrics metrics;
+    private final SensorMetrics sensorMetrics;
+    private final String sensorName;
+    private final int sensorType;
+    private final SensorRingBuffer ring;
+    private final SensorRingBuffer.Consumer consumer;
+    private final SensorDataPool sensorDataPool;
+    private final Thread thread;
+    private float[] values = new float[0];
+    private volatile boolean idle;
+    private volatile boolean running = true;
+
+    /**
+     * Start a lane thread for the listener
+     *
+     * @param sensorDataPool pool to obtain delivered SensorData from, or null to allocate them
+     */
+    SlowListenerLane(SensorEventListener listener, ListenerMetrics metrics, SensorMetrics sensorMetrics,
+                     String sensorName, int sensorType, int capacity, SensorDataPool sensorDataPool) {
+        this.listener = listener;
+        this.metrics = metrics;
+        this.sensorMetrics = sensorMetrics;
+        this.sensorName = sensorName;
+        this.sensorType = sensorType;
+        this.ring = new SensorRingBuffer(capacity, SensorRingBuffer.DEFAULT_VALUES_PER_SAMPLE,
+                SensorRingBuffer.OverflowPolicy.OVERWRITE_OLDEST);
+        this.consumer = ring.addConsumer();
+        this.sensorDataPool = sensorDataPool;
+        this.thread = new Thread(this, "SlowListenerLane-" + sensorType);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue a sample for the listener; must only be called from the dispatch thread
+     */
+    void publish(long timestamp, float[] values, int accuracy) {
+        ring.publish(timestamp, values, accuracy);
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Stop the lane thread once its current callback returns; pending samples are dropped
+     */
+    void quit() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    boolean isAlive() {
+        return thread.isAlive();
+    }
+
+    /**
+     * Get the number of samples the listener never received because it fell a full lane behind
+     */
+    long getDroppedCount() {
+        return consumer.getDroppedCount();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (consumer.drain(this, DRAIN_BATCH) > 0) {
+                continue;
+            }
+            // Publish the idle flag before re-checking, so a sample published in between unparks us
+            idle = true;
+            if (consumer.getAvailable() == 0 && running) {
+                LockSupport.park(this);
+            }
+            idle = false;
+        }
+    }
+
+    @Override
+    public void onSample(long timestamp, float[] sample, int valueCount, int accuracy) {
+        if (!running) {
+            return;
+        }
+        if (values.length != valueCount) {
+            values = new float[valueCount];
+        }
+        System.arraycopy(sample, 0, values, 0, valueCount);
+        SensorData sensorData = sensorDataPool != null
+                ? SensorDataMapper.mapToSensorData(sensorName, sensorType, values, accuracy, timestamp, sensorDataPool)
+                : SensorDataMapper.mapToSensorData(sensorName, sensorType, values, accuracy, timestamp);
+        long start = System.nanoTime();
+        try {
+            listener.onSensorDataChanged(sensorData);
+        } catch (Exception e) {
+            Log.e(TAG, "Error notifying listener", e);
+            metrics.exceptions.increment();
+            sensorMetrics.listenerExceptions.increment();
+        } finally {
+            sensorData.release();
+        }
+        metrics.callbackDuration.record(System.nanoTime() - start);
+    }
+}
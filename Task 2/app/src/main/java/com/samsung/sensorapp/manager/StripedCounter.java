@@ -0,0 +1,53 @@
+package com.samsung.sensorapp.manager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter that threads update on separate cache lines
+ * Works like LongAdder, which needs API 24: each thread adds into the cell its
+ * id hashes to, so concurrent writers rarely share a line, and reads sum every
+ * cell. A single writer pays one uncontended atomic add.
+ */
+final class StripedCounter {
+    private static final int CELL_COUNT = cellCount();
+    /** Longs between cells; two 64-byte lines so adjacent-line prefetch does not pair them */
+    private static final int CELL_STRIDE = 16;
+
+    private final AtomicLongArray cells = new AtomicLongArray(CELL_COUNT * CELL_STRIDE);
+
+    void increment() {
+        cells.getAndIncrement(cellIndex());
+    }
+
+    void add(long delta) {
+        cells.getAndAdd(cellIndex(), delta);
+    }
+
+    /**
+     * Get the sum of every cell; not an atomic snapshot while writers are active
+     */
+    long sum() {
+        long total = 0;
+        for (int i = 0; i < CELL_COUNT; i++) {
+            total += cells.get(i * CELL_STRIDE);
+        }
+        return total;
+    }
+
+    void reset() {
+        for (int i = 0; i < CELL_COUNT; i++) {
+            cells.set(i * CELL_STRIDE, 0);
+        }
+    }
+
+    private static int cellIndex() {
+        int h = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & (CELL_COUNT - 1)) * CELL_STRIDE;
+    }
+
+    private static int cellCount() {
+        int wanted = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 16));
+        int count = Integer.highestOneBit(wanted);
+        return count < wanted ? count * 2 : count;
+    }
+}
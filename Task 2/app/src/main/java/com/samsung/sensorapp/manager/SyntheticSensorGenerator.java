@@ -0,0 +1,125 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+
+/**
+ * Seeded generator of plausible readings for the common sensor types
+ * Each sample is a slow sinusoid around a typical resting value plus noise.
+ * Noise is a pure function of the seed, sensor type, sample index and axis,
+ * so output does not depend on how sensors are interleaved.
+ */
+public class SyntheticSensorGenerator implements ReplaySensorEventSource.Generator {
+    private static final double TWO_PI = 2 * Math.PI;
+    private static final double MOTION_HZ = 0.5;
+    private static final long NANOS_PER_STEP = 500_000_000L;
+
+    private final long seed;
+
+    public SyntheticSensorGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public int getValueCount(int sensorType) {
+        switch (sensorType) {
+            case Sensor.TYPE_ACCELEROMETER:
+            case Sensor.TYPE_MAGNETIC_FIELD:
+            case Sensor.TYPE_GYROSCOPE:
+            case Sensor.TYPE_GRAVITY:
+            case Sensor.TYPE_LINEAR_ACCELERATION:
+                return 3;
+            case Sensor.TYPE_ROTATION_VECTOR:
+                return 5;
+            case Sensor.TYPE_LIGHT:
+            case Sensor.TYPE_PRESSURE:
+            case Sensor.TYPE_AMBIENT_TEMPERATURE:
+            case Sensor.TYPE_RELATIVE_HUMIDITY:
+            case Sensor.TYPE_PROXIMITY:
+            case Sensor.TYPE_STEP_COUNTER:
+            case Sensor.TYPE_STEP_DETECTOR:
+                return 1;
+            default:
+                return 3;
+        }
+    }
+
+    @Override
+    public void generate(int sensorType, long index, long timestamp, float[] values) {
+        double phase = TWO_PI * MOTION_HZ * (timestamp * 1e-9);
+        float wave = (float) Math.sin(phase);
+        switch (sensorType) {
+            case Sensor.TYPE_ACCELEROMETER:
+                values[0] = 0.5f * wave + noise(sensorType, index, 0, 0.05f);
+                values[1] = 0.3f * wave + noise(sensorType, index, 1, 0.05f);
+                values[2] = 9.81f + 0.2f * wave + noise(sensorType, index, 2, 0.05f);
+                break;
+            case Sensor.TYPE_GRAVITY:
+                values[0] = 0.5f * wave;
+                values[1] = 0.3f * wave;
+                values[2] = 9.78f;
+                break;
+            case Sensor.TYPE_LINEAR_ACCELERATION:
+                values[0] = 0.5f * wave + noise(sensorType, index, 0, 0.05f);
+                values[1] = 0.3f * wave + noise(sensorType, index, 1, 0.05f);
+                values[2] = 0.2f * wave + noise(sensorType, index, 2, 0.05f);
+                break;
+            case Sensor.TYPE_GYROSCOPE:
+                values[0] = 0.1f * wave + noise(sensorType, index, 0, 0.01f);
+                values[1] = noise(sensorType, index, 1, 0.01f);
+                values[2] = 0.05f * wave + noise(sensorType, index, 2, 0.01f);
+                break;
+            case Sensor.TYPE_MAGNETIC_FIELD:
+                values[0] = 22f + 2f * wave + noise(sensorType, index, 0, 0.5f);
+                values[1] = -5f + noise(sensorType, index, 1, 0.5f);
+                values[2] = -42f - 2f * wave + noise(sensorType, index, 2, 0.5f);
+                break;
+            case Sensor.TYPE_ROTATION_VECTOR: {
+                // Slow rotation about z; x, y, z, w and heading accuracy
+                double halfAngle = phase * 0.5;
+                values[0] = 0f;
+                values[1] = 0f;
+                values[2] = (float) Math.sin(halfAngle);
+                values[3] = (float) Math.cos(halfAngle);
+                values[4] = 0f;
+                break;
+            }
+            case Sensor.TYPE_LIGHT:
+                values[0] = 300f + 50f * wave + noise(sensorType, index, 0, 5f);
+                break;
+            case Sensor.TYPE_PRESSURE:
+                values[0] = 1013.25f + 0.1f * wave + noise(sensorType, index, 0, 0.02f);
+                break;
+            case Sensor.TYPE_AMBIENT_TEMPERATURE:
+                values[0] = 22f + 0.5f * wave + noise(sensorType, index, 0, 0.05f);
+                break;
+            case Sensor.TYPE_RELATIVE_HUMIDITY:
+                values[0] = 45f + 2f * wave + noise(sensorType, index, 0, 0.2f);
+                break;
+            case Sensor.TYPE_PROXIMITY:
+                values[0] = wave > 0.9f ? 0f : 5f;
+                break;
+            case Sensor.TYPE_STEP_COUNTER:
+                values[0] = timestamp / NANOS_PER_STEP;
+                break;
+            case Sensor.TYPE_STEP_DETECTOR:
+                values[0] = 1f;
+                break;
+            default:
+                for (int axis = 0; axis < values.length; axis++) {
+                    values[axis] = wave + noise(sensorType, index, axis, 0.1f);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Deterministic noise in [-amplitude, amplitude)
+     */
+    private float noise(int sensorType, long index, int axis, float amplitude) {
+        long z = seed + index * 0x9E3779B97F4A7C15L + ((long) sensorType << 8 | axis) * 0xC2B2AE3D27D4EB4FL;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return ((z >>> 40) * 0x1.0p-24f * 2f - 1f) * amplitude;
+    }
+}
@@ -0,0 +1,12 @@
+package com.samsung.sensorapp.manager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+/**
+ * Receives the samples at which a {@link SensorTrigger} fired
+ * Called on the dispatch thread; the SensorData follows the manager's
+ * recycling setting, so retain it to keep it past the callback.
+ */
+public interface TriggerListener {
+    void onTriggered(SensorTrigger trigger, SensorData sensorData);
+}
@@ -0,0 +1,73 @@
+package com.samsung.sensorapp.manager;
+
+/**
+ * Sensor type computed in software and delivered through SensorDataManager
+ * Once added with {@link SensorDataManager#addVirtualSensor(VirtualSensor)},
+ * listeners, batch listeners and ring buffer consumers subscribe to it like
+ * any hardware sensor. The manager activates it when the first subscriber
+ * arrives and deactivates it when the last one leaves. Samples are delivered
+ * on whichever thread calls {@link #publish(float[], int, long)}.
+ */
+public abstract class VirtualSensor {
+    private final int sensorType;
+    private final String name;
+    private volatile SensorEventSource.Sink sink;
+
+    protected VirtualSensor(int sensorType, String name) {
+        this.sensorType = sensorType;
+        this.name = name;
+    }
+
+    public final int getSensorType() {
+        return sensorType;
+    }
+
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Whether the sensor currently has subscribers
+     */
+    public final boolean isActive() {
+        return sink != null;
+    }
+
+    /**
+     * Start producing samples
+     * Called with the manager's registration lock for this sensor type held;
+     * implementations may register listeners for other sensor types.
+     *
+     * @param samplingPeriodUs period requested by the first subscriber, or a SENSOR_DELAY_* constant
+     */
+    protected abstract void onActive(int samplingPeriodUs);
+
+    /**
+     * Stop producing samples; called under the same lock as {@link #onActive(int)}
+     */
+    protected abstract void onInactive();
+
+    /**
+     * Deliver one sample to the subscribers; the values are copied before this returns
+     *
+     * @return false if the sensor has no subscribers
+     */
+    protected final boolean publish(float[] values, int accuracy, long timestamp) {
+        SensorEventSource.Sink current = sink;
+        if (current == null) {
+            return false;
+        }
+        current.onSensorChanged(name, values, accuracy, timestamp);
+        return true;
+    }
+
+    final void attach(SensorEventSource.Sink sink, int samplingPeriodUs) {
+        this.sink = sink;
+        onActive(samplingPeriodUs);
+    }
+
+    final void detach() {
+        sink = null;
+        onInactive();
+    }
+}
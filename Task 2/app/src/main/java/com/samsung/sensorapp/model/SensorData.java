@@ -1,10 +1,28 @@
 package com.samsung.sensorapp.model;
 
+import com.samsung.sensorapp.util.FixedPointFormatter;
+import com.samsung.sensorapp.util.SensorTypeInfo;
+import com.samsung.sensorapp.util.SensorTypeRegistry;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
 /**
  * Model class representing sensor data with timestamp
  * Encapsulates sensor name, type, values, and accuracy information
+ * Unit, labels and display precision are not stored per reading; they are
+ * resolved from the type through {@link SensorTypeRegistry}, unless the unit
+ * was passed to the constructor.
+ *
+ * Instances obtained from a {@link SensorDataPool} are recycled once every
+ * holder has called {@link #release()}. Instances created with the public
+ * constructor are never recycled and retain/release are no-ops for them.
  */
 public class SensorData {
+    private static final AtomicIntegerFieldUpdater<SensorData> REF_COUNT =
+            AtomicIntegerFieldUpdater.newUpdater(SensorData.class, "refCount");
+    private static final ThreadLocal<FixedPointFormatter> FORMATTER =
+            ThreadLocal.withInitial(FixedPointFormatter::new);
+
     private String sensorName;
     private int sensorType;
     private float[] values;
@@ -12,15 +30,87 @@ public class SensorData {
     private long timestamp;
     private String unit;
 
-    public SensorData(String sensorName, int sensorType, float[] values, int accuracy, long timestamp, String unit) {
+    private final SensorDataPool pool;
+    private volatile int refCount;
+
+    public SensorData(String sensorName, int sensorType, float[] values, int accuracy, long timestamp) {
         this.sensorName = sensorName;
         this.sensorType = sensorType;
         this.values = values;
         this.accuracy = accuracy;
         this.timestamp = timestamp;
+        this.pool = null;
+    }
+
+    /**
+     * Create a reading whose unit is given rather than taken from the registered type
+     */
+    public SensorData(String sensorName, int sensorType, float[] values, int accuracy, long timestamp, String unit) {
+        this(sensorName, sensorType, values, accuracy, timestamp);
         this.unit = unit;
     }
 
+    /**
+     * Create an empty instance owned by the given pool
+     */
+    SensorData(SensorDataPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Overwrite this pooled instance with a new reading, reusing the values
+     * array whenever the value count is unchanged
+     */
+    void set(String sensorName, int sensorType, float[] values, int accuracy, long timestamp) {
+        this.sensorName = sensorName;
+        this.sensorType = sensorType;
+        if (this.values == null || this.values.length != values.length) {
+            this.values = new float[values.length];
+        }
+        System.arraycopy(values, 0, this.values, 0, values.length);
+        this.accuracy = accuracy;
+        this.timestamp = timestamp;
+        REF_COUNT.set(this, 1);
+    }
+
+    /**
+     * Keep this instance alive after the listener callback returns.
+     * Every call must be balanced by a call to {@link #release()}.
+     */
+    public SensorData retain() {
+        if (pool != null) {
+            if (REF_COUNT.getAndIncrement(this) <= 0) {
+                REF_COUNT.getAndDecrement(this);
+                throw new IllegalStateException("SensorData retained after it was recycled");
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Drop one reference. The last release hands a pooled instance back to its pool,
+     * after which its contents may be overwritten at any time.
+     */
+    public void release() {
+        if (pool == null) {
+            return;
+        }
+        int remaining = REF_COUNT.decrementAndGet(this);
+        if (remaining == 0) {
+            pool.recycle(this);
+        } else if (remaining < 0) {
+            REF_COUNT.incrementAndGet(this);
+            throw new IllegalStateException("SensorData released more times than it was retained");
+        }
+    }
+
+    /**
+     * Whether this instance is owned by a pool and only valid while retained
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+
     // Getters
     public String getSensorName() {
         return sensorName;
@@ -43,30 +133,45 @@ public class SensorData {
     }
 
     public String getUnit() {
-        return unit;
+        return unit != null ? unit : SensorTypeRegistry.get(sensorType).getUnit();
+    }
+
+    /**
+     * Get the registered metadata of this reading's sensor type
+     */
+    public SensorTypeInfo getTypeInfo() {
+        return SensorTypeRegistry.get(sensorType);
     }
 
     /**
-     * Get formatted sensor values as a string
+     * Get formatted sensor values as a string, at the precision registered for the type
      */
     public String getFormattedValues() {
+        return appendFormattedValues(new StringBuilder(), FORMATTER.get()).toString();
+    }
+
+    /**
+     * Append the same text as {@link #getFormattedValues()} without allocating
+     * once the builder has grown to size
+     */
+    public StringBuilder appendFormattedValues(StringBuilder sb, FixedPointFormatter formatter) {
         if (values == null || values.length == 0) {
-            return "No data";
+            return sb.append("No data");
         }
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < values.length; i++) {
-            sb.append(String.format("%.2f", values[i]));
-            if (i < values.length - 1) {
-                sb.append(", ");
-            }
-        }
-        return sb.toString();
+        return SensorTypeRegistry.get(sensorType).appendValues(sb, values, formatter);
     }
 
     /**
      * Get accuracy level as string representation
      */
     public String getAccuracyString() {
+        return getAccuracyString(accuracy);
+    }
+
+    /**
+     * Get the string representation of an accuracy level
+     */
+    public static String getAccuracyString(int accuracy) {
         switch (accuracy) {
             case 0:
                 return "Low";
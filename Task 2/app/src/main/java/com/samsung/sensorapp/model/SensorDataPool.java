@@ -0,0 +1,61 @@
+package com.samsung.sensorapp.model;
+
+/**
+ * Bounded free-list of recyclable SensorData instances
+ * Lets the sensor callback path reuse SensorData objects and their value
+ * arrays instead of allocating a new pair for every event
+ */
+public class SensorDataPool {
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final SensorData[] free;
+    private int freeCount;
+
+    public SensorDataPool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SensorDataPool(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pool capacity must be positive: " + capacity);
+        }
+        this.free = new SensorData[capacity];
+    }
+
+    /**
+     * Get a SensorData holding a copy of the given reading with a reference count of one.
+     * The caller owns that reference and must {@link SensorData#release()} it.
+     */
+    public SensorData obtain(String sensorName, int sensorType, float[] values, int accuracy, long timestamp) {
+        SensorData sensorData = null;
+        synchronized (this) {
+            if (freeCount > 0) {
+                sensorData = free[--freeCount];
+                free[freeCount] = null;
+            }
+        }
+        if (sensorData == null) {
+            sensorData = new SensorData(this);
+        }
+        sensorData.set(sensorName, sensorType, values, accuracy, timestamp);
+        return sensorData;
+    }
+
+    /**
+     * Return a fully released instance; dropped if the pool is already full
+     */
+    void recycle(SensorData sensorData) {
+        synchronized (this) {
+            if (freeCount < free.length) {
+                free[freeCount++] = sensorData;
+            }
+        }
+    }
+
+    /**
+     * Get the number of idle instances currently held by the pool
+     */
+    public synchronized int getFreeCount() {
+        return freeCount;
+    }
+}
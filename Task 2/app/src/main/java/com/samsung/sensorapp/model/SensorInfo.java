@@ -2,18 +2,41 @@ package com.samsung.sensorapp.model;
 
 import android.hardware.Sensor;
 
+import com.samsung.sensorapp.manager.SensorCatalog;
+
+import java.util.Locale;
+
 /**
  * Model class representing sensor metadata information
+ * Entries created from a {@link SensorCatalog} share its display strings,
+ * which are only formatted when a row is first shown.
  */
 public class SensorInfo {
     private Sensor sensor;
     private boolean isAvailable;
     private String description;
+    private final SensorCatalog catalog;
+    private final int catalogIndex;
+    private String typeLabel;
+    private String details;
 
     public SensorInfo(Sensor sensor, boolean isAvailable, String description) {
         this.sensor = sensor;
         this.isAvailable = isAvailable;
         this.description = description;
+        this.catalog = null;
+        this.catalogIndex = -1;
+    }
+
+    /**
+     * Describe the sensor at an index of a catalog
+     */
+    public SensorInfo(SensorCatalog catalog, int index) {
+        this.sensor = catalog.getSensor(index);
+        this.isAvailable = true;
+        this.description = catalog.getName(index);
+        this.catalog = catalog;
+        this.catalogIndex = index;
     }
 
     public Sensor getSensor() {
@@ -63,4 +86,31 @@ public class SensorInfo {
     public int getVersion() {
         return sensor != null ? sensor.getVersion() : 0;
     }
+
+    /**
+     * Get the "Type: ..." line shown in the sensor list
+     */
+    public String getTypeLabel() {
+        if (catalog != null) {
+            return catalog.getTypeLabel(catalogIndex);
+        }
+        if (typeLabel == null) {
+            typeLabel = "Type: " + getType();
+        }
+        return typeLabel;
+    }
+
+    /**
+     * Get the power, range and vendor line shown in the sensor list
+     */
+    public String getDetails() {
+        if (catalog != null) {
+            return catalog.getDetails(catalogIndex);
+        }
+        if (details == null) {
+            details = String.format(Locale.getDefault(), "Power: %.2f mA | Range: %.2f | Vendor: %s",
+                    getPower(), getMaximumRange(), getVendor());
+        }
+        return details;
+    }
 }
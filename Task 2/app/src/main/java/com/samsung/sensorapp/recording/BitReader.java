@@ -0,0 +1,62 @@
+package com.samsung.sensorapp.recording;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads bit fields packed by {@link BitWriter}
+ * Every read is one unaligned little-endian load of the 64 bits starting at
+ * the byte holding the next bit, so at least {@link #PEEK_BITS} bits are
+ * available without any refill state; control prefixes can be inspected
+ * with {@link #peek()} and the payload taken from the same word. Words are
+ * read with absolute gets, so the buffer's position is left alone and a
+ * mapped segment can be decoded in place. Reused for every block.
+ */
+final class BitReader {
+    /** Bits guaranteed valid in the low end of {@link #peek()} */
+    static final int PEEK_BITS = 57;
+
+    private ByteBuffer buffer;
+    private long bitPosition;
+    /** Offset of the last whole word of the stream; loads past it are shifted down from it */
+    private int lastWordOffset;
+
+    /**
+     * Start reading the stream occupying the given buffer range
+     *
+     * @param length stream length in bytes, a positive multiple of eight
+     */
+    void wrap(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.bitPosition = (long) offset << 3;
+        this.lastWordOffset = offset + length - 8;
+    }
+
+    /**
+     * Get the next bits without consuming them; only the low {@link #PEEK_BITS} are guaranteed
+     */
+    long peek() {
+        int byteOffset = (int) (bitPosition >>> 3);
+        int shift = (int) bitPosition & 7;
+        if (byteOffset > lastWordOffset) {
+            // Within the last word: stay inside the stream instead of loading past its end
+            shift += (byteOffset - lastWordOffset) << 3;
+            byteOffset = lastWordOffset;
+        }
+        return buffer.getLong(byteOffset) >>> shift;
+    }
+
+    void skip(int bitCount) {
+        bitPosition += bitCount;
+    }
+
+    /**
+     * Read the next field
+     *
+     * @param bitCount number of bits, 1 to {@link #PEEK_BITS}
+     */
+    long read(int bitCount) {
+        long value = peek() & (-1L >>> (64 - bitCount));
+        bitPosition += bitCount;
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package com.samsung.sensorapp.recording;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs bit fields into 64-bit words written to a byte buffer
+ * Fields are packed least significant bit first and whole words are written
+ * at the buffer's position, so a stream always occupies a multiple of eight
+ * bytes. Reused for every block; nothing is allocated per field.
+ */
+final class BitWriter {
+    private ByteBuffer buffer;
+    private long pending;
+    private int pendingBits;
+
+    /**
+     * Start a new stream at the buffer's position
+     */
+    void wrap(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.pending = 0;
+        this.pendingBits = 0;
+    }
+
+    /**
+     * Append the low bits of a value
+     *
+     * @param bitCount number of bits, 1 to 64
+     */
+    void write(long value, int bitCount) {
+        long bits = value & (-1L >>> (64 - bitCount));
+        pending |= bits << pendingBits;
+        int total = pendingBits + bitCount;
+        if (total < 64) {
+            pendingBits = total;
+            return;
+        }
+        buffer.putLong(pending);
+        // Split shift: the part of the field that did fit can be all 64 bits
+        int written = 64 - pendingBits;
+        pending = (bits >>> 1) >>> (written - 1);
+        pendingBits = total - 64;
+    }
+
+    /**
+     * Write the last partial word and end the stream
+     */
+    void flush() {
+        if (pendingBits > 0) {
+            buffer.putLong(pending);
+        }
+        pending = 0;
+        pendingBits = 0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.samsung.sensorapp.recording;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Accumulates samples of one sensor type until they are encoded as a block
+ */
+final class BlockBuilder {
+    final int sensorType;
+    private final int capacity;
+    private final long[] timestamps;
+    private final byte[] accuracies;
+    private final BitWriter writer = new BitWriter();
+    private float[] values;
+    private int valuesPerSample;
+    private int count;
+
+    BlockBuilder(int sensorType, int capacity) {
+        this.sensorType = sensorType;
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.accuracies = new byte[capacity];
+    }
+
+    /**
+     * Whether a sample with the given number of values can be appended
+     */
+    boolean accepts(int valueCount) {
+        return count == 0 || (count < capacity && valueCount == valuesPerSample);
+    }
+
+    void append(long timestamp, float[] sampleValues, int offset, int valueCount, int accuracy) {
+        if (count == 0 && (values == null || valueCount != valuesPerSample)) {
+            valuesPerSample = valueCount;
+            values = new float[capacity * valueCount];
+        }
+        timestamps[count] = timestamp;
+        accuracies[count] = (byte) accuracy;
+        System.arraycopy(sampleValues, offset, values, count * valuesPerSample, valueCount);
+        count++;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    long getFirstTimestamp() {
+        return timestamps[0];
+    }
+
+    long getLastTimestamp() {
+        return timestamps[count - 1];
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    int getValuesPerSample() {
+        return valuesPerSample;
+    }
+
+    /**
+     * Drop the pending samples
+     */
+    void reset() {
+        count = 0;
+    }
+
+    int maxEncodedSize() {
+        return SensorRecordingFormat.maxBlockSize(count, valuesPerSample);
+    }
+
+    /**
+     * Encode the pending samples at the buffer's position and start a new block
+     */
+    void encodeTo(ByteBuffer buffer) {
+        buffer.putInt(sensorType);
+        buffer.putInt(count);
+        buffer.putInt(valuesPerSample);
+        int encodedBytesOffset = buffer.position();
+        buffer.putInt(0);
+        buffer.putLong(timestamps[0]);
+
+        int encodedStart = buffer.position();
+        writer.wrap(buffer);
+        BlockCodec.encode(writer, timestamps, accuracies, values, count, valuesPerSample);
+        buffer.putInt(encodedBytesOffset, buffer.position() - encodedStart);
+        count = 0;
+    }
+}
@@ -0,0 +1,207 @@
+package com.samsung.sensorapp.recording;
+
+/**
+ * Gorilla-style compression of the columns of a block
+ * Sensor streams are regular and autocorrelated, so each column is stored
+ * as a difference from what came before:
+ * <ul>
+ * <li>timestamps as the delta of the delta from the previous sample, zigzag
+ * encoded into one of a few fixed widths; a steady rate costs one bit</li>
+ * <li>accuracy as one bit while unchanged</li>
+ * <li>every axis as the XOR of each float's bits with the previous value of
+ * that axis; a repeated value costs one bit and a small change only the bits
+ * between its leading and trailing zeros, reusing the previous window when
+ * they fit in it</li>
+ * </ul>
+ * Encoding is lossless, including NaN payloads and signed zeros. The bit
+ * layout is described in {@link SensorRecordingFormat}.
+ * <p>
+ * Being lossless, the codec stores the noise bits of every reading: handheld
+ * accelerometer and gyroscope traces shrink to about 1.7x of raw and an
+ * on-change light trace to about 2.4x. Only steady, repeated values approach
+ * 5x or more. There is no quantized mode.
+ */
+final class BlockCodec {
+    /** Widths of the zigzag delta-of-delta buckets after the '10', '110' and '1110' prefixes; '1111' takes 64 */
+    private static final int SHORT_DELTA_BITS = 16;
+    private static final int MEDIUM_DELTA_BITS = 24;
+    private static final int LONG_DELTA_BITS = 32;
+
+    /** Leading zero count meaning no XOR window has been set yet */
+    private static final int NO_WINDOW = 32;
+
+    private BlockCodec() {
+    }
+
+    /**
+     * Get the largest number of bits the columns of a block can encode to
+     */
+    static long maxEncodedBits(int sampleCount, int valuesPerSample) {
+        // First accuracy and first value of each axis stored verbatim, then the
+        // widest timestamp, accuracy and XOR fields for every further sample
+        return 8 + 32L * valuesPerSample + (long) sampleCount * (4 + 64 + 9 + (12 + 32) * valuesPerSample);
+    }
+
+    /**
+     * Encode the columns of a block; values are interleaved by sample as in {@link BlockBuilder}
+     * The first timestamp is stored in the block header and is not written here.
+     */
+    static void encode(BitWriter writer, long[] timestamps, byte[] accuracies, float[] values, int count,
+                       int valuesPerSample) {
+        long previous = timestamps[0];
+        long previousDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long delta = timestamps[i] - previous;
+            writeDeltaOfDelta(writer, delta - previousDelta);
+            previous = timestamps[i];
+            previousDelta = delta;
+        }
+
+        int accuracy = accuracies[0];
+        writer.write(accuracy, 8);
+        for (int i = 1; i < count; i++) {
+            if (accuracies[i] == accuracy) {
+                writer.write(0, 1);
+            } else {
+                accuracy = accuracies[i];
+                writer.write(1 | (accuracy & 0xFF) << 1, 9);
+            }
+        }
+
+        for (int axis = 0; axis < valuesPerSample; axis++) {
+            encodeAxis(writer, values, axis, count, valuesPerSample);
+        }
+        writer.flush();
+    }
+
+    private static void writeDeltaOfDelta(BitWriter writer, long deltaOfDelta) {
+        long zigzag = (deltaOfDelta << 1) ^ (deltaOfDelta >> 63);
+        if (zigzag == 0) {
+            writer.write(0, 1);
+        } else if (zigzag >>> SHORT_DELTA_BITS == 0) {
+            writer.write(0b01 | zigzag << 2, 2 + SHORT_DELTA_BITS);
+        } else if (zigzag >>> MEDIUM_DELTA_BITS == 0) {
+            writer.write(0b011 | zigzag << 3, 3 + MEDIUM_DELTA_BITS);
+        } else if (zigzag >>> LONG_DELTA_BITS == 0) {
+            writer.write(0b0111 | zigzag << 4, 4 + LONG_DELTA_BITS);
+        } else {
+            writer.write(0b1111, 4);
+            writer.write(zigzag, 64);
+        }
+    }
+
+    private static void encodeAxis(BitWriter writer, float[] values, int axis, int count, int valuesPerSample) {
+        int previous = Float.floatToRawIntBits(values[axis]);
+        writer.write(previous, 32);
+        int windowLeading = NO_WINDOW;
+        int windowTrailing = 0;
+        for (int i = 1, index = axis + valuesPerSample; i < count; i++, index += valuesPerSample) {
+            int bits = Float.floatToRawIntBits(values[index]);
+            int xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                writer.write(0, 1);
+                continue;
+            }
+            int leading = Integer.numberOfLeadingZeros(xor);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (leading >= windowLeading && trailing >= windowTrailing) {
+                int meaningful = 32 - windowLeading - windowTrailing;
+                writer.write(0b01 | (long) (xor >>> windowTrailing) << 2, 2 + meaningful);
+            } else {
+                int meaningful = 32 - leading - trailing;
+                // Control '11', 5 bits of leading zeros, 5 bits of length - 1, then the meaningful bits
+                writer.write(0b11 | leading << 2 | (meaningful - 1) << 7
+                        | ((long) (xor >>> trailing) & 0xFFFFFFFFL) << 12, 12 + meaningful);
+                windowLeading = leading;
+                windowTrailing = trailing;
+            }
+        }
+    }
+
+    /**
+     * Decode the columns of a block into a reused block; values come out columnar as in {@link RecordedBlock}
+     */
+    static void decode(BitReader reader, long baseTimestamp, RecordedBlock block) {
+        int count = block.getSampleCount();
+        int valuesPerSample = block.getValuesPerSample();
+
+        long[] timestamps = block.getTimestamps();
+        long timestamp = baseTimestamp;
+        long delta = 0;
+        timestamps[0] = timestamp;
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(reader);
+            timestamp += delta;
+            timestamps[i] = timestamp;
+        }
+
+        byte[] accuracies = block.getAccuracies();
+        byte accuracy = (byte) reader.read(8);
+        accuracies[0] = accuracy;
+        for (int i = 1; i < count; i++) {
+            long bits = reader.peek();
+            if ((bits & 1) == 0) {
+                reader.skip(1);
+            } else {
+                accuracy = (byte) (bits >>> 1);
+                reader.skip(9);
+            }
+            accuracies[i] = accuracy;
+        }
+
+        float[] values = block.getValues();
+        for (int axis = 0; axis < valuesPerSample; axis++) {
+            decodeAxis(reader, values, axis * count, count);
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader reader) {
+        long bits = reader.peek();
+        // Number of leading '1' control bits, which picks the bucket
+        int ones = Long.numberOfTrailingZeros(~bits);
+        long zigzag;
+        if (ones == 0) {
+            reader.skip(1);
+            return 0;
+        } else if (ones == 1) {
+            zigzag = (bits >>> 2) & ((1L << SHORT_DELTA_BITS) - 1);
+            reader.skip(2 + SHORT_DELTA_BITS);
+        } else if (ones == 2) {
+            zigzag = (bits >>> 3) & ((1L << MEDIUM_DELTA_BITS) - 1);
+            reader.skip(3 + MEDIUM_DELTA_BITS);
+        } else if (ones == 3) {
+            zigzag = (bits >>> 4) & ((1L << LONG_DELTA_BITS) - 1);
+            reader.skip(4 + LONG_DELTA_BITS);
+        } else {
+            reader.skip(4);
+            zigzag = reader.read(32) | reader.read(32) << 32;
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private static void decodeAxis(BitReader reader, float[] values, int start, int count) {
+        int bits = (int) reader.read(32);
+        values[start] = Float.intBitsToFloat(bits);
+        int meaningful = 32;
+        int trailing = 0;
+        long meaningfulMask = 0xFFFFFFFFL;
+        for (int i = 1; i < count; i++) {
+            long field = reader.peek();
+            if ((field & 1) == 0) {
+                reader.skip(1);
+            } else if ((field & 2) == 0) {
+                bits ^= (int) ((field >>> 2) & meaningfulMask) << trailing;
+                reader.skip(2 + meaningful);
+            } else {
+                int control = (int) (field >>> 2) & 0x3FF;
+                meaningful = (control >>> 5) + 1;
+                trailing = 32 - (control & 31) - meaningful;
+                meaningfulMask = -1L >>> (64 - meaningful);
+                bits ^= (int) ((field >>> 12) & meaningfulMask) << trailing;
+                reader.skip(12 + meaningful);
+            }
+            values[start + i] = Float.intBitsToFloat(bits);
+        }
+    }
+}
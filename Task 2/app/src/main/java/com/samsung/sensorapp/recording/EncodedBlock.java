@@ -0,0 +1,78 @@
+package com.samsung.sensorapp.recording;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Flyweight over one encoded block inside a segment buffer
+ * Header fields are read in place; {@link #decode()} decompresses the
+ * columns into reused arrays. Words are read with absolute gets, so a
+ * segment buffer being written can be summarized, but the flyweight must
+ * not be shared between threads.
+ */
+final class EncodedBlock {
+    private final BitReader reader = new BitReader();
+    private final RecordedBlock decoded = new RecordedBlock();
+    private ByteBuffer buffer;
+    private int offset;
+    private int sensorType;
+    private int sampleCount;
+    private int valuesPerSample;
+    private int encodedBytes;
+    private long baseTimestamp;
+
+    /**
+     * Point at the block header starting at the given buffer offset
+     */
+    void wrap(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.sensorType = buffer.getInt(offset);
+        this.sampleCount = buffer.getInt(offset + 4);
+        this.valuesPerSample = buffer.getInt(offset + 8);
+        this.encodedBytes = buffer.getInt(offset + 12);
+        this.baseTimestamp = buffer.getLong(offset + 16);
+    }
+
+    int getSensorType() {
+        return sensorType;
+    }
+
+    int getSampleCount() {
+        return sampleCount;
+    }
+
+    int getValuesPerSample() {
+        return valuesPerSample;
+    }
+
+    /**
+     * Get the offset just past this block, where the next one starts
+     */
+    int getEnd() {
+        return offset + SensorRecordingFormat.BLOCK_HEADER_SIZE + encodedBytes;
+    }
+
+    /**
+     * Decode every column; the getters below are valid until the next wrap
+     */
+    void decode() {
+        decoded.reset(sensorType, sampleCount, valuesPerSample);
+        reader.wrap(buffer, offset + SensorRecordingFormat.BLOCK_HEADER_SIZE, encodedBytes);
+        BlockCodec.decode(reader, baseTimestamp, decoded);
+    }
+
+    /**
+     * Get the decoded timestamp column; only the first {@link #getSampleCount()} entries are valid
+     */
+    long[] getTimestamps() {
+        return decoded.getTimestamps();
+    }
+
+    int getAccuracy(int sample) {
+        return decoded.getAccuracy(sample);
+    }
+
+    float getValue(int sample, int axis) {
+        return decoded.getValue(sample, axis);
+    }
+}
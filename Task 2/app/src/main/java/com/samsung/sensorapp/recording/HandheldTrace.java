@@ -0,0 +1,67 @@
+package com.samsung.sensorapp.recording;
+
+import java.util.Random;
+
+/**
+ * Seeded synthetic traces of a handheld phone, for measuring {@link BlockCodec}
+ * The motion traces are 200 Hz with timestamp jitter, a slow swing, hand
+ * tremor and sensor noise, quantized to typical 16-bit resolutions; the light
+ * trace is an on-change sensor reporting whole lux at most every 200 ms.
+ */
+enum HandheldTrace {
+    ACCELEROMETER(3),
+    GYROSCOPE(3),
+    LIGHT(1);
+
+    private final int valuesPerSample;
+
+    HandheldTrace(int valuesPerSample) {
+        this.valuesPerSample = valuesPerSample;
+    }
+
+    int getValuesPerSample() {
+        return valuesPerSample;
+    }
+
+    /**
+     * Get the size of the samples uncompressed: an 8-byte timestamp and 4 bytes per value
+     */
+    int getRawBytes(int count) {
+        return count * (8 + 4 * valuesPerSample);
+    }
+
+    /**
+     * Fill the columns of count samples; values are interleaved by sample as in {@link BlockBuilder}
+     */
+    void generate(Random random, long[] timestamps, byte[] accuracies, float[] values, int count) {
+        long timestamp = 1_000_000_000L;
+        if (this == LIGHT) {
+            double lux = 320;
+            for (int i = 0; i < count; i++) {
+                timestamp += 200_000_000L + random.nextInt(4) * 200_000_000L;
+                lux = Math.max(1, lux + random.nextGaussian() * 4 + (random.nextInt(200) == 0 ? 400 : 0));
+                timestamps[i] = timestamp;
+                accuracies[i] = 3;
+                values[i] = Math.round(lux);
+            }
+            return;
+        }
+        boolean accelerometer = this == ACCELEROMETER;
+        float resolution = accelerometer ? 0.0023942017f : 0.0010652645f;
+        for (int i = 0; i < count; i++) {
+            timestamp += 5_000_000L + random.nextInt(40_000) - 20_000;
+            timestamps[i] = timestamp;
+            accuracies[i] = 3;
+            double t = i * 0.005;
+            for (int axis = 0; axis < 3; axis++) {
+                double motion = Math.sin(t * (0.3 + axis * 0.1)) * (accelerometer ? 2.0 : 0.2)
+                        + Math.sin(t * 9 * Math.PI + axis) * (accelerometer ? 0.05 : 0.01);
+                if (accelerometer && axis == 2) {
+                    motion += 9.80665;
+                }
+                double noisy = motion + random.nextGaussian() * 2 * resolution;
+                values[i * 3 + axis] = Math.round(noisy / resolution) * resolution;
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.samsung.sensorapp.recording;
+
+/**
+ * Decoded block of recorded samples for one sensor type
+ * Instances are reused by {@link SensorRecordingReader}; the contents are
+ * only valid until the visitor returns.
+ */
+public final class RecordedBlock {
+    private int sensorType;
+    private int sampleCount;
+    private int valuesPerSample;
+    private long[] timestamps = new long[0];
+    private byte[] accuracies = new byte[0];
+    private float[] values = new float[0];
+
+    void reset(int sensorType, int sampleCount, int valuesPerSample) {
+        this.sensorType = sensorType;
+        this.sampleCount = sampleCount;
+        this.valuesPerSample = valuesPerSample;
+        if (timestamps.length < sampleCount) {
+            timestamps = new long[sampleCount];
+            accuracies = new byte[sampleCount];
+        }
+        if (values.length < sampleCount * valuesPerSample) {
+            values = new float[sampleCount * valuesPerSample];
+        }
+    }
+
+    public int getSensorType() {
+        return sensorType;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getValuesPerSample() {
+        return valuesPerSample;
+    }
+
+    public long getTimestamp(int sample) {
+        return timestamps[sample];
+    }
+
+    /**
+     * Get the recorded accuracy of a sample, or -1 if it was recorded from a batch
+     */
+    public int getAccuracy(int sample) {
+        return accuracies[sample];
+    }
+
+    public float getValue(int sample, int axis) {
+        return values[axis * sampleCount + sample];
+    }
+
+    /**
+     * Get the timestamp column; only the first {@link #getSampleCount()} entries are valid
+     */
+    public long[] getTimestamps() {
+        return timestamps;
+    }
+
+    /**
+     * Get the values in columnar order: all samples of axis 0, then axis 1, ...
+     */
+    public float[] getValues() {
+        return values;
+    }
+
+    byte[] getAccuracies() {
+        return accuracies;
+    }
+}
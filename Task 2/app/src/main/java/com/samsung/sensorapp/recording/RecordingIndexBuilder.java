@@ -0,0 +1,228 @@
+package com.samsung.sensorapp.recording;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Collects the block summaries of a recording and reads and writes the index sidecar
+ * Summaries are kept in growable primitive columns, one entry per block in
+ * recording order; {@link SensorRecordingIndex} queries them in place.
+ */
+final class RecordingIndexBuilder {
+    int blockCount;
+    int[] sensorTypes = new int[64];
+    int[] segments = new int[64];
+    int[] offsets = new int[64];
+    int[] sampleCounts = new int[64];
+    int[] valuesPerSample = new int[64];
+    long[] firstTimestamps = new long[64];
+    long[] lastTimestamps = new long[64];
+    /** Start of each block's minimums in {@link #minimums} and maximums in {@link #maximums} */
+    int[] summaryOffsets = new int[64];
+    float[] minimums = new float[256];
+    float[] maximums = new float[256];
+    int summarySize;
+    long[] segmentDataEnds = new long[4];
+    int segmentCount;
+
+    private final EncodedBlock block = new EncodedBlock();
+
+    /**
+     * Summarize the encoded block at the given offset of a segment
+     */
+    void addBlock(int segment, ByteBuffer buffer, int offset) {
+        block.wrap(buffer, offset);
+        int count = block.getSampleCount();
+        int axes = block.getValuesPerSample();
+        block.decode();
+        long[] timestamps = block.getTimestamps();
+        int index = newBlock(axes);
+        sensorTypes[index] = block.getSensorType();
+        segments[index] = segment;
+        offsets[index] = offset;
+        sampleCounts[index] = count;
+        valuesPerSample[index] = axes;
+        firstTimestamps[index] = timestamps[0];
+        lastTimestamps[index] = timestamps[count - 1];
+        int summary = summaryOffsets[index];
+        for (int axis = 0; axis < axes; axis++) {
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                float value = block.getValue(i, axis);
+                if (value < min) {
+                    min = value;
+                }
+                if (value > max) {
+                    max = value;
+                }
+            }
+            minimums[summary + axis] = min;
+            maximums[summary + axis] = max;
+        }
+    }
+
+    /**
+     * Summarize every block of a finished segment and record its data end
+     */
+    void addSegment(int segment, ByteBuffer buffer, int dataEnd) {
+        int position = SensorRecordingFormat.HEADER_SIZE;
+        while (position < dataEnd) {
+            addBlock(segment, buffer, position);
+            position = block.getEnd();
+        }
+        endSegment(segment, dataEnd);
+    }
+
+    void endSegment(int segment, long dataEnd) {
+        if (segment >= segmentDataEnds.length) {
+            segmentDataEnds = Arrays.copyOf(segmentDataEnds, Math.max(segment + 1, segmentDataEnds.length * 2));
+        }
+        segmentDataEnds[segment] = dataEnd;
+        segmentCount = Math.max(segmentCount, segment + 1);
+    }
+
+    /**
+     * Whether the summaries describe segments with exactly these data ends
+     */
+    boolean matches(long[] dataEnds) {
+        if (dataEnds.length != segmentCount) {
+            return false;
+        }
+        for (int i = 0; i < segmentCount; i++) {
+            if (segmentDataEnds[i] != dataEnds[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < blockCount; i++) {
+            if (segments[i] < 0 || segments[i] >= segmentCount || offsets[i] < SensorRecordingFormat.HEADER_SIZE
+                    || offsets[i] >= dataEnds[segments[i]] || sampleCounts[i] <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write the index sidecar, replacing any previous one only once complete
+     */
+    void writeTo(File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SensorRecordingFormat.INDEX_HEADER_SIZE + segmentCount * 8
+                + blockCount * 36 + summarySize * 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SensorRecordingFormat.INDEX_MAGIC);
+        buffer.putShort(SensorRecordingFormat.INDEX_VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(segmentCount);
+        buffer.putInt(blockCount);
+        for (int i = 0; i < segmentCount; i++) {
+            buffer.putLong(segmentDataEnds[i]);
+        }
+        for (int i = 0; i < blockCount; i++) {
+            buffer.putInt(sensorTypes[i]);
+            buffer.putInt(segments[i]);
+            buffer.putInt(offsets[i]);
+            buffer.putInt(sampleCounts[i]);
+            buffer.putInt(valuesPerSample[i]);
+            buffer.putLong(firstTimestamps[i]);
+            buffer.putLong(lastTimestamps[i]);
+            int summary = summaryOffsets[i];
+            for (int axis = 0; axis < valuesPerSample[i]; axis++) {
+                buffer.putFloat(minimums[summary + axis]);
+            }
+            for (int axis = 0; axis < valuesPerSample[i]; axis++) {
+                buffer.putFloat(maximums[summary + axis]);
+            }
+        }
+        buffer.flip();
+
+        File temporary = new File(file.getPath() + ".tmp");
+        try (FileOutputStream output = new FileOutputStream(temporary)) {
+            FileChannel channel = output.getChannel();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        if (!temporary.renameTo(file)) {
+            temporary.delete();
+            throw new IOException("Cannot replace recording index " + file);
+        }
+    }
+
+    /**
+     * Read an index sidecar written by {@link #writeTo(File)}
+     */
+    static RecordingIndexBuilder readFrom(File file) throws IOException {
+        ByteBuffer buffer;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (buffer.getInt() != SensorRecordingFormat.INDEX_MAGIC
+                    || buffer.getShort() != SensorRecordingFormat.INDEX_VERSION) {
+                throw new IOException("Not a recording index: " + file);
+            }
+            buffer.getShort();
+            int segmentCount = buffer.getInt();
+            int blockCount = buffer.getInt();
+            RecordingIndexBuilder index = new RecordingIndexBuilder();
+            for (int i = 0; i < segmentCount; i++) {
+                index.endSegment(i, buffer.getLong());
+            }
+            for (int i = 0; i < blockCount; i++) {
+                int sensorType = buffer.getInt();
+                int segment = buffer.getInt();
+                int offset = buffer.getInt();
+                int count = buffer.getInt();
+                int axes = buffer.getInt();
+                int entry = index.newBlock(axes);
+                index.sensorTypes[entry] = sensorType;
+                index.segments[entry] = segment;
+                index.offsets[entry] = offset;
+                index.sampleCounts[entry] = count;
+                index.valuesPerSample[entry] = axes;
+                index.firstTimestamps[entry] = buffer.getLong();
+                index.lastTimestamps[entry] = buffer.getLong();
+                int summary = index.summaryOffsets[entry];
+                for (int axis = 0; axis < axes; axis++) {
+                    index.minimums[summary + axis] = buffer.getFloat();
+                }
+                for (int axis = 0; axis < axes; axis++) {
+                    index.maximums[summary + axis] = buffer.getFloat();
+                }
+            }
+            return index;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt recording index: " + file, e);
+        }
+    }
+
+    private int newBlock(int axes) {
+        if (blockCount == sensorTypes.length) {
+            int capacity = blockCount * 2;
+            sensorTypes = Arrays.copyOf(sensorTypes, capacity);
+            segments = Arrays.copyOf(segments, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            sampleCounts = Arrays.copyOf(sampleCounts, capacity);
+            valuesPerSample = Arrays.copyOf(valuesPerSample, capacity);
+            firstTimestamps = Arrays.copyOf(firstTimestamps, capacity);
+            lastTimestamps = Arrays.copyOf(lastTimestamps, capacity);
+            summaryOffsets = Arrays.copyOf(summaryOffsets, capacity);
+        }
+        if (summarySize + axes > minimums.length) {
+            int capacity = Math.max(summarySize + axes, minimums.length * 2);
+            minimums = Arrays.copyOf(minimums, capacity);
+            maximums = Arrays.copyOf(maximums, capacity);
+        }
+        summaryOffsets[blockCount] = summarySize;
+        summarySize += axes;
+        return blockCount++;
+    }
+}
@@ -0,0 +1,97 @@
+package com.samsung.sensorapp.recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * One memory-mapped segment file being written
+ * The header's data end is advanced after every block, so a segment left
+ * behind by a crash is readable up to its last complete block.
+ */
+final class SegmentWriter {
+    private final File file;
+    private final int segmentIndex;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int blockCount;
+    private long firstTimestamp = Long.MAX_VALUE;
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    SegmentWriter(File file, int segmentIndex, int segmentSize) throws IOException {
+        this.file = file;
+        this.segmentIndex = segmentIndex;
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = randomAccessFile.getChannel();
+        try {
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            randomAccessFile.close();
+            throw e;
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(SensorRecordingFormat.OFFSET_MAGIC, SensorRecordingFormat.MAGIC);
+        buffer.putShort(SensorRecordingFormat.OFFSET_VERSION, SensorRecordingFormat.VERSION);
+        buffer.putShort(SensorRecordingFormat.OFFSET_HEADER_SIZE, (short) SensorRecordingFormat.HEADER_SIZE);
+        buffer.putInt(SensorRecordingFormat.OFFSET_SEGMENT_INDEX, segmentIndex);
+        buffer.putLong(SensorRecordingFormat.OFFSET_CREATED_AT, System.currentTimeMillis());
+        buffer.position(SensorRecordingFormat.HEADER_SIZE);
+        writeHeaderState();
+    }
+
+    boolean hasRoomFor(int bytes) {
+        return buffer.remaining() >= bytes;
+    }
+
+    boolean isEmpty() {
+        return blockCount == 0;
+    }
+
+    /**
+     * Encode the block and add its summary to the recording index
+     */
+    void writeBlock(BlockBuilder block, RecordingIndexBuilder index) {
+        firstTimestamp = Math.min(firstTimestamp, block.getFirstTimestamp());
+        lastTimestamp = Math.max(lastTimestamp, block.getLastTimestamp());
+        int offset = buffer.position();
+        block.encodeTo(buffer);
+        index.addBlock(segmentIndex, buffer, offset);
+        blockCount++;
+        writeHeaderState();
+    }
+
+    private void writeHeaderState() {
+        buffer.putInt(SensorRecordingFormat.OFFSET_BLOCK_COUNT, blockCount);
+        buffer.putLong(SensorRecordingFormat.OFFSET_DATA_END, buffer.position());
+        buffer.putLong(SensorRecordingFormat.OFFSET_FIRST_TIMESTAMP, firstTimestamp);
+        buffer.putLong(SensorRecordingFormat.OFFSET_LAST_TIMESTAMP, lastTimestamp);
+    }
+
+    int getSize() {
+        return buffer.position();
+    }
+
+    int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Flush the mapped pages and trim the file to the data actually written
+     */
+    void close() throws IOException {
+        try {
+            buffer.force();
+            channel.truncate(buffer.position());
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+}
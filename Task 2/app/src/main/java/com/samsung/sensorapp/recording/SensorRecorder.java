@@ -0,0 +1,249 @@
+package com.samsung.sensorapp.recording;
+
+import android.util.Log;
+
+import com.samsung.sensorapp.manager.SensorEventListener;
+import com.samsung.sensorapp.model.SensorData;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Records sensor samples into memory-mapped segment files
+ * Register it on SensorDataManager like any other listener, either per event
+ * or as a batch listener. Samples are copied as primitives into per-sensor-type
+ * column buffers and written as whole blocks, compressed with delta-of-delta
+ * timestamps and XOR-encoded floats, so recording allocates nothing per
+ * event. See {@link SensorRecordingFormat} for the file layout.
+ */
+public class SensorRecorder implements SensorEventListener, Closeable {
+    private static final String TAG = "SensorRecorder";
+
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    public static final int DEFAULT_BLOCK_SAMPLES = 4096;
+
+    private final File directory;
+    private final int segmentSize;
+    private final int blockSamples;
+
+    private int[] sensorTypes = new int[0];
+    private BlockBuilder[] builders = new BlockBuilder[0];
+    private final RecordingIndexBuilder index = new RecordingIndexBuilder();
+    private SegmentWriter segment;
+    private int nextSegmentIndex;
+    private long recordedCount;
+    private long bytesWritten;
+    private IOException error;
+    private boolean closed;
+
+    public SensorRecorder(File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_BLOCK_SAMPLES);
+    }
+
+    public SensorRecorder(File directory, int segmentSize, int blockSamples) throws IOException {
+        if (blockSamples <= 0) {
+            throw new IllegalArgumentException("Block samples must be positive: " + blockSamples);
+        }
+        if (segmentSize < SensorRecordingFormat.HEADER_SIZE
+                + SensorRecordingFormat.maxBlockSize(blockSamples, 1)) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create recording directory " + directory);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.blockSamples = blockSamples;
+    }
+
+    @Override
+    public void onSensorDataChanged(SensorData sensorData) {
+        float[] values = sensorData.getValues();
+        record(sensorData.getSensorType(), sensorData.getTimestamp(), values, values.length,
+                sensorData.getAccuracy());
+    }
+
+    @Override
+    public void onSensorDataBatch(int sensorType, long[] timestamps, float[] values,
+                                  int sampleCount, int valuesPerSample) {
+        recordBatch(sensorType, timestamps, values, sampleCount, valuesPerSample);
+    }
+
+    @Override
+    public void onSensorAccuracyChanged(int accuracy) {
+        // Accuracy is recorded per sample
+    }
+
+    @Override
+    public void onSensorError(String errorMessage) {
+        Log.e(TAG, "Sensor error while recording: " + errorMessage);
+    }
+
+    /**
+     * Record one sample; values are copied
+     */
+    public synchronized void record(int sensorType, long timestamp, float[] values, int valueCount, int accuracy) {
+        if (closed || error != null) {
+            return;
+        }
+        BlockBuilder builder = builderFor(sensorType);
+        if (!builder.accepts(valueCount) && !writeBlock(builder)) {
+            return;
+        }
+        builder.append(timestamp, values, 0, valueCount, accuracy);
+        recordedCount++;
+        if (builder.isFull()) {
+            writeBlock(builder);
+        }
+    }
+
+    /**
+     * Record a block of samples laid out as in
+     * {@link SensorEventListener#onSensorDataBatch}; accuracy is not known for batches
+     */
+    public synchronized void recordBatch(int sensorType, long[] timestamps, float[] values,
+                                         int sampleCount, int valuesPerSample) {
+        if (closed || error != null) {
+            return;
+        }
+        BlockBuilder builder = builderFor(sensorType);
+        for (int i = 0; i < sampleCount && error == null; i++) {
+            if (!builder.accepts(valuesPerSample) && !writeBlock(builder)) {
+                return;
+            }
+            builder.append(timestamps[i], values, i * valuesPerSample, valuesPerSample, -1);
+            recordedCount++;
+            if (builder.isFull()) {
+                writeBlock(builder);
+            }
+        }
+    }
+
+    private BlockBuilder builderFor(int sensorType) {
+        for (int i = 0; i < sensorTypes.length; i++) {
+            if (sensorTypes[i] == sensorType) {
+                return builders[i];
+            }
+        }
+        int count = sensorTypes.length;
+        int[] updatedTypes = new int[count + 1];
+        BlockBuilder[] updatedBuilders = new BlockBuilder[count + 1];
+        System.arraycopy(sensorTypes, 0, updatedTypes, 0, count);
+        System.arraycopy(builders, 0, updatedBuilders, 0, count);
+        updatedTypes[count] = sensorType;
+        updatedBuilders[count] = new BlockBuilder(sensorType, blockSamples);
+        sensorTypes = updatedTypes;
+        builders = updatedBuilders;
+        return updatedBuilders[count];
+    }
+
+    /**
+     * Write the builder's pending samples as one block
+     * On failure the samples are dropped and recording stops with the error.
+     *
+     * @return whether the block was written
+     */
+    private boolean writeBlock(BlockBuilder builder) {
+        try {
+            int maxSize = builder.maxEncodedSize();
+            if (segment != null && !segment.hasRoomFor(maxSize)) {
+                closeSegment();
+            }
+            if (segment == null) {
+                File file = new File(directory, SensorRecordingFormat.segmentFileName(nextSegmentIndex));
+                segment = new SegmentWriter(file, nextSegmentIndex, segmentSize);
+                nextSegmentIndex++;
+            }
+            // The constructor only guarantees room for one-value blocks
+            if (!segment.hasRoomFor(maxSize)) {
+                throw new IOException("Block of " + builder.getCount() + " samples with "
+                        + builder.getValuesPerSample() + " values can take " + maxSize
+                        + " bytes, more than fits in a segment of " + segmentSize + " bytes");
+            }
+            segment.writeBlock(builder, index);
+            return true;
+        } catch (IOException e) {
+            builder.reset();
+            error = e;
+            Log.e(TAG, "Error writing recording segment", e);
+            return false;
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        SegmentWriter current = segment;
+        segment = null;
+        bytesWritten += current.getSize();
+        index.endSegment(current.getSegmentIndex(), current.getSize());
+        current.close();
+    }
+
+    /**
+     * Write all pending samples to the current segment
+     */
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+        for (BlockBuilder builder : builders) {
+            if (!builder.isEmpty() && error == null) {
+                writeBlock(builder);
+            }
+        }
+    }
+
+    /**
+     * Write pending samples, close the current segment and write the time index
+     * Unregister the recorder from SensorDataManager before closing it.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        closed = true;
+        if (segment != null) {
+            closeSegment();
+        }
+        if (error != null) {
+            throw error;
+        }
+        try {
+            index.writeTo(new File(directory, SensorRecordingFormat.INDEX_FILE_NAME));
+        } catch (IOException e) {
+            // SensorRecordingIndex rebuilds a missing index from the segments
+            Log.e(TAG, "Error writing recording index", e);
+        }
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get the number of samples accepted so far, including ones not yet written
+     */
+    public synchronized long getRecordedCount() {
+        return recordedCount;
+    }
+
+    /**
+     * Get the number of bytes used by segment files written so far
+     */
+    public synchronized long getBytesWritten() {
+        return bytesWritten + (segment != null ? segment.getSize() : 0);
+    }
+
+    public synchronized int getSegmentCount() {
+        return nextSegmentIndex;
+    }
+
+    /**
+     * Get the I/O error that stopped recording, or null
+     */
+    public synchronized IOException getError() {
+        return error;
+    }
+}
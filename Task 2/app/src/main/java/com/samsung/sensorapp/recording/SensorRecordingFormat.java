@@ -0,0 +1,78 @@
+package com.samsung.sensorapp.recording;
+
+import java.util.Locale;
+
+/**
+ * Layout of the binary sensor recording format
+ *
+ * A recording is a directory of segment files. Each segment starts with a
+ * fixed {@link #HEADER_SIZE}-byte header followed by blocks; every block holds
+ * consecutive samples of one sensor type in columnar form, compressed by
+ * {@link BlockCodec} into a bit stream of encodedBytes, a multiple of eight:
+ * <pre>
+ * block header   sensorType:int sampleCount:int valuesPerSample:int encodedBytes:int baseTimestamp:long
+ * timestamps     for samples 1.. the zigzag delta of the delta from the previous sample:
+ *                '0' for none, else '10' + 16 bits, '110' + 24 bits, '1110' + 32 bits or '1111' + 64 bits
+ * accuracy       the first as 8 bits, then '0' if unchanged or '1' + 8 bits
+ * values         valuesPerSample columns (all x, then all y, ...), each the first float's 32 bits,
+ *                then the XOR of each float's bits with the previous one: '0' if zero,
+ *                '10' + the bits inside the previous window of leading and trailing zeros, or
+ *                '11' + leading zeros:5 + (length - 1):5 + length bits, which sets a new window
+ * </pre>
+ * Bit fields are packed least significant bit first into 64-bit words; blocks
+ * stay 8-byte aligned. All numbers are little-endian. Version 1 stored varint
+ * timestamp deltas and raw floats and is no longer read.
+ *
+ * A recording may also hold an {@link #INDEX_FILE_NAME} sidecar with a
+ * summary of every block, written when the recorder is closed and rebuilt by
+ * {@link SensorRecordingIndex} when missing or stale:
+ * <pre>
+ * index header   magic:int version:short reserved:short segmentCount:int blockCount:int
+ * segments       segmentCount data ends:long, to detect segments changed since indexing
+ * blocks         sensorType:int segment:int offset:int sampleCount:int valuesPerSample:int
+ *                firstTimestamp:long lastTimestamp:long
+ *                valuesPerSample minimums:float, valuesPerSample maximums:float
+ * </pre>
+ */
+public final class SensorRecordingFormat {
+    public static final int MAGIC = 0x43455253; // "SREC" in little-endian byte order
+    public static final short VERSION = 2;
+    public static final int HEADER_SIZE = 64;
+    public static final int BLOCK_HEADER_SIZE = 24;
+    public static final String SEGMENT_PREFIX = "segment-";
+    public static final String SEGMENT_SUFFIX = ".srec";
+    public static final String INDEX_FILE_NAME = "index.sidx";
+    public static final int INDEX_MAGIC = 0x58444953; // "SIDX" in little-endian byte order
+    public static final short INDEX_VERSION = 1;
+    public static final int INDEX_HEADER_SIZE = 16;
+
+    // Segment header field offsets
+    static final int OFFSET_MAGIC = 0;
+    static final int OFFSET_VERSION = 4;
+    static final int OFFSET_HEADER_SIZE = 6;
+    static final int OFFSET_SEGMENT_INDEX = 8;
+    static final int OFFSET_BLOCK_COUNT = 12;
+    static final int OFFSET_DATA_END = 16;
+    static final int OFFSET_FIRST_TIMESTAMP = 24;
+    static final int OFFSET_LAST_TIMESTAMP = 32;
+    static final int OFFSET_CREATED_AT = 40;
+
+    private SensorRecordingFormat() {
+    }
+
+    public static String segmentFileName(int segmentIndex) {
+        return String.format(Locale.US, "%s%05d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX);
+    }
+
+    public static boolean isSegmentFileName(String fileName) {
+        return fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Get the largest number of bytes a block of the given shape can encode to
+     */
+    static int maxBlockSize(int sampleCount, int valuesPerSample) {
+        long words = (BlockCodec.maxEncodedBits(sampleCount, valuesPerSample) + 63) / 64;
+        return BLOCK_HEADER_SIZE + (int) (words * 8);
+    }
+}
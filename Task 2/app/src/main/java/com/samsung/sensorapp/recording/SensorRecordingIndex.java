@@ -0,0 +1,380 @@
+package com.samsung.sensorapp.recording;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Sparse time index and range queries over a recording
+ * Every block has a summary of its first and last timestamp and the minimum
+ * and maximum of each axis (a zone map). A query binary searches the blocks
+ * of its sensor type for the first one overlapping the time range, skips
+ * blocks whose zone map rules them out, answers from the summary alone where
+ * a block lies entirely inside the range, and only decodes the blocks left,
+ * binary searching their timestamps for the range edges. Segments are
+ * memory-mapped, so only the pages of decoded blocks are read from disk.
+ *
+ * The summaries come from the {@link SensorRecordingFormat#INDEX_FILE_NAME}
+ * sidecar written by {@link SensorRecorder#close()}; if it is missing or no
+ * longer matches the segments it is rebuilt with one scan and rewritten.
+ * Queries assume the timestamps of each sensor type never go backwards, as
+ * delivered by SensorDataManager. Time ranges are inclusive at both ends.
+ * Not thread-safe; open one index per querying thread.
+ */
+public final class SensorRecordingIndex {
+    private static final String TAG = "SensorRecordingIndex";
+
+    private final ByteBuffer[] segments;
+    private final RecordingIndexBuilder summaries;
+    private final int[] sensorTypes;
+    /** Block numbers of each entry of {@link #sensorTypes}, in time order */
+    private final int[][] blocksByType;
+
+    private final EncodedBlock block = new EncodedBlock();
+    private float[] sampleValues = new float[0];
+    /** Samples of the last block loaded by {@link #loadRange} inside the range, as [rangeStart, rangeEnd) */
+    private int rangeStart;
+    private int rangeEnd;
+
+    private SensorRecordingIndex(ByteBuffer[] segments, RecordingIndexBuilder summaries) {
+        this.segments = segments;
+        this.summaries = summaries;
+
+        int[] types = new int[0];
+        int[] counts = new int[0];
+        for (int i = 0; i < summaries.blockCount; i++) {
+            int slot = indexOf(types, summaries.sensorTypes[i]);
+            if (slot < 0) {
+                slot = types.length;
+                types = Arrays.copyOf(types, slot + 1);
+                counts = Arrays.copyOf(counts, slot + 1);
+                types[slot] = summaries.sensorTypes[i];
+            }
+            counts[slot]++;
+        }
+        int[][] blocks = new int[types.length][];
+        for (int slot = 0; slot < types.length; slot++) {
+            blocks[slot] = new int[counts[slot]];
+            counts[slot] = 0;
+        }
+        for (int i = 0; i < summaries.blockCount; i++) {
+            int slot = indexOf(types, summaries.sensorTypes[i]);
+            blocks[slot][counts[slot]++] = i;
+        }
+        this.sensorTypes = types;
+        this.blocksByType = blocks;
+    }
+
+    /**
+     * Open the index of a recording directory, rebuilding it if needed
+     */
+    public static SensorRecordingIndex open(File directory) throws IOException {
+        File[] files = SensorRecordingReader.listSegments(directory);
+        ByteBuffer[] segments = new ByteBuffer[files.length];
+        long[] dataEnds = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            MappedByteBuffer segment = SensorRecordingReader.map(files[i]);
+            segments[i] = segment;
+            dataEnds[i] = SensorRecordingReader.dataEnd(segment, files[i]);
+        }
+
+        File indexFile = new File(directory, SensorRecordingFormat.INDEX_FILE_NAME);
+        RecordingIndexBuilder summaries = null;
+        if (indexFile.isFile()) {
+            try {
+                summaries = RecordingIndexBuilder.readFrom(indexFile);
+                if (!summaries.matches(dataEnds)) {
+                    summaries = null;
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Ignoring unreadable recording index", e);
+            }
+        }
+        if (summaries == null) {
+            summaries = new RecordingIndexBuilder();
+            for (int i = 0; i < segments.length; i++) {
+                summaries.addSegment(i, segments[i], (int) dataEnds[i]);
+            }
+            try {
+                summaries.writeTo(indexFile);
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing rebuilt recording index", e);
+            }
+        }
+        return new SensorRecordingIndex(segments, summaries);
+    }
+
+    public int getBlockCount() {
+        return summaries.blockCount;
+    }
+
+    /**
+     * Get the recorded sensor types in order of first appearance
+     */
+    public int[] getSensorTypes() {
+        return sensorTypes.clone();
+    }
+
+    /**
+     * Get the first recorded timestamp of a sensor type, or Long.MIN_VALUE if it was not recorded
+     */
+    public long getFirstTimestamp(int sensorType) {
+        int[] blocks = blocksFor(sensorType);
+        return blocks != null ? summaries.firstTimestamps[blocks[0]] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Get the last recorded timestamp of a sensor type, or Long.MIN_VALUE if it was not recorded
+     */
+    public long getLastTimestamp(int sensorType) {
+        int[] blocks = blocksFor(sensorType);
+        return blocks != null ? summaries.lastTimestamps[blocks[blocks.length - 1]] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Count the samples of a sensor type in a time range
+     */
+    public long countSamples(int sensorType, long fromNs, long toNs) {
+        int[] blocks = blocksFor(sensorType);
+        if (blocks == null) {
+            return 0;
+        }
+        long count = 0;
+        for (int k = firstBlockEndingAtOrAfter(blocks, fromNs); k < blocks.length; k++) {
+            int b = blocks[k];
+            if (summaries.firstTimestamps[b] > toNs) {
+                break;
+            }
+            if (isInside(b, fromNs, toNs)) {
+                count += summaries.sampleCounts[b];
+            } else {
+                loadRange(b, fromNs, toNs);
+                count += rangeEnd - rangeStart;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Visit every sample of a sensor type in a time range in order
+     *
+     * @return the number of samples visited
+     */
+    public long forEachSample(int sensorType, long fromNs, long toNs,
+                              SensorRecordingReader.SampleVisitor visitor) {
+        return forEachSampleWhere(sensorType, fromNs, toNs, 0,
+                Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, visitor);
+    }
+
+    /**
+     * Visit the samples of a sensor type in a time range whose value on one
+     * axis lies in [minValue, maxValue]; blocks whose zone map does not
+     * overlap that interval are skipped without being read
+     *
+     * @return the number of samples visited
+     */
+    public long forEachSampleWhere(int sensorType, long fromNs, long toNs, int axis, float minValue,
+                                   float maxValue, SensorRecordingReader.SampleVisitor visitor) {
+        int[] blocks = blocksFor(sensorType);
+        if (blocks == null) {
+            return 0;
+        }
+        boolean unfiltered = minValue == Float.NEGATIVE_INFINITY && maxValue == Float.POSITIVE_INFINITY;
+        long visited = 0;
+        for (int k = firstBlockEndingAtOrAfter(blocks, fromNs); k < blocks.length; k++) {
+            int b = blocks[k];
+            if (summaries.firstTimestamps[b] > toNs) {
+                break;
+            }
+            int axes = summaries.valuesPerSample[b];
+            if (!unfiltered && (axis >= axes || summaries.maximums[summaries.summaryOffsets[b] + axis] < minValue
+                    || summaries.minimums[summaries.summaryOffsets[b] + axis] > maxValue)) {
+                continue;
+            }
+            loadRange(b, fromNs, toNs);
+            if (sampleValues.length < axes) {
+                sampleValues = new float[axes];
+            }
+            float[] values = sampleValues;
+            long[] timestamps = block.getTimestamps();
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                if (!unfiltered) {
+                    float value = block.getValue(i, axis);
+                    if (value < minValue || value > maxValue) {
+                        continue;
+                    }
+                }
+                for (int a = 0; a < axes; a++) {
+                    values[a] = block.getValue(i, a);
+                }
+                visitor.onSample(sensorType, timestamps[i], values, axes, block.getAccuracy(i));
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Get the largest value of one axis in a time range, or NaN if there are no samples
+     * Blocks inside the range are answered from their zone map.
+     */
+    public float max(int sensorType, int axis, long fromNs, long toNs) {
+        return extreme(sensorType, axis, fromNs, toNs, true);
+    }
+
+    /**
+     * Get the smallest value of one axis in a time range, or NaN if there are no samples
+     * Blocks inside the range are answered from their zone map.
+     */
+    public float min(int sensorType, int axis, long fromNs, long toNs) {
+        return extreme(sensorType, axis, fromNs, toNs, false);
+    }
+
+    /**
+     * Get the largest vector magnitude in a time range, or NaN if there are no samples
+     * The zone map bounds the magnitude of every block, so blocks that cannot
+     * beat the largest magnitude found so far are skipped.
+     */
+    public float maxMagnitude(int sensorType, long fromNs, long toNs) {
+        int[] blocks = blocksFor(sensorType);
+        if (blocks == null) {
+            return Float.NaN;
+        }
+        double best = -1;
+        for (int k = firstBlockEndingAtOrAfter(blocks, fromNs); k < blocks.length; k++) {
+            int b = blocks[k];
+            if (summaries.firstTimestamps[b] > toNs) {
+                break;
+            }
+            int axes = summaries.valuesPerSample[b];
+            int summary = summaries.summaryOffsets[b];
+            double bound = 0;
+            for (int a = 0; a < axes; a++) {
+                double largest = Math.max(Math.abs(summaries.minimums[summary + a]),
+                        Math.abs(summaries.maximums[summary + a]));
+                bound += largest * largest;
+            }
+            if (bound <= best) {
+                continue;
+            }
+            loadRange(b, fromNs, toNs);
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                double squared = 0;
+                for (int a = 0; a < axes; a++) {
+                    double value = block.getValue(i, a);
+                    squared += value * value;
+                }
+                if (squared > best) {
+                    best = squared;
+                }
+            }
+        }
+        return best < 0 ? Float.NaN : (float) Math.sqrt(best);
+    }
+
+    private float extreme(int sensorType, int axis, long fromNs, long toNs, boolean largest) {
+        int[] blocks = blocksFor(sensorType);
+        if (blocks == null) {
+            return Float.NaN;
+        }
+        float best = largest ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+        boolean found = false;
+        for (int k = firstBlockEndingAtOrAfter(blocks, fromNs); k < blocks.length; k++) {
+            int b = blocks[k];
+            if (summaries.firstTimestamps[b] > toNs) {
+                break;
+            }
+            if (axis >= summaries.valuesPerSample[b]) {
+                continue;
+            }
+            int summary = summaries.summaryOffsets[b] + axis;
+            float bound = largest ? summaries.maximums[summary] : summaries.minimums[summary];
+            if (isInside(b, fromNs, toNs)) {
+                best = largest ? Math.max(best, bound) : Math.min(best, bound);
+                found = true;
+                continue;
+            }
+            if (found && (largest ? bound <= best : bound >= best)) {
+                continue;
+            }
+            loadRange(b, fromNs, toNs);
+            for (int i = rangeStart; i < rangeEnd; i++) {
+                float value = block.getValue(i, axis);
+                best = largest ? Math.max(best, value) : Math.min(best, value);
+                found = true;
+            }
+        }
+        return found ? best : Float.NaN;
+    }
+
+    private int[] blocksFor(int sensorType) {
+        int slot = indexOf(sensorTypes, sensorType);
+        return slot >= 0 ? blocksByType[slot] : null;
+    }
+
+    private boolean isInside(int b, long fromNs, long toNs) {
+        return summaries.firstTimestamps[b] >= fromNs && summaries.lastTimestamps[b] <= toNs;
+    }
+
+    /**
+     * Binary search for the first block whose last timestamp is at or after the given time
+     */
+    private int firstBlockEndingAtOrAfter(int[] blocks, long timestamp) {
+        int low = 0;
+        int high = blocks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (summaries.lastTimestamps[blocks[mid]] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Point the flyweight at a block, decode it and find the samples inside the range
+     */
+    private void loadRange(int b, long fromNs, long toNs) {
+        block.wrap(segments[summaries.segments[b]], summaries.offsets[b]);
+        block.decode();
+        int count = block.getSampleCount();
+        long[] timestamps = block.getTimestamps();
+        rangeStart = summaries.firstTimestamps[b] >= fromNs ? 0 : lowerBound(timestamps, count, fromNs);
+        rangeEnd = summaries.lastTimestamps[b] <= toNs ? count : lowerBound(timestamps, count, toNs + 1);
+        if (rangeEnd < rangeStart) {
+            rangeEnd = rangeStart;
+        }
+    }
+
+    /**
+     * Get the index of the first timestamp at or after the given time
+     */
+    private static int lowerBound(long[] timestamps, int count, long timestamp) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
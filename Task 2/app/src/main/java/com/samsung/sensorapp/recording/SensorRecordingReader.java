@@ -0,0 +1,144 @@
+package com.samsung.sensorapp.recording;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reads recordings written by {@link SensorRecorder}
+ * Segments are memory-mapped read-only and decoded block by block into a
+ * reused {@link RecordedBlock}, so reading allocates nothing per sample.
+ */
+public class SensorRecordingReader {
+
+    /**
+     * Callback receiving every decoded block in recording order
+     */
+    public interface BlockVisitor {
+        void onBlock(RecordedBlock block);
+    }
+
+    /**
+     * Callback receiving every sample; the values array is reused
+     */
+    public interface SampleVisitor {
+        void onSample(int sensorType, long timestamp, float[] values, int valueCount, int accuracy);
+    }
+
+    private final File[] segmentFiles;
+    private final RecordedBlock block = new RecordedBlock();
+    private final BitReader reader = new BitReader();
+    private float[] sampleValues = new float[0];
+
+    public SensorRecordingReader(File directory) throws IOException {
+        this.segmentFiles = listSegments(directory);
+    }
+
+    public int getSegmentCount() {
+        return segmentFiles.length;
+    }
+
+    /**
+     * Decode every block of every segment in order
+     */
+    public void forEachBlock(BlockVisitor visitor) throws IOException {
+        for (File file : segmentFiles) {
+            readSegment(file, visitor);
+        }
+    }
+
+    /**
+     * Decode every sample of every segment in order
+     * Samples are ordered per sensor type; blocks of different types interleave.
+     */
+    public void forEachSample(SampleVisitor visitor) throws IOException {
+        forEachBlock(recorded -> {
+            int valuesPerSample = recorded.getValuesPerSample();
+            if (sampleValues.length < valuesPerSample) {
+                sampleValues = new float[valuesPerSample];
+            }
+            float[] values = sampleValues;
+            for (int i = 0; i < recorded.getSampleCount(); i++) {
+                for (int axis = 0; axis < valuesPerSample; axis++) {
+                    values[axis] = recorded.getValue(i, axis);
+                }
+                visitor.onSample(recorded.getSensorType(), recorded.getTimestamp(i), values,
+                        valuesPerSample, recorded.getAccuracy(i));
+            }
+        });
+    }
+
+    /**
+     * Count the recorded samples by reading only the block headers
+     */
+    public long getSampleCount() throws IOException {
+        long total = 0;
+        for (File file : segmentFiles) {
+            MappedByteBuffer buffer = map(file);
+            int dataEnd = dataEnd(buffer, file);
+            int position = SensorRecordingFormat.HEADER_SIZE;
+            while (position < dataEnd) {
+                total += buffer.getInt(position + 4);
+                position += SensorRecordingFormat.BLOCK_HEADER_SIZE + buffer.getInt(position + 12);
+            }
+        }
+        return total;
+    }
+
+    private void readSegment(File file, BlockVisitor visitor) throws IOException {
+        MappedByteBuffer buffer = map(file);
+        int dataEnd = dataEnd(buffer, file);
+        int position = SensorRecordingFormat.HEADER_SIZE;
+        while (position < dataEnd) {
+            block.reset(buffer.getInt(position), buffer.getInt(position + 4), buffer.getInt(position + 8));
+            int encodedBytes = buffer.getInt(position + 12);
+            long baseTimestamp = buffer.getLong(position + 16);
+            position += SensorRecordingFormat.BLOCK_HEADER_SIZE;
+            reader.wrap(buffer, position, encodedBytes);
+            BlockCodec.decode(reader, baseTimestamp, block);
+            position += encodedBytes;
+            visitor.onBlock(block);
+        }
+    }
+
+    /**
+     * Get the segment files of a recording in order
+     */
+    static File[] listSegments(File directory) throws IOException {
+        File[] files = directory.listFiles((dir, name) -> SensorRecordingFormat.isSegmentFileName(name));
+        if (files == null) {
+            throw new IOException("Not a recording directory: " + directory);
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    static MappedByteBuffer map(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            FileChannel channel = randomAccessFile.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    static int dataEnd(MappedByteBuffer buffer, File file) throws IOException {
+        if (buffer.capacity() < SensorRecordingFormat.HEADER_SIZE
+                || buffer.getInt(SensorRecordingFormat.OFFSET_MAGIC) != SensorRecordingFormat.MAGIC) {
+            throw new IOException("Not a sensor recording segment: " + file);
+        }
+        short version = buffer.getShort(SensorRecordingFormat.OFFSET_VERSION);
+        if (version != SensorRecordingFormat.VERSION) {
+            throw new IOException("Unsupported recording version " + version + " in " + file);
+        }
+        long dataEnd = buffer.getLong(SensorRecordingFormat.OFFSET_DATA_END);
+        if (dataEnd < SensorRecordingFormat.HEADER_SIZE || dataEnd > buffer.capacity()) {
+            throw new IOException("Corrupt recording segment: " + file);
+        }
+        return (int) dataEnd;
+    }
+}
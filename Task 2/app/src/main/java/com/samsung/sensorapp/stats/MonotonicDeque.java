@@ -0,0 +1,79 @@
+package com.samsung.sensorapp.stats;
+
+/**
+ * Monotonic deque giving the minimum or maximum of a sliding window in O(1) amortised time
+ * Entries are (sequence, value) pairs in primitive ring arrays; a value is dropped as
+ * soon as a newer one dominates it, so the front is always the window's extreme.
+ */
+final class MonotonicDeque {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final boolean maximum;
+    private int[] sequences = new int[INITIAL_CAPACITY];
+    private float[] values = new float[INITIAL_CAPACITY];
+    private int head;
+    private int size;
+
+    /**
+     * @param maximum true to track the maximum, false to track the minimum
+     */
+    MonotonicDeque(boolean maximum) {
+        this.maximum = maximum;
+    }
+
+    void push(int sequence, float value) {
+        int mask = values.length - 1;
+        while (size > 0) {
+            float last = values[(head + size - 1) & mask];
+            if (maximum ? last > value : last < value) {
+                break;
+            }
+            size--;
+        }
+        if (size == values.length) {
+            grow();
+            mask = values.length - 1;
+        }
+        int index = (head + size) & mask;
+        sequences[index] = sequence;
+        values[index] = value;
+        size++;
+    }
+
+    /**
+     * Drop entries with a sequence up to and including the given one
+     */
+    void evictThrough(int sequence) {
+        int mask = values.length - 1;
+        while (size > 0 && sequences[head] - sequence <= 0) {
+            head = (head + 1) & mask;
+            size--;
+        }
+    }
+
+    /**
+     * Get the window's extreme value, or NaN if the deque is empty
+     */
+    float peek() {
+        return size > 0 ? values[head] : Float.NaN;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    private void grow() {
+        int capacity = values.length;
+        int[] grownSequences = new int[capacity * 2];
+        float[] grownValues = new float[capacity * 2];
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) & (capacity - 1);
+            grownSequences[i] = sequences[index];
+            grownValues[i] = values[index];
+        }
+        sequences = grownSequences;
+        values = grownValues;
+        head = 0;
+    }
+}
@@ -0,0 +1,103 @@
+package com.samsung.sensorapp.stats;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory log-linear histogram of float values that supports removal
+ * Each power of two between 2^{@link #MIN_EXPONENT} and 2^{@link #MAX_EXPONENT}
+ * is split into {@link #SUB_BUCKETS} linear buckets per sign, so a quantile is
+ * reported within about 3% of the true value. Smaller magnitudes count as zero
+ * and larger ones saturate into the outermost buckets. Adding and removing a
+ * value are O(1) and memory does not depend on the number of samples.
+ */
+final class QuantileSketch {
+    private static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int MIN_EXPONENT = -24;
+    static final int MAX_EXPONENT = 24;
+    private static final int MANTISSA_BITS = 23;
+    private static final int EXPONENT_BIAS = 127;
+    private static final int MAGNITUDE_BUCKETS = (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS;
+    /** Negative magnitudes descending, then zero, then positive magnitudes ascending */
+    static final int BUCKET_COUNT = 2 * MAGNITUDE_BUCKETS + 1;
+    private static final int ZERO_BUCKET = MAGNITUDE_BUCKETS;
+
+    private final int[] counts = new int[BUCKET_COUNT];
+    private int total;
+
+    void add(float value) {
+        counts[bucketIndex(value)]++;
+        total++;
+    }
+
+    void remove(float value) {
+        counts[bucketIndex(value)]--;
+        total--;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+
+    int getCount() {
+        return total;
+    }
+
+    /**
+     * Estimate several quantiles in one pass
+     *
+     * @param levels quantile levels in [0, 1], ascending
+     * @param out receives one estimate per level starting at outOffset, or NaN if the sketch is empty
+     */
+    void quantiles(double[] levels, double[] out, int outOffset) {
+        if (total == 0) {
+            for (int i = 0; i < levels.length; i++) {
+                out[outOffset + i] = Double.NaN;
+            }
+            return;
+        }
+        int level = 0;
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT && level < levels.length; bucket++) {
+            seen += counts[bucket];
+            while (level < levels.length && seen >= rank(levels[level])) {
+                out[outOffset + level++] = bucketValue(bucket);
+            }
+        }
+        while (level < levels.length) {
+            out[outOffset + level++] = bucketValue(BUCKET_COUNT - 1);
+        }
+    }
+
+    private long rank(double level) {
+        return Math.max(1, (long) Math.ceil(total * Math.min(1.0, level)));
+    }
+
+    static int bucketIndex(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int exponent = ((bits >>> MANTISSA_BITS) & 0xff) - EXPONENT_BIAS;
+        if (exponent < MIN_EXPONENT) {
+            return ZERO_BUCKET;
+        }
+        int magnitude = exponent >= MAX_EXPONENT
+                ? MAGNITUDE_BUCKETS - 1
+                : ((exponent - MIN_EXPONENT) << SUB_BUCKET_BITS)
+                        | ((bits >>> (MANTISSA_BITS - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return bits < 0 ? ZERO_BUCKET - 1 - magnitude : ZERO_BUCKET + 1 + magnitude;
+    }
+
+    /**
+     * Get the value reported for a bucket: the midpoint of its range
+     */
+    static double bucketValue(int bucket) {
+        if (bucket == ZERO_BUCKET) {
+            return 0.0;
+        }
+        int magnitude = bucket > ZERO_BUCKET ? bucket - ZERO_BUCKET - 1 : ZERO_BUCKET - 1 - bucket;
+        int exponent = (magnitude >> SUB_BUCKET_BITS) + MIN_EXPONENT;
+        int subBucket = magnitude & (SUB_BUCKETS - 1);
+        double value = Math.scalb(1.0 + (subBucket + 0.5) / SUB_BUCKETS, exponent);
+        return bucket > ZERO_BUCKET ? value : -value;
+    }
+}
@@ -0,0 +1,236 @@
+package com.samsung.sensorapp.stats;
+
+/**
+ * Sliding-window statistics for every axis of a single sensor stream
+ * Samples are kept once in primitive ring arrays shared by all windows, each
+ * window is updated in O(1) per sample, and the ring is capped at a fixed
+ * number of samples; when it is full the oldest sample leaves every window
+ * early. Samples must be added from one thread at a time with non-decreasing
+ * timestamps. Snapshots are published through a volatile field, so any
+ * thread can poll {@link #getSnapshot()} without blocking the producer.
+ */
+public final class SensorStreamStatistics {
+    private static final int INITIAL_CAPACITY = 256;
+    /** Removals after which a window recomputes mean and M2 to shed rounding drift */
+    private static final int REBUILD_INTERVAL = 1 << 16;
+
+    private final int sensorType;
+    private final int axisCount;
+    private final long[] windowDurationsNs;
+    private final double[] quantileLevels;
+    private final long publishIntervalNs;
+    private final int maxSamples;
+    private final SlidingWindow[] windows;
+
+    private long[] timestamps;
+    private float[] values;
+    /** Sequence number of the oldest retained sample */
+    private int head;
+    /** Sequence number the next sample will get */
+    private int next;
+    private long lastTimestamp = Long.MIN_VALUE;
+    private long nextPublishNs = Long.MIN_VALUE;
+    private long droppedCount;
+    private volatile StatisticsSnapshot snapshot;
+
+    /**
+     * @param windowDurationsNs sliding window lengths in nanoseconds
+     * @param quantileLevels ascending quantile levels in [0, 1] to publish
+     * @param publishIntervalNs minimum sensor time between published snapshots
+     * @param maxSamples maximum number of samples retained, rounded up to a power of two
+     */
+    public SensorStreamStatistics(int sensorType, int axisCount, long[] windowDurationsNs,
+                                  double[] quantileLevels, long publishIntervalNs, int maxSamples) {
+        if (axisCount <= 0) {
+            throw new IllegalArgumentException("Axis count must be positive: " + axisCount);
+        }
+        checkConfiguration(windowDurationsNs, quantileLevels, maxSamples);
+        this.sensorType = sensorType;
+        this.axisCount = axisCount;
+        this.windowDurationsNs = windowDurationsNs.clone();
+        this.quantileLevels = quantileLevels.clone();
+        this.publishIntervalNs = Math.max(0, publishIntervalNs);
+        this.maxSamples = maxSamples == 1 ? 1 : Integer.highestOneBit(maxSamples - 1) << 1;
+        this.windows = new SlidingWindow[windowDurationsNs.length];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new SlidingWindow(windowDurationsNs[i], axisCount);
+        }
+        int capacity = Math.min(INITIAL_CAPACITY, this.maxSamples);
+        this.timestamps = new long[capacity];
+        this.values = new float[capacity * axisCount];
+    }
+
+    static void checkConfiguration(long[] windowDurationsNs, double[] quantileLevels, int maxSamples) {
+        if (maxSamples <= 0 || maxSamples > 1 << 30) {
+            throw new IllegalArgumentException("Invalid maximum sample count: " + maxSamples);
+        }
+        for (long duration : windowDurationsNs) {
+            if (duration <= 0) {
+                throw new IllegalArgumentException("Window duration must be positive: " + duration);
+            }
+        }
+        for (int i = 0; i < quantileLevels.length; i++) {
+            if (!(quantileLevels[i] >= 0.0 && quantileLevels[i] <= 1.0)
+                    || (i > 0 && quantileLevels[i] < quantileLevels[i - 1])) {
+                throw new IllegalArgumentException("Quantile levels must be ascending in [0, 1]");
+            }
+        }
+    }
+
+    public int getSensorType() {
+        return sensorType;
+    }
+
+    public int getAxisCount() {
+        return axisCount;
+    }
+
+    /**
+     * Get the most recently published snapshot, or null if none was published yet
+     * Safe to call from any thread.
+     */
+    public StatisticsSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the number of samples rejected for being out of order, too short or NaN
+     * Only meaningful on the producer thread.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Add one sample whose first {@link #getAxisCount()} values start at offset
+     * A snapshot is published when the publish interval has elapsed in sensor time.
+     */
+    public void add(long timestamp, float[] sampleValues, int offset, int valueCount) {
+        if (valueCount < axisCount || timestamp < lastTimestamp) {
+            droppedCount++;
+            return;
+        }
+        for (int axis = 0; axis < axisCount; axis++) {
+            if (Float.isNaN(sampleValues[offset + axis])) {
+                droppedCount++;
+                return;
+            }
+        }
+
+        if (next - head == timestamps.length) {
+            makeRoom();
+        }
+        int mask = timestamps.length - 1;
+        int index = next & mask;
+        timestamps[index] = timestamp;
+        System.arraycopy(sampleValues, offset, values, index * axisCount, axisCount);
+        int sequence = next++;
+        lastTimestamp = timestamp;
+
+        int oldest = next;
+        for (SlidingWindow window : windows) {
+            window.add(sequence, values, index * axisCount);
+            long cutoff = timestamp - window.durationNs;
+            while (window.count > 0 && timestamps[window.tail & mask] <= cutoff) {
+                window.removeOldest(values, (window.tail & mask) * axisCount);
+            }
+            if (window.removalsSinceRebuild >= REBUILD_INTERVAL) {
+                rebuild(window);
+            }
+            if (window.count > 0 && window.tail - oldest < 0) {
+                oldest = window.tail;
+            }
+        }
+        head = oldest;
+
+        if (timestamp >= nextPublishNs) {
+            publish();
+            nextPublishNs = timestamp + publishIntervalNs;
+        }
+    }
+
+    /**
+     * Publish a snapshot of the current window contents
+     * Must be called on the producer thread.
+     */
+    public StatisticsSnapshot publish() {
+        int windowCount = windows.length;
+        int cells = windowCount * axisCount;
+        int[] sampleCounts = new int[windowCount];
+        double[] means = new double[cells];
+        double[] variances = new double[cells];
+        double[] minima = new double[cells];
+        double[] maxima = new double[cells];
+        double[] rms = new double[cells];
+        double[] quantiles = new double[cells * quantileLevels.length];
+        for (int w = 0; w < windowCount; w++) {
+            SlidingWindow window = windows[w];
+            sampleCounts[w] = window.count;
+            for (int axis = 0; axis < axisCount; axis++) {
+                int cell = w * axisCount + axis;
+                boolean empty = window.count == 0;
+                means[cell] = empty ? Double.NaN : window.mean[axis];
+                variances[cell] = empty ? Double.NaN : window.getVariance(axis);
+                minima[cell] = window.getMin(axis);
+                maxima[cell] = window.getMax(axis);
+                rms[cell] = window.getRms(axis);
+                window.quantiles(axis, quantileLevels, quantiles, cell * quantileLevels.length);
+            }
+        }
+        StatisticsSnapshot published = new StatisticsSnapshot(sensorType, lastTimestamp, axisCount,
+                windowDurationsNs, quantileLevels, sampleCounts, means, variances, minima, maxima, rms,
+                quantiles);
+        snapshot = published;
+        return published;
+    }
+
+    /**
+     * Grow the ring, or once it is at its cap drop the oldest sample from every window
+     */
+    private void makeRoom() {
+        int capacity = timestamps.length;
+        if (capacity < maxSamples) {
+            long[] grownTimestamps = new long[capacity * 2];
+            float[] grownValues = new float[capacity * 2 * axisCount];
+            int grownMask = capacity * 2 - 1;
+            for (int sequence = head; sequence != next; sequence++) {
+                int from = sequence & (capacity - 1);
+                int to = sequence & grownMask;
+                grownTimestamps[to] = timestamps[from];
+                System.arraycopy(values, from * axisCount, grownValues, to * axisCount, axisCount);
+            }
+            timestamps = grownTimestamps;
+            values = grownValues;
+            return;
+        }
+        int offset = (head & (capacity - 1)) * axisCount;
+        for (SlidingWindow window : windows) {
+            if (window.count > 0 && window.tail == head) {
+                window.removeOldest(values, offset);
+            }
+        }
+        head++;
+    }
+
+    /**
+     * Recompute a window's mean and M2 from its retained samples
+     */
+    private void rebuild(SlidingWindow window) {
+        int mask = timestamps.length - 1;
+        for (int axis = 0; axis < axisCount; axis++) {
+            double mean = 0.0;
+            double m2 = 0.0;
+            int n = 0;
+            for (int i = 0; i < window.count; i++) {
+                double value = values[((window.tail + i) & mask) * axisCount + axis];
+                n++;
+                double delta = value - mean;
+                mean += delta / n;
+                m2 += delta * (value - mean);
+            }
+            window.mean[axis] = mean;
+            window.m2[axis] = m2;
+        }
+        window.removalsSinceRebuild = 0;
+    }
+}
@@ -0,0 +1,128 @@
+package com.samsung.sensorapp.stats;
+
+/**
+ * Incremental statistics for every axis of one sliding time window
+ * Mean and variance use Welford's update with its exact inverse for samples
+ * leaving the window, min and max come from monotonic deques and quantiles
+ * from a {@link QuantileSketch}. The owning {@link SensorStreamStatistics}
+ * keeps the samples and decides when the oldest one leaves.
+ */
+final class SlidingWindow {
+    final long durationNs;
+    final int axisCount;
+    /** Sequence number of the oldest sample in the window */
+    int tail;
+    int count;
+    /** Removals since mean and M2 were last recomputed from the samples */
+    int removalsSinceRebuild;
+
+    final double[] mean;
+    final double[] m2;
+    private final MonotonicDeque[] minima;
+    private final MonotonicDeque[] maxima;
+    private final QuantileSketch[] sketches;
+
+    SlidingWindow(long durationNs, int axisCount) {
+        this.durationNs = durationNs;
+        this.axisCount = axisCount;
+        this.mean = new double[axisCount];
+        this.m2 = new double[axisCount];
+        this.minima = new MonotonicDeque[axisCount];
+        this.maxima = new MonotonicDeque[axisCount];
+        this.sketches = new QuantileSketch[axisCount];
+        for (int axis = 0; axis < axisCount; axis++) {
+            minima[axis] = new MonotonicDeque(false);
+            maxima[axis] = new MonotonicDeque(true);
+            sketches[axis] = new QuantileSketch();
+        }
+    }
+
+    /**
+     * Add the newest sample, whose values start at offset
+     */
+    void add(int sequence, float[] values, int offset) {
+        if (count == 0) {
+            tail = sequence;
+        }
+        count++;
+        for (int axis = 0; axis < axisCount; axis++) {
+            float value = values[offset + axis];
+            double delta = value - mean[axis];
+            mean[axis] += delta / count;
+            m2[axis] += delta * (value - mean[axis]);
+            minima[axis].push(sequence, value);
+            maxima[axis].push(sequence, value);
+            sketches[axis].add(value);
+        }
+    }
+
+    /**
+     * Remove the oldest sample, whose values start at offset
+     */
+    void removeOldest(float[] values, int offset) {
+        int sequence = tail++;
+        count--;
+        removalsSinceRebuild++;
+        for (int axis = 0; axis < axisCount; axis++) {
+            float value = values[offset + axis];
+            if (count == 0) {
+                mean[axis] = 0.0;
+                m2[axis] = 0.0;
+            } else {
+                double delta = value - mean[axis];
+                mean[axis] -= delta / count;
+                m2[axis] = Math.max(0.0, m2[axis] - delta * (value - mean[axis]));
+            }
+            minima[axis].evictThrough(sequence);
+            maxima[axis].evictThrough(sequence);
+            sketches[axis].remove(value);
+        }
+    }
+
+    float getMin(int axis) {
+        return minima[axis].peek();
+    }
+
+    float getMax(int axis) {
+        return maxima[axis].peek();
+    }
+
+    /**
+     * Get the sample variance of an axis, or 0 with fewer than two samples
+     */
+    double getVariance(int axis) {
+        return count > 1 ? m2[axis] / (count - 1) : 0.0;
+    }
+
+    /**
+     * Get the root mean square of an axis, derived from the mean and M2
+     */
+    double getRms(int axis) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        return Math.sqrt(m2[axis] / count + mean[axis] * mean[axis]);
+    }
+
+    /**
+     * Estimate quantiles of an axis, clamped to the window's exact min and max
+     * The lowest and highest ranks are reported exactly from the deques.
+     */
+    void quantiles(int axis, double[] levels, double[] out, int outOffset) {
+        sketches[axis].quantiles(levels, out, outOffset);
+        if (count > 0) {
+            double min = getMin(axis);
+            double max = getMax(axis);
+            for (int i = 0; i < levels.length; i++) {
+                double rank = Math.ceil(count * levels[i]);
+                if (rank <= 1) {
+                    out[outOffset + i] = min;
+                } else if (rank >= count) {
+                    out[outOffset + i] = max;
+                } else {
+                    out[outOffset + i] = Math.min(max, Math.max(min, out[outOffset + i]));
+                }
+            }
+        }
+    }
+}
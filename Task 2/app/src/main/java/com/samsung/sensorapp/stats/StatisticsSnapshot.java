@@ -0,0 +1,115 @@
+package com.samsung.sensorapp.stats;
+
+/**
+ * Immutable statistics of one sensor stream at the time it was published
+ * Windows and axes are addressed by index; window i covers the samples whose
+ * timestamps fall in (timestamp - duration, timestamp]. Values of an empty
+ * window are NaN.
+ */
+public final class StatisticsSnapshot {
+    private final int sensorType;
+    private final long timestamp;
+    private final int axisCount;
+    private final long[] windowDurationsNs;
+    private final double[] quantileLevels;
+    private final int[] sampleCounts;
+    private final double[] means;
+    private final double[] variances;
+    private final double[] minima;
+    private final double[] maxima;
+    private final double[] rms;
+    private final double[] quantiles;
+
+    StatisticsSnapshot(int sensorType, long timestamp, int axisCount, long[] windowDurationsNs,
+                       double[] quantileLevels, int[] sampleCounts, double[] means, double[] variances,
+                       double[] minima, double[] maxima, double[] rms, double[] quantiles) {
+        this.sensorType = sensorType;
+        this.timestamp = timestamp;
+        this.axisCount = axisCount;
+        this.windowDurationsNs = windowDurationsNs;
+        this.quantileLevels = quantileLevels;
+        this.sampleCounts = sampleCounts;
+        this.means = means;
+        this.variances = variances;
+        this.minima = minima;
+        this.maxima = maxima;
+        this.rms = rms;
+        this.quantiles = quantiles;
+    }
+
+    public int getSensorType() {
+        return sensorType;
+    }
+
+    /**
+     * Get the timestamp of the newest sample included, in nanoseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getAxisCount() {
+        return axisCount;
+    }
+
+    public int getWindowCount() {
+        return windowDurationsNs.length;
+    }
+
+    public long getWindowDurationNs(int window) {
+        return windowDurationsNs[window];
+    }
+
+    public int getSampleCount(int window) {
+        return sampleCounts[window];
+    }
+
+    public double getMean(int window, int axis) {
+        return means[index(window, axis)];
+    }
+
+    /**
+     * Get the sample variance; 0 when the window holds a single sample
+     */
+    public double getVariance(int window, int axis) {
+        return variances[index(window, axis)];
+    }
+
+    public double getStandardDeviation(int window, int axis) {
+        return Math.sqrt(getVariance(window, axis));
+    }
+
+    public double getMin(int window, int axis) {
+        return minima[index(window, axis)];
+    }
+
+    public double getMax(int window, int axis) {
+        return maxima[index(window, axis)];
+    }
+
+    public double getRms(int window, int axis) {
+        return rms[index(window, axis)];
+    }
+
+    /**
+     * Get the estimated quantile at one of the levels the statistics were configured with
+     *
+     * @param level quantile level in [0, 1], e.g. 0.99
+     * @throws IllegalArgumentException if the level was not configured
+     */
+    public double getQuantile(int window, int axis, double level) {
+        for (int i = 0; i < quantileLevels.length; i++) {
+            if (quantileLevels[i] == level) {
+                return quantiles[index(window, axis) * quantileLevels.length + i];
+            }
+        }
+        throw new IllegalArgumentException("Quantile level not tracked: " + level);
+    }
+
+    private int index(int window, int axis) {
+        if (axis < 0 || axis >= axisCount) {
+            throw new IndexOutOfBoundsException("Axis " + axis + " of " + axisCount);
+        }
+        return window * axisCount + axis;
+    }
+}
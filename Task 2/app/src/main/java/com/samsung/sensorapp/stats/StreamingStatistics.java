@@ -0,0 +1,126 @@
+package com.samsung.sensorapp.stats;
+
+import android.util.Log;
+
+import com.samsung.sensorapp.manager.SensorEventListener;
+import com.samsung.sensorapp.model.SensorData;
+
+/**
+ * Rolling per-axis statistics over sliding time windows of sensor streams
+ * Register it on SensorDataManager like any other listener, either per event
+ * or as a batch listener, for as many sensor types as needed. Each sensor
+ * type gets its own {@link SensorStreamStatistics}, sized from its first
+ * sample, and is updated on that type's dispatch thread. Published
+ * snapshots can be polled from any thread with {@link #getSnapshot(int)}.
+ */
+public class StreamingStatistics implements SensorEventListener {
+    private static final String TAG = "StreamingStatistics";
+
+    public static final long DEFAULT_PUBLISH_INTERVAL_NS = 100_000_000L;
+    public static final int DEFAULT_MAX_SAMPLES = 1 << 16;
+    private static final long[] DEFAULT_WINDOWS_NS = {1_000_000_000L, 10_000_000_000L, 60_000_000_000L};
+    private static final double[] DEFAULT_QUANTILE_LEVELS = {0.5, 0.9, 0.99};
+    private static final SensorStreamStatistics[] NO_STREAMS = new SensorStreamStatistics[0];
+
+    private final long[] windowDurationsNs;
+    private final double[] quantileLevels;
+    private final long publishIntervalNs;
+    private final int maxSamples;
+    private final Object streamsLock = new Object();
+    private volatile SensorStreamStatistics[] streams = NO_STREAMS;
+
+    /**
+     * Track 1 s, 10 s and 60 s windows with the median, 90th and 99th percentiles
+     */
+    public StreamingStatistics() {
+        this(DEFAULT_WINDOWS_NS, DEFAULT_QUANTILE_LEVELS, DEFAULT_PUBLISH_INTERVAL_NS, DEFAULT_MAX_SAMPLES);
+    }
+
+    /**
+     * @param windowDurationsNs sliding window lengths in nanoseconds
+     * @param quantileLevels ascending quantile levels in [0, 1] to publish
+     * @param publishIntervalNs minimum sensor time between published snapshots of a stream
+     * @param maxSamples maximum number of samples retained per sensor type
+     */
+    public StreamingStatistics(long[] windowDurationsNs, double[] quantileLevels,
+                               long publishIntervalNs, int maxSamples) {
+        SensorStreamStatistics.checkConfiguration(windowDurationsNs, quantileLevels, maxSamples);
+        this.windowDurationsNs = windowDurationsNs.clone();
+        this.quantileLevels = quantileLevels.clone();
+        this.publishIntervalNs = publishIntervalNs;
+        this.maxSamples = maxSamples;
+    }
+
+    @Override
+    public void onSensorDataChanged(SensorData sensorData) {
+        float[] values = sensorData.getValues();
+        if (values.length == 0) {
+            return;
+        }
+        streamFor(sensorData.getSensorType(), values.length)
+                .add(sensorData.getTimestamp(), values, 0, values.length);
+    }
+
+    @Override
+    public void onSensorDataBatch(int sensorType, long[] timestamps, float[] values,
+                                  int sampleCount, int valuesPerSample) {
+        if (sampleCount == 0 || valuesPerSample == 0) {
+            return;
+        }
+        SensorStreamStatistics stream = streamFor(sensorType, valuesPerSample);
+        for (int i = 0; i < sampleCount; i++) {
+            stream.add(timestamps[i], values, i * valuesPerSample, valuesPerSample);
+        }
+    }
+
+    @Override
+    public void onSensorAccuracyChanged(int accuracy) {
+        // Statistics are computed over values only
+    }
+
+    @Override
+    public void onSensorError(String errorMessage) {
+        Log.e(TAG, "Sensor error while computing statistics: " + errorMessage);
+    }
+
+    /**
+     * Get the latest snapshot for a sensor type, or null if none was published yet
+     */
+    public StatisticsSnapshot getSnapshot(int sensorType) {
+        SensorStreamStatistics stream = getStream(sensorType);
+        return stream != null ? stream.getSnapshot() : null;
+    }
+
+    /**
+     * Get the statistics of a sensor type, or null if it has not delivered a sample yet
+     */
+    public SensorStreamStatistics getStream(int sensorType) {
+        SensorStreamStatistics[] current = streams;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].getSensorType() == sensorType) {
+                return current[i];
+            }
+        }
+        return null;
+    }
+
+    private SensorStreamStatistics streamFor(int sensorType, int axisCount) {
+        SensorStreamStatistics stream = getStream(sensorType);
+        if (stream != null) {
+            return stream;
+        }
+        synchronized (streamsLock) {
+            stream = getStream(sensorType);
+            if (stream == null) {
+                stream = new SensorStreamStatistics(sensorType, axisCount, windowDurationsNs, quantileLevels,
+                        publishIntervalNs, maxSamples);
+                SensorStreamStatistics[] current = streams;
+                SensorStreamStatistics[] updated = new SensorStreamStatistics[current.length + 1];
+                System.arraycopy(current, 0, updated, 0, current.length);
+                updated[current.length] = stream;
+                streams = updated;
+            }
+            return stream;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.samsung.sensorapp.ui;
+
+import android.view.Choreographer;
+
+/**
+ * Counts janky frames on the main thread using Choreographer frame callbacks
+ * A frame is janky when it starts more than 1.5 frame intervals after the previous one
+ */
+public class FrameJankMonitor implements Choreographer.FrameCallback {
+    private static final long DEFAULT_FRAME_INTERVAL_NS = 16_666_667L;
+
+    private final long frameIntervalNs;
+    private boolean running;
+    private long lastFrameTimeNs;
+    private long frameCount;
+    private long jankyFrameCount;
+    private long maxFrameIntervalNs;
+
+    public FrameJankMonitor() {
+        this(DEFAULT_FRAME_INTERVAL_NS);
+    }
+
+    public FrameJankMonitor(long frameIntervalNs) {
+        this.frameIntervalNs = frameIntervalNs;
+    }
+
+    /**
+     * Start counting; must be called on the main thread
+     */
+    public void start() {
+        if (!running) {
+            running = true;
+            lastFrameTimeNs = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Stop counting; must be called on the main thread
+     */
+    public void stop() {
+        running = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) {
+            return;
+        }
+        if (lastFrameTimeNs != 0) {
+            long interval = frameTimeNanos - lastFrameTimeNs;
+            frameCount++;
+            if (interval > frameIntervalNs + frameIntervalNs / 2) {
+                jankyFrameCount++;
+            }
+            maxFrameIntervalNs = Math.max(maxFrameIntervalNs, interval);
+        }
+        lastFrameTimeNs = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getJankyFrameCount() {
+        return jankyFrameCount;
+    }
+
+    public long getMaxFrameIntervalNs() {
+        return maxFrameIntervalNs;
+    }
+}
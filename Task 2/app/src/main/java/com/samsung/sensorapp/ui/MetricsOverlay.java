@@ -0,0 +1,76 @@
+package com.samsung.sensorapp.ui;
+
+import android.view.View;
+import android.widget.TextView;
+
+import com.samsung.sensorapp.manager.PipelineMetrics;
+import com.samsung.sensorapp.manager.PipelineMetricsSnapshot;
+
+/**
+ * Shows the pipeline metrics in a text view, refreshed once per interval
+ * Snapshots are only taken while the overlay is shown, so a hidden overlay
+ * costs nothing beyond the metrics themselves.
+ */
+public class MetricsOverlay implements Runnable {
+    private static final long DEFAULT_REFRESH_INTERVAL_MS = 1000;
+
+    private final TextView textView;
+    private final PipelineMetrics metrics;
+    private final long refreshIntervalMs;
+    private PipelineMetricsSnapshot previous;
+    private boolean shown;
+
+    public MetricsOverlay(TextView textView, PipelineMetrics metrics) {
+        this(textView, metrics, DEFAULT_REFRESH_INTERVAL_MS);
+    }
+
+    public MetricsOverlay(TextView textView, PipelineMetrics metrics, long refreshIntervalMs) {
+        this.textView = textView;
+        this.metrics = metrics;
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * Show the overlay and start refreshing it; must be called on the main thread
+     */
+    public void show() {
+        if (!shown) {
+            shown = true;
+            previous = null;
+            textView.setVisibility(View.VISIBLE);
+            run();
+        }
+    }
+
+    /**
+     * Hide the overlay and stop refreshing it; must be called on the main thread
+     */
+    public void hide() {
+        shown = false;
+        textView.removeCallbacks(this);
+        textView.setVisibility(View.GONE);
+    }
+
+    public void toggle() {
+        if (shown) {
+            hide();
+        } else {
+            show();
+        }
+    }
+
+    public boolean isShown() {
+        return shown;
+    }
+
+    @Override
+    public void run() {
+        if (!shown) {
+            return;
+        }
+        PipelineMetricsSnapshot snapshot = metrics.snapshot();
+        textView.setText(snapshot.format(previous));
+        previous = snapshot;
+        textView.postDelayed(this, refreshIntervalMs);
+    }
+}
@@ -0,0 +1,148 @@
+package com.samsung.sensorapp.ui;
+
+import android.util.SparseArray;
+import android.view.Choreographer;
+
+import com.samsung.sensorapp.manager.PipelineMetrics;
+import com.samsung.sensorapp.model.SensorData;
+
+/**
+ * Coalesces sensor readings produced on dispatch threads into main-thread UI updates
+ * Only the latest SensorData per sensor type is kept, and the pending readings
+ * are applied as a single diff on the next vsync
+ */
+public class SensorUiCoalescer implements Choreographer.FrameCallback {
+
+    /**
+     * Receives one frame's worth of coalesced readings on the main thread
+     * The array is reused and its readings are released once this method returns
+     */
+    public interface Sink {
+        void onSensorData(SensorData[] latest, int count);
+    }
+
+    private final Choreographer choreographer;
+    private final Sink sink;
+    private final SparseArray<SensorData> pending = new SparseArray<>();
+    private SensorData[] applying = new SensorData[8];
+    private boolean posted;
+    private volatile PipelineMetrics metrics;
+    private long submittedCount;
+    private long appliedCount;
+    private long frameCount;
+
+    /**
+     * Create a coalescer driven by the main thread's Choreographer
+     * Must be constructed on the main thread
+     */
+    public SensorUiCoalescer(Sink sink) {
+        this(Choreographer.getInstance(), sink);
+    }
+
+    public SensorUiCoalescer(Choreographer choreographer, Sink sink) {
+        this.choreographer = choreographer;
+        this.sink = sink;
+    }
+
+    /**
+     * Report applied and coalesced readings to the pipeline metrics, or stop with null
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Offer a reading from any thread; replaces any not yet applied reading of the same sensor type
+     */
+    public void submit(SensorData sensorData) {
+        sensorData.retain();
+        SensorData replaced;
+        boolean post;
+        synchronized (pending) {
+            replaced = pending.get(sensorData.getSensorType());
+            pending.put(sensorData.getSensorType(), sensorData);
+            submittedCount++;
+            post = !posted;
+            posted = true;
+        }
+        if (replaced != null) {
+            replaced.release();
+            PipelineMetrics current = metrics;
+            if (current != null) {
+                current.recordUiCoalesced(1);
+            }
+        }
+        if (post) {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        int count;
+        synchronized (pending) {
+            count = pending.size();
+            if (applying.length < count) {
+                applying = new SensorData[count * 2];
+            }
+            for (int i = 0; i < count; i++) {
+                applying[i] = pending.valueAt(i);
+            }
+            pending.clear();
+            posted = false;
+            appliedCount += count;
+            frameCount++;
+        }
+        PipelineMetrics current = metrics;
+        if (current != null) {
+            current.recordUiApplied(count);
+        }
+        try {
+            sink.onSensorData(applying, count);
+        } finally {
+            for (int i = 0; i < count; i++) {
+                applying[i].release();
+                applying[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Drop every pending reading
+     */
+    public void clear() {
+        synchronized (pending) {
+            for (int i = 0; i < pending.size(); i++) {
+                pending.valueAt(i).release();
+            }
+            pending.clear();
+        }
+    }
+
+    /**
+     * Get the number of readings submitted so far
+     */
+    public long getSubmittedCount() {
+        synchronized (pending) {
+            return submittedCount;
+        }
+    }
+
+    /**
+     * Get the number of frames in which a diff was applied
+     */
+    public long getFrameCount() {
+        synchronized (pending) {
+            return frameCount;
+        }
+    }
+
+    /**
+     * Get the number of readings that actually reached the sink
+     */
+    public long getAppliedCount() {
+        synchronized (pending) {
+            return appliedCount;
+        }
+    }
+}
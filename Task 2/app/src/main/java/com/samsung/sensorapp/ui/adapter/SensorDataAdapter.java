@@ -9,8 +9,10 @@ import android.widget.TextView;
 
 import com.samsung.sensorapp.R;
 import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.util.FixedPointFormatter;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -23,6 +25,11 @@ public class SensorDataAdapter extends ArrayAdapter<SensorData> {
     private final List<SensorData> sensorDataList;
     private final LayoutInflater inflater;
     private final SimpleDateFormat dateFormat;
+    private final SensorRowIndex rowIndex = new SensorRowIndex();
+    private final List<SensorDataViewHolder> holders = new ArrayList<>();
+    private final FixedPointFormatter formatter = new FixedPointFormatter();
+    private int indexedRows;
+    private boolean indexStale;
 
     public SensorDataAdapter(Context context, List<SensorData> sensorDataList) {
         super(context, 0, sensorDataList);
@@ -44,47 +51,144 @@ public class SensorDataAdapter extends ArrayAdapter<SensorData> {
             holder.accuracyLabel = convertView.findViewById(R.id.accuracy_label);
             holder.timestampLabel = convertView.findViewById(R.id.timestamp_label);
             convertView.setTag(holder);
+            holders.add(holder);
         } else {
             holder = (SensorDataViewHolder) convertView.getTag();
         }
 
-        SensorData sensorData = sensorDataList.get(position);
-        
+        holder.position = position;
+        bind(holder, sensorDataList.get(position));
+        return convertView;
+    }
+
+    private void bind(SensorDataViewHolder holder, SensorData sensorData) {
         holder.sensorNameValue.setText(sensorData.getSensorName());
-        holder.sensorDataValue.setText(sensorData.getFormattedValues() + " " + sensorData.getUnit());
+        bindValues(holder, sensorData);
         holder.accuracyLabel.setText("Accuracy: " + sensorData.getAccuracyString());
         
         String timestamp = dateFormat.format(new Date(sensorData.getTimestamp() / 1_000_000));
         holder.timestampLabel.setText("Time: " + timestamp);
+    }
 
-        return convertView;
+    /**
+     * Format the values into the holder's buffers instead of allocating strings
+     */
+    private void bindValues(SensorDataViewHolder holder, SensorData sensorData) {
+        StringBuilder text = holder.valueText;
+        text.setLength(0);
+        sensorData.appendFormattedValues(text, formatter).append(' ').append(sensorData.getUnit());
+        int length = text.length();
+        if (holder.valueChars.length < length) {
+            holder.valueChars = new char[Math.max(length, holder.valueChars.length * 2)];
+        }
+        text.getChars(0, length, holder.valueChars, 0);
+        holder.sensorDataValue.setText(holder.valueChars, 0, length);
     }
 
     /**
-     * Update a sensor data item and notify the adapter
+     * Update a sensor data item and refresh its row
      */
     public void updateSensorData(SensorData newData) {
-        int index = -1;
+        if (applyUpdate(newData)) {
+            super.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Apply a frame's worth of updates at once
+     * Existing rows are rebound in place; the list is only invalidated, once,
+     * if a sensor type appears for the first time
+     */
+    public void updateSensorData(SensorData[] updates, int count) {
+        boolean structureChanged = false;
+        for (int i = 0; i < count; i++) {
+            structureChanged |= applyUpdate(updates[i]);
+        }
+        if (structureChanged) {
+            super.notifyDataSetChanged();
+        }
+    }
+
+    /**
+     * Remove every row
+     */
+    public void clearSensorData() {
         for (int i = 0; i < sensorDataList.size(); i++) {
-            if (sensorDataList.get(i).getSensorType() == newData.getSensorType()) {
-                index = i;
-                break;
+            sensorDataList.get(i).release();
+        }
+        sensorDataList.clear();
+        rowIndex.clear();
+        indexedRows = 0;
+        indexStale = false;
+        super.notifyDataSetChanged();
+    }
+
+    /**
+     * Callers that change the backing list directly report it here, which
+     * makes the next lookup rebuild the row index
+     */
+    @Override
+    public void notifyDataSetChanged() {
+        indexStale = true;
+        super.notifyDataSetChanged();
+    }
+
+    /**
+     * Store the reading in its row, rebinding the row if it is on screen
+     *
+     * @return true if a new row was added
+     */
+    private boolean applyUpdate(SensorData newData) {
+        int sensorType = newData.getSensorType();
+        int row = findRow(sensorType);
+        newData.retain();
+
+        if (row >= 0) {
+            sensorDataList.set(row, newData).release();
+            for (int i = 0; i < holders.size(); i++) {
+                SensorDataViewHolder holder = holders.get(i);
+                if (holder.position == row) {
+                    bind(holder, newData);
+                }
             }
+            return false;
         }
 
-        if (index >= 0) {
-            sensorDataList.set(index, newData);
-            notifyDataSetChanged();
-        } else {
-            sensorDataList.add(newData);
-            notifyDataSetChanged();
+        rowIndex.put(sensorType, sensorDataList.size());
+        sensorDataList.add(newData);
+        indexedRows++;
+        return true;
+    }
+
+    private int findRow(int sensorType) {
+        if (indexStale || indexedRows != sensorDataList.size()) {
+            rebuildIndex();
+        }
+        int row = rowIndex.get(sensorType);
+        if (row >= 0 && (row >= sensorDataList.size() || sensorDataList.get(row).getSensorType() != sensorType)) {
+            // The list was reordered behind the adapter's back without a notification
+            rebuildIndex();
+            row = rowIndex.get(sensorType);
+        }
+        return row;
+    }
+
+    private void rebuildIndex() {
+        rowIndex.clear();
+        for (int i = 0; i < sensorDataList.size(); i++) {
+            rowIndex.put(sensorDataList.get(i).getSensorType(), i);
         }
+        indexedRows = sensorDataList.size();
+        indexStale = false;
     }
 
     /**
      * ViewHolder pattern for efficient list rendering
      */
     private static class SensorDataViewHolder {
+        int position = -1;
+        final StringBuilder valueText = new StringBuilder(64);
+        char[] valueChars = new char[64];
         TextView sensorNameValue;
         TextView sensorDataValue;
         TextView accuracyLabel;
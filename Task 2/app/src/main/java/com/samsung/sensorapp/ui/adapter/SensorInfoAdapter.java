@@ -45,13 +45,8 @@ public class SensorInfoAdapter extends ArrayAdapter<SensorInfo> {
 
         SensorInfo sensorInfo = sensors.get(position);
         holder.sensorName.setText(sensorInfo.getName());
-        holder.sensorType.setText("Type: " + sensorInfo.getType());
-        holder.sensorDetails.setText(String.format(
-                "Power: %.2f mA | Range: %.2f | Vendor: %s",
-                sensorInfo.getPower(),
-                sensorInfo.getMaximumRange(),
-                sensorInfo.getVendor()
-        ));
+        holder.sensorType.setText(sensorInfo.getTypeLabel());
+        holder.sensorDetails.setText(sensorInfo.getDetails());
         holder.sensorStatus.setText(sensorInfo.isAvailable() ? "Available" : "Not Available");
 
         return convertView;
@@ -0,0 +1,70 @@
+package com.samsung.sensorapp.ui.adapter;
+
+import java.util.Arrays;
+
+/**
+ * Int-indexed table mapping sensor types to adapter row positions
+ * Platform sensor types are small integers and are looked up with a single
+ * array read; vendor types above {@link #DENSE_LIMIT} fall back to a short
+ * linear list.
+ */
+public class SensorRowIndex {
+    private static final int DENSE_LIMIT = 1024;
+    private static final int ABSENT = -1;
+
+    private int[] denseRows = newRows(64);
+    private int[] overflowTypes = new int[4];
+    private int[] overflowRows = new int[4];
+    private int overflowCount;
+
+    /**
+     * Get the row holding a sensor type, or -1 if it has none
+     */
+    public int get(int sensorType) {
+        if (sensorType >= 0 && sensorType < DENSE_LIMIT) {
+            return sensorType < denseRows.length ? denseRows[sensorType] : ABSENT;
+        }
+        for (int i = 0; i < overflowCount; i++) {
+            if (overflowTypes[i] == sensorType) {
+                return overflowRows[i];
+            }
+        }
+        return ABSENT;
+    }
+
+    public void put(int sensorType, int row) {
+        if (sensorType >= 0 && sensorType < DENSE_LIMIT) {
+            if (sensorType >= denseRows.length) {
+                int[] grown = newRows(Math.min(DENSE_LIMIT, Math.max(sensorType + 1, denseRows.length * 2)));
+                System.arraycopy(denseRows, 0, grown, 0, denseRows.length);
+                denseRows = grown;
+            }
+            denseRows[sensorType] = row;
+            return;
+        }
+        for (int i = 0; i < overflowCount; i++) {
+            if (overflowTypes[i] == sensorType) {
+                overflowRows[i] = row;
+                return;
+            }
+        }
+        if (overflowCount == overflowTypes.length) {
+            overflowTypes = Arrays.copyOf(overflowTypes, overflowCount * 2);
+            overflowRows = Arrays.copyOf(overflowRows, overflowCount * 2);
+        }
+        overflowTypes[overflowCount] = sensorType;
+        overflowRows[overflowCount] = row;
+        overflowCount++;
+    }
+
+    public void clear() {
+        Arrays.fill(denseRows, ABSENT);
+        overflowCount = 0;
+    }
+
+    private static int[] newRows(int size) {
+        int[] rows = new int[size];
+        Arrays.fill(rows, ABSENT);
+        return rows;
+    }
+}
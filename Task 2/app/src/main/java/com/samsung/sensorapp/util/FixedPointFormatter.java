@@ -0,0 +1,131 @@
+package com.samsung.sensorapp.util;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Allocation-free replacement for String.format("%.Nf", float)
+ * Output is identical to String.format in the default format locale: the value is
+ * rounded half-up at the requested precision, a negative sign (including -0)
+ * is kept, and digits and the decimal separator are localized. Values too
+ * large for the fast path, NaN and infinities fall back to String.format.
+ *
+ * Not thread-safe; give each thread or view holder its own instance.
+ */
+public final class FixedPointFormatter {
+    public static final int MAX_PRECISION = 7;
+
+    /**
+     * Upper bound on the number of chars one formatted value can take
+     */
+    public static final int MAX_LENGTH = 48;
+
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L
+    };
+    private static final String[] PATTERNS = {
+            "%.0f", "%.1f", "%.2f", "%.3f", "%.4f", "%.5f", "%.6f", "%.7f"
+    };
+
+    private static final double FAST_PATH_LIMIT = 0x1p52;
+
+    private final char[] scratch = new char[MAX_LENGTH];
+    private final boolean formatCategory;
+    private Locale locale;
+    private char zeroDigit;
+    private char decimalSeparator;
+
+    public FixedPointFormatter() {
+        this(Build.VERSION.SDK_INT >= Build.VERSION_CODES.N);
+    }
+
+    /**
+     * @param formatCategory whether Locale.Category exists, which String.format follows from API 24
+     */
+    FixedPointFormatter(boolean formatCategory) {
+        this.formatCategory = formatCategory;
+    }
+
+    /**
+     * Write the formatted value into dst starting at offset
+     *
+     * @return the offset just past the last char written
+     */
+    public int format(float value, int precision, char[] dst, int offset) {
+        if (precision < 0 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Precision must be between 0 and " + MAX_PRECISION + ": " + precision);
+        }
+        long scale = POWERS_OF_TEN[precision];
+        float magnitude = Math.abs(value);
+        // Formatter rounds the double's shortest decimal digits, which only agree
+        // with exact rounding while the scaled value stays below 2^52; also rejects NaN
+        if (!(magnitude < FAST_PATH_LIMIT / scale)) {
+            String formatted = String.format(PATTERNS[precision], value);
+            formatted.getChars(0, formatted.length(), dst, offset);
+            return offset + formatted.length();
+        }
+        updateSymbols();
+
+        int position = offset;
+        if (Float.floatToRawIntBits(value) < 0) {
+            dst[position++] = '-';
+        }
+
+        // Exact: a float has 24 significant bits and 10^7 fits in 24 more, so no
+        // rounding happens before the half-up step below
+        double scaled = magnitude * (double) scale;
+        long units = (long) scaled;
+        if (scaled - units >= 0.5) {
+            units++;
+        }
+
+        long integerPart = units / scale;
+        int digits = 1;
+        for (long rest = integerPart; rest >= 10; rest /= 10) {
+            digits++;
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            dst[i] = (char) (zeroDigit + (int) (integerPart % 10));
+            integerPart /= 10;
+        }
+        position += digits;
+
+        if (precision > 0) {
+            dst[position++] = decimalSeparator;
+            long fraction = units % scale;
+            for (int i = position + precision - 1; i >= position; i--) {
+                dst[i] = (char) (zeroDigit + (int) (fraction % 10));
+                fraction /= 10;
+            }
+            position += precision;
+        }
+        return position;
+    }
+
+    /**
+     * Append the formatted value to a builder
+     */
+    public StringBuilder append(StringBuilder sb, float value, int precision) {
+        int length = format(value, precision, scratch, 0);
+        return sb.append(scratch, 0, length);
+    }
+
+    // String.format follows the default format locale, so pick up changes to it
+    private void updateSymbols() {
+        Locale current = formatCategory ? formatLocale() : Locale.getDefault();
+        if (current != locale) {
+            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(current);
+            zeroDigit = symbols.getZeroDigit();
+            decimalSeparator = current.equals(Locale.US) ? '.' : symbols.getDecimalSeparator();
+            locale = current;
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.N)
+    private static Locale formatLocale() {
+        return Locale.getDefault(Locale.Category.FORMAT);
+    }
+}
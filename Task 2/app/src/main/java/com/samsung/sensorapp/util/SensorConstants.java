@@ -15,6 +15,18 @@ public class SensorConstants {
     // Default sampling rate
     public static final int DEFAULT_SAMPLING_RATE = SAMPLING_RATE_NORMAL;
 
+    // Adaptive sampling: summed per-axis variance that raises a sensor to its fastest
+    // rate, and at or below which it backs off (squared sensor units)
+    public static final double ACCELEROMETER_RAISE_VARIANCE = 0.5;
+    public static final double ACCELEROMETER_LOWER_VARIANCE = 0.05;
+    public static final double GYROSCOPE_RAISE_VARIANCE = 0.05;
+    public static final double GYROSCOPE_LOWER_VARIANCE = 0.005;
+    public static final double MAGNETIC_FIELD_RAISE_VARIANCE = 4.0;
+    public static final double MAGNETIC_FIELD_LOWER_VARIANCE = 0.5;
+
+    // Virtual sensor types computed in software, above the platform's device-private base
+    public static final int TYPE_FUSED_ORIENTATION = 0x10000 + 1;
+
     // Common sensor types to monitor
     public static final int[] COMMON_SENSOR_TYPES = {
             Sensor.TYPE_ACCELEROMETER,
@@ -0,0 +1,127 @@
+package com.samsung.sensorapp.util;
+
+/**
+ * Immutable display metadata of one sensor type
+ * Holds everything the UI needs to present a reading of the type: its name,
+ * unit, the label of each axis, how many decimals to show and how a reading
+ * is described. Instances are looked up through {@link SensorTypeRegistry}.
+ */
+public final class SensorTypeInfo {
+
+    /**
+     * How {@link #appendDescription(StringBuilder, float[], FixedPointFormatter)} renders a reading
+     */
+    public enum DescriptionStyle {
+        /** Every axis after its label, then the unit: "X: 0.10, Y: 0.20, Z: 9.81 m/s²" */
+        AXES,
+        /** The first value after the first label, then the unit: "Light: 120.00 lx" */
+        LABELLED_VALUE,
+        /** The first value as a whole count after the first label, without a unit: "Steps: 1234" */
+        LABELLED_COUNT,
+        /** Every value separated by commas, without labels or unit */
+        VALUES
+    }
+
+    private final int sensorType;
+    private final String name;
+    private final String unit;
+    private final String[] axisLabels;
+    private final int precision;
+    private final DescriptionStyle descriptionStyle;
+
+    /**
+     * @param precision decimals shown for each value, at most {@link FixedPointFormatter#MAX_PRECISION}
+     * @param axisLabels one label per value of a reading
+     */
+    public SensorTypeInfo(int sensorType, String name, String unit, int precision,
+                          DescriptionStyle descriptionStyle, String... axisLabels) {
+        if (axisLabels.length == 0) {
+            throw new IllegalArgumentException("Sensor type " + sensorType + " needs at least one axis");
+        }
+        if (precision < 0 || precision > FixedPointFormatter.MAX_PRECISION) {
+            throw new IllegalArgumentException("Invalid precision: " + precision);
+        }
+        this.sensorType = sensorType;
+        this.name = name;
+        this.unit = unit;
+        this.axisLabels = axisLabels.clone();
+        this.precision = precision;
+        this.descriptionStyle = descriptionStyle;
+    }
+
+    public int getSensorType() {
+        return sensorType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public int getAxisCount() {
+        return axisLabels.length;
+    }
+
+    public String getAxisLabel(int axis) {
+        return axisLabels[axis];
+    }
+
+    /**
+     * Get the number of decimals shown for each value
+     */
+    public int getPrecision() {
+        return precision;
+    }
+
+    public DescriptionStyle getDescriptionStyle() {
+        return descriptionStyle;
+    }
+
+    /**
+     * Append a readable description of a reading, allocation-free once the builder has grown to size
+     *
+     * @throws ArrayIndexOutOfBoundsException if an {@link DescriptionStyle#AXES} reading has
+     *                                        fewer values than axes; nothing is appended then
+     */
+    public StringBuilder appendDescription(StringBuilder sb, float[] values, FixedPointFormatter formatter) {
+        if (values == null || values.length == 0) {
+            return sb.append("No data available");
+        }
+        switch (descriptionStyle) {
+            case AXES:
+                if (values.length < axisLabels.length) {
+                    throw new ArrayIndexOutOfBoundsException(axisLabels.length - 1);
+                }
+                for (int i = 0; i < axisLabels.length; i++) {
+                    if (i > 0) {
+                        sb.append(", ");
+                    }
+                    formatter.append(sb.append(axisLabels[i]).append(": "), values[i], precision);
+                }
+                return sb.append(' ').append(unit);
+            case LABELLED_VALUE:
+                return formatter.append(sb.append(axisLabels[0]).append(": "), values[0], precision)
+                        .append(' ').append(unit);
+            case LABELLED_COUNT:
+                return formatter.append(sb.append(axisLabels[0]).append(": "), values[0], 0);
+            default:
+                return appendValues(sb, values, formatter);
+        }
+    }
+
+    /**
+     * Append every value at this type's precision, separated by commas
+     */
+    public StringBuilder appendValues(StringBuilder sb, float[] values, FixedPointFormatter formatter) {
+        for (int i = 0; i < values.length; i++) {
+            formatter.append(sb, values[i], precision);
+            if (i < values.length - 1) {
+                sb.append(", ");
+            }
+        }
+        return sb;
+    }
+}
@@ -0,0 +1,123 @@
+package com.samsung.sensorapp.util;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.util.SensorTypeInfo.DescriptionStyle;
+
+/**
+ * Metadata of every known sensor type, indexed by type id
+ * Platform types live in a dense array indexed directly by their id; vendor
+ * and virtual types above that range are kept sorted and binary searched.
+ * Both tables are immutable and replaced wholesale on
+ * {@link #register(SensorTypeInfo)}, so lookups never lock and new types can
+ * be added at runtime from any thread.
+ */
+public final class SensorTypeRegistry {
+    private static final int DENSE_TYPE_LIMIT = 64;
+
+    /**
+     * Returned for types that were never registered
+     */
+    public static final SensorTypeInfo UNKNOWN =
+            new SensorTypeInfo(-1, "Unknown Sensor", "unit", 2, DescriptionStyle.VALUES, "Value");
+
+    private static volatile SensorTypeInfo[] denseTypes = new SensorTypeInfo[DENSE_TYPE_LIMIT];
+    private static volatile SensorTypeInfo[] sparseTypes = new SensorTypeInfo[0];
+
+    static {
+        register(new SensorTypeInfo(Sensor.TYPE_ACCELEROMETER, "Accelerometer", "m/s²", 2,
+                DescriptionStyle.AXES, "X", "Y", "Z"));
+        register(new SensorTypeInfo(Sensor.TYPE_MAGNETIC_FIELD, "Magnetometer", "µT", 2,
+                DescriptionStyle.AXES, "X", "Y", "Z"));
+        register(new SensorTypeInfo(Sensor.TYPE_GYROSCOPE, "Gyroscope", "rad/s", 2,
+                DescriptionStyle.AXES, "X", "Y", "Z"));
+        register(new SensorTypeInfo(Sensor.TYPE_LIGHT, "Light Sensor", "lx", 2,
+                DescriptionStyle.LABELLED_VALUE, "Light"));
+        register(new SensorTypeInfo(Sensor.TYPE_PRESSURE, "Barometer", "hPa", 2,
+                DescriptionStyle.LABELLED_VALUE, "Pressure"));
+        register(new SensorTypeInfo(Sensor.TYPE_TEMPERATURE, "Temperature", "°C", 2,
+                DescriptionStyle.LABELLED_VALUE, "Temperature"));
+        register(new SensorTypeInfo(Sensor.TYPE_RELATIVE_HUMIDITY, "Humidity", "%", 2,
+                DescriptionStyle.LABELLED_VALUE, "Humidity"));
+        register(new SensorTypeInfo(Sensor.TYPE_AMBIENT_TEMPERATURE, "Ambient Temperature", "°C", 2,
+                DescriptionStyle.LABELLED_VALUE, "Ambient Temp"));
+        register(new SensorTypeInfo(Sensor.TYPE_STEP_COUNTER, "Step Counter", "steps", 2,
+                DescriptionStyle.LABELLED_COUNT, "Steps"));
+        register(new SensorTypeInfo(Sensor.TYPE_STEP_DETECTOR, "Step Detector", "event", 2,
+                DescriptionStyle.VALUES, "Step"));
+        register(new SensorTypeInfo(Sensor.TYPE_PROXIMITY, "Proximity Sensor", "cm", 2,
+                DescriptionStyle.LABELLED_VALUE, "Distance"));
+        register(new SensorTypeInfo(Sensor.TYPE_GRAVITY, "Gravity", "unit", 2,
+                DescriptionStyle.VALUES, "X", "Y", "Z"));
+        register(new SensorTypeInfo(Sensor.TYPE_LINEAR_ACCELERATION, "Linear Acceleration", "m/s²", 2,
+                DescriptionStyle.VALUES, "X", "Y", "Z"));
+        register(new SensorTypeInfo(Sensor.TYPE_ROTATION_VECTOR, "Rotation Vector", "unit", 2,
+                DescriptionStyle.VALUES, "X", "Y", "Z", "W"));
+        register(new SensorTypeInfo(SensorConstants.TYPE_FUSED_ORIENTATION, "Fused Orientation", "unit", 2,
+                DescriptionStyle.VALUES, "X", "Y", "Z", "W"));
+    }
+
+    private SensorTypeRegistry() {
+    }
+
+    /**
+     * Get the metadata of a sensor type, or {@link #UNKNOWN} if it was never registered
+     */
+    public static SensorTypeInfo get(int sensorType) {
+        if (sensorType >= 0 && sensorType < DENSE_TYPE_LIMIT) {
+            SensorTypeInfo info = denseTypes[sensorType];
+            return info != null ? info : UNKNOWN;
+        }
+        SensorTypeInfo[] sparse = sparseTypes;
+        int index = search(sparse, sensorType);
+        return index >= 0 ? sparse[index] : UNKNOWN;
+    }
+
+    public static boolean isRegistered(int sensorType) {
+        return get(sensorType) != UNKNOWN;
+    }
+
+    /**
+     * Add a sensor type, replacing any metadata already registered for its id
+     */
+    public static synchronized void register(SensorTypeInfo info) {
+        int sensorType = info.getSensorType();
+        if (sensorType >= 0 && sensorType < DENSE_TYPE_LIMIT) {
+            SensorTypeInfo[] updated = denseTypes.clone();
+            updated[sensorType] = info;
+            denseTypes = updated;
+            return;
+        }
+        SensorTypeInfo[] current = sparseTypes;
+        int index = search(current, sensorType);
+        SensorTypeInfo[] updated;
+        if (index >= 0) {
+            updated = current.clone();
+            updated[index] = info;
+        } else {
+            int insertion = -index - 1;
+            updated = new SensorTypeInfo[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insertion);
+            updated[insertion] = info;
+            System.arraycopy(current, insertion, updated, insertion + 1, current.length - insertion);
+        }
+        sparseTypes = updated;
+    }
+
+    private static int search(SensorTypeInfo[] sorted, int sensorType) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midType = sorted[mid].getSensorType();
+            if (midType < sensorType) {
+                low = mid + 1;
+            } else if (midType > sensorType) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
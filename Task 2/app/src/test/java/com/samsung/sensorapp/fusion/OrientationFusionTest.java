@@ -0,0 +1,200 @@
+package com.samsung.sensorapp.fusion;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.manager.ReplaySensorEventSource;
+import com.samsung.sensorapp.manager.SensorDataManager;
+import com.samsung.sensorapp.manager.SensorEventListener;
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.util.SensorConstants;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for MadgwickFilter and the OrientationFusion virtual sensor
+ */
+public class OrientationFusionTest {
+    private static final float TOLERANCE = 1e-3f;
+
+    /**
+     * Device lying flat, screen up, top edge pointing at magnetic north
+     */
+    private static final ReplaySensorEventSource.Generator FLAT_NORTH = new ReplaySensorEventSource.Generator() {
+        @Override
+        public int getValueCount(int sensorType) {
+            return 3;
+        }
+
+        @Override
+        public void generate(int sensorType, long index, long timestamp, float[] values) {
+            switch (sensorType) {
+                case Sensor.TYPE_ACCELEROMETER:
+                    values[0] = 0f;
+                    values[1] = 0f;
+                    values[2] = 9.81f;
+                    break;
+                case Sensor.TYPE_MAGNETIC_FIELD:
+                    values[0] = 0f;
+                    values[1] = 22f;
+                    values[2] = -40f;
+                    break;
+                default:
+                    values[0] = 0f;
+                    values[1] = 0f;
+                    values[2] = 0f;
+                    break;
+            }
+        }
+    };
+
+    @Test
+    public void testFlatDevicePointingNorthIsIdentity() {
+        MadgwickFilter filter = new MadgwickFilter();
+        filter.initialize(0f, 0f, 9.81f, 0f, 22f, -40f);
+        for (int i = 0; i < 200; i++) {
+            filter.update(0f, 0f, 0f, 0f, 0f, 9.81f, 0f, 22f, -40f, 0.01f);
+        }
+
+        float[] rotation = new float[4];
+        filter.getRotationVector(rotation);
+        assertEquals(0f, rotation[0], TOLERANCE);
+        assertEquals(0f, rotation[1], TOLERANCE);
+        assertEquals(0f, rotation[2], TOLERANCE);
+        assertEquals(1f, rotation[3], TOLERANCE);
+    }
+
+    @Test
+    public void testIntegratesConstantYawRate() {
+        MadgwickFilter filter = new MadgwickFilter();
+        filter.initialize(0f, 0f, 9.81f, 0f, 0f, 0f);
+        float rate = 0.5f;
+        for (int i = 0; i < 200; i++) {
+            filter.updateImu(0f, 0f, rate, 0f, 0f, 9.81f, 0.01f);
+        }
+
+        // Two seconds at 0.5 rad/s is a one radian turn about the vertical axis
+        float[] rotation = new float[4];
+        filter.getRotationVector(rotation);
+        assertEquals(0f, rotation[0], TOLERANCE);
+        assertEquals(0f, rotation[1], TOLERANCE);
+        assertEquals((float) Math.sin(0.5), rotation[2], TOLERANCE);
+        assertEquals((float) Math.cos(0.5), rotation[3], TOLERANCE);
+    }
+
+    @Test
+    public void testPublishesThroughManagerAndReleasesInputs() {
+        ReplaySensorEventSource source = new ReplaySensorEventSource(new int[]{
+                Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_GYROSCOPE, Sensor.TYPE_MAGNETIC_FIELD}, FLAT_NORTH);
+        SensorDataManager manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        OrientationFusion fusion = new OrientationFusion(manager);
+        manager.addVirtualSensor(fusion);
+        assertTrue(manager.isSensorAvailable(SensorConstants.TYPE_FUSED_ORIENTATION));
+
+        RecordingListener listener = new RecordingListener();
+        manager.registerListener(SensorConstants.TYPE_FUSED_ORIENTATION, listener, SensorManager.SENSOR_DELAY_GAME);
+        assertTrue(fusion.isActive());
+        assertEquals(3, source.getRegistrationCount());
+
+        source.advance(1_000_000_000L);
+        // One output per 20 ms gyroscope sample, less those still waiting on the other streams
+        assertTrue("received " + listener.count, listener.count >= 48);
+        assertEquals(SensorConstants.TYPE_FUSED_ORIENTATION, listener.sensorType);
+        assertEquals(SensorManager.SENSOR_STATUS_ACCURACY_HIGH, listener.accuracy);
+        assertEquals(0f, listener.values[2], TOLERANCE);
+        assertEquals(1f, listener.values[3], TOLERANCE);
+        assertTrue(listener.timestamp > listener.previousTimestamp);
+
+        manager.unregisterListener(SensorConstants.TYPE_FUSED_ORIENTATION, listener);
+        assertFalse(fusion.isActive());
+        assertEquals(0, source.getRegistrationCount());
+        int received = listener.count;
+        source.advance(1_000_000_000L);
+        assertEquals(received, listener.count);
+    }
+
+    @Test
+    public void testFallsBackToImuWithoutMagnetometer() {
+        ReplaySensorEventSource source = new ReplaySensorEventSource(new int[]{
+                Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_GYROSCOPE}, FLAT_NORTH);
+        SensorDataManager manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        manager.addVirtualSensor(new OrientationFusion(manager));
+
+        RecordingListener listener = new RecordingListener();
+        manager.registerListener(SensorConstants.TYPE_FUSED_ORIENTATION, listener, SensorManager.SENSOR_DELAY_GAME);
+        assertEquals(2, source.getRegistrationCount());
+        source.advance(1_000_000_000L);
+
+        assertTrue(listener.count > 0);
+        assertEquals(SensorManager.SENSOR_STATUS_ACCURACY_MEDIUM, listener.accuracy);
+        assertEquals(1f, listener.values[3], TOLERANCE);
+    }
+
+    @Test
+    public void testSubscriberCanUnregisterFromAnotherThreadWhileBeingCalled() throws InterruptedException {
+        ReplaySensorEventSource source = new ReplaySensorEventSource(new int[]{
+                Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_GYROSCOPE, Sensor.TYPE_MAGNETIC_FIELD}, FLAT_NORTH);
+        SensorDataManager manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        OrientationFusion fusion = new OrientationFusion(manager);
+        manager.addVirtualSensor(fusion);
+
+        // Deactivating the fusion takes its lock, so this only finishes if the callback runs without it
+        boolean[] finished = new boolean[1];
+        RecordingListener listener = new RecordingListener() {
+            @Override
+            public void onSensorDataChanged(SensorData sensorData) {
+                super.onSensorDataChanged(sensorData);
+                if (count > 1) {
+                    return;
+                }
+                Thread unregister = new Thread(() ->
+                        manager.unregisterListener(SensorConstants.TYPE_FUSED_ORIENTATION, this));
+                unregister.setDaemon(true);
+                unregister.start();
+                try {
+                    unregister.join(5_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finished[0] = !unregister.isAlive();
+            }
+        };
+        manager.registerListener(SensorConstants.TYPE_FUSED_ORIENTATION, listener, SensorManager.SENSOR_DELAY_GAME);
+        source.advance(1_000_000_000L);
+
+        assertTrue(finished[0]);
+        assertFalse(fusion.isActive());
+        assertEquals(0, source.getRegistrationCount());
+    }
+
+    private static class RecordingListener implements SensorEventListener {
+        int count;
+        int sensorType;
+        int accuracy;
+        long timestamp;
+        long previousTimestamp;
+        final float[] values = new float[4];
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            count++;
+            sensorType = sensorData.getSensorType();
+            accuracy = sensorData.getAccuracy();
+            previousTimestamp = timestamp;
+            timestamp = sensorData.getTimestamp();
+            System.arraycopy(sensorData.getValues(), 0, values, 0, 4);
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
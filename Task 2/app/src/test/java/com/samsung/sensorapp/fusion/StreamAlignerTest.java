@@ -0,0 +1,166 @@
+package com.samsung.sensorapp.fusion;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.manager.ReplaySensorEventSource;
+import com.samsung.sensorapp.manager.SensorDataManager;
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for StreamAligner
+ */
+public class StreamAlignerTest {
+    private static final long MS = 1_000_000L;
+    private static final int[] TYPES = {Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_LIGHT};
+    private static final int[] AXES = {3, 1};
+
+    /**
+     * Every axis is a linear ramp of time, so interpolation must reproduce it exactly
+     */
+    private static final ReplaySensorEventSource.Generator RAMPS = new ReplaySensorEventSource.Generator() {
+        @Override
+        public int getValueCount(int sensorType) {
+            return sensorType == Sensor.TYPE_LIGHT ? 1 : 3;
+        }
+
+        @Override
+        public void generate(int sensorType, long index, long timestamp, float[] values) {
+            float ms = timestamp / (float) MS;
+            values[0] = ms;
+            if (sensorType != Sensor.TYPE_LIGHT) {
+                values[1] = -2f * ms;
+                values[2] = 100f + 0.5f * ms;
+            }
+        }
+    };
+
+    @Test
+    public void testInterpolatesStreamsOntoGrid() {
+        ReplaySensorEventSource source = new ReplaySensorEventSource(TYPES, RAMPS);
+        SensorDataManager manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        FrameCollector collector = new FrameCollector();
+        StreamAligner aligner = new StreamAligner(TYPES, AXES, 10 * MS, collector);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, aligner, 4000);
+        manager.registerListener(Sensor.TYPE_LIGHT, aligner, 7000);
+
+        source.advance(1000 * MS);
+        aligner.flush();
+
+        assertTrue("rows " + collector.timestamps.size(), collector.timestamps.size() >= 98);
+        int light = 3;
+        for (int i = 0; i < collector.timestamps.size(); i++) {
+            long timestamp = collector.timestamps.get(i);
+            float ms = timestamp / (float) MS;
+            float[] row = collector.rows.get(i);
+            assertEquals(0, timestamp % (10 * MS));
+            if (i > 0) {
+                assertEquals(10 * MS, timestamp - collector.timestamps.get(i - 1));
+            }
+            assertEquals(ms, row[0], 1e-3f);
+            assertEquals(-2f * ms, row[1], 2e-3f);
+            assertEquals(100f + 0.5f * ms, row[2], 1e-3f);
+            assertEquals(ms, row[light], 1e-3f);
+        }
+    }
+
+    @Test
+    public void testWatermarkReleasesRowsPastStalledStream() {
+        FrameCollector collector = new FrameCollector();
+        StreamAligner aligner = new StreamAligner(TYPES, AXES, 10 * MS, 50 * MS,
+                StreamAligner.DEFAULT_BUFFER_CAPACITY, 1, collector);
+        aligner.onSensorDataChanged(light(0, 5f));
+        for (long t = 0; t <= 200 * MS; t += 5 * MS) {
+            aligner.onSensorDataChanged(accelerometer(t));
+        }
+
+        // Rows up to the watermark hold the last light value instead of waiting for it
+        assertEquals(16, collector.timestamps.size());
+        assertEquals(150 * MS, (long) collector.timestamps.get(15));
+        assertEquals(5f, collector.rows.get(15)[3], 0f);
+        assertEquals(150f, collector.rows.get(15)[0], 1e-3f);
+
+        aligner.onSensorDataChanged(light(100 * MS, 6f));
+        assertEquals(1, aligner.getLateCount());
+        aligner.onSensorDataChanged(light(300 * MS, 8f));
+        aligner.onSensorDataChanged(accelerometer(300 * MS));
+        // Rows after the late sample interpolate from it
+        int index = collector.timestamps.indexOf(200 * MS);
+        assertEquals(7f, collector.rows.get(index)[3], 1e-4f);
+    }
+
+    @Test
+    public void testBuffersStayBounded() {
+        FrameCollector collector = new FrameCollector();
+        StreamAligner aligner = new StreamAligner(TYPES, AXES, 10 * MS, Long.MAX_VALUE / 2, 16, 10, collector);
+        for (long t = 0; t < 1000 * MS; t += 5 * MS) {
+            aligner.onSensorDataChanged(accelerometer(t));
+        }
+        assertEquals(0, collector.timestamps.size());
+        assertEquals(200 - 16, aligner.getOverflowCount());
+
+        aligner.onSensorDataChanged(accelerometer(500 * MS));
+        assertEquals(1, aligner.getDroppedCount());
+    }
+
+    @Test
+    public void testSkipsGapWhenAllStreamsGoQuiet() {
+        FrameCollector collector = new FrameCollector();
+        StreamAligner aligner = new StreamAligner(TYPES, AXES, 10 * MS, 20 * MS, 64, 1000, collector);
+        for (long t = 0; t <= 100 * MS; t += 5 * MS) {
+            aligner.onSensorDataChanged(accelerometer(t));
+            aligner.onSensorDataChanged(light(t, 1f));
+        }
+        for (long t = 5000 * MS; t <= 5100 * MS; t += 5 * MS) {
+            aligner.onSensorDataChanged(accelerometer(t));
+            aligner.onSensorDataChanged(light(t, 2f));
+        }
+
+        // The rows before the gap went out as their own frame
+        assertEquals(1, collector.frames);
+        aligner.flush();
+        assertEquals(2, collector.frames);
+        assertEquals(11, (int) collector.frameSizes.get(0));
+        assertEquals(100 * MS, (long) collector.timestamps.get(10));
+        assertEquals(5000 * MS, (long) collector.timestamps.get(11));
+        assertEquals(2f, collector.rows.get(11)[3], 0f);
+    }
+
+    private static SensorData accelerometer(long timestamp) {
+        float ms = timestamp / (float) MS;
+        return new SensorData("Accelerometer", Sensor.TYPE_ACCELEROMETER, new float[]{ms, 0f, 9.81f}, 3,
+                timestamp);
+    }
+
+    private static SensorData light(long timestamp, float lux) {
+        return new SensorData("Light", Sensor.TYPE_LIGHT, new float[]{lux}, 3, timestamp);
+    }
+
+    private static final class FrameCollector implements StreamAligner.FrameListener {
+        final List<Long> timestamps = new ArrayList<>();
+        final List<float[]> rows = new ArrayList<>();
+        final List<Integer> frameSizes = new ArrayList<>();
+        int frames;
+
+        @Override
+        public void onFrame(AlignedFrame frame) {
+            frames++;
+            frameSizes.add(frame.getRowCount());
+            for (int i = 0; i < frame.getRowCount(); i++) {
+                timestamps.add(frame.getTimestamps()[i]);
+                float[] row = new float[frame.getColumnCount()];
+                for (int c = 0; c < row.length; c++) {
+                    row[c] = frame.getColumn(c)[i];
+                }
+                rows.add(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.samsung.sensorapp.history;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for OffHeapSensorHistory
+ */
+public class OffHeapSensorHistoryTest {
+    private static final long MS = 1_000_000L;
+    /** 48 three-axis samples per chunk */
+    private static final int CHUNK_BYTES = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSpillsOldestChunksAndReadsThemBack() throws Exception {
+        File directory = folder.newFolder("spill");
+        OffHeapSensorHistory history = new OffHeapSensorHistory(directory, 4 * CHUNK_BYTES, CHUNK_BYTES,
+                OffHeapSensorHistory.DEFAULT_RETENTION_NS);
+        for (int i = 0; i < 1000; i++) {
+            history.onSensorDataChanged(new SensorData("Accelerometer", Sensor.TYPE_ACCELEROMETER,
+                    new float[]{i, -i, i * 0.25f}, i % 4, i * MS));
+            history.onSensorDataBatch(Sensor.TYPE_LIGHT, new long[]{i * MS}, new float[]{i * 2f}, 1, 1);
+        }
+        assertEquals(4 * CHUNK_BYTES, history.getDirectBytes());
+        assertTrue(history.getSpillCount() > 0);
+        assertEquals(directory.list().length * (long) CHUNK_BYTES, history.getSpilledBytes());
+
+        OffHeapHistoryStream stream = history.getStream(Sensor.TYPE_ACCELEROMETER);
+        assertEquals(1000, stream.getSampleCount());
+        assertTrue(stream.getSpilledChunkCount() > 0);
+        HistoryCursor cursor = stream.cursor();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(cursor.next());
+            assertEquals(i * MS, cursor.getTimestamp());
+            assertEquals(i % 4, cursor.getAccuracy());
+            assertEquals(-i, cursor.getValue(1), 0f);
+            assertEquals(i * 0.25f, cursor.getValue(2), 0f);
+        }
+        assertFalse(cursor.next());
+
+        HistoryCursor light = history.getStream(Sensor.TYPE_LIGHT).cursor();
+        assertTrue(light.next());
+        assertEquals(0f, light.getValue(0), 0f);
+        assertEquals(-1, light.getAccuracy());
+    }
+
+    @Test
+    public void testKeepsValuesBeyondTheRegisteredAxes() throws Exception {
+        OffHeapSensorHistory history = new OffHeapSensorHistory(folder.newFolder("spill"), 4 * CHUNK_BYTES,
+                CHUNK_BYTES, OffHeapSensorHistory.DEFAULT_RETENTION_NS);
+        // The platform appends heading accuracy to the four quaternion values
+        history.onSensorDataChanged(new SensorData("Rotation Vector", Sensor.TYPE_ROTATION_VECTOR,
+                new float[]{0.1f, 0.2f, 0.3f, 0.9f, 0.05f}, 3, MS));
+
+        OffHeapHistoryStream stream = history.getStream(Sensor.TYPE_ROTATION_VECTOR);
+        assertEquals(5, stream.getAxisCount());
+        HistoryCursor cursor = stream.cursor();
+        assertTrue(cursor.next());
+        assertEquals(0.9f, cursor.getValue(3), 0f);
+        assertEquals(0.05f, cursor.getValue(4), 0f);
+        history.close();
+    }
+
+    @Test
+    public void testRetentionDeletesSpillFiles() throws Exception {
+        File directory = folder.newFolder("spill");
+        OffHeapSensorHistory history = new OffHeapSensorHistory(directory, 2 * CHUNK_BYTES, CHUNK_BYTES, 200 * MS);
+        float[] values = new float[3];
+        for (int i = 0; i < 5000; i++) {
+            history.onSensorDataBatch(Sensor.TYPE_GYROSCOPE, new long[]{i * MS}, values, 1, 3);
+        }
+        OffHeapHistoryStream stream = history.getStream(Sensor.TYPE_GYROSCOPE);
+        assertTrue(stream.getSampleCount() <= 200 + 2 * 48);
+        assertTrue(stream.getOldestTimestamp() <= 4799 * MS);
+        assertTrue(history.getSpillCount() > 50);
+        assertTrue(directory.list().length <= 6);
+        assertEquals(directory.list().length * (long) CHUNK_BYTES, history.getSpilledBytes());
+        assertEquals(0, stream.getDroppedCount());
+    }
+
+    @Test
+    public void testCloseDeletesSpillFilesAndStaleOnesAreRemoved() throws Exception {
+        File directory = folder.newFolder("spill");
+        assertTrue(new File(directory, "stale" + OffHeapSensorHistory.SPILL_FILE_SUFFIX).createNewFile());
+        OffHeapSensorHistory history = new OffHeapSensorHistory(directory, CHUNK_BYTES, CHUNK_BYTES,
+                OffHeapSensorHistory.DEFAULT_RETENTION_NS);
+        assertEquals(0, directory.list().length);
+
+        float[] values = new float[3];
+        for (int i = 0; i < 500; i++) {
+            history.onSensorDataBatch(Sensor.TYPE_ACCELEROMETER, new long[]{i * MS}, values, 1, 3);
+        }
+        assertTrue(directory.list().length > 0);
+        history.close();
+        assertEquals(0, directory.list().length);
+        assertEquals(0, history.getDirectBytes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsCapBelowOneChunk() throws Exception {
+        new OffHeapSensorHistory(folder.newFolder("spill"), CHUNK_BYTES - 1, CHUNK_BYTES,
+                OffHeapSensorHistory.DEFAULT_RETENTION_NS);
+    }
+}
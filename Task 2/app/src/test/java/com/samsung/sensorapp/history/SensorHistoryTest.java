@@ -0,0 +1,132 @@
+package com.samsung.sensorapp.history;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for SensorHistory
+ */
+public class SensorHistoryTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void testCursorReadsBackSamples() {
+        SensorHistory history = new SensorHistory(SensorHistory.DEFAULT_RETENTION_NS, 4);
+        for (int i = 0; i < 10; i++) {
+            history.onSensorDataChanged(new SensorData("BMI160 Accelerometer", Sensor.TYPE_ACCELEROMETER,
+                    new float[]{i, i * 0.5f, -i}, i % 4, i * MS));
+        }
+        assertNull(history.getStream(Sensor.TYPE_GYROSCOPE));
+
+        SensorHistoryStream stream = history.getStream(Sensor.TYPE_ACCELEROMETER);
+        assertEquals(10, stream.getSampleCount());
+        assertEquals(0, stream.getOldestTimestamp());
+        assertEquals(9 * MS, stream.getNewestTimestamp());
+
+        HistoryCursor cursor = stream.cursor();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(cursor.next());
+            assertEquals(i * MS, cursor.getTimestamp());
+            assertEquals(i % 4, cursor.getAccuracy());
+            assertEquals(i * 0.5f, cursor.getValue(1), 0f);
+            assertEquals(-i, cursor.getValues()[2], 0f);
+        }
+        assertFalse(cursor.next());
+        assertEquals("BMI160 Accelerometer", cursor.getSensorName());
+        assertEquals("m/s²", cursor.getUnit());
+        assertEquals("9.00, 4.50, -9.00", cursor.getFormattedValues());
+        assertEquals(SensorData.getAccuracyString(1), cursor.getAccuracyString());
+
+        SensorData copy = cursor.toSensorData();
+        assertEquals(9 * MS, copy.getTimestamp());
+        assertEquals(Sensor.TYPE_ACCELEROMETER, copy.getSensorType());
+
+        // An exhausted cursor picks up later appends
+        history.onSensorDataChanged(new SensorData("BMI160 Accelerometer", Sensor.TYPE_ACCELEROMETER,
+                new float[]{1f, 2f, 3f}, 3, 10 * MS));
+        assertTrue(cursor.next());
+        assertEquals(10 * MS, cursor.getTimestamp());
+    }
+
+    @Test
+    public void testKeepsValuesBeyondTheRegisteredAxes() {
+        SensorHistory history = new SensorHistory(SensorHistory.DEFAULT_RETENTION_NS, 4);
+        // The platform appends heading accuracy to the four quaternion values
+        float[] rotation = {0.1f, 0.2f, 0.3f, 0.9f, 0.05f};
+        history.onSensorDataChanged(new SensorData("Rotation Vector", Sensor.TYPE_ROTATION_VECTOR,
+                rotation, 3, MS));
+
+        SensorHistoryStream stream = history.getStream(Sensor.TYPE_ROTATION_VECTOR);
+        assertEquals(5, stream.getAxisCount());
+        HistoryCursor cursor = stream.cursor();
+        assertTrue(cursor.next());
+        assertEquals(0.05f, cursor.getValue(4), 0f);
+        assertEquals(5, cursor.toSensorData().getValues().length);
+    }
+
+    @Test
+    public void testRetentionDropsWholeChunksAndReusesThem() {
+        SensorHistory history = new SensorHistory(100 * MS, 16);
+        float[] values = new float[3];
+        for (int i = 0; i < 1000; i++) {
+            history.onSensorDataBatch(Sensor.TYPE_GYROSCOPE, new long[]{i * MS}, values, 1, 3);
+        }
+        SensorHistoryStream stream = history.getStream(Sensor.TYPE_GYROSCOPE);
+        long retained = stream.getSampleCount();
+        assertTrue("retained " + retained, retained >= 101 && retained <= 101 + 16);
+        assertTrue(stream.getOldestTimestamp() <= 899 * MS);
+        long bytes = history.getRetainedBytes();
+
+        for (int i = 1000; i < 5000; i++) {
+            history.onSensorDataBatch(Sensor.TYPE_GYROSCOPE, new long[]{i * MS}, values, 1, 3);
+        }
+        assertEquals(bytes, history.getRetainedBytes());
+        HistoryCursor cursor = stream.cursor();
+        assertTrue(cursor.next());
+        assertEquals(-1, cursor.getAccuracy());
+    }
+
+    @Test
+    public void testCursorOvertakenByEvictionContinuesAtOldest() {
+        SensorHistory history = new SensorHistory(10 * MS, 4);
+        float[] value = {1f};
+        for (int i = 0; i < 20; i++) {
+            history.onSensorDataBatch(Sensor.TYPE_LIGHT, new long[]{i * MS}, value, 1, 1);
+        }
+        SensorHistoryStream stream = history.getStream(Sensor.TYPE_LIGHT);
+        HistoryCursor cursor = stream.cursor();
+        assertTrue(cursor.next());
+        long first = cursor.getTimestamp();
+        for (int i = 20; i < 100; i++) {
+            history.onSensorDataBatch(Sensor.TYPE_LIGHT, new long[]{i * MS}, value, 1, 1);
+        }
+        assertTrue(cursor.next());
+        assertEquals(stream.getOldestTimestamp(), cursor.getTimestamp());
+        assertTrue(cursor.getTimestamp() > first + MS);
+    }
+
+    @Test
+    public void testOutOfOrderAndShortSamples() {
+        SensorHistory history = new SensorHistory();
+        history.onSensorDataChanged(new SensorData("Mag", Sensor.TYPE_MAGNETIC_FIELD,
+                new float[]{1f, 2f}, 3, 5 * MS));
+        history.onSensorDataChanged(new SensorData("Mag", Sensor.TYPE_MAGNETIC_FIELD,
+                new float[]{1f, 2f, 3f}, 3, 4 * MS));
+
+        SensorHistoryStream stream = history.getStream(Sensor.TYPE_MAGNETIC_FIELD);
+        assertEquals(3, stream.getAxisCount());
+        assertEquals(1, stream.getSampleCount());
+        assertEquals(1, stream.getDroppedCount());
+        HistoryCursor cursor = stream.cursor();
+        assertTrue(cursor.next());
+        assertTrue(Float.isNaN(cursor.getValue(2)));
+    }
+}
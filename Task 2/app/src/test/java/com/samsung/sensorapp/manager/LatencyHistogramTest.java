@@ -0,0 +1,63 @@
+package com.samsung.sensorapp.manager;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for LatencyHistogram
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(4, histogram.getPercentile(50));
+        assertEquals(9, histogram.getMax());
+    }
+
+    @Test
+    public void testPercentilesStayWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertWithinError(50_000_000L, histogram.getPercentile(50));
+        assertWithinError(99_000_000L, histogram.getPercentile(99));
+        assertWithinError(100_000_000L, histogram.getMax());
+    }
+
+    @Test
+    public void testBucketBoundsAreContiguous() {
+        for (int index = 1; index < 600; index++) {
+            long lower = LatencyHistogram.bucketUpperBound(index - 1) + 1;
+            assertEquals(index, LatencyHistogram.bucketIndex(lower));
+            assertEquals(index, LatencyHistogram.bucketIndex(LatencyHistogram.bucketUpperBound(index)));
+        }
+    }
+
+    @Test
+    public void testAddAndReset() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.record(1_000);
+        second.record(2_000);
+        second.record(-5);
+        first.add(second);
+        assertEquals(3, first.getCount());
+
+        first.reset();
+        assertEquals(0, first.getCount());
+        assertEquals(0, first.getPercentile(99));
+    }
+
+    private static void assertWithinError(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 16);
+    }
+}
@@ -0,0 +1,173 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for per-listener target rates and anti-aliasing inside SensorDataManager
+ */
+public class ListenerDecimationTest {
+    private static final long ONE_SECOND_NS = 1_000_000_000L;
+    private static final double OFFSET = 5.0;
+    private static final double TONE_HZ = 43.0;
+
+    private ReplaySensorEventSource source;
+    private SensorDataManager manager;
+
+    @Before
+    public void setUp() {
+        // A constant offset on axis 0 plus a 43 Hz tone on axis 1, sampled at 1 kHz
+        source = new ReplaySensorEventSource(new int[]{Sensor.TYPE_ACCELEROMETER},
+                new ReplaySensorEventSource.Generator() {
+                    @Override
+                    public int getValueCount(int sensorType) {
+                        return 3;
+                    }
+
+                    @Override
+                    public void generate(int sensorType, long index, long timestamp, float[] values) {
+                        values[0] = (float) OFFSET;
+                        values[1] = (float) Math.sin(2 * Math.PI * TONE_HZ * timestamp / ONE_SECOND_NS);
+                        values[2] = index;
+                    }
+                });
+        manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+    }
+
+    @Test
+    public void testListenersReceiveTheirOwnRates() {
+        RecordingListener fast = new RecordingListener();
+        RecordingListener game = new RecordingListener();
+        RecordingListener fiveHertz = new RecordingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, fast, SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, game, SensorManager.SENSOR_DELAY_GAME);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, fiveHertz, 200_000);
+
+        source.advance(10 * ONE_SECOND_NS);
+        assertEquals(10_000, fast.timestamps.size());
+        assertEquals(500, game.timestamps.size());
+        assertEquals(50, fiveHertz.timestamps.size());
+        for (int i = 1; i < fiveHertz.timestamps.size(); i++) {
+            assertEquals(200_000_000L, fiveHertz.timestamps.get(i) - fiveHertz.timestamps.get(i - 1));
+        }
+    }
+
+    @Test
+    public void testListenerAtSensorRateReceivesEveryJitteredEvent() {
+        RecordingListener listener = new RecordingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, listener, 5_000);
+        SensorEventSource.Sink sink = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+
+        long timestamp = 0;
+        float[] values = new float[3];
+        for (int i = 0; i < 1000; i++) {
+            // Hardware periods wander a few percent around the requested one
+            timestamp += 5_000_000L + (i % 2 == 0 ? -150_000L : 100_000L);
+            sink.onSensorChanged("Accelerometer", values, 3, timestamp);
+        }
+        assertEquals(1000, listener.timestamps.size());
+    }
+
+    @Test
+    public void testBoxFilterDeliversIntervalMeans() {
+        RecordingListener raw = new RecordingListener();
+        RecordingListener box = new RecordingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, raw, SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, box, 100_000, DecimationFilter.BOX);
+
+        source.advance(ONE_SECOND_NS);
+        assertEquals(10, box.values.size());
+        // Axis 2 carries the sample index, so each mean is the midpoint of its interval
+        assertEquals(0.0, box.values.get(0)[2], 0.0);
+        for (int i = 1; i < box.values.size(); i++) {
+            assertEquals(100 * i - 49.5, box.values.get(i)[2], 1e-3);
+            assertEquals(OFFSET, box.values.get(i)[0], 1e-6);
+        }
+    }
+
+    @Test
+    public void testBiquadFilterRemovesAliasedTone() {
+        RecordingListener raw = new RecordingListener();
+        RecordingListener unfiltered = new RecordingListener();
+        RecordingListener biquad = new RecordingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, raw, SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, unfiltered, 100_000);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, biquad, 100_000, DecimationFilter.BIQUAD);
+
+        source.advance(20 * ONE_SECOND_NS);
+        assertEquals(200, biquad.values.size());
+        double aliased = 0;
+        double filtered = 0;
+        for (int i = 20; i < biquad.values.size(); i++) {
+            aliased = Math.max(aliased, Math.abs(unfiltered.values.get(i)[1]));
+            filtered = Math.max(filtered, Math.abs(biquad.values.get(i)[1]));
+            assertEquals(OFFSET, biquad.values.get(i)[0], 1e-3);
+        }
+        // The 43 Hz tone folds down to 3 Hz at 10 Hz unless it is filtered first
+        assertTrue("aliased amplitude " + aliased, aliased > 0.5);
+        assertTrue("filtered amplitude " + filtered, filtered < 0.01);
+    }
+
+    @Test
+    public void testDecimatedListenersGetAccuracyAndUnregister() {
+        RecordingListener listener = new RecordingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, listener, SensorManager.SENSOR_DELAY_NORMAL,
+                DecimationFilter.BOX);
+        manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener.onAccuracyChanged(
+                SensorManager.SENSOR_STATUS_ACCURACY_HIGH);
+        assertEquals(SensorManager.SENSOR_STATUS_ACCURACY_HIGH, listener.accuracy);
+
+        source.advance(ONE_SECOND_NS);
+        manager.unregisterListener(Sensor.TYPE_ACCELEROMETER, listener);
+        assertEquals(0, source.getRegistrationCount());
+        assertEquals(5, listener.timestamps.size());
+    }
+
+    @Test
+    public void testFilteredDeliveryWorksWithRecycling() {
+        manager.setSensorDataRecyclingEnabled(true);
+        RecordingListener box = new RecordingListener();
+        RecordingListener plain = new RecordingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, box, 50_000, DecimationFilter.BOX);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, plain, 50_000);
+
+        source.advance(ONE_SECOND_NS);
+        assertEquals(20, box.values.size());
+        assertEquals(20, plain.values.size());
+        assertTrue(box.pooled && plain.pooled);
+    }
+
+    private static class RecordingListener implements SensorEventListener {
+        final List<Long> timestamps = new ArrayList<>();
+        final List<float[]> values = new ArrayList<>();
+        int accuracy = -1;
+        boolean pooled;
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            timestamps.add(sensorData.getTimestamp());
+            values.add(sensorData.getValues().clone());
+            pooled = sensorData.isPooled();
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+            this.accuracy = accuracy;
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for the pipeline metrics collected by SensorDataManager
+ */
+public class PipelineMetricsTest {
+    private static final long ONE_SECOND_NS = 1_000_000_000L;
+
+    private ReplaySensorEventSource source;
+    private SensorDataManager manager;
+    private PipelineMetrics metrics;
+
+    @Before
+    public void setUp() {
+        source = new ReplaySensorEventSource();
+        manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        metrics = manager.getMetrics();
+    }
+
+    @Test
+    public void testCountsEventsCallbacksAndExceptions() {
+        metrics.setTimingInterval(1);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, new QuietListener(), SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, new ThrowingListener(), SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, new QuietListener(), SensorManager.SENSOR_DELAY_NORMAL);
+        manager.registerListener(Sensor.TYPE_GYROSCOPE, new QuietListener(), SensorManager.SENSOR_DELAY_GAME);
+        source.advance(ONE_SECOND_NS);
+
+        PipelineMetricsSnapshot snapshot = metrics.snapshot();
+        PipelineMetricsSnapshot.SensorStats accelerometer = snapshot.findSensor(Sensor.TYPE_ACCELEROMETER);
+        assertEquals(1000, accelerometer.getEventsIn());
+        assertEquals(1000, accelerometer.getAgedEvents());
+        assertEquals(1000, accelerometer.getListenerExceptions());
+        assertEquals(50, snapshot.findSensor(Sensor.TYPE_GYROSCOPE).getEventsIn());
+        assertNull(snapshot.findSensor(Sensor.TYPE_LIGHT));
+
+        assertEquals(4, snapshot.getListenerCount());
+        assertEquals(1000, listener(snapshot, "QuietListener", Sensor.TYPE_ACCELEROMETER, 0).getTimedCallbacks());
+        PipelineMetricsSnapshot.ListenerStats throwing =
+                listener(snapshot, "ThrowingListener", Sensor.TYPE_ACCELEROMETER, 0);
+        assertEquals(1000, throwing.getExceptions());
+        assertEquals(1000, throwing.getTimedCallbacks());
+        // The decimated listener is only timed when it is actually called
+        assertEquals(5, listener(snapshot, "QuietListener", Sensor.TYPE_ACCELEROMETER, 1).getTimedCallbacks());
+        assertEquals(50, listener(snapshot, "QuietListener", Sensor.TYPE_GYROSCOPE, 0).getTimedCallbacks());
+    }
+
+    @Test
+    public void testTimingIsSampledAndCollectionCanBeDisabled() {
+        assertEquals(PipelineMetrics.DEFAULT_TIMING_INTERVAL, metrics.getTimingInterval());
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, new QuietListener(), SensorManager.SENSOR_DELAY_FASTEST);
+        source.emit(6400);
+
+        PipelineMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(6400, snapshot.findSensor(Sensor.TYPE_ACCELEROMETER).getEventsIn());
+        assertEquals(100, snapshot.findSensor(Sensor.TYPE_ACCELEROMETER).getAgedEvents());
+        assertEquals(100, snapshot.getListener(0).getTimedCallbacks());
+
+        metrics.setEnabled(false);
+        source.emit(1000);
+        assertEquals(6400, metrics.snapshot().findSensor(Sensor.TYPE_ACCELEROMETER).getEventsIn());
+    }
+
+    @Test
+    public void testSensorTotalsOutliveListenersUntilReset() {
+        ThrowingListener throwing = new ThrowingListener();
+        manager.registerListener(Sensor.TYPE_LIGHT, new QuietListener(), SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerListener(Sensor.TYPE_LIGHT, throwing, SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerBatchListener(Sensor.TYPE_LIGHT, new QuietListener(), SensorManager.SENSOR_DELAY_FASTEST,
+                100_000);
+        PipelineMetricsSnapshot before = metrics.snapshot();
+        source.advance(ONE_SECOND_NS);
+        manager.unregisterListener(Sensor.TYPE_LIGHT, throwing);
+
+        PipelineMetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(2, snapshot.getListenerCount());
+        assertEquals(1000, snapshot.findSensor(Sensor.TYPE_LIGHT).getListenerExceptions());
+        PipelineMetricsSnapshot.ListenerStats batch = snapshot.getListener(1);
+        assertTrue(batch.isBatch());
+        // At least one batch per 100 ms of report latency, more where the FIFO fills first
+        assertTrue(batch.getTimedCallbacks() >= 10);
+        assertTrue(snapshot.format(before).contains("1000 in"));
+
+        metrics.recordUiApplied(3);
+        metrics.recordUiCoalesced(2);
+        assertEquals(3, metrics.snapshot().getUiApplied());
+        assertEquals(2, metrics.snapshot().getUiCoalesced());
+        metrics.reset();
+        snapshot = metrics.snapshot();
+        assertEquals(0, snapshot.findSensor(Sensor.TYPE_LIGHT).getEventsIn());
+        assertEquals(0, snapshot.findSensor(Sensor.TYPE_LIGHT).getListenerExceptions());
+        assertEquals(0, snapshot.getListener(1).getTimedCallbacks());
+        assertEquals(0, snapshot.getUiApplied());
+    }
+
+    @Test
+    public void testStripedCounterSumsConcurrentIncrements() throws InterruptedException {
+        StripedCounter counter = new StripedCounter();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    counter.increment();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        counter.add(5);
+        assertEquals(400_005, counter.sum());
+        counter.reset();
+        assertEquals(0, counter.sum());
+    }
+
+    private static PipelineMetricsSnapshot.ListenerStats listener(PipelineMetricsSnapshot snapshot, String name,
+                                                                  int sensorType, int occurrence) {
+        for (int i = 0; i < snapshot.getListenerCount(); i++) {
+            PipelineMetricsSnapshot.ListenerStats stats = snapshot.getListener(i);
+            if (stats.getSensorType() == sensorType && stats.getListenerName().endsWith("$" + name)
+                    && occurrence-- == 0) {
+                return stats;
+            }
+        }
+        throw new AssertionError("No listener " + name + " for sensor type " + sensorType);
+    }
+
+    private static class QuietListener implements SensorEventListener {
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+
+    private static class ThrowingListener extends QuietListener {
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            throw new IllegalStateException("listener failure");
+        }
+    }
+}
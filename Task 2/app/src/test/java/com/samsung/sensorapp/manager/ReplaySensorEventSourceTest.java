@@ -0,0 +1,161 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.util.SensorConstants;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for ReplaySensorEventSource driving SensorDataManager on the JVM
+ */
+public class ReplaySensorEventSourceTest {
+    private static final long ONE_SECOND_NS = 1_000_000_000L;
+
+    private ReplaySensorEventSource source;
+    private SensorDataManager manager;
+
+    @Before
+    public void setUp() {
+        source = new ReplaySensorEventSource();
+        manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+    }
+
+    @Test
+    public void testEveryCommonSensorTypeIsAvailable() {
+        for (int sensorType : SensorConstants.COMMON_SENSOR_TYPES) {
+            assertTrue(manager.isSensorAvailable(sensorType));
+        }
+        assertFalse(manager.isSensorAvailable(Sensor.TYPE_HEART_RATE));
+    }
+
+    @Test
+    public void testSensorsAreDeliveredAtTheirPeriodsInTimestampOrder() {
+        RecordingListener accelerometer = new RecordingListener();
+        RecordingListener light = new RecordingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, accelerometer, 5_000);
+        manager.registerListener(Sensor.TYPE_LIGHT, light, SensorManager.SENSOR_DELAY_NORMAL);
+
+        assertEquals(205, source.advance(ONE_SECOND_NS));
+        assertEquals(200, accelerometer.timestamps.size());
+        assertEquals(5, light.timestamps.size());
+        assertEquals(5_000_000L, (long) accelerometer.timestamps.get(0));
+        assertEquals(ONE_SECOND_NS, (long) accelerometer.timestamps.get(199));
+        assertEquals(3, accelerometer.valueCounts.get(0).intValue());
+        assertEquals(1, light.valueCounts.get(0).intValue());
+        assertEquals("Accelerometer", accelerometer.names.get(0));
+        assertEquals(ONE_SECOND_NS, source.getTimestamp());
+    }
+
+    @Test
+    public void testSameSeedReplaysIdenticalStream() {
+        float[][] first = capture(new ReplaySensorEventSource());
+        float[][] second = capture(new ReplaySensorEventSource());
+        for (int i = 0; i < first.length; i++) {
+            assertArrayEquals(first[i], second[i], 0f);
+        }
+    }
+
+    private float[][] capture(ReplaySensorEventSource replay) {
+        SensorDataManager replayManager = new SensorDataManager(replay, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        RecordingListener listener = new RecordingListener();
+        replayManager.registerListener(Sensor.TYPE_GYROSCOPE, listener, SensorManager.SENSOR_DELAY_GAME);
+        replay.emit(100);
+        return listener.values.toArray(new float[0][]);
+    }
+
+    @Test
+    public void testUnregisterStopsDelivery() {
+        RecordingListener listener = new RecordingListener();
+        manager.registerListener(Sensor.TYPE_PRESSURE, listener, SensorManager.SENSOR_DELAY_UI);
+        source.advance(ONE_SECOND_NS);
+        manager.unregisterListener(Sensor.TYPE_PRESSURE, listener);
+
+        assertEquals(0, source.getRegistrationCount());
+        assertEquals(0, source.advance(ONE_SECOND_NS));
+        assertEquals(14, listener.timestamps.size());
+    }
+
+    @Test
+    public void testFlushDeliversPartialBatchOnNextStep() {
+        RecordingListener listener = new RecordingListener();
+        manager.registerBatchListener(Sensor.TYPE_ACCELEROMETER, listener, 1_000, 100_000);
+        source.emit(10);
+        assertEquals(0, listener.batchSamples);
+
+        manager.flushBatches(Sensor.TYPE_ACCELEROMETER);
+        source.advance(0);
+        assertEquals(10, listener.batchSamples);
+    }
+
+    @Test
+    public void testDrivesMillionsOfEventsThroughTheManager() {
+        source.setFastestPeriodUs(1);
+        manager.setSensorDataRecyclingEnabled(true);
+        CountingListener listener = new CountingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, listener, SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerListener(Sensor.TYPE_GYROSCOPE, listener, SensorManager.SENSOR_DELAY_FASTEST);
+
+        assertEquals(2_000_000, source.advance(ONE_SECOND_NS));
+        assertEquals(2_000_000, listener.events);
+        assertEquals(2_000_000, source.getEmittedCount());
+    }
+
+    private static class RecordingListener implements SensorEventListener {
+        final List<Long> timestamps = new ArrayList<>();
+        final List<Integer> valueCounts = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final List<float[]> values = new ArrayList<>();
+        int batchSamples;
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            timestamps.add(sensorData.getTimestamp());
+            valueCounts.add(sensorData.getValues().length);
+            names.add(sensorData.getSensorName());
+            values.add(sensorData.getValues().clone());
+        }
+
+        @Override
+        public void onSensorDataBatch(int sensorType, long[] batchTimestamps, float[] batchValues,
+                                      int sampleCount, int valuesPerSample) {
+            batchSamples += sampleCount;
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+
+    private static class CountingListener implements SensorEventListener {
+        int events;
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            events++;
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
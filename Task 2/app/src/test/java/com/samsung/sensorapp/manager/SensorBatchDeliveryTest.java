@@ -0,0 +1,181 @@
+package com.samsung.sensorapp.manager;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for batched sensor delivery in SensorDataManager
+ */
+public class SensorBatchDeliveryTest {
+    private static final int MAX_REPORT_LATENCY_US = 10_000;
+    private static final long SAMPLE_INTERVAL_NS = 1_000_000L;
+
+    private SensorManager sensorManager;
+    private SensorDataManager manager;
+    private BatchRecordingListener listener;
+    private SensorDataManager.SensorEventListenerImpl internalListener;
+
+    @Before
+    public void setUp() {
+        Context context = mock(Context.class);
+        sensorManager = mock(SensorManager.class);
+        Sensor sensor = mock(Sensor.class);
+        when(context.getSystemService(Context.SENSOR_SERVICE)).thenReturn(sensorManager);
+        when(sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER)).thenReturn(sensor);
+        when(sensor.getFifoMaxEventCount()).thenReturn(3000);
+
+        when(sensorManager.registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class), anyInt()))
+                .thenReturn(true);
+        when(sensorManager.registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class), anyInt(),
+                anyInt())).thenReturn(true);
+        manager = new SensorDataManager(context, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        listener = new BatchRecordingListener();
+        manager.registerBatchListener(Sensor.TYPE_ACCELEROMETER, listener, 1000, MAX_REPORT_LATENCY_US);
+
+        verify(sensorManager).registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class), eq(1000),
+                eq(MAX_REPORT_LATENCY_US));
+        internalListener = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+    }
+
+    @Test
+    public void testSamplesAreDeliveredAsContiguousBlocks() {
+        for (int i = 0; i < 25; i++) {
+            internalListener.onSensorChanged("Accelerometer", new float[]{i, i + 0.5f, -i}, 3,
+                    i * SAMPLE_INTERVAL_NS);
+        }
+
+        // Each block spans the max report latency: samples 0..10 and 11..21
+        assertEquals(2, listener.batchSizes.size());
+        assertEquals(11, (int) listener.batchSizes.get(0));
+        assertEquals(11, (int) listener.batchSizes.get(1));
+        assertEquals(22, listener.timestamps.size());
+        assertEquals(21 * SAMPLE_INTERVAL_NS, (long) listener.timestamps.get(21));
+        assertArrayEquals(new float[]{12f, 12.5f, -12f}, listener.values.get(12), 0f);
+    }
+
+    @Test
+    public void testFlushDeliversPartialBatch() {
+        for (int i = 0; i < 4; i++) {
+            internalListener.onSensorChanged("Accelerometer", new float[]{i, 0f, 0f}, 3, i * SAMPLE_INTERVAL_NS);
+        }
+        assertEquals(0, listener.batchSizes.size());
+
+        manager.flushBatches(Sensor.TYPE_ACCELEROMETER);
+        verify(sensorManager).flush(any(android.hardware.SensorEventListener.class));
+        internalListener.onFlushCompleted();
+
+        assertEquals(1, listener.batchSizes.size());
+        assertEquals(4, (int) listener.batchSizes.get(0));
+    }
+
+    @Test
+    public void testBatchListenersDoNotReceivePerEventCallbacks() {
+        internalListener.onSensorChanged("Accelerometer", new float[]{1f, 2f, 3f}, 3, 0L);
+        assertEquals(0, listener.singleEvents);
+    }
+
+    @Test
+    public void testUnregisterStopsPlatformListener() {
+        manager.unregisterListener(Sensor.TYPE_ACCELEROMETER, listener);
+        verify(sensorManager).unregisterListener(any(android.hardware.SensorEventListener.class));
+    }
+
+    @Test
+    public void testShortestLatencyIsRequestedAndRestored() {
+        BatchRecordingListener shorter = new BatchRecordingListener();
+        manager.registerBatchListener(Sensor.TYPE_ACCELEROMETER, shorter, 1000, MAX_REPORT_LATENCY_US / 2);
+        verify(sensorManager).registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class),
+                eq(1000), eq(MAX_REPORT_LATENCY_US / 2));
+
+        // Blocks now span the shorter latency for every batch listener
+        internalListener = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+        for (int i = 0; i < 6; i++) {
+            internalListener.onSensorChanged("Accelerometer", new float[]{i, 0f, 0f}, 3, i * SAMPLE_INTERVAL_NS);
+        }
+        assertEquals(1, listener.batchSizes.size());
+        assertEquals(6, (int) shorter.batchSizes.get(0));
+
+        manager.unregisterListener(Sensor.TYPE_ACCELEROMETER, shorter);
+        verify(sensorManager, times(2)).registerListener(any(android.hardware.SensorEventListener.class),
+                any(Sensor.class), eq(1000), eq(MAX_REPORT_LATENCY_US));
+    }
+
+    @Test
+    public void testPerEventListenerTurnsOffHardwareBatching() {
+        SensorEventListener perEvent = new BatchRecordingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, perEvent, 1000);
+        verify(sensorManager).registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class),
+                eq(1000));
+
+        manager.unregisterListener(Sensor.TYPE_ACCELEROMETER, perEvent);
+        verify(sensorManager, times(2)).registerListener(any(android.hardware.SensorEventListener.class),
+                any(Sensor.class), eq(1000), eq(MAX_REPORT_LATENCY_US));
+    }
+
+    @Test
+    public void testSampleOfAnotherWidthStartsANewBatch() {
+        for (int i = 0; i < 3; i++) {
+            internalListener.onSensorChanged("Accelerometer", new float[]{i, i, i}, 3, i * SAMPLE_INTERVAL_NS);
+        }
+        internalListener.onSensorChanged("Accelerometer", new float[]{7f, 8f, 9f, 10f}, 3, 3 * SAMPLE_INTERVAL_NS);
+        manager.flushBatches(Sensor.TYPE_ACCELEROMETER);
+        internalListener.onFlushCompleted();
+
+        assertEquals(2, listener.batchSizes.size());
+        assertEquals(3, (int) listener.batchSizes.get(0));
+        assertArrayEquals(new float[]{2f, 2f, 2f}, listener.values.get(2), 0f);
+        assertEquals(1, (int) listener.batchSizes.get(1));
+        assertArrayEquals(new float[]{7f, 8f, 9f, 10f}, listener.values.get(3), 0f);
+    }
+
+    private static class BatchRecordingListener implements SensorEventListener {
+        final List<Integer> batchSizes = new ArrayList<>();
+        final List<Long> timestamps = new ArrayList<>();
+        final List<float[]> values = new ArrayList<>();
+        int singleEvents;
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            singleEvents++;
+        }
+
+        @Override
+        public void onSensorDataBatch(int sensorType, long[] batchTimestamps, float[] batchValues,
+                                      int sampleCount, int valuesPerSample) {
+            batchSizes.add(sampleCount);
+            for (int i = 0; i < sampleCount; i++) {
+                timestamps.add(batchTimestamps[i]);
+                float[] sample = new float[valuesPerSample];
+                System.arraycopy(batchValues, i * valuesPerSample, sample, 0, valuesPerSample);
+                values.add(sample);
+            }
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
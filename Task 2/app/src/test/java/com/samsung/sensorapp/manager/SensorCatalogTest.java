@@ -0,0 +1,98 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the cached sensor catalog in SensorDataManager
+ */
+public class SensorCatalogTest {
+
+    @Test
+    public void testPlatformSensorsAreEnumeratedOnce() {
+        SensorManager sensorManager = mock(SensorManager.class);
+        Sensor accelerometer = mockSensor("Accelerometer", Sensor.TYPE_ACCELEROMETER, 0.25f, 78.4f);
+        Sensor light = mockSensor("Light", Sensor.TYPE_LIGHT, 0.1f, 60000f);
+        when(sensorManager.getSensorList(Sensor.TYPE_ALL)).thenReturn(Arrays.asList(accelerometer, light));
+        when(sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER)).thenReturn(accelerometer);
+        when(sensorManager.getDefaultSensor(Sensor.TYPE_LIGHT)).thenReturn(light);
+        SensorDataManager manager = new SensorDataManager(new PlatformSensorEventSource(sensorManager),
+                SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(2, manager.getAvailableSensors().size());
+            assertTrue(manager.isSensorAvailable(Sensor.TYPE_ACCELEROMETER));
+            assertTrue(manager.isSensorAvailable(Sensor.TYPE_LIGHT));
+            assertFalse(manager.isSensorAvailable(Sensor.TYPE_GYROSCOPE));
+            assertSame(light, manager.getSensor(Sensor.TYPE_LIGHT));
+        }
+
+        verify(sensorManager, times(1)).getSensorList(Sensor.TYPE_ALL);
+        verify(sensorManager, times(1)).getDefaultSensor(Sensor.TYPE_LIGHT);
+        verify(sensorManager, times(1)).getDefaultSensor(Sensor.TYPE_GYROSCOPE);
+    }
+
+    @Test
+    public void testDisplayStringsAreFormattedOnce() {
+        SensorManager sensorManager = mock(SensorManager.class);
+        Sensor accelerometer = mockSensor("Accelerometer", Sensor.TYPE_ACCELEROMETER, 0.25f, 78.4f);
+        when(sensorManager.getSensorList(Sensor.TYPE_ALL)).thenReturn(Arrays.asList(accelerometer));
+        SensorDataManager manager = new SensorDataManager(new PlatformSensorEventSource(sensorManager),
+                SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+
+        SensorCatalog catalog = manager.getSensorCatalog();
+        assertSame(catalog, manager.getSensorCatalog());
+        String details = catalog.getDetails(0);
+        assertEquals(String.format(Locale.getDefault(), "Power: %.2f mA | Range: %.2f | Vendor: %s",
+                0.25f, 78.4f, "Vendor"), details);
+        assertSame(details, catalog.getDetails(0));
+        assertEquals("Type: android.sensor.accelerometer", catalog.getTypeLabel(0));
+        assertSame(catalog.getTypeLabel(0), catalog.getTypeLabel(0));
+        verify(accelerometer, times(1)).getPower();
+    }
+
+    @Test
+    public void testDynamicSensorChangesReplaceCatalog() {
+        ReplaySensorEventSource source = new ReplaySensorEventSource(
+                new int[]{Sensor.TYPE_ACCELEROMETER}, new SyntheticSensorGenerator(0));
+        SensorDataManager manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+
+        SensorCatalog before = manager.getSensorCatalog();
+        assertFalse(manager.isSensorAvailable(Sensor.TYPE_HEART_RATE));
+        assertSame(before, manager.getSensorCatalog());
+
+        source.connectSensor(Sensor.TYPE_HEART_RATE);
+        SensorCatalog after = manager.getSensorCatalog();
+        assertNotSame(before, after);
+        assertTrue(manager.isSensorAvailable(Sensor.TYPE_HEART_RATE));
+
+        source.disconnectSensor(Sensor.TYPE_HEART_RATE);
+        assertFalse(manager.isSensorAvailable(Sensor.TYPE_HEART_RATE));
+    }
+
+    private static Sensor mockSensor(String name, int type, float power, float maximumRange) {
+        Sensor sensor = mock(Sensor.class);
+        when(sensor.getName()).thenReturn(name);
+        when(sensor.getType()).thenReturn(type);
+        when(sensor.getStringType()).thenReturn("android.sensor." + name.toLowerCase(Locale.ROOT));
+        when(sensor.getPower()).thenReturn(power);
+        when(sensor.getMaximumRange()).thenReturn(maximumRange);
+        when(sensor.getVendor()).thenReturn("Vendor");
+        return sensor;
+    }
+}
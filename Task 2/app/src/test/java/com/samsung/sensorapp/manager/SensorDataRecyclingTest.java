@@ -0,0 +1,156 @@
+package com.samsung.sensorapp.manager;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the recycled SensorData delivery path in SensorDataManager
+ */
+public class SensorDataRecyclingTest {
+    private static final int WARM_UP_EVENTS = 20_000;
+    private static final int MEASURED_EVENTS = 100_000;
+
+    private SensorDataManager.SensorEventListenerImpl internalListener;
+    private SensorDataManager manager;
+    private final float[] values = {0.1f, 9.8f, -0.3f};
+
+    @Before
+    public void setUp() {
+        Context context = mock(Context.class);
+        SensorManager sensorManager = mock(SensorManager.class);
+        Sensor sensor = mock(Sensor.class);
+        when(context.getSystemService(Context.SENSOR_SERVICE)).thenReturn(sensorManager);
+        when(sensorManager.getDefaultSensor(Sensor.TYPE_ACCELEROMETER)).thenReturn(sensor);
+
+        when(sensorManager.registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class), anyInt()))
+                .thenReturn(true);
+        manager = new SensorDataManager(context, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        manager.setSensorDataRecyclingEnabled(true);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, new CountingListener(), SensorManager.SENSOR_DELAY_FASTEST);
+
+        verify(sensorManager).registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class), anyInt());
+        internalListener = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+    }
+
+    @Test
+    public void testSteadyStateDispatchAllocatesNothing() {
+        CountingListener listener = new CountingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, listener, SensorManager.SENSOR_DELAY_FASTEST);
+
+        for (int i = 0; i < WARM_UP_EVENTS; i++) {
+            internalListener.onSensorChanged("Accelerometer", values, 3, i);
+        }
+
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_EVENTS; i++) {
+            internalListener.onSensorChanged("Accelerometer", values, 3, WARM_UP_EVENTS + i);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(WARM_UP_EVENTS + MEASURED_EVENTS, listener.events);
+        // HotSpot charges this thread a few dozen bytes when it compiles or replaces the loop, so allow
+        // less than one byte per event; a single allocation per event is at least 16
+        assertTrue("Bytes allocated over " + MEASURED_EVENTS + " events: " + allocated,
+                allocated < MEASURED_EVENTS);
+    }
+
+    @Test
+    public void testInstanceIsReusedAfterRelease() {
+        CapturingListener listener = new CapturingListener(false);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, listener, SensorManager.SENSOR_DELAY_FASTEST);
+
+        internalListener.onSensorChanged("Accelerometer", values, 3, 1L);
+        SensorData first = listener.last;
+        internalListener.onSensorChanged("Accelerometer", values, 3, 2L);
+
+        assertTrue(first.isPooled());
+        assertSame(first, listener.last);
+        assertEquals(2L, listener.last.getTimestamp());
+    }
+
+    @Test
+    public void testRetainedInstanceIsNotRecycled() {
+        CapturingListener listener = new CapturingListener(true);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, listener, SensorManager.SENSOR_DELAY_FASTEST);
+
+        internalListener.onSensorChanged("Accelerometer", new float[]{1f, 2f, 3f}, 3, 1L);
+        SensorData retained = listener.last;
+        internalListener.onSensorChanged("Accelerometer", new float[]{4f, 5f, 6f}, 3, 2L);
+
+        assertNotSame(retained, listener.last);
+        assertEquals(1L, retained.getTimestamp());
+        assertEquals(1f, retained.getValues()[0], 0f);
+        assertEquals(Sensor.TYPE_ACCELEROMETER, retained.getSensorType());
+        assertEquals("m/s²", retained.getUnit());
+        retained.release();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReleaseWithoutRetainFails() {
+        CapturingListener listener = new CapturingListener(false);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, listener, SensorManager.SENSOR_DELAY_FASTEST);
+
+        internalListener.onSensorChanged("Accelerometer", values, 3, 1L);
+        listener.last.release();
+    }
+
+    private static class CountingListener implements SensorEventListener {
+        int events;
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            events++;
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+
+    private static class CapturingListener implements SensorEventListener {
+        private final boolean retain;
+        SensorData last;
+
+        CapturingListener(boolean retain) {
+            this.retain = retain;
+        }
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            last = retain ? sensorData.retain() : sensorData;
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
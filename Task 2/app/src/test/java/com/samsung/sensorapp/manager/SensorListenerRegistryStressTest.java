@@ -0,0 +1,146 @@
+package com.samsung.sensorapp.manager;
+
+import android.content.Context;
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Multi-threaded stress test for listener registration racing event delivery
+ */
+public class SensorListenerRegistryStressTest {
+    private static final int MUTATOR_THREADS = 4;
+    private static final int MUTATIONS_PER_THREAD = 5_000;
+
+    private SensorDataManager manager;
+    private SensorDataManager.SensorEventListenerImpl internalListener;
+    private CountingListener permanentListener;
+
+    @Before
+    public void setUp() {
+        Context context = mock(Context.class);
+        SensorManager sensorManager = mock(SensorManager.class);
+        Sensor sensor = mock(Sensor.class);
+        when(context.getSystemService(Context.SENSOR_SERVICE)).thenReturn(sensorManager);
+        when(sensorManager.getDefaultSensor(anyInt())).thenReturn(sensor);
+
+        when(sensorManager.registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class), anyInt()))
+                .thenReturn(true);
+        manager = new SensorDataManager(context, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        permanentListener = new CountingListener();
+        manager.registerListener(Sensor.TYPE_GYROSCOPE, permanentListener, SensorManager.SENSOR_DELAY_FASTEST);
+
+        verify(sensorManager).registerListener(any(android.hardware.SensorEventListener.class), any(Sensor.class), anyInt());
+        internalListener = manager.registry.get(Sensor.TYPE_GYROSCOPE).internalListener;
+    }
+
+    @Test
+    public void testRegistrationRacesDelivery() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong fired = new AtomicLong();
+        CountDownLatch mutatorsDone = new CountDownLatch(MUTATOR_THREADS);
+
+        Thread sensorThread = new Thread(() -> {
+            float[] values = {0.01f, 0.02f, 0.03f};
+            try {
+                while (running.get()) {
+                    internalListener.onSensorChanged("Gyroscope", values, 3, fired.get());
+                    fired.incrementAndGet();
+                }
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+        });
+
+        List<Thread> mutators = new ArrayList<>();
+        for (int m = 0; m < MUTATOR_THREADS; m++) {
+            final int sensorType = m % 2 == 0 ? Sensor.TYPE_GYROSCOPE : Sensor.TYPE_ACCELEROMETER;
+            Thread mutator = new Thread(() -> {
+                try {
+                    List<CountingListener> registered = new ArrayList<>();
+                    for (int i = 0; i < MUTATIONS_PER_THREAD; i++) {
+                        CountingListener listener = new CountingListener();
+                        manager.registerListener(sensorType, listener, SensorManager.SENSOR_DELAY_FASTEST);
+                        registered.add(listener);
+                        if (registered.size() > 3) {
+                            manager.unregisterListener(sensorType, registered.remove(0));
+                        }
+                    }
+                    for (CountingListener listener : registered) {
+                        manager.unregisterListener(sensorType, listener);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    mutatorsDone.countDown();
+                }
+            });
+            mutators.add(mutator);
+        }
+
+        sensorThread.start();
+        for (Thread mutator : mutators) {
+            mutator.start();
+        }
+        assertTrue(mutatorsDone.await(60, TimeUnit.SECONDS));
+        running.set(false);
+        sensorThread.join();
+
+        assertNull(failure.get());
+        assertTrue(fired.get() > 0);
+        assertEquals(fired.get(), permanentListener.events.get());
+        assertEquals(0, permanentListener.errors.get());
+
+        SensorListenerRegistry.Entry gyroscope = registryEntry(Sensor.TYPE_GYROSCOPE);
+        assertEquals(1, gyroscope.getListeners().length);
+        assertNotNull(gyroscope.internalListener);
+        assertEquals(0, registryEntry(Sensor.TYPE_ACCELEROMETER).getListeners().length);
+        assertNull(registryEntry(Sensor.TYPE_ACCELEROMETER).internalListener);
+    }
+
+    private SensorListenerRegistry.Entry registryEntry(int sensorType) {
+        return manager.registry.get(sensorType);
+    }
+
+    private static class CountingListener implements SensorEventListener {
+        final AtomicLong events = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            events.incrementAndGet();
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+            errors.incrementAndGet();
+        }
+    }
+}
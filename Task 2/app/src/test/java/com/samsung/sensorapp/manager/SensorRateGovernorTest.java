@@ -0,0 +1,158 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replay-driven tests for SensorRateGovernor
+ */
+public class SensorRateGovernorTest {
+    private static final long ONE_SECOND_NS = 1_000_000_000L;
+    private static final long DURATION_NS = 100 * ONE_SECOND_NS;
+    private static final double RAISE_VARIANCE = 0.5;
+    private static final double LOWER_VARIANCE = 0.05;
+
+    /**
+     * Accelerometer at rest apart from two 10 s bursts of motion starting at 20 s and 60 s
+     */
+    private static final ReplaySensorEventSource.Generator MOTION_BURSTS = new ReplaySensorEventSource.Generator() {
+        @Override
+        public int getValueCount(int sensorType) {
+            return 3;
+        }
+
+        @Override
+        public void generate(int sensorType, long index, long timestamp, float[] values) {
+            long second = timestamp / ONE_SECOND_NS;
+            boolean moving = (second >= 20 && second < 30) || (second >= 60 && second < 70);
+            double t = (double) timestamp / ONE_SECOND_NS;
+            // Small deterministic jitter so rest is not perfectly flat
+            double noise = 0.01 * Math.sin(index * 2.3999632);
+            values[0] = (float) (noise + (moving ? 3.0 * Math.sin(2 * Math.PI * 1.7 * t) : 0.0));
+            values[1] = (float) (noise + (moving ? 2.0 * Math.cos(2 * Math.PI * 2.9 * t) : 0.0));
+            values[2] = (float) (9.81 + noise);
+        }
+    };
+
+    private ReplaySensorEventSource source;
+    private SensorDataManager manager;
+
+    @Before
+    public void setUp() {
+        source = new ReplaySensorEventSource(new int[]{Sensor.TYPE_ACCELEROMETER}, MOTION_BURSTS);
+        manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+    }
+
+    @Test
+    public void testRaisesDuringMotionAndBacksOffAtRest() {
+        SensorRateGovernor governor = new SensorRateGovernor(manager);
+        CountingListener listener = new CountingListener();
+        governor.govern(Sensor.TYPE_ACCELEROMETER, RAISE_VARIANCE, LOWER_VARIANCE);
+        // A FASTEST subscriber would hold the sensor at full rate; a passive one follows the governor
+        manager.registerPassiveListener(Sensor.TYPE_ACCELEROMETER, listener);
+        assertEquals(200_000, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+
+        source.advance(25 * ONE_SECOND_NS);
+        assertEquals(20_000, governor.getSamplingPeriodUs(Sensor.TYPE_ACCELEROMETER));
+        source.advance(DURATION_NS - 25 * ONE_SECOND_NS);
+        assertEquals(200_000, governor.getSamplingPeriodUs(Sensor.TYPE_ACCELEROMETER));
+
+        // Each burst raises once to 50 Hz and steps down twice: 15 Hz, then 5 Hz
+        assertEquals(6, governor.getRateChangeCount(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(1 + 6, source.getRegisterCallCount());
+
+        // 20 s of motion at 50 Hz out of 100 s is a 0.8 reduction at best; the slow rest
+        // rate and the ramp down after each burst give some of that back
+        long fullFidelityEvents = DURATION_NS / (SamplingPeriods.GAME_PERIOD_US * 1000L);
+        double reduction = 1.0 - (double) listener.events / fullFidelityEvents;
+        assertTrue("event reduction " + reduction, reduction > 0.6 && reduction < 0.8);
+        // Detection lags a burst by at most one evaluation window plus one slow period
+        long burstEvents = 2 * 10 * ONE_SECOND_NS / (SamplingPeriods.GAME_PERIOD_US * 1000L);
+        long lagEvents = (SensorRateGovernor.DEFAULT_EVALUATION_WINDOW_NS + SamplingPeriods.NORMAL_PERIOD_US * 1000L)
+                / (SamplingPeriods.GAME_PERIOD_US * 1000L);
+        assertTrue("motion events " + listener.motionEvents,
+                listener.motionEvents >= burstEvents - 2 * lagEvents && listener.motionEvents <= burstEvents);
+    }
+
+    @Test
+    public void testKeepsTheLevelWhenThePeriodIsNotTaken() {
+        SensorRateGovernor governor = new SensorRateGovernor(manager);
+        governor.govern(Sensor.TYPE_ACCELEROMETER, RAISE_VARIANCE, LOWER_VARIANCE);
+        source.advance(25 * ONE_SECOND_NS);
+        assertEquals(20_000, governor.getSamplingPeriodUs(Sensor.TYPE_ACCELEROMETER));
+
+        // A disconnected sensor keeps running but takes no new period, so the governor must not step down
+        source.disconnectSensor(Sensor.TYPE_ACCELEROMETER);
+        source.advance(15 * ONE_SECOND_NS);
+        assertEquals(20_000, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(20_000, governor.getSamplingPeriodUs(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(1, governor.getRateChangeCount(Sensor.TYPE_ACCELEROMETER));
+    }
+
+    @Test
+    public void testStepsDownBehindAFasterSubscriber() {
+        SensorRateGovernor governor = new SensorRateGovernor(manager);
+        governor.govern(Sensor.TYPE_ACCELEROMETER, RAISE_VARIANCE, LOWER_VARIANCE);
+        source.advance(25 * ONE_SECOND_NS);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, new CountingListener(),
+                SamplingPeriods.GAME_PERIOD_US / 2);
+
+        // The subscriber holds the sensor at 100 Hz, yet the governor's own request still backs off
+        source.advance(15 * ONE_SECOND_NS);
+        assertEquals(SamplingPeriods.GAME_PERIOD_US / 2, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(200_000, governor.getSamplingPeriodUs(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(200_000, manager.getExplicitSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+    }
+
+    @Test
+    public void testSignalBetweenThresholdsHoldsThePeriod() {
+        SensorRateGovernor governor = new SensorRateGovernor(manager);
+        // Rest noise sits between the thresholds, so nothing ever changes
+        governor.govern(Sensor.TYPE_ACCELEROMETER, 1e9, 1e-9);
+        source.advance(DURATION_NS);
+        assertEquals(0, governor.getRateChangeCount(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(1, source.getRegisterCallCount());
+        assertEquals(500, source.getEmittedCount());
+    }
+
+    @Test
+    public void testReleaseUnregistersTheGovernor() {
+        SensorRateGovernor governor = new SensorRateGovernor(manager);
+        governor.govern(Sensor.TYPE_ACCELEROMETER, RAISE_VARIANCE, LOWER_VARIANCE);
+        source.advance(25 * ONE_SECOND_NS);
+        governor.release(Sensor.TYPE_ACCELEROMETER);
+
+        assertEquals(-1, governor.getSamplingPeriodUs(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(0, source.getRegistrationCount());
+        assertEquals(-1, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+    }
+
+    private static class CountingListener implements SensorEventListener {
+        int events;
+        int motionEvents;
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            events++;
+            long second = sensorData.getTimestamp() / ONE_SECOND_NS;
+            if ((second >= 20 && second < 30) || (second >= 60 && second < 70)) {
+                motionEvents++;
+            }
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+import android.os.Handler;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for running each sensor at the fastest rate its subscribers need
+ */
+public class SensorRateMultiplexingTest {
+    private static final long ONE_SECOND_NS = 1_000_000_000L;
+
+    private RefusingEventSource source;
+    private SensorDataManager manager;
+
+    @Before
+    public void setUp() {
+        source = new RefusingEventSource();
+        manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+    }
+
+    @Test
+    public void testFastSubscriberSpeedsUpSensorAndSlowOneKeepsItsRate() {
+        CountingListener normal = new CountingListener();
+        CountingListener fastest = new CountingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, normal, SensorManager.SENSOR_DELAY_NORMAL);
+        assertEquals(200_000, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+        source.advance(ONE_SECOND_NS);
+
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, fastest, SensorManager.SENSOR_DELAY_FASTEST);
+        assertEquals(0, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(2, source.getRegisterCallCount());
+        assertEquals(1, source.getRegistrationCount());
+
+        source.advance(10 * ONE_SECOND_NS);
+        // Replay runs SENSOR_DELAY_FASTEST at 1 kHz
+        assertEquals(10_000, fastest.timestamps.size());
+        assertEquals(55, normal.timestamps.size());
+        normal.assertIntervalsNear(200_000_000L);
+    }
+
+    @Test
+    public void testSensorSlowsDownWhenFastSubscribersLeave() {
+        CountingListener normal = new CountingListener();
+        CountingListener game = new CountingListener();
+        CountingListener hundredHertz = new CountingListener();
+        manager.registerListener(Sensor.TYPE_GYROSCOPE, normal, SensorManager.SENSOR_DELAY_NORMAL);
+        manager.registerListener(Sensor.TYPE_GYROSCOPE, game, SensorManager.SENSOR_DELAY_GAME);
+        manager.registerListener(Sensor.TYPE_GYROSCOPE, hundredHertz, 10_000);
+        assertEquals(10_000, manager.getSamplingPeriod(Sensor.TYPE_GYROSCOPE));
+
+        source.advance(2 * ONE_SECOND_NS);
+        assertEquals(200, source.getEmittedCount());
+        assertEquals(200, hundredHertz.timestamps.size());
+        assertEquals(100, game.timestamps.size());
+        assertEquals(10, normal.timestamps.size());
+
+        manager.unregisterListener(Sensor.TYPE_GYROSCOPE, hundredHertz);
+        assertEquals(20_000, manager.getSamplingPeriod(Sensor.TYPE_GYROSCOPE));
+        source.advance(2 * ONE_SECOND_NS);
+        assertEquals(200 + 100, source.getEmittedCount());
+        assertEquals(200, game.timestamps.size());
+
+        manager.unregisterListener(Sensor.TYPE_GYROSCOPE, game);
+        assertEquals(200_000, manager.getSamplingPeriod(Sensor.TYPE_GYROSCOPE));
+        source.advance(2 * ONE_SECOND_NS);
+        assertEquals(200 + 100 + 10, source.getEmittedCount());
+        assertEquals(30, normal.timestamps.size());
+        normal.assertIntervalsNear(200_000_000L);
+
+        manager.unregisterListener(Sensor.TYPE_GYROSCOPE, normal);
+        assertEquals(-1, manager.getSamplingPeriod(Sensor.TYPE_GYROSCOPE));
+        assertEquals(0, source.getRegistrationCount());
+        assertEquals(5, source.getRegisterCallCount());
+    }
+
+    @Test
+    public void testBatchListenersAndRingConsumersRequestRates() {
+        CountingListener normal = new CountingListener();
+        CountingListener batch = new CountingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, normal, SensorManager.SENSOR_DELAY_NORMAL);
+
+        SensorRingBuffer.Consumer consumer = manager.attachRingBufferConsumer(Sensor.TYPE_ACCELEROMETER,
+                SensorManager.SENSOR_DELAY_GAME);
+        assertEquals(20_000, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+        manager.registerBatchListener(Sensor.TYPE_ACCELEROMETER, batch, 5_000, 100_000);
+        assertEquals(5_000, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+
+        source.advance(ONE_SECOND_NS);
+        manager.flushBatches(Sensor.TYPE_ACCELEROMETER);
+        source.advance(0);
+        assertEquals(200, batch.batchSamples);
+        assertEquals(5, normal.timestamps.size());
+
+        manager.unregisterListener(Sensor.TYPE_ACCELEROMETER, batch);
+        assertEquals(20_000, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+        manager.detachRingBufferConsumer(Sensor.TYPE_ACCELEROMETER, consumer);
+        assertEquals(200_000, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+    }
+
+    @Test
+    public void testExplicitSamplingPeriodCombinesWithSubscribersUntilCleared() {
+        CountingListener normal = new CountingListener();
+        manager.registerListener(Sensor.TYPE_LIGHT, normal, SensorManager.SENSOR_DELAY_NORMAL);
+        assertTrue(manager.setSamplingPeriod(Sensor.TYPE_LIGHT, 100_000));
+        assertEquals(100_000, manager.getSamplingPeriod(Sensor.TYPE_LIGHT));
+
+        // A faster subscriber is never slowed down by the explicit period
+        CountingListener fastest = new CountingListener();
+        manager.registerListener(Sensor.TYPE_LIGHT, fastest, SensorManager.SENSOR_DELAY_FASTEST);
+        assertEquals(0, manager.getSamplingPeriod(Sensor.TYPE_LIGHT));
+        source.advance(ONE_SECOND_NS);
+        assertEquals(1000, fastest.timestamps.size());
+
+        manager.unregisterListener(Sensor.TYPE_LIGHT, fastest);
+        assertEquals(100_000, manager.getSamplingPeriod(Sensor.TYPE_LIGHT));
+        assertTrue(manager.clearSamplingPeriod(Sensor.TYPE_LIGHT));
+        assertEquals(200_000, manager.getSamplingPeriod(Sensor.TYPE_LIGHT));
+    }
+
+    @Test
+    public void testGovernedSensorStillServesFastestSubscriber() {
+        SensorRateGovernor governor = new SensorRateGovernor(manager);
+        governor.govern(Sensor.TYPE_ACCELEROMETER, 1.0, 0.1);
+        assertEquals(SamplingPeriods.NORMAL_PERIOD_US, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+
+        CountingListener fastest = new CountingListener();
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, fastest, SensorManager.SENSOR_DELAY_FASTEST);
+        assertEquals(0, manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+        source.advance(ONE_SECOND_NS);
+        assertEquals(1000, fastest.timestamps.size());
+        fastest.assertIntervalsNear(1_000_000L);
+
+        // Once the fast subscriber leaves, the governor's resting period applies again
+        manager.unregisterListener(Sensor.TYPE_ACCELEROMETER, fastest);
+        assertEquals(governor.getSamplingPeriodUs(Sensor.TYPE_ACCELEROMETER),
+                manager.getSamplingPeriod(Sensor.TYPE_ACCELEROMETER));
+    }
+
+    @Test
+    public void testRefusedReRegistrationRestoresPreviousRate() {
+        CountingListener normal = new CountingListener();
+        manager.registerListener(Sensor.TYPE_LIGHT, normal, SensorManager.SENSOR_DELAY_NORMAL);
+
+        source.refuseNext(1);
+        assertFalse(manager.setSamplingPeriod(Sensor.TYPE_LIGHT, 20_000));
+        assertEquals(200_000, manager.getSamplingPeriod(Sensor.TYPE_LIGHT));
+        assertEquals(-1, manager.getExplicitSamplingPeriod(Sensor.TYPE_LIGHT));
+        assertEquals(1, source.getRegistrationCount());
+        source.advance(ONE_SECOND_NS);
+        assertEquals(5, normal.timestamps.size());
+        assertEquals(0, normal.errors.size());
+
+        // Nothing is recorded as taken, so asking again retries
+        assertTrue(manager.setSamplingPeriod(Sensor.TYPE_LIGHT, 20_000));
+        assertEquals(20_000, manager.getSamplingPeriod(Sensor.TYPE_LIGHT));
+    }
+
+    @Test
+    public void testRefusedReRegistrationAndRestoreDropsSensorAndReportsError() {
+        CountingListener normal = new CountingListener();
+        manager.registerListener(Sensor.TYPE_LIGHT, normal, SensorManager.SENSOR_DELAY_NORMAL);
+
+        source.refuseNext(2);
+        assertFalse(manager.setSamplingPeriod(Sensor.TYPE_LIGHT, 20_000));
+        assertEquals(-1, manager.getSamplingPeriod(Sensor.TYPE_LIGHT));
+        assertEquals(0, source.getRegistrationCount());
+        assertEquals(1, normal.errors.size());
+
+        // The next registration starts over instead of seeing a stale one
+        CountingListener game = new CountingListener();
+        manager.registerListener(Sensor.TYPE_LIGHT, game, SensorManager.SENSOR_DELAY_GAME);
+        assertEquals(20_000, manager.getSamplingPeriod(Sensor.TYPE_LIGHT));
+        source.advance(ONE_SECOND_NS);
+        assertEquals(50, game.timestamps.size());
+        assertEquals(5, normal.timestamps.size());
+    }
+
+    @Test
+    public void testRefusedFirstRegistrationReportsErrorAndRetries() {
+        CountingListener normal = new CountingListener();
+        source.refuseNext(1);
+        manager.registerListener(Sensor.TYPE_GYROSCOPE, normal, SensorManager.SENSOR_DELAY_NORMAL);
+        assertEquals(-1, manager.getSamplingPeriod(Sensor.TYPE_GYROSCOPE));
+        assertEquals(1, normal.errors.size());
+        assertFalse(manager.setSamplingPeriod(Sensor.TYPE_GYROSCOPE, 20_000));
+
+        manager.unregisterListener(Sensor.TYPE_GYROSCOPE, normal);
+        manager.registerListener(Sensor.TYPE_GYROSCOPE, normal, SensorManager.SENSOR_DELAY_NORMAL);
+        assertEquals(20_000, manager.getSamplingPeriod(Sensor.TYPE_GYROSCOPE));
+        assertEquals(1, source.getRegistrationCount());
+    }
+
+    /**
+     * Replay source that refuses a given number of upcoming registrations
+     */
+    private static class RefusingEventSource extends ReplaySensorEventSource {
+        private int refusals;
+
+        synchronized void refuseNext(int count) {
+            refusals = count;
+        }
+
+        @Override
+        public synchronized boolean register(int sensorType, Sink sink, int samplingPeriodUs,
+                                             int maxReportLatencyUs, Handler handler) {
+            if (refusals > 0) {
+                refusals--;
+                return false;
+            }
+            return super.register(sensorType, sink, samplingPeriodUs, maxReportLatencyUs, handler);
+        }
+    }
+
+    private static class CountingListener implements SensorEventListener {
+        final List<Long> timestamps = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        int batchSamples;
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            timestamps.add(sensorData.getTimestamp());
+        }
+
+        @Override
+        public void onSensorDataBatch(int sensorType, long[] batchTimestamps, float[] values,
+                                      int sampleCount, int valuesPerSample) {
+            batchSamples += sampleCount;
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+            errors.add(errorMessage);
+        }
+
+        /**
+         * Check that delivery never bunched up across rate changes, and stalled for
+         * at most the one period a re-registered sensor takes to deliver its first event
+         */
+        void assertIntervalsNear(long periodNs) {
+            for (int i = 1; i < timestamps.size(); i++) {
+                long interval = timestamps.get(i) - timestamps.get(i - 1);
+                assertTrue("interval " + interval, interval >= periodNs - periodNs / 10 && interval <= 2 * periodNs);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.samsung.sensorapp.manager;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for SensorRingBuffer
+ */
+public class SensorRingBufferTest {
+
+    @Test
+    public void testConsumersReadIndependently() {
+        SensorRingBuffer ring = new SensorRingBuffer(8, 3, SensorRingBuffer.OverflowPolicy.OVERWRITE_OLDEST);
+        SensorRingBuffer.Consumer fast = ring.addConsumer();
+        SensorRingBuffer.Consumer slow = ring.addConsumer();
+
+        for (int i = 0; i < 5; i++) {
+            ring.publish(i, new float[]{i, i + 1, i + 2}, 3);
+        }
+
+        RecordingHandler fastHandler = new RecordingHandler();
+        assertEquals(5, fast.drain(fastHandler, Integer.MAX_VALUE));
+        assertEquals(5, slow.getAvailable());
+
+        RecordingHandler slowHandler = new RecordingHandler();
+        assertEquals(2, slow.drain(slowHandler, 2));
+        assertEquals(3, slow.getAvailable());
+        assertEquals(1L, (long) slowHandler.timestamps.get(1));
+        assertEquals(1f, slowHandler.firstValues.get(1), 0f);
+        assertEquals(3, slowHandler.lastValueCount);
+    }
+
+    @Test
+    public void testOverwriteOldestSkipsLostSamples() {
+        SensorRingBuffer ring = new SensorRingBuffer(4, 1, SensorRingBuffer.OverflowPolicy.OVERWRITE_OLDEST);
+        SensorRingBuffer.Consumer consumer = ring.addConsumer();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ring.publish(i, new float[]{i}, 0));
+        }
+
+        RecordingHandler handler = new RecordingHandler();
+        assertEquals(4, consumer.drain(handler, Integer.MAX_VALUE));
+        assertEquals(6L, (long) handler.timestamps.get(0));
+        assertEquals(9L, (long) handler.timestamps.get(3));
+        assertEquals(6, consumer.getDroppedCount());
+    }
+
+    @Test
+    public void testDropNewestRejectsWhileSlowestConsumerIsFull() {
+        SensorRingBuffer ring = new SensorRingBuffer(4, 1, SensorRingBuffer.OverflowPolicy.DROP_NEWEST);
+        SensorRingBuffer.Consumer consumer = ring.addConsumer();
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.publish(i, new float[]{i}, 0));
+        }
+        assertFalse(ring.publish(4, new float[]{4}, 0));
+        assertEquals(1, consumer.getDroppedCount());
+
+        RecordingHandler handler = new RecordingHandler();
+        assertEquals(1, consumer.drain(handler, 1));
+        assertTrue(ring.publish(5, new float[]{5}, 0));
+
+        consumer.drain(handler, Integer.MAX_VALUE);
+        assertEquals(5, handler.timestamps.size());
+        assertEquals(0L, (long) handler.timestamps.get(0));
+        assertEquals(5L, (long) handler.timestamps.get(4));
+        assertEquals(1, ring.getRejectedCount());
+    }
+
+    @Test
+    public void testRemovedConsumerNoLongerHoldsProducer() {
+        SensorRingBuffer ring = new SensorRingBuffer(2, 1, SensorRingBuffer.OverflowPolicy.DROP_NEWEST);
+        SensorRingBuffer.Consumer consumer = ring.addConsumer();
+        ring.publish(0, new float[]{0}, 0);
+        ring.publish(1, new float[]{1}, 0);
+        assertFalse(ring.publish(2, new float[]{2}, 0));
+
+        assertTrue(ring.removeConsumer(consumer));
+        assertTrue(ring.publish(3, new float[]{3}, 0));
+    }
+
+    @Test
+    public void testConcurrentConsumersSeeOrderedSamples() throws Exception {
+        final int events = 500_000;
+        SensorRingBuffer ring = new SensorRingBuffer(256, 3, SensorRingBuffer.OverflowPolicy.OVERWRITE_OLDEST);
+        AtomicBoolean done = new AtomicBoolean();
+        SensorRingBuffer.Consumer[] consumers = {ring.addConsumer(), ring.addConsumer()};
+        OrderCheckingHandler[] handlers = {new OrderCheckingHandler(), new OrderCheckingHandler()};
+        Thread[] threads = new Thread[consumers.length];
+
+        for (int c = 0; c < consumers.length; c++) {
+            final int index = c;
+            threads[c] = new Thread(() -> {
+                while (!done.get() || consumers[index].getAvailable() > 0) {
+                    consumers[index].drain(handlers[index], 64);
+                }
+            });
+            threads[c].start();
+        }
+
+        float[] values = new float[3];
+        for (int i = 0; i < events; i++) {
+            values[0] = i;
+            values[1] = -i;
+            values[2] = i * 2f;
+            ring.publish(i, values, 0);
+        }
+        done.set(true);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int c = 0; c < consumers.length; c++) {
+            assertEquals(0, handlers[c].corrupted);
+            assertEquals(events, handlers[c].received + consumers[c].getDroppedCount());
+        }
+    }
+
+    private static class RecordingHandler implements SensorRingBuffer.SampleHandler {
+        final List<Long> timestamps = new ArrayList<>();
+        final List<Float> firstValues = new ArrayList<>();
+        int lastValueCount;
+
+        @Override
+        public void onSample(long timestamp, float[] values, int valueCount, int accuracy) {
+            timestamps.add(timestamp);
+            firstValues.add(values[0]);
+            lastValueCount = valueCount;
+        }
+    }
+
+    private static class OrderCheckingHandler implements SensorRingBuffer.SampleHandler {
+        long lastTimestamp = -1;
+        long received;
+        int corrupted;
+
+        @Override
+        public void onSample(long timestamp, float[] values, int valueCount, int accuracy) {
+            if (timestamp <= lastTimestamp || values[0] != timestamp
+                    || values[1] != -timestamp || values[2] != timestamp * 2f) {
+                corrupted++;
+            }
+            lastTimestamp = timestamp;
+            received++;
+        }
+    }
+}
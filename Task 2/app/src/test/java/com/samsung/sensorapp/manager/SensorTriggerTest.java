@@ -0,0 +1,140 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for triggers evaluated on the dispatch thread
+ */
+public class SensorTriggerTest {
+    private ScriptedGenerator generator;
+    private ReplaySensorEventSource source;
+    private SensorDataManager manager;
+    private RecordingTriggerListener listener;
+
+    @Before
+    public void setUp() {
+        generator = new ScriptedGenerator();
+        source = new ReplaySensorEventSource(new int[]{Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_GYROSCOPE}, generator);
+        manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        listener = new RecordingTriggerListener();
+    }
+
+    @Test
+    public void testThresholdFiresOncePerCrossing() {
+        // Axis 1 carries the sample index and stays far below the threshold
+        generator.script = new float[]{0, 0, 20, 20, 20, 0, 20};
+        SensorTrigger above = SensorTrigger.above(SensorTrigger.MAGNITUDE, 15f);
+        assertTrue(manager.addTrigger(Sensor.TYPE_ACCELEROMETER, above, listener, SensorManager.SENSOR_DELAY_FASTEST));
+        source.emit(7);
+
+        assertEquals(List.of(2L, 6L), listener.sampleIndices);
+        assertSame(above, listener.triggers.get(0));
+    }
+
+    @Test
+    public void testDebounceNeedsConsecutiveSamples() {
+        generator.script = new float[]{1, 1, 0, 1, 1, 1, 1, 0, 1, 1, 1};
+        manager.addTrigger(Sensor.TYPE_ACCELEROMETER, SensorTrigger.above(0, 1f).debounced(3), listener,
+                SensorManager.SENSOR_DELAY_FASTEST);
+        source.emit(11);
+
+        assertEquals(List.of(5L, 10L), listener.sampleIndices);
+    }
+
+    @Test
+    public void testHysteresisOnlyRearmsBelowReleaseLevel() {
+        generator.script = new float[]{0, 6, 4, 6, 1, 6};
+        manager.addTrigger(Sensor.TYPE_ACCELEROMETER, SensorTrigger.hysteresis(0, 5f, 2f), listener,
+                SensorManager.SENSOR_DELAY_FASTEST);
+        source.emit(6);
+
+        assertEquals(List.of(1L, 5L), listener.sampleIndices);
+    }
+
+    @Test
+    public void testRateOfChangeComparesAgainstElapsedTime() {
+        // Samples are 1 ms apart, so a step of 0.5 is 500 units per second
+        generator.script = new float[]{0, 0.05f, 0.1f, 0.6f, 0.65f, 0.15f};
+        manager.addTrigger(Sensor.TYPE_ACCELEROMETER, SensorTrigger.rateOfChange(0, 100f), listener,
+                SensorManager.SENSOR_DELAY_FASTEST);
+        source.emit(6);
+
+        assertEquals(List.of(3L, 5L), listener.sampleIndices);
+    }
+
+    @Test
+    public void testTriggersOnlySeeTheirSensorTypeAndRemovalUnregisters() {
+        generator.script = new float[]{20};
+        SensorTrigger gyroTrigger = SensorTrigger.above(SensorTrigger.MAGNITUDE, 15f);
+        manager.addTrigger(Sensor.TYPE_GYROSCOPE, gyroTrigger, listener, SensorManager.SENSOR_DELAY_GAME);
+        assertEquals(20_000, manager.getSamplingPeriod(Sensor.TYPE_GYROSCOPE));
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, new NoOpListener(), SensorManager.SENSOR_DELAY_FASTEST);
+        source.advance(100_000_000L);
+
+        assertEquals(1, listener.sampleIndices.size());
+        assertEquals(Sensor.TYPE_GYROSCOPE, listener.sensorTypes.get(0).intValue());
+
+        manager.removeTrigger(Sensor.TYPE_GYROSCOPE, gyroTrigger, listener);
+        assertEquals(-1, manager.getSamplingPeriod(Sensor.TYPE_GYROSCOPE));
+        assertFalse(manager.addTrigger(Sensor.TYPE_LIGHT, gyroTrigger, listener, SensorManager.SENSOR_DELAY_GAME));
+    }
+
+    /**
+     * Plays the script on axis 0 and keeps the sample index on axis 1
+     */
+    private static class ScriptedGenerator implements ReplaySensorEventSource.Generator {
+        float[] script = new float[]{0};
+
+        @Override
+        public int getValueCount(int sensorType) {
+            return 2;
+        }
+
+        @Override
+        public void generate(int sensorType, long index, long timestamp, float[] values) {
+            values[0] = script[(int) Math.min(index, script.length - 1)];
+            values[1] = index;
+        }
+    }
+
+    private static class RecordingTriggerListener implements TriggerListener {
+        final List<Long> sampleIndices = new ArrayList<>();
+        final List<Integer> sensorTypes = new ArrayList<>();
+        final List<SensorTrigger> triggers = new ArrayList<>();
+
+        @Override
+        public void onTriggered(SensorTrigger trigger, SensorData sensorData) {
+            sampleIndices.add((long) sensorData.getValues()[1]);
+            sensorTypes.add(sensorData.getSensorType());
+            triggers.add(trigger);
+        }
+    }
+
+    private static class NoOpListener implements SensorEventListener {
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
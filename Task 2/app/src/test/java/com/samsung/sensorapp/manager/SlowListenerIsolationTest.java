@@ -0,0 +1,180 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for moving slow listeners off the dispatch thread
+ */
+public class SlowListenerIsolationTest {
+    private static final long BUDGET_NS = 500_000L;
+    private static final long SLOW_CALLBACK_MS = 3;
+    private static final int LANE_CAPACITY = 8;
+
+    private ReplaySensorEventSource source;
+    private SensorDataManager manager;
+    private final List<SensorEventListener> isolated = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        source = new ReplaySensorEventSource();
+        manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        manager.getMetrics().setTimingInterval(1);
+        manager.setSlowListenerIsolation(BUDGET_NS, 3, LANE_CAPACITY,
+                (sensorType, listener, callbackDurationNs) -> {
+                    assertEquals(Sensor.TYPE_ACCELEROMETER, sensorType);
+                    assertTrue(callbackDurationNs > BUDGET_NS);
+                    isolated.add(listener);
+                });
+    }
+
+    @After
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    public void testSlowListenerMovesToLaneThatDropsOldest() throws InterruptedException {
+        RecordingListener fast = new RecordingListener(0);
+        RecordingListener slow = new RecordingListener(SLOW_CALLBACK_MS);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, fast, SensorManager.SENSOR_DELAY_FASTEST);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, slow, SensorManager.SENSOR_DELAY_FASTEST);
+
+        source.emit(3);
+        assertEquals(1, isolated.size());
+        assertSame(slow, isolated.get(0));
+        assertEquals(3, slow.count());
+
+        source.emit(200);
+        assertEquals(203, fast.count());
+        assertTrue(fast.onlyOn(Thread.currentThread()));
+        // The lane keeps the newest samples and skips the rest
+        waitUntil(() -> listenerStats(1).getDroppedEvents() + slow.count() - 3 == 200);
+        PipelineMetricsSnapshot.ListenerStats stats = listenerStats(1);
+        assertTrue(stats.isIsolated());
+        assertTrue(stats.getDroppedEvents() >= 200 - LANE_CAPACITY - 16);
+        assertEquals(fast.lastTimestamp(), slow.lastTimestamp());
+        assertNotSame(Thread.currentThread(), slow.lastThread());
+        assertFalse(listenerStats(0).isIsolated());
+    }
+
+    @Test
+    public void testOccasionallySlowListenerStaysSynchronous() {
+        RecordingListener sometimesSlow = new RecordingListener(SLOW_CALLBACK_MS) {
+            @Override
+            boolean slowOn(int call) {
+                return call % 4 == 0;
+            }
+        };
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, sometimesSlow, SensorManager.SENSOR_DELAY_FASTEST);
+        source.emit(40);
+
+        assertTrue(isolated.isEmpty());
+        assertEquals(40, sometimesSlow.count());
+        assertTrue(sometimesSlow.onlyOn(Thread.currentThread()));
+    }
+
+    @Test
+    public void testUnregisteringIsolatedListenerStopsItsLane() throws InterruptedException {
+        RecordingListener slow = new RecordingListener(SLOW_CALLBACK_MS);
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, slow, SensorManager.SENSOR_DELAY_GAME);
+        source.advance(100_000_000L);
+        assertSame(slow, isolated.get(0));
+        SlowListenerLane lane = manager.registry.get(Sensor.TYPE_ACCELEROMETER).getDecimators()[0].metrics.lane;
+        assertTrue(lane.isAlive());
+
+        manager.unregisterListener(Sensor.TYPE_ACCELEROMETER, slow);
+        waitUntil(() -> !lane.isAlive());
+    }
+
+    private PipelineMetricsSnapshot.ListenerStats listenerStats(int index) {
+        return manager.getMetrics().snapshot().getListener(index);
+    }
+
+    private static void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.holds()) {
+            assertTrue("timed out", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private interface Condition {
+        boolean holds();
+    }
+
+    private static class RecordingListener implements SensorEventListener {
+        private final long sleepMs;
+        private final List<Thread> threads = new ArrayList<>();
+        private long lastTimestamp;
+
+        RecordingListener(long sleepMs) {
+            this.sleepMs = sleepMs;
+        }
+
+        boolean slowOn(int call) {
+            return true;
+        }
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            int call;
+            synchronized (this) {
+                threads.add(Thread.currentThread());
+                lastTimestamp = sensorData.getTimestamp();
+                call = threads.size();
+            }
+            if (sleepMs > 0 && slowOn(call)) {
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+
+        synchronized int count() {
+            return threads.size();
+        }
+
+        synchronized long lastTimestamp() {
+            return lastTimestamp;
+        }
+
+        synchronized Thread lastThread() {
+            return threads.get(threads.size() - 1);
+        }
+
+        synchronized boolean onlyOn(Thread thread) {
+            for (Thread t : threads) {
+                if (t != thread) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
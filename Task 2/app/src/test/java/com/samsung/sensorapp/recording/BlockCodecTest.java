@@ -0,0 +1,144 @@
+package com.samsung.sensorapp.recording;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Unit tests for the delta-of-delta and XOR block compression
+ */
+public class BlockCodecTest {
+
+    @Test
+    public void roundTripsEdgeCaseValuesAndTimestamps() {
+        float[] specials = {0f, -0f, Float.NaN, Float.intBitsToFloat(0x7FC01234), Float.POSITIVE_INFINITY,
+                Float.NEGATIVE_INFINITY, Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, 1f, 1f, 9.81f};
+        int count = 200;
+        long[] timestamps = new long[count];
+        byte[] accuracies = new byte[count];
+        float[] values = new float[count * 2];
+        Random random = new Random(7);
+        long timestamp = -5_000_000_000L;
+        for (int i = 0; i < count; i++) {
+            // Steady steps, jitter, huge jumps and repeats exercise every delta-of-delta width
+            switch (i % 5) {
+                case 0:
+                    timestamp += 5_000_000L;
+                    break;
+                case 1:
+                    timestamp += 5_000_000L + random.nextInt(40_000) - 20_000;
+                    break;
+                case 2:
+                    timestamp += 1L << 40;
+                    break;
+                case 3:
+                    timestamp += random.nextInt(3);
+                    break;
+                default:
+                    timestamp += Long.MAX_VALUE / 1024;
+                    break;
+            }
+            timestamps[i] = timestamp;
+            accuracies[i] = (byte) (i % 17 == 0 ? -1 : i / 50);
+            values[i * 2] = specials[i % specials.length];
+            values[i * 2 + 1] = Float.intBitsToFloat(random.nextInt());
+        }
+
+        RecordedBlock decoded = roundTrip(timestamps, accuracies, values, count, 2);
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(timestamps[i], decoded.getTimestamp(i));
+            assertEquals(accuracies[i], decoded.getAccuracy(i));
+            for (int axis = 0; axis < 2; axis++) {
+                assertEquals(Float.floatToRawIntBits(values[i * 2 + axis]),
+                        Float.floatToRawIntBits(decoded.getValue(i, axis)));
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsSingleSample() {
+        RecordedBlock decoded = roundTrip(new long[]{42L}, new byte[]{3}, new float[]{1.5f, -2.5f, 0f}, 1, 3);
+
+        assertEquals(42L, decoded.getTimestamp(0));
+        assertEquals(3, decoded.getAccuracy(0));
+        assertEquals(-2.5f, decoded.getValue(0, 1), 0f);
+    }
+
+    @Test
+    public void compressesSteadyQuantizedStreams() {
+        int count = 4096;
+        long[] timestamps = new long[count];
+        byte[] accuracies = new byte[count];
+        float[] light = new float[count];
+        float[] accelerometer = new float[count * 3];
+        float resolution = 0.0023942017f;
+        Random random = new Random(3);
+        for (int i = 0; i < count; i++) {
+            timestamps[i] = 1_000_000_000L + i * 5_000_000L;
+            accuracies[i] = 3;
+            light[i] = 300 + (i / 500) * 25;
+            accelerometer[i * 3] = (random.nextInt(5) - 2) * resolution;
+            accelerometer[i * 3 + 1] = (random.nextInt(5) - 2) * resolution;
+            accelerometer[i * 3 + 2] = (4096 + random.nextInt(5) - 2) * resolution;
+        }
+
+        // Raw is an 8-byte timestamp and 4 bytes per value
+        assertTrue(count * (8 + 4) / encodedSize(timestamps, accuracies, light, count, 1) >= 20);
+        assertTrue(count * (8 + 4 * 3) / encodedSize(timestamps, accuracies, accelerometer, count, 3) >= 2);
+    }
+
+    @Test
+    public void compressesHandheldTraces() {
+        // Lossless coding keeps the sensor noise and the irregular on-change timing,
+        // so these traces stay well short of the 5x that steady streams reach
+        assertRatioBetween(HandheldTrace.ACCELEROMETER, 1.7, 1.9);
+        assertRatioBetween(HandheldTrace.GYROSCOPE, 1.6, 1.8);
+        assertRatioBetween(HandheldTrace.LIGHT, 2.2, 2.5);
+    }
+
+    private static void assertRatioBetween(HandheldTrace trace, double min, double max) {
+        int count = SensorRecorder.DEFAULT_BLOCK_SAMPLES;
+        long[] timestamps = new long[count];
+        byte[] accuracies = new byte[count];
+        float[] values = new float[count * trace.getValuesPerSample()];
+        trace.generate(new Random(11), timestamps, accuracies, values, count);
+
+        double ratio = (double) trace.getRawBytes(count)
+                / encodedSize(timestamps, accuracies, values, count, trace.getValuesPerSample());
+        assertTrue(trace + " ratio " + ratio, ratio >= min && ratio <= max);
+    }
+
+    private static RecordedBlock roundTrip(long[] timestamps, byte[] accuracies, float[] values, int count,
+                                           int valuesPerSample) {
+        ByteBuffer buffer = encode(timestamps, accuracies, values, count, valuesPerSample);
+        RecordedBlock decoded = new RecordedBlock();
+        decoded.reset(1, count, valuesPerSample);
+        BitReader reader = new BitReader();
+        reader.wrap(buffer, 0, buffer.position());
+        BlockCodec.decode(reader, timestamps[0], decoded);
+        return decoded;
+    }
+
+    private static int encodedSize(long[] timestamps, byte[] accuracies, float[] values, int count,
+                                   int valuesPerSample) {
+        return SensorRecordingFormat.BLOCK_HEADER_SIZE
+                + encode(timestamps, accuracies, values, count, valuesPerSample).position();
+    }
+
+    private static ByteBuffer encode(long[] timestamps, byte[] accuracies, float[] values, int count,
+                                     int valuesPerSample) {
+        ByteBuffer buffer = ByteBuffer.allocate(SensorRecordingFormat.maxBlockSize(count, valuesPerSample))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        BitWriter writer = new BitWriter();
+        writer.wrap(buffer);
+        BlockCodec.encode(writer, timestamps, accuracies, values, count, valuesPerSample);
+        assertEquals(0, buffer.position() % 8);
+        return buffer;
+    }
+}
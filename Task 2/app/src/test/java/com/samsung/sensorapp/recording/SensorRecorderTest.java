@@ -0,0 +1,145 @@
+package com.samsung.sensorapp.recording;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit tests for SensorRecorder and SensorRecordingReader
+ */
+public class SensorRecorderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTripsInterleavedSensorTypes() throws Exception {
+        File directory = folder.newFolder("recording");
+        SensorRecorder recorder = new SensorRecorder(directory, 1 << 20, 64);
+        long timestamp = 1_000_000_000L;
+        for (int i = 0; i < 1000; i++) {
+            timestamp += 5_000_000L + (i % 7);
+            recorder.record(Sensor.TYPE_ACCELEROMETER, timestamp, new float[]{i, -i, i * 0.5f}, 3, 3);
+            if (i % 10 == 0) {
+                recorder.record(Sensor.TYPE_LIGHT, timestamp, new float[]{i * 2f}, 1, 2);
+            }
+        }
+        recorder.close();
+
+        SensorRecordingReader reader = new SensorRecordingReader(directory);
+        assertEquals(1100, reader.getSampleCount());
+
+        List<long[]> accelerometer = new ArrayList<>();
+        int[] light = new int[1];
+        reader.forEachSample((sensorType, sampleTimestamp, values, valueCount, accuracy) -> {
+            if (sensorType == Sensor.TYPE_ACCELEROMETER) {
+                int i = accelerometer.size();
+                assertEquals(3, valueCount);
+                assertEquals(i, values[0], 0f);
+                assertEquals(-i, values[1], 0f);
+                assertEquals(i * 0.5f, values[2], 0f);
+                assertEquals(3, accuracy);
+                accelerometer.add(new long[]{sampleTimestamp});
+            } else {
+                assertEquals(Sensor.TYPE_LIGHT, sensorType);
+                assertEquals(light[0] * 20f, values[0], 0f);
+                light[0]++;
+            }
+        });
+        assertEquals(1000, accelerometer.size());
+        assertEquals(100, light[0]);
+
+        long expected = 1_000_000_000L;
+        for (int i = 0; i < 1000; i++) {
+            expected += 5_000_000L + (i % 7);
+            assertEquals(expected, accelerometer.get(i)[0]);
+        }
+    }
+
+    @Test
+    public void rollsOverToNewSegmentsWhenFull() throws Exception {
+        File directory = folder.newFolder("segments");
+        SensorRecorder recorder = new SensorRecorder(directory, 16 * 1024, 128);
+        for (int i = 0; i < 10_000; i++) {
+            recorder.record(Sensor.TYPE_GYROSCOPE, i * 1_000_000L, new float[]{i, i, i}, 3, 3);
+        }
+        recorder.close();
+
+        assertTrue(recorder.getSegmentCount() > 1);
+        SensorRecordingReader reader = new SensorRecordingReader(directory);
+        assertEquals(recorder.getSegmentCount(), reader.getSegmentCount());
+        assertEquals(10_000, reader.getSampleCount());
+
+        long[] previous = {-1_000_000L};
+        reader.forEachSample((sensorType, timestamp, values, valueCount, accuracy) -> {
+            assertEquals(previous[0] + 1_000_000L, timestamp);
+            assertEquals(timestamp / 1_000_000L, (long) values[0]);
+            previous[0] = timestamp;
+        });
+        assertEquals(9_999_000_000L, previous[0]);
+    }
+
+    @Test
+    public void recordsAnErrorWhenABlockCannotFitInASegment() throws Exception {
+        File directory = folder.newFolder("oversized");
+        int segmentSize = SensorRecordingFormat.HEADER_SIZE + SensorRecordingFormat.maxBlockSize(64, 1);
+        SensorRecorder recorder = new SensorRecorder(directory, segmentSize, 64);
+        for (int i = 0; i < 64; i++) {
+            recorder.record(Sensor.TYPE_GYROSCOPE, i * 1_000_000L, new float[]{i, i, i}, 3, 3);
+        }
+        assertNotNull(recorder.getError());
+
+        recorder.record(Sensor.TYPE_LIGHT, 64_000_000L, new float[]{1f}, 1, 3);
+        assertEquals(64, recorder.getRecordedCount());
+        try {
+            recorder.close();
+            fail("Expected the recorded error");
+        } catch (IOException expected) {
+            assertEquals(recorder.getError(), expected);
+        }
+    }
+
+    @Test
+    public void recordsListenerCallbacks() throws Exception {
+        File directory = folder.newFolder("listener");
+        SensorRecorder recorder = new SensorRecorder(directory);
+        recorder.onSensorDataChanged(new SensorData("Light", Sensor.TYPE_LIGHT,
+                new float[]{42f}, 3, 10L));
+        recorder.onSensorDataBatch(Sensor.TYPE_ACCELEROMETER, new long[]{20L, 30L},
+                new float[]{1f, 2f, 3f, 4f, 5f, 6f}, 2, 3);
+        recorder.close();
+
+        List<RecordedBlock> blocks = new ArrayList<>();
+        int[] samples = new int[1];
+        new SensorRecordingReader(directory).forEachBlock(block -> {
+            samples[0] += block.getSampleCount();
+            if (block.getSensorType() == Sensor.TYPE_ACCELEROMETER) {
+                assertEquals(2, block.getSampleCount());
+                assertEquals(30L, block.getTimestamp(1));
+                assertEquals(4f, block.getValue(1, 0), 0f);
+                assertEquals(6f, block.getValue(1, 2), 0f);
+                assertEquals(-1, block.getAccuracy(1));
+            } else {
+                assertEquals(42f, block.getValue(0, 0), 0f);
+                assertEquals(3, block.getAccuracy(0));
+            }
+            blocks.add(block);
+        });
+        assertEquals(2, blocks.size());
+        assertEquals(3, samples[0]);
+    }
+}
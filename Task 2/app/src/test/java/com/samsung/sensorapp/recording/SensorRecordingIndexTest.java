@@ -0,0 +1,140 @@
+package com.samsung.sensorapp.recording;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.hardware.Sensor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Random;
+
+/**
+ * Unit tests for SensorRecordingIndex, checked against a full scan
+ */
+public class SensorRecordingIndexTest {
+    private static final int SAMPLES = 5000;
+    private static final long START = 1_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rangeQueriesMatchFullScan() throws Exception {
+        File directory = record();
+        assertTrue(new File(directory, SensorRecordingFormat.INDEX_FILE_NAME).isFile());
+        SensorRecordingIndex index = SensorRecordingIndex.open(directory);
+        assertArrayEquals(new int[]{Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_LIGHT}, index.getSensorTypes());
+        assertEquals(START + 5_000_000L, index.getFirstTimestamp(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(Long.MIN_VALUE, index.getFirstTimestamp(Sensor.TYPE_GYROSCOPE));
+        checkAgainstScan(directory, index);
+    }
+
+    @Test
+    public void rebuildsMissingOrCorruptIndex() throws Exception {
+        File directory = record();
+        File indexFile = new File(directory, SensorRecordingFormat.INDEX_FILE_NAME);
+        int blockCount = SensorRecordingIndex.open(directory).getBlockCount();
+
+        assertTrue(indexFile.delete());
+        SensorRecordingIndex rebuilt = SensorRecordingIndex.open(directory);
+        assertEquals(blockCount, rebuilt.getBlockCount());
+        assertTrue(indexFile.isFile());
+        checkAgainstScan(directory, rebuilt);
+
+        try (FileOutputStream output = new FileOutputStream(indexFile)) {
+            output.write(new byte[]{1, 2, 3, 4, 5});
+        }
+        assertEquals(blockCount, SensorRecordingIndex.open(directory).getBlockCount());
+    }
+
+    @Test
+    public void filteredQuerySkipsBlocksByZoneMap() throws Exception {
+        File directory = record();
+        SensorRecordingIndex index = SensorRecordingIndex.open(directory);
+        long[] scanned = new long[1];
+        new SensorRecordingReader(directory).forEachSample((sensorType, timestamp, values, valueCount, accuracy) -> {
+            if (sensorType == Sensor.TYPE_ACCELEROMETER && values[0] >= 4000f && values[0] <= 4100f) {
+                scanned[0]++;
+            }
+        });
+        long[] visited = new long[1];
+        long count = index.forEachSampleWhere(Sensor.TYPE_ACCELEROMETER, Long.MIN_VALUE, Long.MAX_VALUE, 0,
+                4000f, 4100f, (sensorType, timestamp, values, valueCount, accuracy) -> {
+                    assertTrue(values[0] >= 4000f && values[0] <= 4100f);
+                    assertEquals(3, valueCount);
+                    visited[0]++;
+                });
+        assertEquals(101, scanned[0]);
+        assertEquals(scanned[0], count);
+        assertEquals(count, visited[0]);
+    }
+
+    /**
+     * Accelerometer x counts up with the sample number, so zone maps are narrow
+     */
+    private File record() throws Exception {
+        File directory = folder.newFolder();
+        SensorRecorder recorder = new SensorRecorder(directory, 16 * 1024, 64);
+        long timestamp = START;
+        for (int i = 0; i < SAMPLES; i++) {
+            timestamp += 5_000_000L;
+            recorder.record(Sensor.TYPE_ACCELEROMETER, timestamp,
+                    new float[]{i, (float) Math.sin(i * 0.1), -i * 0.5f}, 3, i % 4);
+            if (i % 10 == 0) {
+                recorder.record(Sensor.TYPE_LIGHT, timestamp + 1, new float[]{i % 1000}, 1, 3);
+            }
+        }
+        recorder.close();
+        assertTrue(recorder.getSegmentCount() > 1);
+        return directory;
+    }
+
+    private static void checkAgainstScan(File directory, SensorRecordingIndex index) throws Exception {
+        SensorRecordingReader reader = new SensorRecordingReader(directory);
+        Random random = new Random(7);
+        long end = START + (SAMPLES + 2) * 5_000_000L;
+        for (int query = 0; query < 40; query++) {
+            long from = START + (long) (random.nextDouble() * (end - START));
+            long to = query % 5 == 0 ? from : from + (long) (random.nextDouble() * (end - from));
+            int sensorType = query % 3 == 0 ? Sensor.TYPE_LIGHT : Sensor.TYPE_ACCELEROMETER;
+
+            double[] expected = {0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, -1};
+            reader.forEachSample((type, timestamp, values, valueCount, accuracy) -> {
+                if (type == sensorType && timestamp >= from && timestamp <= to) {
+                    expected[0]++;
+                    expected[1] = Math.max(expected[1], values[valueCount - 1]);
+                    expected[2] = Math.min(expected[2], values[valueCount - 1]);
+                    double squared = 0;
+                    for (int axis = 0; axis < valueCount; axis++) {
+                        squared += (double) values[axis] * values[axis];
+                    }
+                    expected[3] = Math.max(expected[3], squared);
+                }
+            });
+
+            assertEquals((long) expected[0], index.countSamples(sensorType, from, to));
+            long[] previous = {Long.MIN_VALUE};
+            long visited = index.forEachSample(sensorType, from, to, (type, timestamp, values, valueCount, accuracy) -> {
+                assertTrue(timestamp >= from && timestamp <= to && timestamp > previous[0]);
+                previous[0] = timestamp;
+            });
+            assertEquals((long) expected[0], visited);
+
+            int axis = sensorType == Sensor.TYPE_LIGHT ? 0 : 2;
+            if (expected[0] == 0) {
+                assertTrue(Float.isNaN(index.max(sensorType, axis, from, to)));
+                assertTrue(Float.isNaN(index.maxMagnitude(sensorType, from, to)));
+            } else {
+                assertEquals(expected[1], index.max(sensorType, axis, from, to), 0);
+                assertEquals(expected[2], index.min(sensorType, axis, from, to), 0);
+                assertEquals(Math.sqrt(expected[3]), index.maxMagnitude(sensorType, from, to), 1e-3);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.samsung.sensorapp.stats;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.manager.ReplaySensorEventSource;
+import com.samsung.sensorapp.manager.SensorDataManager;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for sliding-window streaming statistics
+ */
+public class StreamingStatisticsTest {
+    private static final long ONE_SECOND_NS = 1_000_000_000L;
+    private static final long[] WINDOWS_NS = {ONE_SECOND_NS / 10, ONE_SECOND_NS, 5 * ONE_SECOND_NS};
+    private static final double[] LEVELS = {0.0, 0.5, 0.9, 0.99, 1.0};
+
+    @Test
+    public void testWindowsMatchBruteForce() {
+        Random random = new Random(3);
+        int axisCount = 3;
+        int sampleCount = 20_000;
+        long[] timestamps = new long[sampleCount];
+        float[] values = new float[sampleCount * axisCount];
+        SensorStreamStatistics stream = new SensorStreamStatistics(Sensor.TYPE_ACCELEROMETER, axisCount,
+                WINDOWS_NS, LEVELS, 0, 1 << 16);
+
+        long timestamp = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            timestamp += random.nextInt(3_000_000);
+            timestamps[i] = timestamp;
+            for (int axis = 0; axis < axisCount; axis++) {
+                values[i * axisCount + axis] = (float) (random.nextGaussian() * (axis + 1) + 9.81 * axis);
+            }
+            stream.add(timestamp, values, i * axisCount, axisCount);
+            if (i % 997 == 0 || i == sampleCount - 1) {
+                assertMatchesBruteForce(stream.getSnapshot(), timestamps, values, i, axisCount);
+            }
+        }
+        assertEquals(0, stream.getDroppedCount());
+    }
+
+    @Test
+    public void testQuantilesWithinSketchError() {
+        Random random = new Random(11);
+        int sampleCount = 50_000;
+        float[] values = new float[sampleCount];
+        SensorStreamStatistics stream = new SensorStreamStatistics(Sensor.TYPE_LIGHT, 1,
+                new long[]{Long.MAX_VALUE / 2}, LEVELS, Long.MAX_VALUE / 4, 1 << 16);
+        for (int i = 0; i < sampleCount; i++) {
+            values[i] = (float) Math.exp(random.nextGaussian() * 3);
+            if (i % 4 == 0) {
+                values[i] = -values[i];
+            }
+            stream.add(i, values, i, 1);
+        }
+        StatisticsSnapshot snapshot = stream.publish();
+
+        float[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double level : LEVELS) {
+            double exact = sorted[(int) Math.max(1, Math.ceil(sampleCount * level)) - 1];
+            double estimate = snapshot.getQuantile(0, 0, level);
+            assertEquals("level " + level, exact, estimate, Math.abs(exact) / 30);
+        }
+        assertEquals(sorted[0], snapshot.getQuantile(0, 0, 0.0), 0.0);
+        assertEquals(sorted[sampleCount - 1], snapshot.getQuantile(0, 0, 1.0), 0.0);
+    }
+
+    @Test
+    public void testRetainedSamplesAreCapped() {
+        SensorStreamStatistics stream = new SensorStreamStatistics(Sensor.TYPE_GYROSCOPE, 1,
+                new long[]{ONE_SECOND_NS, 60 * ONE_SECOND_NS}, LEVELS, 0, 1000);
+        float[] value = new float[1];
+        for (int i = 0; i < 10_000; i++) {
+            value[0] = i;
+            stream.add(i * 1_000_000L, value, 0, 1);
+        }
+        StatisticsSnapshot snapshot = stream.getSnapshot();
+        // 1000 rounds up to 1024 retained samples
+        assertEquals(1000, snapshot.getSampleCount(0));
+        assertEquals(1024, snapshot.getSampleCount(1));
+        assertEquals(10_000 - 1024, snapshot.getMin(1, 0), 0.0);
+        assertEquals(9_999, snapshot.getMax(1, 0), 0.0);
+        assertEquals(9_999 - 511.5, snapshot.getMean(1, 0), 1e-6);
+    }
+
+    @Test
+    public void testRejectsOutOfOrderAndNaNSamples() {
+        SensorStreamStatistics stream = new SensorStreamStatistics(Sensor.TYPE_LIGHT, 1,
+                WINDOWS_NS, LEVELS, 0, 64);
+        stream.add(100, new float[]{1f}, 0, 1);
+        stream.add(50, new float[]{2f}, 0, 1);
+        stream.add(150, new float[]{Float.NaN}, 0, 1);
+        stream.add(200, new float[0], 0, 0);
+        assertEquals(3, stream.getDroppedCount());
+        assertEquals(1, stream.getSnapshot().getSampleCount(0));
+    }
+
+    @Test
+    public void testAttachesToManagerAsListener() {
+        ReplaySensorEventSource source = new ReplaySensorEventSource();
+        SensorDataManager manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        StreamingStatistics statistics = new StreamingStatistics();
+        assertNull(statistics.getSnapshot(Sensor.TYPE_ACCELEROMETER));
+
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, statistics, 20_000);
+        manager.registerBatchListener(Sensor.TYPE_GYROSCOPE, statistics, 10_000, 100_000);
+        source.advance(70 * ONE_SECOND_NS);
+        manager.flushBatches(Sensor.TYPE_GYROSCOPE);
+        source.advance(0);
+
+        StatisticsSnapshot accelerometer = statistics.getSnapshot(Sensor.TYPE_ACCELEROMETER);
+        assertNotNull(accelerometer);
+        assertEquals(3, accelerometer.getAxisCount());
+        assertEquals(3, accelerometer.getWindowCount());
+        assertEquals(50, accelerometer.getSampleCount(0));
+        assertEquals(500, accelerometer.getSampleCount(1));
+        assertEquals(3000, accelerometer.getSampleCount(2));
+        for (int window = 0; window < 3; window++) {
+            for (int axis = 0; axis < 3; axis++) {
+                assertTrue(accelerometer.getMin(window, axis) <= accelerometer.getMean(window, axis));
+                assertTrue(accelerometer.getMean(window, axis) <= accelerometer.getMax(window, axis));
+                assertTrue(accelerometer.getRms(window, axis) >= Math.abs(accelerometer.getMean(window, axis)));
+                double median = accelerometer.getQuantile(window, axis, 0.5);
+                assertTrue(median <= accelerometer.getQuantile(window, axis, 0.99));
+            }
+        }
+
+        StatisticsSnapshot gyroscope = statistics.getSnapshot(Sensor.TYPE_GYROSCOPE);
+        assertNotNull(gyroscope);
+        assertEquals(6000, gyroscope.getSampleCount(2));
+    }
+
+    @Test
+    public void testSnapshotsCanBePolledWhileProducing() throws Exception {
+        SensorStreamStatistics stream = new SensorStreamStatistics(Sensor.TYPE_ACCELEROMETER, 3,
+                WINDOWS_NS, LEVELS, 10_000_000L, 1 << 12);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            long lastTimestamp = Long.MIN_VALUE;
+            while (!done.get()) {
+                StatisticsSnapshot snapshot = stream.getSnapshot();
+                if (snapshot == null) {
+                    continue;
+                }
+                if (snapshot.getTimestamp() < lastTimestamp) {
+                    failure.set("Snapshot went back in time");
+                }
+                lastTimestamp = snapshot.getTimestamp();
+                for (int axis = 0; axis < 3; axis++) {
+                    if (snapshot.getMin(0, axis) > snapshot.getMax(0, axis)) {
+                        failure.set("Inconsistent snapshot");
+                    }
+                }
+            }
+        });
+        reader.start();
+        Random random = new Random(5);
+        float[] values = new float[3];
+        for (int i = 0; i < 500_000; i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                values[axis] = random.nextFloat();
+            }
+            stream.add(i * 100_000L, values, 0, 3);
+        }
+        done.set(true);
+        reader.join();
+        assertNull(failure.get());
+    }
+
+    private static void assertMatchesBruteForce(StatisticsSnapshot snapshot, long[] timestamps, float[] values,
+                                                int newest, int axisCount) {
+        for (int window = 0; window < WINDOWS_NS.length; window++) {
+            int first = newest;
+            while (first > 0 && timestamps[first - 1] > timestamps[newest] - WINDOWS_NS[window]) {
+                first--;
+            }
+            int count = newest - first + 1;
+            assertEquals(count, snapshot.getSampleCount(window));
+            for (int axis = 0; axis < axisCount; axis++) {
+                double sum = 0;
+                double sumOfSquares = 0;
+                float min = Float.POSITIVE_INFINITY;
+                float max = Float.NEGATIVE_INFINITY;
+                for (int i = first; i <= newest; i++) {
+                    float value = values[i * axisCount + axis];
+                    sum += value;
+                    sumOfSquares += (double) value * value;
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                double mean = sum / count;
+                double variance = 0;
+                for (int i = first; i <= newest; i++) {
+                    double delta = values[i * axisCount + axis] - mean;
+                    variance += delta * delta;
+                }
+                variance = count > 1 ? variance / (count - 1) : 0;
+                assertEquals(mean, snapshot.getMean(window, axis), 1e-9 * (1 + Math.abs(mean)));
+                assertEquals(variance, snapshot.getVariance(window, axis), 1e-9 * (1 + variance));
+                assertEquals(Math.sqrt(sumOfSquares / count), snapshot.getRms(window, axis), 1e-9 * (1 + Math.abs(mean)));
+                assertEquals(min, snapshot.getMin(window, axis), 0.0);
+                assertEquals(max, snapshot.getMax(window, axis), 0.0);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.samsung.sensorapp.ui.adapter;
+
+import android.hardware.Sensor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for SensorRowIndex
+ */
+public class SensorRowIndexTest {
+
+    @Test
+    public void testPlatformSensorTypes() {
+        SensorRowIndex index = new SensorRowIndex();
+        index.put(Sensor.TYPE_ACCELEROMETER, 0);
+        index.put(Sensor.TYPE_GYROSCOPE, 1);
+        index.put(Sensor.TYPE_ACCELEROMETER, 2);
+
+        assertEquals(2, index.get(Sensor.TYPE_ACCELEROMETER));
+        assertEquals(1, index.get(Sensor.TYPE_GYROSCOPE));
+        assertEquals(-1, index.get(Sensor.TYPE_LIGHT));
+        assertEquals(-1, index.get(500));
+    }
+
+    @Test
+    public void testVendorSensorTypes() {
+        SensorRowIndex index = new SensorRowIndex();
+        for (int i = 0; i < 10; i++) {
+            index.put(Sensor.TYPE_DEVICE_PRIVATE_BASE + i, i);
+        }
+        index.put(-7, 42);
+
+        assertEquals(3, index.get(Sensor.TYPE_DEVICE_PRIVATE_BASE + 3));
+        assertEquals(9, index.get(Sensor.TYPE_DEVICE_PRIVATE_BASE + 9));
+        assertEquals(42, index.get(-7));
+        assertEquals(-1, index.get(Sensor.TYPE_DEVICE_PRIVATE_BASE + 10));
+    }
+
+    @Test
+    public void testClear() {
+        SensorRowIndex index = new SensorRowIndex();
+        index.put(Sensor.TYPE_LIGHT, 0);
+        index.put(Sensor.TYPE_DEVICE_PRIVATE_BASE, 1);
+        index.clear();
+
+        assertEquals(-1, index.get(Sensor.TYPE_LIGHT));
+        assertEquals(-1, index.get(Sensor.TYPE_DEVICE_PRIVATE_BASE));
+    }
+}
@@ -0,0 +1,141 @@
+package com.samsung.sensorapp.util;
+
+import android.hardware.Sensor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for FixedPointFormatter against String.format
+ */
+public class FixedPointFormatterTest {
+    private static final float[] EDGE_CASES = {
+            0f, -0f, 0.005f, -0.005f, 0.015f, 0.125f, -0.125f, 0.375f, 1.005f, 2.675f, 9.995f, 99.995f,
+            0.0049999f, -0.0049999f, 1e-45f, -1e-45f, 1e7f, 123456.789f, 4.5035996e15f, 4.5035996e13f,
+            1e20f, -3.4028235e38f, Float.MAX_VALUE, Float.MIN_NORMAL, Float.NaN,
+            Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY
+    };
+
+    private FixedPointFormatter formatter;
+    private Locale originalLocale;
+    private Locale originalFormatLocale;
+
+    @Before
+    public void setUp() {
+        formatter = new FixedPointFormatter();
+        originalLocale = Locale.getDefault();
+        originalFormatLocale = Locale.getDefault(Locale.Category.FORMAT);
+    }
+
+    @After
+    public void tearDown() {
+        Locale.setDefault(originalLocale);
+        Locale.setDefault(Locale.Category.FORMAT, originalFormatLocale);
+    }
+
+    @Test
+    public void testEdgeCasesMatchStringFormat() {
+        for (int precision = 0; precision <= FixedPointFormatter.MAX_PRECISION; precision++) {
+            for (float value : EDGE_CASES) {
+                assertMatches(value, precision);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomValuesMatchStringFormat() {
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            int precision = i % (FixedPointFormatter.MAX_PRECISION + 1);
+            float value = i % 2 == 0
+                    ? Float.intBitsToFloat(random.nextInt())
+                    : (float) ((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4));
+            assertMatches(value, precision);
+        }
+    }
+
+    @Test
+    public void testRoundingBoundariesMatchStringFormat() {
+        for (int k = -20_000; k < 20_000; k++) {
+            float tie = (k + 0.5f) / 100f;
+            assertMatches(tie, 2);
+            assertMatches(Math.nextUp(tie), 2);
+            assertMatches(Math.nextDown(tie), 2);
+        }
+    }
+
+    @Test
+    public void testFollowsDefaultLocale() {
+        Locale.setDefault(Locale.GERMANY);
+        assertMatches(-12.345f, 2);
+        assertEquals("-12,35", format(-12.345f, 2));
+
+        Locale.setDefault(Locale.US);
+        assertEquals("-12.35", format(-12.345f, 2));
+    }
+
+    @Test
+    public void testFollowsFormatLocaleWhenItDiffersFromDefault() {
+        formatter = new FixedPointFormatter(true);
+        Locale.setDefault(Locale.US);
+        Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+        assertMatches(1.5f, 2);
+        assertEquals("1,50", format(1.5f, 2));
+
+        Locale.setDefault(Locale.Category.FORMAT, Locale.US);
+        assertEquals("1.50", format(1.5f, 2));
+    }
+
+    @Test
+    public void testWritesAtOffset() {
+        char[] buffer = new char[FixedPointFormatter.MAX_LENGTH + 2];
+        buffer[0] = '[';
+        int end = formatter.format(3.14159f, 3, buffer, 1);
+        buffer[end] = ']';
+        assertEquals("[" + String.format("%.3f", 3.14159f) + "]", new String(buffer, 0, end + 1));
+    }
+
+    @Test
+    public void testSensorDescriptionMatchesStringFormat() {
+        float[] xyz = {1.005f, -0.125f, 9.80665f};
+        float[] one = {1013.255f};
+        assertEquals(String.format("X: %.2f, Y: %.2f, Z: %.2f m/s²", xyz[0], xyz[1], xyz[2]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_ACCELEROMETER, xyz));
+        assertEquals(String.format("X: %.2f, Y: %.2f, Z: %.2f µT", xyz[0], xyz[1], xyz[2]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_MAGNETIC_FIELD, xyz));
+        assertEquals(String.format("X: %.2f, Y: %.2f, Z: %.2f rad/s", xyz[0], xyz[1], xyz[2]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_GYROSCOPE, xyz));
+        assertEquals(String.format("Light: %.2f lx", one[0]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_LIGHT, one));
+        assertEquals(String.format("Pressure: %.2f hPa", one[0]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_PRESSURE, one));
+        assertEquals(String.format("Temperature: %.2f °C", one[0]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_TEMPERATURE, one));
+        assertEquals(String.format("Humidity: %.2f %%", one[0]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_RELATIVE_HUMIDITY, one));
+        assertEquals(String.format("Ambient Temp: %.2f °C", one[0]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_AMBIENT_TEMPERATURE, one));
+        assertEquals(String.format("Steps: %.0f", 12345.5f),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_STEP_COUNTER, new float[]{12345.5f}));
+        assertEquals(String.format("Distance: %.2f cm", one[0]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_PROXIMITY, one));
+        assertEquals(String.format("%.2f, %.2f, %.2f", xyz[0], xyz[1], xyz[2]),
+                SensorDataMapper.getSensorDescription(Sensor.TYPE_GRAVITY, xyz));
+        assertEquals("No data available", SensorDataMapper.getSensorDescription(Sensor.TYPE_LIGHT, new float[0]));
+    }
+
+    private void assertMatches(float value, int precision) {
+        assertEquals("value " + value + " precision " + precision,
+                String.format("%." + precision + "f", value), format(value, precision));
+    }
+
+    private String format(float value, int precision) {
+        return formatter.append(new StringBuilder(), value, precision).toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.samsung.sensorapp.util;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Unit tests for SensorTypeRegistry
+ */
+public class SensorTypeRegistryTest {
+    /** Vendor ids private to this test, so registrations do not leak into other tests */
+    private static final int VENDOR_TYPE = 0x10000 + 100;
+    private static final int REPLACED_TYPE = 0x10000 + 101;
+
+    @Test
+    public void testBuiltInMetadata() {
+        SensorTypeInfo accelerometer = SensorTypeRegistry.get(Sensor.TYPE_ACCELEROMETER);
+        assertEquals("Accelerometer", accelerometer.getName());
+        assertEquals("m/s²", accelerometer.getUnit());
+        assertEquals(3, accelerometer.getAxisCount());
+        assertEquals("Z", accelerometer.getAxisLabel(2));
+        assertEquals(2, accelerometer.getPrecision());
+
+        SensorTypeInfo stepCounter = SensorTypeRegistry.get(Sensor.TYPE_STEP_COUNTER);
+        assertEquals(1, stepCounter.getAxisCount());
+        assertEquals(2, stepCounter.getPrecision());
+
+        assertSame(SensorTypeRegistry.UNKNOWN, SensorTypeRegistry.get(999));
+        assertFalse(SensorTypeRegistry.isRegistered(999));
+    }
+
+    @Test
+    public void testRuntimeRegistration() {
+        assertFalse(SensorTypeRegistry.isRegistered(VENDOR_TYPE));
+        SensorTypeRegistry.register(new SensorTypeInfo(VENDOR_TYPE, "Air Quality", "ppm", 1,
+                SensorTypeInfo.DescriptionStyle.AXES, "CO2", "VOC"));
+
+        assertTrue(SensorTypeRegistry.isRegistered(VENDOR_TYPE));
+        assertEquals("Air Quality", SensorDataMapper.getSensorTypeName(VENDOR_TYPE));
+        assertEquals("ppm", SensorDataMapper.getSensorUnit(VENDOR_TYPE));
+        assertEquals("CO2: 412.0, VOC: 0.3 ppm",
+                SensorDataMapper.getSensorDescription(VENDOR_TYPE, new float[]{412f, 0.25f}));
+        // Lookups of the built-in types are unaffected
+        assertEquals("Gyroscope", SensorDataMapper.getSensorTypeName(Sensor.TYPE_GYROSCOPE));
+    }
+
+    @Test
+    public void testRegistrationReplacesExistingType() {
+        SensorTypeRegistry.register(new SensorTypeInfo(REPLACED_TYPE, "First", "a", 2,
+                SensorTypeInfo.DescriptionStyle.VALUES, "A"));
+        SensorTypeRegistry.register(new SensorTypeInfo(REPLACED_TYPE, "Second", "b", 2,
+                SensorTypeInfo.DescriptionStyle.LABELLED_VALUE, "Level"));
+
+        assertEquals("Second", SensorTypeRegistry.get(REPLACED_TYPE).getName());
+        assertEquals("Level: 1.50 b", SensorDataMapper.getSensorDescription(REPLACED_TYPE, new float[]{1.5f}));
+    }
+
+    @Test
+    public void testSensorDataResolvesMetadataFromType() {
+        SensorData steps = new SensorData("Steps", Sensor.TYPE_STEP_COUNTER, new float[]{1234f}, 3, 0L);
+        assertEquals("steps", steps.getUnit());
+        assertSame(SensorTypeRegistry.get(Sensor.TYPE_STEP_COUNTER), steps.getTypeInfo());
+        assertEquals("1234.00", steps.getFormattedValues());
+
+        SensorData light = new SensorData("Light", Sensor.TYPE_LIGHT, new float[]{12.345f}, 3, 0L);
+        assertEquals("lx", light.getUnit());
+        assertEquals("12.35", light.getFormattedValues());
+
+        SensorData lux = new SensorData("Light", Sensor.TYPE_LIGHT, new float[]{12.345f}, 3, 0L, "lux");
+        assertEquals("lux", lux.getUnit());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTypeWithoutAxes() {
+        new SensorTypeInfo(VENDOR_TYPE + 10, "Empty", "", 2, SensorTypeInfo.DescriptionStyle.VALUES);
+    }
+}
@@ -0,0 +1,45 @@
+package com.samsung.sensorapp.fusion;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for the per-sample cost of orientation fusion
+ */
+@State(Scope.Thread)
+public class MadgwickFilterBenchmark {
+    private static final float DT = 0.005f;
+
+    private final MadgwickFilter filter = new MadgwickFilter();
+    private final float[] rotation = new float[4];
+    private int step;
+
+    @Setup
+    public void setUp() {
+        filter.initialize(0.3f, -0.2f, 9.7f, 5f, 20f, -40f);
+    }
+
+    /**
+     * Gyroscope, accelerometer and magnetometer update plus rotation vector output
+     */
+    @Benchmark
+    public float[] marg() {
+        float wobble = (step++ & 63) * 0.001f;
+        filter.update(0.1f + wobble, -0.05f, 0.2f, 0.3f, -0.2f + wobble, 9.7f, 5f, 20f, -40f, DT);
+        filter.getRotationVector(rotation);
+        return rotation;
+    }
+
+    /**
+     * Gyroscope and accelerometer update plus rotation vector output
+     */
+    @Benchmark
+    public float[] imu() {
+        float wobble = (step++ & 63) * 0.001f;
+        filter.updateImu(0.1f + wobble, -0.05f, 0.2f, 0.3f, -0.2f + wobble, 9.7f, DT);
+        filter.getRotationVector(rotation);
+        return rotation;
+    }
+}
@@ -0,0 +1,48 @@
+package com.samsung.sensorapp.fusion;
+
+import android.hardware.Sensor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for aligning accelerometer, gyroscope and light onto a 100 Hz grid
+ */
+@State(Scope.Thread)
+public class StreamAlignerBenchmark {
+    private static final long INPUT_PERIOD_NS = 5_000_000L;
+
+    private StreamAligner aligner;
+    private final long[] timestamp = new long[1];
+    private final float[] motion = {0.1f, 0.2f, 9.81f};
+    private final float[] lux = {120f};
+    private long step;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        aligner = new StreamAligner(
+                new int[]{Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_GYROSCOPE, Sensor.TYPE_LIGHT},
+                new int[]{3, 3, 1}, 10_000_000L,
+                frame -> blackhole.consume(frame.getColumn(0)[frame.getRowCount() - 1]));
+    }
+
+    /**
+     * One 200 Hz accelerometer and gyroscope sample, plus a 10 Hz light sample every 20 steps
+     */
+    @Benchmark
+    public void alignStep() {
+        long now = step++ * INPUT_PERIOD_NS;
+        timestamp[0] = now;
+        motion[0] = now * 1e-9f;
+        aligner.onSensorDataBatch(Sensor.TYPE_ACCELEROMETER, timestamp, motion, 1, 3);
+        timestamp[0] = now + 1_300_000L;
+        aligner.onSensorDataBatch(Sensor.TYPE_GYROSCOPE, timestamp, motion, 1, 3);
+        if (step % 20 == 0) {
+            timestamp[0] = now + 2_700_000L;
+            aligner.onSensorDataBatch(Sensor.TYPE_LIGHT, timestamp, lux, 1, 1);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.samsung.sensorapp.history;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for full GC pauses against retained history size
+ * Each trial retains three-axis history in a List of SensorData, in
+ * SensorHistory or in OffHeapSensorHistory capped at 8 MiB, and measures how
+ * long a full collection takes while it is reachable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OffHeapHistoryGcBenchmark {
+    private static final long PERIOD_NS = 5_000_000L;
+
+    public enum Store {
+        LIST, HEAP_HISTORY, OFF_HEAP
+    }
+
+    @Param({"500000", "2000000"})
+    public int sampleCount;
+
+    @Param({"LIST", "HEAP_HISTORY", "OFF_HEAP"})
+    public Store store;
+
+    private File directory;
+    private Object retained;
+
+    @Setup
+    public void setUp() throws IOException {
+        float[] values = new float[3];
+        long[] timestamp = new long[1];
+        switch (store) {
+            case LIST:
+                List<SensorData> list = new ArrayList<>(sampleCount);
+                for (int i = 0; i < sampleCount; i++) {
+                    list.add(new SensorData("Accelerometer", Sensor.TYPE_ACCELEROMETER,
+                            new float[]{i, 0f, 9.81f}, 3, i * PERIOD_NS));
+                }
+                retained = list;
+                break;
+            case HEAP_HISTORY:
+                SensorHistory heapHistory = new SensorHistory(Long.MAX_VALUE, SensorHistory.DEFAULT_CHUNK_SAMPLES);
+                for (int i = 0; i < sampleCount; i++) {
+                    timestamp[0] = i * PERIOD_NS;
+                    values[0] = i;
+                    heapHistory.onSensorDataBatch(Sensor.TYPE_ACCELEROMETER, timestamp, values, 1, 3);
+                }
+                retained = heapHistory;
+                break;
+            default:
+                directory = Files.createTempDirectory("offheap-gc").toFile();
+                OffHeapSensorHistory offHeapHistory = new OffHeapSensorHistory(directory,
+                        8 << 20, OffHeapSensorHistory.DEFAULT_CHUNK_BYTES, Long.MAX_VALUE);
+                for (int i = 0; i < sampleCount; i++) {
+                    timestamp[0] = i * PERIOD_NS;
+                    values[0] = i;
+                    offHeapHistory.onSensorDataBatch(Sensor.TYPE_ACCELEROMETER, timestamp, values, 1, 3);
+                }
+                retained = offHeapHistory;
+                break;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (retained instanceof OffHeapSensorHistory) {
+            ((OffHeapSensorHistory) retained).close();
+        }
+        retained = null;
+        if (directory != null) {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    @Benchmark
+    public Object fullGc() {
+        System.gc();
+        return retained;
+    }
+}
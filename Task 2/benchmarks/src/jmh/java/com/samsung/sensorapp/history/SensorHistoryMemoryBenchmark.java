@@ -0,0 +1,84 @@
+package com.samsung.sensorapp.history;
+
+import android.hardware.Sensor;
+
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.util.SensorDataMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmarks for the heap footprint of SensorHistory against a List of SensorData
+ * Each invocation keeps ten minutes of eight 200 Hz sensors (960,000 samples)
+ * and scores are per sample. Everything allocated is retained until the
+ * invocation returns, so the gc profiler's gc.alloc.rate.norm is the heap
+ * each store needs per sample.
+ */
+@State(Scope.Thread)
+public class SensorHistoryMemoryBenchmark {
+    private static final int[] SENSOR_TYPES = {
+            Sensor.TYPE_ACCELEROMETER, Sensor.TYPE_GYROSCOPE, Sensor.TYPE_MAGNETIC_FIELD, Sensor.TYPE_GRAVITY,
+            Sensor.TYPE_LINEAR_ACCELERATION, Sensor.TYPE_ROTATION_VECTOR, Sensor.TYPE_LIGHT, Sensor.TYPE_PRESSURE
+    };
+    private static final String[] SENSOR_NAMES = new String[SENSOR_TYPES.length];
+    private static final long PERIOD_NS = 5_000_000L;
+    private static final int SAMPLES_PER_SENSOR = 10 * 60 * 200;
+    private static final int TOTAL_SAMPLES = SAMPLES_PER_SENSOR * 8;
+
+    static {
+        for (int s = 0; s < SENSOR_TYPES.length; s++) {
+            SENSOR_NAMES[s] = "Sensor " + SENSOR_TYPES[s];
+        }
+    }
+
+    private final float[][] values = new float[SENSOR_TYPES.length][];
+    private final long[] timestamp = new long[1];
+
+    public SensorHistoryMemoryBenchmark() {
+        for (int s = 0; s < SENSOR_TYPES.length; s++) {
+            values[s] = new float[SENSOR_TYPES[s] == Sensor.TYPE_LIGHT || SENSOR_TYPES[s] == Sensor.TYPE_PRESSURE
+                    ? 1 : SENSOR_TYPES[s] == Sensor.TYPE_ROTATION_VECTOR ? 4 : 3];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL_SAMPLES)
+    public List<SensorData> sensorDataList() {
+        List<SensorData> list = new ArrayList<>(TOTAL_SAMPLES);
+        for (int i = 0; i < SAMPLES_PER_SENSOR; i++) {
+            for (int s = 0; s < SENSOR_TYPES.length; s++) {
+                list.add(SensorDataMapper.mapToSensorData(SENSOR_NAMES[s], SENSOR_TYPES[s], sample(s, i), 3,
+                        i * PERIOD_NS));
+            }
+        }
+        return list;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL_SAMPLES)
+    public SensorHistory sensorHistory() {
+        SensorHistory history = new SensorHistory();
+        for (int i = 0; i < SAMPLES_PER_SENSOR; i++) {
+            timestamp[0] = i * PERIOD_NS;
+            for (int s = 0; s < SENSOR_TYPES.length; s++) {
+                float[] sample = sample(s, i);
+                history.onSensorDataBatch(SENSOR_TYPES[s], timestamp, sample, 1, sample.length);
+            }
+        }
+        return history;
+    }
+
+    private float[] sample(int sensor, int index) {
+        float[] sample = values[sensor];
+        for (int axis = 0; axis < sample.length; axis++) {
+            sample[axis] = index * 0.001f + axis;
+        }
+        return sample;
+    }
+}
@@ -0,0 +1,79 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for delivering one event to every registered listener
+ */
+@State(Scope.Thread)
+public class ListenerFanOutBenchmark {
+    @Param({"1", "8", "64"})
+    public int listenerCount;
+
+    @Param({"false", "true"})
+    public boolean recycling;
+
+    private ReplaySensorEventSource source;
+    private SensorDataManager.SensorEventListenerImpl sink;
+    private final float[] values = {0.1f, 0.2f, 9.81f};
+    private long timestamp;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        source = new ReplaySensorEventSource();
+        SensorDataManager manager = new SensorDataManager(source, SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        manager.setSensorDataRecyclingEnabled(recycling);
+        for (int i = 0; i < listenerCount; i++) {
+            manager.registerListener(Sensor.TYPE_ACCELEROMETER, new ConsumingListener(blackhole),
+                    SensorManager.SENSOR_DELAY_FASTEST);
+        }
+        sink = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+    }
+
+    /**
+     * Manager dispatch only: mapping plus the listener loop
+     */
+    @Benchmark
+    public void dispatch() {
+        sink.onSensorChanged("Accelerometer", values, 3, timestamp++);
+    }
+
+    /**
+     * Full replay path including synthetic value generation
+     */
+    @Benchmark
+    public long replay() {
+        return source.emit(1);
+    }
+
+    private static final class ConsumingListener implements SensorEventListener {
+        private final Blackhole blackhole;
+
+        ConsumingListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            blackhole.consume(sensorData.getValues()[0]);
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the cost pipeline metrics add to dispatching one event
+ * timingInterval 0 disables metrics; 1 times every event, the worst case.
+ */
+@State(Scope.Thread)
+public class PipelineMetricsBenchmark {
+    @Param({"1", "8"})
+    public int listenerCount;
+
+    @Param({"0", "64", "1"})
+    public int timingInterval;
+
+    private SensorDataManager manager;
+    private SensorDataManager.SensorEventListenerImpl sink;
+    private final float[] values = {0.1f, 0.2f, 9.81f};
+    private long timestamp;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        manager = new SensorDataManager(new ReplaySensorEventSource(), SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        manager.setSensorDataRecyclingEnabled(true);
+        manager.getMetrics().setEnabled(timingInterval > 0);
+        if (timingInterval > 0) {
+            manager.getMetrics().setTimingInterval(timingInterval);
+        }
+        for (int i = 0; i < listenerCount; i++) {
+            manager.registerListener(Sensor.TYPE_ACCELEROMETER, new ConsumingListener(blackhole),
+                    SensorManager.SENSOR_DELAY_FASTEST);
+        }
+        sink = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+    }
+
+    @Benchmark
+    public void dispatch() {
+        sink.onSensorChanged("Accelerometer", values, 3, timestamp++);
+    }
+
+    /**
+     * Snapshot cost for one sensor type, paid by whoever polls the metrics
+     */
+    @Benchmark
+    public PipelineMetricsSnapshot snapshot() {
+        return manager.getMetrics().snapshot();
+    }
+
+    private static final class ConsumingListener implements SensorEventListener {
+        private final Blackhole blackhole;
+
+        ConsumingListener(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            blackhole.consume(sensorData.getValues()[0]);
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
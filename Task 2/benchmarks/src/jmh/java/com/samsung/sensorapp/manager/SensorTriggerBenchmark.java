@@ -0,0 +1,76 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for evaluating triggers on the dispatch thread
+ * The accelerometer carries a varying number of rules that never match,
+ * mixed across all kinds, while the gyroscope carries 1000 rules of its own
+ * that accelerometer events must not pay for.
+ */
+@State(Scope.Thread)
+public class SensorTriggerBenchmark {
+    private static final int OTHER_TYPE_TRIGGERS = 1000;
+
+    @Param({"0", "10", "100"})
+    public int triggerCount;
+
+    private SensorDataManager manager;
+    private SensorDataManager.SensorEventListenerImpl sink;
+    private final float[] values = {0.1f, 0.2f, 9.81f};
+    private long timestamp;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        manager = new SensorDataManager(new ReplaySensorEventSource(), SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        manager.setSensorDataRecyclingEnabled(true);
+        TriggerListener listener = (trigger, sensorData) -> blackhole.consume(sensorData);
+        for (int i = 0; i < triggerCount; i++) {
+            manager.addTrigger(Sensor.TYPE_ACCELEROMETER, unreachable(i), listener, SensorManager.SENSOR_DELAY_FASTEST);
+        }
+        for (int i = 0; i < OTHER_TYPE_TRIGGERS; i++) {
+            manager.addTrigger(Sensor.TYPE_GYROSCOPE, unreachable(i), listener, SensorManager.SENSOR_DELAY_FASTEST);
+        }
+        if (triggerCount == 0) {
+            // Register briefly so the sink exists, then dispatch with no rules at all
+            SensorTrigger placeholder = unreachable(0);
+            manager.addTrigger(Sensor.TYPE_ACCELEROMETER, placeholder, listener, SensorManager.SENSOR_DELAY_FASTEST);
+            sink = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+            manager.removeTrigger(Sensor.TYPE_ACCELEROMETER, placeholder, listener);
+        } else {
+            sink = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Benchmark
+    public void dispatch() {
+        sink.onSensorChanged("Accelerometer", values, 3, timestamp++);
+    }
+
+    private static SensorTrigger unreachable(int i) {
+        switch (i & 3) {
+            case 0:
+                return SensorTrigger.above(SensorTrigger.MAGNITUDE, 1000f + i);
+            case 1:
+                return SensorTrigger.below(i % 3, -1000f - i);
+            case 2:
+                return SensorTrigger.hysteresis(i % 3, 1000f + i, 500f).debounced(3);
+            default:
+                return SensorTrigger.rateOfChange(i % 3, 1e15f);
+        }
+    }
+}
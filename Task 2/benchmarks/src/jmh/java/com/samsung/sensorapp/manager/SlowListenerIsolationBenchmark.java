@@ -0,0 +1,86 @@
+package com.samsung.sensorapp.manager;
+
+import android.hardware.Sensor;
+import android.hardware.SensorManager;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for dispatching to three fast listeners next to one slow one
+ * The slow callback takes about 60 us. Without isolation every event waits
+ * for it; with a 20 us budget the slow listener is moved to its own lane
+ * after its first few timed callbacks.
+ */
+@State(Scope.Thread)
+public class SlowListenerIsolationBenchmark {
+    private static final long SLOW_CALLBACK_TOKENS = 20_000;
+
+    @Param({"false", "true"})
+    public boolean isolation;
+
+    private SensorDataManager manager;
+    private SensorDataManager.SensorEventListenerImpl sink;
+    private final float[] values = {0.1f, 0.2f, 9.81f};
+    private long timestamp;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        manager = new SensorDataManager(new ReplaySensorEventSource(), SensorDataManager.DispatchMode.MAIN_LOOPER, 0);
+        manager.setSensorDataRecyclingEnabled(true);
+        if (isolation) {
+            manager.setSlowListenerIsolation(20_000L, SensorDataManager.DEFAULT_SLOW_LISTENER_STRIKES,
+                    SensorDataManager.DEFAULT_SLOW_LISTENER_LANE_CAPACITY, null);
+        }
+        for (int i = 0; i < 3; i++) {
+            manager.registerListener(Sensor.TYPE_ACCELEROMETER, new ConsumingListener(blackhole, 0),
+                    SensorManager.SENSOR_DELAY_FASTEST);
+        }
+        manager.registerListener(Sensor.TYPE_ACCELEROMETER, new ConsumingListener(blackhole, SLOW_CALLBACK_TOKENS),
+                SensorManager.SENSOR_DELAY_FASTEST);
+        sink = manager.registry.get(Sensor.TYPE_ACCELEROMETER).internalListener;
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.shutdown();
+    }
+
+    @Benchmark
+    public void dispatch() {
+        sink.onSensorChanged("Accelerometer", values, 3, timestamp++);
+    }
+
+    private static final class ConsumingListener implements SensorEventListener {
+        private final Blackhole blackhole;
+        private final long tokens;
+
+        ConsumingListener(Blackhole blackhole, long tokens) {
+            this.blackhole = blackhole;
+            this.tokens = tokens;
+        }
+
+        @Override
+        public void onSensorDataChanged(SensorData sensorData) {
+            blackhole.consume(sensorData.getValues()[0]);
+            if (tokens > 0) {
+                Blackhole.consumeCPU(tokens);
+            }
+        }
+
+        @Override
+        public void onSensorAccuracyChanged(int accuracy) {
+        }
+
+        @Override
+        public void onSensorError(String errorMessage) {
+        }
+    }
+}
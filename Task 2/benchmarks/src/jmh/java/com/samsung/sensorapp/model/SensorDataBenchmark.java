@@ -0,0 +1,32 @@
+package com.samsung.sensorapp.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for formatting a reading for display
+ */
+@State(Scope.Thread)
+public class SensorDataBenchmark {
+    @Param({"1", "3", "5"})
+    public int valueCount;
+
+    private SensorData sensorData;
+
+    @Setup
+    public void setUp() {
+        float[] values = new float[valueCount];
+        for (int i = 0; i < valueCount; i++) {
+            values[i] = -12.345f + 7.891f * i;
+        }
+        sensorData = new SensorData("Benchmark", 1, values, 3, 0L);
+    }
+
+    @Benchmark
+    public String getFormattedValues() {
+        return sensorData.getFormattedValues();
+    }
+}
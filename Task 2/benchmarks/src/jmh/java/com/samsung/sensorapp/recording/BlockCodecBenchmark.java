@@ -0,0 +1,97 @@
+package com.samsung.sensorapp.recording;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * Benchmarks for compressing and decompressing one full recording block
+ * Scores are per sample; multiply by three for values per second on the
+ * motion traces. The traces come from {@link HandheldTrace}, the same ones
+ * BlockCodecTest checks. Encoding also reports the compression ratio against
+ * raw samples (an 8-byte timestamp and 4 bytes per value) and the encoded
+ * bits per sample as secondary results.
+ */
+@State(Scope.Thread)
+public class BlockCodecBenchmark {
+    private static final int SAMPLES = SensorRecorder.DEFAULT_BLOCK_SAMPLES;
+
+    /**
+     * Size of the encoded block, header included
+     * JMH sums event counters over measurement iterations, forks and threads,
+     * so each iteration reports its share and the totals read as per block.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Compression {
+        public double ratio;
+        public double bitsPerSample;
+        private double share;
+
+        @Setup(Level.Trial)
+        public void setUp(BenchmarkParams params) {
+            share = 1.0 / ((long) params.getMeasurement().getCount() * Math.max(1, params.getForks())
+                    * params.getThreads());
+        }
+
+        void record(double ratio, double bitsPerSample) {
+            this.ratio = ratio * share;
+            this.bitsPerSample = bitsPerSample * share;
+        }
+    }
+
+    @Param({"ACCELEROMETER", "GYROSCOPE", "LIGHT"})
+    public String trace;
+
+    private HandheldTrace handheldTrace;
+    private final long[] timestamps = new long[SAMPLES];
+    private final byte[] accuracies = new byte[SAMPLES];
+    private float[] values;
+    private int valuesPerSample;
+    private ByteBuffer buffer;
+    private final BitWriter writer = new BitWriter();
+    private final BitReader reader = new BitReader();
+    private final RecordedBlock block = new RecordedBlock();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        handheldTrace = HandheldTrace.valueOf(trace);
+        valuesPerSample = handheldTrace.getValuesPerSample();
+        values = new float[SAMPLES * valuesPerSample];
+        handheldTrace.generate(new Random(11), timestamps, accuracies, values, SAMPLES);
+        buffer = ByteBuffer.allocate(SensorRecordingFormat.maxBlockSize(SAMPLES, valuesPerSample))
+                .order(ByteOrder.LITTLE_ENDIAN);
+        block.reset(0, SAMPLES, valuesPerSample);
+        writer.wrap(buffer);
+        BlockCodec.encode(writer, timestamps, accuracies, values, SAMPLES, valuesPerSample);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public ByteBuffer encode(Compression compression) {
+        buffer.clear();
+        writer.wrap(buffer);
+        BlockCodec.encode(writer, timestamps, accuracies, values, SAMPLES, valuesPerSample);
+        int encoded = SensorRecordingFormat.BLOCK_HEADER_SIZE + buffer.position();
+        compression.record((double) handheldTrace.getRawBytes(SAMPLES) / encoded, encoded * 8.0 / SAMPLES);
+        return buffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public RecordedBlock decode() {
+        reader.wrap(buffer, 0, buffer.position());
+        BlockCodec.decode(reader, timestamps[0], block);
+        return block;
+    }
+}
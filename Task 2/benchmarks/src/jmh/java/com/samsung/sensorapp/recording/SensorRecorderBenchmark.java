@@ -0,0 +1,95 @@
+package com.samsung.sensorapp.recording;
+
+import android.hardware.Sensor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Benchmarks for writing and reading the binary recording format
+ * Uses a synthetic trace of 200 Hz accelerometer and gyroscope plus 10 Hz
+ * light. Scores are per event; the read benchmark replays a recording made
+ * once per trial, the record benchmark writes a fresh one per invocation.
+ */
+@State(Scope.Thread)
+public class SensorRecorderBenchmark {
+    private static final int STEPS = 1_000_000;
+    private static final int EVENTS = STEPS * 2 + STEPS / 20;
+
+    private final float[] values = new float[3];
+    private File recorded;
+    private File scratch;
+
+    @Setup
+    public void setUp() throws IOException {
+        recorded = Files.createTempDirectory("recorder-read").toFile();
+        record(recorded);
+    }
+
+    @TearDown
+    public void tearDown() {
+        delete(recorded);
+    }
+
+    @Setup(Level.Invocation)
+    public void createScratch() throws IOException {
+        scratch = Files.createTempDirectory("recorder-write").toFile();
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteScratch() {
+        delete(scratch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long record() throws IOException {
+        return record(scratch);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public long read() throws IOException {
+        long[] read = new long[1];
+        new SensorRecordingReader(recorded).forEachBlock(block -> read[0] += block.getSampleCount());
+        return read[0];
+    }
+
+    private long record(File directory) throws IOException {
+        SensorRecorder recorder = new SensorRecorder(directory);
+        long timestamp = 0;
+        for (int i = 0; i < STEPS; i++) {
+            timestamp += 5_000_000L + (i & 0x3FF);
+            values[0] = (float) Math.sin(i * 0.01);
+            values[1] = (float) Math.cos(i * 0.01);
+            values[2] = 9.81f;
+            recorder.record(Sensor.TYPE_ACCELEROMETER, timestamp, values, 3, 3);
+            recorder.record(Sensor.TYPE_GYROSCOPE, timestamp + 1000, values, 3, 3);
+            if (i % 20 == 0) {
+                values[0] = 300f + (i & 0xFF);
+                recorder.record(Sensor.TYPE_LIGHT, timestamp, values, 1, 3);
+            }
+        }
+        recorder.close();
+        return recorder.getBytesWritten();
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,147 @@
+package com.samsung.sensorapp.recording;
+
+import android.hardware.Sensor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Benchmarks for SensorRecordingIndex queries against a full scan of the recording
+ * Records a synthetic trace of 200 Hz accelerometer and gyroscope plus 10 Hz
+ * light once per trial, then runs three queries both ways: all gyroscope
+ * samples in one minute, the largest accelerometer x over the whole
+ * recording, and the largest accelerometer magnitude of every minute of a
+ * ten-minute window. Raise recordingMegabytes for multi-GB recordings.
+ */
+@State(Scope.Benchmark)
+public class SensorRecordingIndexBenchmark {
+    private static final long PERIOD_NS = 5_000_000L;
+    private static final long MINUTE_NS = 60_000_000_000L;
+
+    @Param({"256"})
+    public int recordingMegabytes;
+
+    private File directory;
+    private SensorRecordingIndex index;
+    private SensorRecordingReader reader;
+    private long from;
+    private long to;
+    private long windowStart;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recording-index").toFile();
+        SensorRecorder recorder = new SensorRecorder(directory);
+        float[] values = new float[3];
+        long timestamp = 0;
+        for (int i = 0; recorder.getBytesWritten() < (long) recordingMegabytes << 20; i++) {
+            timestamp += PERIOD_NS;
+            values[0] = (float) Math.sin(i * 0.01) * (1 + (i >> 16 & 7));
+            values[1] = (float) Math.cos(i * 0.013);
+            values[2] = 9.81f + (i & 0xF) * 0.01f;
+            recorder.record(Sensor.TYPE_ACCELEROMETER, timestamp, values, 3, 3);
+            recorder.record(Sensor.TYPE_GYROSCOPE, timestamp + 1000, values, 3, 3);
+            if (i % 20 == 0) {
+                values[0] = 300f + (i & 0xFF);
+                recorder.record(Sensor.TYPE_LIGHT, timestamp, values, 1, 3);
+            }
+        }
+        recorder.close();
+        index = SensorRecordingIndex.open(directory);
+        reader = new SensorRecordingReader(directory);
+        from = timestamp / 2;
+        to = from + MINUTE_NS;
+        windowStart = timestamp / 3;
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public long scanGyroscopeMinute() throws IOException {
+        long[] count = new long[1];
+        reader.forEachBlock(block -> {
+            if (block.getSensorType() == Sensor.TYPE_GYROSCOPE) {
+                for (int i = 0; i < block.getSampleCount(); i++) {
+                    long t = block.getTimestamp(i);
+                    if (t >= from && t <= to) {
+                        count[0]++;
+                    }
+                }
+            }
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public long indexGyroscopeMinute() {
+        return index.forEachSample(Sensor.TYPE_GYROSCOPE, from, to,
+                (sensorType, t, sampleValues, valueCount, accuracy) -> { });
+    }
+
+    @Benchmark
+    public float scanMaxAccelerometerX() throws IOException {
+        float[] max = {Float.NEGATIVE_INFINITY};
+        reader.forEachBlock(block -> {
+            if (block.getSensorType() == Sensor.TYPE_ACCELEROMETER) {
+                for (int i = 0; i < block.getSampleCount(); i++) {
+                    max[0] = Math.max(max[0], block.getValue(i, 0));
+                }
+            }
+        });
+        return max[0];
+    }
+
+    @Benchmark
+    public float indexMaxAccelerometerX() {
+        return index.max(Sensor.TYPE_ACCELEROMETER, 0, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public double[] scanMaxMagnitudePerMinute() throws IOException {
+        double[] magnitudes = new double[10];
+        reader.forEachBlock(block -> {
+            if (block.getSensorType() == Sensor.TYPE_ACCELEROMETER) {
+                for (int i = 0; i < block.getSampleCount(); i++) {
+                    long t = block.getTimestamp(i);
+                    long minute = (t - windowStart) / MINUTE_NS;
+                    if (t >= windowStart && minute < 10) {
+                        double x = block.getValue(i, 0);
+                        double y = block.getValue(i, 1);
+                        double z = block.getValue(i, 2);
+                        magnitudes[(int) minute] = Math.max(magnitudes[(int) minute],
+                                Math.sqrt(x * x + y * y + z * z));
+                    }
+                }
+            }
+        });
+        return magnitudes;
+    }
+
+    @Benchmark
+    public float[] indexMaxMagnitudePerMinute() {
+        float[] magnitudes = new float[10];
+        for (int minute = 0; minute < 10; minute++) {
+            long minuteStart = windowStart + minute * MINUTE_NS;
+            magnitudes[minute] = index.maxMagnitude(Sensor.TYPE_ACCELEROMETER, minuteStart,
+                    minuteStart + MINUTE_NS - 1);
+        }
+        return magnitudes;
+    }
+}
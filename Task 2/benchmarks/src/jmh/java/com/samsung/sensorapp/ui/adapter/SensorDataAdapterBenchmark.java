@@ -0,0 +1,72 @@
+package com.samsung.sensorapp.ui.adapter;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+import com.samsung.sensorapp.model.SensorData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+
+/**
+ * Benchmarks for SensorDataAdapter updates as the number of rows grows
+ */
+@State(Scope.Thread)
+public class SensorDataAdapterBenchmark {
+    private static final int VISIBLE_ROWS = 12;
+
+    @Param({"8", "64", "512"})
+    public int rows;
+
+    private SensorDataAdapter adapter;
+    private SensorData[] updates;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Context context = new Context() {
+            @Override
+            public Object getSystemService(String name) {
+                return null;
+            }
+        };
+        adapter = new SensorDataAdapter(context, new ArrayList<>());
+        updates = new SensorData[rows];
+        for (int i = 0; i < rows; i++) {
+            updates[i] = new SensorData("Sensor " + i, i + 1, new float[]{i, i * 0.5f, -i}, 3,
+                    i * 1_000_000L);
+            adapter.updateSensorData(updates[i]);
+        }
+        // Bind the rows a screen would show so updates pay for rebinding
+        ViewGroup parent = new ViewGroup();
+        for (int i = 0; i < Math.min(rows, VISIBLE_ROWS); i++) {
+            adapter.getView(i, null, parent);
+        }
+    }
+
+    /**
+     * Replace the reading of an existing row, cycling through all rows
+     */
+    @Benchmark
+    public void updateExistingRow() {
+        adapter.updateSensorData(updates[next]);
+        next = next + 1 == rows ? 0 : next + 1;
+    }
+
+    /**
+     * Grow the list from empty to the full row count
+     */
+    @Benchmark
+    public int growList() {
+        adapter.clearSensorData();
+        for (int i = 0; i < rows; i++) {
+            adapter.updateSensorData(updates[i]);
+        }
+        return adapter.getCount();
+    }
+}
@@ -0,0 +1,51 @@
+package com.samsung.sensorapp.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks for fixed-point formatting against String.format
+ */
+@State(Scope.Thread)
+public class FixedPointFormatterBenchmark {
+    @Param({"0", "2", "5"})
+    public int precision;
+
+    private final FixedPointFormatter formatter = new FixedPointFormatter();
+    private final StringBuilder builder = new StringBuilder(64);
+    private final char[] buffer = new char[FixedPointFormatter.MAX_LENGTH];
+    private final float[] values = new float[64];
+    private String pattern;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (i - 32) * 0.7853981f + i * 1.0e-3f;
+        }
+        pattern = "%." + precision + "f";
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(pattern, nextValue());
+    }
+
+    @Benchmark
+    public StringBuilder appendToBuilder() {
+        builder.setLength(0);
+        return formatter.append(builder, nextValue(), precision);
+    }
+
+    @Benchmark
+    public int formatToChars() {
+        return formatter.format(nextValue(), precision, buffer, 0);
+    }
+
+    private float nextValue() {
+        return values[index++ & (values.length - 1)];
+    }
+}
@@ -0,0 +1,57 @@
+package com.samsung.sensorapp.util;
+
+import android.hardware.Sensor;
+import android.hardware.SensorEvent;
+
+import com.samsung.sensorapp.model.SensorData;
+import com.samsung.sensorapp.model.SensorDataPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for mapping raw events and describing readings
+ */
+@State(Scope.Thread)
+public class SensorDataMapperBenchmark {
+    // Accelerometer (3 values), light (1 value), rotation vector (5 values)
+    @Param({"1", "5", "11"})
+    public int sensorType;
+
+    private SensorEvent event;
+    private SensorDataPool pool;
+
+    @Setup
+    public void setUp() {
+        int valueCount = sensorType == Sensor.TYPE_LIGHT ? 1 : sensorType == Sensor.TYPE_ROTATION_VECTOR ? 5 : 3;
+        event = new SensorEvent(valueCount);
+        event.sensor = new Sensor(SensorDataMapper.getSensorTypeName(sensorType), sensorType);
+        for (int i = 0; i < valueCount; i++) {
+            event.values[i] = 0.123f * (i + 1);
+        }
+        event.accuracy = 3;
+        event.timestamp = 123_456_789L;
+        pool = new SensorDataPool();
+    }
+
+    @Benchmark
+    public SensorData mapToSensorData() {
+        return SensorDataMapper.mapToSensorData(event);
+    }
+
+    @Benchmark
+    public void mapToSensorDataPooled(Blackhole blackhole) {
+        SensorData sensorData = SensorDataMapper.mapToSensorData(event, pool);
+        blackhole.consume(sensorData.getTimestamp());
+        sensorData.release();
+    }
+
+    @Benchmark
+    public String getSensorDescription() {
+        return SensorDataMapper.getSensorDescription(sensorType, event.values);
+    }
+}
@@ -0,0 +1,10 @@
+package android.content;
+
+/**
+ * JVM shim for android.content.Context
+ */
+public abstract class Context {
+    public static final String SENSOR_SERVICE = "sensor";
+
+    public abstract Object getSystemService(String name);
+}
@@ -0,0 +1,66 @@
+package android.hardware;
+
+/**
+ * JVM shim for android.hardware.Sensor; only the type constants and the
+ * accessors used by the shared sources
+ */
+public class Sensor {
+    public static final int TYPE_ALL = -1;
+    public static final int TYPE_ACCELEROMETER = 1;
+    public static final int TYPE_MAGNETIC_FIELD = 2;
+    public static final int TYPE_ORIENTATION = 3;
+    public static final int TYPE_GYROSCOPE = 4;
+    public static final int TYPE_LIGHT = 5;
+    public static final int TYPE_PRESSURE = 6;
+    public static final int TYPE_TEMPERATURE = 7;
+    public static final int TYPE_PROXIMITY = 8;
+    public static final int TYPE_GRAVITY = 9;
+    public static final int TYPE_LINEAR_ACCELERATION = 10;
+    public static final int TYPE_ROTATION_VECTOR = 11;
+    public static final int TYPE_RELATIVE_HUMIDITY = 12;
+    public static final int TYPE_AMBIENT_TEMPERATURE = 13;
+    public static final int TYPE_MAGNETIC_FIELD_UNCALIBRATED = 14;
+    public static final int TYPE_GAME_ROTATION_VECTOR = 15;
+    public static final int TYPE_GYROSCOPE_UNCALIBRATED = 16;
+    public static final int TYPE_SIGNIFICANT_MOTION = 17;
+    public static final int TYPE_STEP_DETECTOR = 18;
+    public static final int TYPE_STEP_COUNTER = 19;
+    public static final int TYPE_GEOMAGNETIC_ROTATION_VECTOR = 20;
+    public static final int TYPE_HEART_RATE = 21;
+
+    private final String name;
+    private final int type;
+
+    public Sensor(String name, int type) {
+        this.name = name;
+        this.type = type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public int getFifoMaxEventCount() {
+        return 0;
+    }
+
+    public String getStringType() {
+        return "android.sensor." + type;
+    }
+
+    public float getPower() {
+        return 0f;
+    }
+
+    public float getMaximumRange() {
+        return 0f;
+    }
+
+    public String getVendor() {
+        return "JVM";
+    }
+}
@@ -0,0 +1,15 @@
+package android.hardware;
+
+/**
+ * JVM shim for android.hardware.SensorEvent
+ */
+public class SensorEvent {
+    public final float[] values;
+    public Sensor sensor;
+    public int accuracy;
+    public long timestamp;
+
+    public SensorEvent(int valueSize) {
+        values = new float[valueSize];
+    }
+}
@@ -0,0 +1,10 @@
+package android.hardware;
+
+/**
+ * JVM shim for android.hardware.SensorEventListener
+ */
+public interface SensorEventListener {
+    void onSensorChanged(SensorEvent event);
+
+    void onAccuracyChanged(Sensor sensor, int accuracy);
+}
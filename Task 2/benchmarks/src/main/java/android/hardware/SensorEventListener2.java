@@ -0,0 +1,8 @@
+package android.hardware;
+
+/**
+ * JVM shim for android.hardware.SensorEventListener2
+ */
+public interface SensorEventListener2 extends SensorEventListener {
+    void onFlushCompleted(Sensor sensor);
+}
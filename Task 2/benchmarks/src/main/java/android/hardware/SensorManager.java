@@ -0,0 +1,52 @@
+package android.hardware;
+
+import android.os.Handler;
+
+import java.util.List;
+
+/**
+ * JVM shim for android.hardware.SensorManager
+ * Benchmarks use ReplaySensorEventSource instead of a platform manager.
+ */
+public abstract class SensorManager {
+    public static final int SENSOR_DELAY_FASTEST = 0;
+    public static final int SENSOR_DELAY_GAME = 1;
+    public static final int SENSOR_DELAY_UI = 2;
+    public static final int SENSOR_DELAY_NORMAL = 3;
+
+    public static final int SENSOR_STATUS_NO_CONTACT = -1;
+    public static final int SENSOR_STATUS_UNRELIABLE = 0;
+    public static final int SENSOR_STATUS_ACCURACY_LOW = 1;
+    public static final int SENSOR_STATUS_ACCURACY_MEDIUM = 2;
+    public static final int SENSOR_STATUS_ACCURACY_HIGH = 3;
+
+    public abstract Sensor getDefaultSensor(int type);
+
+    public abstract List<Sensor> getSensorList(int type);
+
+    public abstract boolean registerListener(SensorEventListener listener, Sensor sensor, int samplingPeriodUs);
+
+    public abstract boolean registerListener(SensorEventListener listener, Sensor sensor, int samplingPeriodUs,
+                                             int maxReportLatencyUs);
+
+    public abstract boolean registerListener(SensorEventListener listener, Sensor sensor, int samplingPeriodUs,
+                                             int maxReportLatencyUs, Handler handler);
+
+    public abstract void unregisterListener(SensorEventListener listener);
+
+    public abstract boolean flush(SensorEventListener listener);
+
+    public void registerDynamicSensorCallback(DynamicSensorCallback callback) {
+    }
+
+    public void unregisterDynamicSensorCallback(DynamicSensorCallback callback) {
+    }
+
+    public abstract static class DynamicSensorCallback {
+        public void onDynamicSensorConnected(Sensor sensor) {
+        }
+
+        public void onDynamicSensorDisconnected(Sensor sensor) {
+        }
+    }
+}
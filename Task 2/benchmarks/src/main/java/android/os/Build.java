@@ -0,0 +1,23 @@
+package android.os;
+
+/**
+ * JVM shim for android.os.Build; reports API level 0 so platform-only paths are skipped
+ */
+public final class Build {
+    private Build() {
+    }
+
+    public static final class VERSION {
+        public static final int SDK_INT = 0;
+
+        private VERSION() {
+        }
+    }
+
+    public static final class VERSION_CODES {
+        public static final int N = 24;
+
+        private VERSION_CODES() {
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * JVM shim for android.os.Handler
+ */
+public class Handler {
+    private final Looper looper;
+
+    public Handler(Looper looper) {
+        this.looper = looper;
+    }
+
+    public final Looper getLooper() {
+        return looper;
+    }
+}
@@ -0,0 +1,21 @@
+package android.os;
+
+/**
+ * JVM shim for android.os.HandlerThread
+ * There is no looper on the JVM; benchmarks must use DispatchMode.MAIN_LOOPER.
+ */
+public class HandlerThread extends Thread {
+
+    public HandlerThread(String name, int priority) {
+        super(name);
+        throw new UnsupportedOperationException("HandlerThread is not available on the JVM");
+    }
+
+    public Looper getLooper() {
+        return null;
+    }
+
+    public boolean quitSafely() {
+        return false;
+    }
+}
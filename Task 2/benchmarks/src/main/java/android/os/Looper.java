@@ -0,0 +1,9 @@
+package android.os;
+
+/**
+ * JVM shim for android.os.Looper
+ */
+public final class Looper {
+    private Looper() {
+    }
+}
@@ -0,0 +1,8 @@
+package android.os;
+
+/**
+ * JVM shim for android.os.Process
+ */
+public class Process {
+    public static final int THREAD_PRIORITY_DISPLAY = -4;
+}
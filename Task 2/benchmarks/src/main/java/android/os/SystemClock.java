@@ -0,0 +1,17 @@
+package android.os;
+
+/**
+ * JVM shim for android.os.SystemClock backed by System.nanoTime()
+ */
+public final class SystemClock {
+    private SystemClock() {
+    }
+
+    public static long elapsedRealtimeNanos() {
+        return System.nanoTime();
+    }
+
+    public static long elapsedRealtime() {
+        return System.nanoTime() / 1_000_000L;
+    }
+}
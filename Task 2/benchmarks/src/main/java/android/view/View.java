@@ -0,0 +1,30 @@
+package android.view;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JVM shim for android.view.View; child views are created on first lookup
+ */
+public class View {
+    private final Map<Integer, View> children = new HashMap<>();
+    private Object tag;
+
+    @SuppressWarnings("unchecked")
+    public <T extends View> T findViewById(int id) {
+        View child = children.get(id);
+        if (child == null) {
+            child = new android.widget.TextView();
+            children.put(id, child);
+        }
+        return (T) child;
+    }
+
+    public Object getTag() {
+        return tag;
+    }
+
+    public void setTag(Object tag) {
+        this.tag = tag;
+    }
+}
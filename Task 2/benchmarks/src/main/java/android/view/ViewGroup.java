@@ -0,0 +1,7 @@
+package android.view;
+
+/**
+ * JVM shim for android.view.ViewGroup
+ */
+public class ViewGroup extends View {
+}
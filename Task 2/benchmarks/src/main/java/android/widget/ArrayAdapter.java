@@ -0,0 +1,39 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.List;
+
+/**
+ * JVM shim for android.widget.ArrayAdapter backed directly by the given list
+ */
+public class ArrayAdapter<T> {
+    private final Context context;
+    private final List<T> objects;
+
+    public ArrayAdapter(Context context, int resource, List<T> objects) {
+        this.context = context;
+        this.objects = objects;
+    }
+
+    public Context getContext() {
+        return context;
+    }
+
+    public int getCount() {
+        return objects.size();
+    }
+
+    public T getItem(int position) {
+        return objects.get(position);
+    }
+
+    public View getView(int position, View convertView, ViewGroup parent) {
+        return convertView;
+    }
+
+    public void notifyDataSetChanged() {
+    }
+}
@@ -0,0 +1,29 @@
+package android.widget;
+
+import android.view.View;
+
+/**
+ * JVM shim for android.widget.TextView
+ * Like the platform, setText(char[], int, int) keeps a reference to the array.
+ */
+public class TextView extends View {
+    private CharSequence text = "";
+    private char[] chars;
+    private int start;
+    private int length;
+
+    public void setText(CharSequence text) {
+        this.text = text;
+        this.chars = null;
+    }
+
+    public void setText(char[] text, int start, int len) {
+        this.chars = text;
+        this.start = start;
+        this.length = len;
+    }
+
+    public CharSequence getText() {
+        return chars != null ? new String(chars, start, length) : text;
+    }
+}
@@ -0,0 +1,20 @@
+package com.samsung.sensorapp;
+
+/**
+ * JVM stand-in for the generated resource class; ids only need to be distinct
+ */
+public final class R {
+    private R() {
+    }
+
+    public static final class layout {
+        public static final int item_sensor_data = 1;
+    }
+
+    public static final class id {
+        public static final int sensor_name_value = 101;
+        public static final int sensor_data_value = 102;
+        public static final int accuracy_label = 103;
+        public static final int timestamp_label = 104;
+    }
+}